@@ -35,6 +35,8 @@ import java.util.concurrent.TimeUnit;
  *
  * @see #withTimeToLive(long, java.util.concurrent.TimeUnit)
  * @see #withTimeToIdle(long, java.util.concurrent.TimeUnit)
+ * @see #withMaxEntries(long)
+ * @see #withMaxWeight(long)
  * @see Caches#forResource(Class)
  * @see Caches#named(String)
  * @since 0.8
@@ -85,4 +87,42 @@ public interface CacheConfigurationBuilder {
      */
     CacheConfigurationBuilder withTimeToIdle(long tti, TimeUnit ttiTimeUnit);
 
+    /**
+     * Sets the maximum number of entries the associated {@code Cache} region may retain.
+     * <p/>
+     * When a region exceeds this size, entries that are unlikely to be used again (based on how recently and how
+     * frequently they have been accessed) are evicted.  Bounding a region keeps memory usage predictable, instead of
+     * relying on garbage collection pressure to reclaim cache entries.
+     * <p/>
+     * If this value is not configured (or is less than or equal to zero), the region's size is not bounded and entries
+     * are only expunged due to memory constraints, Time to Live or Time to Idle settings.
+     * <h3>Usage</h3>
+     * <pre>
+     *     ...withMaxEntries(10000)...
+     * </pre>
+     *
+     * @param maxEntries the maximum number of entries the region may retain
+     * @return this instance for method chaining.
+     * @since 1.0.RC7.7
+     */
+    CacheConfigurationBuilder withMaxEntries(long maxEntries);
+
+    /**
+     * Sets the maximum total weight of entries the associated {@code Cache} region may retain.
+     * <p/>
+     * This is similar to {@link #withMaxEntries(long) maxEntries}, but each entry is weighed according to its size
+     * rather than counting as one: for the default {@code CacheManager}, a cached resource weighs {@code 1} plus its
+     * number of properties.  This is useful for regions whose entries vary greatly in size.  If both
+     * {@code maxWeight} and {@code maxEntries} are configured, {@code maxWeight} takes precedence.
+     * <h3>Usage</h3>
+     * <pre>
+     *     ...withMaxWeight(250000)...
+     * </pre>
+     *
+     * @param maxWeight the maximum total weight of entries the region may retain
+     * @return this instance for method chaining.
+     * @since 1.0.RC7.7
+     */
+    CacheConfigurationBuilder withMaxWeight(long maxWeight);
+
 }
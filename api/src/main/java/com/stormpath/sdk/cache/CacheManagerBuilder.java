@@ -104,6 +104,44 @@ public interface CacheManagerBuilder {
      */
     CacheManagerBuilder withDefaultTimeToIdle(long tti, TimeUnit timeUnit);
 
+    /**
+     * Sets the default maximum number of entries for all cache regions managed by the {@link #build() built}
+     * {@code CacheManager}. You may override this default for individual cache regions by using the
+     * {@link #withCache(CacheConfigurationBuilder) withCache} for each region you wish to configure.
+     * <p/>
+     * When a region exceeds this size, entries that are unlikely to be used again (based on how recently and how
+     * frequently they have been accessed) are evicted.
+     * <p/>
+     * If this value is not configured, regions are not bounded by size and entries are only expunged due to memory
+     * constraints, Time to Live or Time to Idle settings.
+     * <h3>Usage</h3>
+     * <pre>
+     *     ...withDefaultMaxEntries(10000)...
+     * </pre>
+     *
+     * @param maxEntries the default maximum number of entries a cache region may retain
+     * @return the builder instance for method chaining.
+     * @see CacheConfigurationBuilder#withMaxEntries(long)
+     * @since 1.0.RC7.7
+     */
+    CacheManagerBuilder withDefaultMaxEntries(long maxEntries);
+
+    /**
+     * Sets the default maximum total weight of entries for all cache regions managed by the {@link #build() built}
+     * {@code CacheManager}. You may override this default for individual cache regions by using the
+     * {@link #withCache(CacheConfigurationBuilder) withCache} for each region you wish to configure.
+     * <h3>Usage</h3>
+     * <pre>
+     *     ...withDefaultMaxWeight(250000)...
+     * </pre>
+     *
+     * @param maxWeight the default maximum total weight of entries a cache region may retain
+     * @return the builder instance for method chaining.
+     * @see CacheConfigurationBuilder#withMaxWeight(long)
+     * @since 1.0.RC7.7
+     */
+    CacheManagerBuilder withDefaultMaxWeight(long maxWeight);
+
     /**
      * Adds configuration settings for a specific Cache region managed by the {@link #build() built}
      * {@code CacheManager}, like the region's Time to Live and Time to Idle.
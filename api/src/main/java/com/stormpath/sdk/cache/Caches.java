@@ -53,6 +53,14 @@ import com.stormpath.sdk.resource.Resource;
  * <p><em>The above TTL and TTI times are just examples showing API usage - the times themselves are not
  * recommendations.  Choose TTL and TTI times based on your application requirements.</em></p>
  *
+ * <h3>Collection Caching</h3>
+ *
+ * <p>Collection pages (e.g. the result of {@code application.getAccounts(criteria)}) are not cached by default.  Caching
+ * is enabled for a collection type by configuring a cache region for it, for example
+ * {@code .withCache(forResource(AccountList.class).withTimeToLive(5, TimeUnit.MINUTES))}.  Cached pages are invalidated
+ * when this SDK instance creates, updates or deletes resources they depend on; changes made elsewhere (by other
+ * JVMs, the Stormpath Admin Console, etc) are only seen once the page expires, so choose a short TTL.</p>
+ *
  * @since 0.8
  */
 public class Caches {
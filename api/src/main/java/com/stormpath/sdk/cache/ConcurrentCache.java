@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@link Cache} that additionally supports atomic conditional operations and bulk operations.
+ * <p/>
+ * The conditional operations allow callers to avoid check-then-act races (for example, a {@link #get(Object) get}
+ * followed by a {@link #put(Object, Object) put} when a value must only be stored once), and the bulk operations
+ * allow implementations backed by a remote cache to satisfy many keys in a single round trip.
+ * <p/>
+ * Implementing this interface is optional: {@code Cache} implementations that do not implement it remain fully
+ * supported by the SDK, which then falls back to the equivalent (non-atomic) sequence of {@code Cache} operations.
+ *
+ * @param <K> cache key type
+ * @param <V> cache value type
+ * @since 1.0.RC7.7
+ */
+public interface ConcurrentCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Adds a cache entry only if there is currently no entry for the specified {@code key}, as a single atomic
+     * operation.
+     *
+     * @param key   the key used to identify the object being stored.
+     * @param value the value to be stored in the cache.
+     * @return the value currently associated with the given {@code key}, or {@code null} if there was none and the
+     *         specified {@code value} was stored.
+     */
+    V putIfAbsent(K key, V value);
+
+    /**
+     * Replaces the cache entry for the specified {@code key} only if it is currently associated with
+     * {@code oldValue}, as a single atomic operation.
+     *
+     * @param key      the key used to identify the object being stored.
+     * @param oldValue the value expected to be currently associated with the {@code key}
+     * @param newValue the value to be stored in the cache.
+     * @return {@code true} if the value was replaced, {@code false} otherwise.
+     */
+    boolean replace(K key, V oldValue, V newValue);
+
+    /**
+     * Returns the cached values stored under the specified {@code keys}.  Keys without a cache entry are not present
+     * in the returned map.
+     *
+     * @param keys the keys that the values were previously added with
+     * @return the cached values by key, never {@code null}.
+     */
+    Map<K, V> getAll(Collection<? extends K> keys);
+
+    /**
+     * Adds all of the specified entries to the cache.
+     *
+     * @param entries the entries to be stored in the cache.
+     */
+    void putAll(Map<? extends K, ? extends V> entries);
+
+    /**
+     * Removes the cached values stored under the specified {@code keys}.
+     *
+     * @param keys the keys used to identify the objects being stored.
+     */
+    void removeAll(Collection<? extends K> keys);
+}
@@ -97,10 +97,14 @@ public interface Client extends DataStore, TenantActions {
      * @since 1.0.RC4.6
      */
     Tenant getCurrentTenant(TenantOptions tenantOptions);
-}
-
-
-
-
-
 
+    /**
+     * Returns a snapshot of the usage of the pool of HTTP connections this client uses to communicate with the
+     * Stormpath API server, or {@code null} if the client's HTTP implementation does not pool connections.
+     *
+     * @return a snapshot of the client's HTTP connection pool usage, or {@code null} if connections are not pooled.
+     * @see ClientBuilder#setConnectionPoolConfig(ConnectionPoolConfig)
+     * @since 1.0.RC7.7
+     */
+    ConnectionPoolStats getConnectionPoolStats();
+}
@@ -336,6 +336,29 @@ public interface ClientBuilder {
      */
     ClientBuilder setConnectionTimeout(int timeout);
 
+    /**
+     * Sets the configuration of the pool of persistent HTTP connections used to communicate with the Stormpath API
+     * server, for example:
+     *
+     * <pre>
+     * Client client = Clients.builder()...
+     *    .setConnectionPoolConfig(new ConnectionPoolConfig()
+     *        .setMaxConnectionsTotal(100)
+     *        .setMaxConnectionsPerRoute(100)
+     *        .setLeaseTimeout(10, TimeUnit.SECONDS))
+     *    .build();
+     * </pre>
+     *
+     * <p>When configured, connections are also evicted after being idle or exceeding their time-to-live, as specified
+     * by the {@link ConnectionPoolConfig}.  If not configured, a pool of 20 connections (10 per host) is used.  Pool
+     * usage can be monitored via {@link Client#getConnectionPoolStats()}.</p>
+     *
+     * @param connectionPoolConfig the connection pool configuration
+     * @return the ClientBuilder instance for method chaining
+     * @since 1.0.RC7.7
+     */
+    ClientBuilder setConnectionPoolConfig(ConnectionPoolConfig connectionPoolConfig);
+
     /**
      * Sets the base URL of the Stormpath REST API to use.  If unspecified, this value defaults to
      * {@code https://api.stormpath.com/v1} - the most common use case for Stormpath's public SaaS cloud.
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.client;
+
+import com.stormpath.sdk.lang.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of the pool of persistent HTTP connections a {@link Client} uses to communicate with the Stormpath API
+ * server.  For example:
+ *
+ * <pre>
+ * Client client = {@link Clients Clients}.builder()
+ *     .setConnectionPoolConfig(new ConnectionPoolConfig()
+ *         .setMaxConnectionsTotal(100)
+ *         .setMaxConnectionsPerRoute(100)
+ *         .setConnectionTimeToLive(5, TimeUnit.MINUTES)
+ *         .setLeaseTimeout(10, TimeUnit.SECONDS))
+ *     .build();
+ * </pre>
+ *
+ * <p>Most applications communicate with a single API host, so the per-route limit is usually the effective limit and
+ * should be raised together with the total.</p>
+ *
+ * @see ClientBuilder#setConnectionPoolConfig(ConnectionPoolConfig)
+ * @see Client#getConnectionPoolStats()
+ * @since 1.0.RC7.7
+ */
+public class ConnectionPoolConfig {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS = 30 * 1000;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 30 * 1000;
+
+    private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private long connectionTimeToLiveMillis = -1;
+    private long idleConnectionTimeoutMillis = DEFAULT_IDLE_CONNECTION_TIMEOUT_MILLIS;
+    private long leaseTimeoutMillis = -1;
+    private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    /**
+     * Sets the maximum number of connections in the pool, across all routes.  Defaults to {@code 20}.
+     *
+     * @param maxConnectionsTotal the maximum number of connections in the pool
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setMaxConnectionsTotal(int maxConnectionsTotal) {
+        Assert.isTrue(maxConnectionsTotal > 0, "maxConnectionsTotal must be greater than zero.");
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        return this;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of connections to a single host.  Defaults to {@code 10}.
+     *
+     * @param maxConnectionsPerRoute the maximum number of connections to a single host
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        Assert.isTrue(maxConnectionsPerRoute > 0, "maxConnectionsPerRoute must be greater than zero.");
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Returns the maximum lifetime of a connection in milliseconds, or a value less than or equal to zero if
+     * connections may live indefinitely.
+     *
+     * @return the maximum lifetime of a connection in milliseconds.
+     */
+    public long getConnectionTimeToLiveMillis() {
+        return connectionTimeToLiveMillis;
+    }
+
+    /**
+     * Sets the maximum lifetime of a connection, after which it is closed instead of being reused, regardless of
+     * activity.  This ensures connections are periodically re-established, for example to follow DNS changes.  A value
+     * less than or equal to zero (the default) means connections may live indefinitely.
+     *
+     * @param ttl  the maximum lifetime of a connection
+     * @param unit the unit of the {@code ttl} argument
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setConnectionTimeToLive(long ttl, TimeUnit unit) {
+        this.connectionTimeToLiveMillis = toMillis(ttl, unit);
+        return this;
+    }
+
+    /**
+     * Returns how long a connection may remain idle in the pool before being closed, in milliseconds, or a value less
+     * than or equal to zero if idle connections are never evicted.
+     *
+     * @return how long a connection may remain idle in the pool before being closed, in milliseconds.
+     */
+    public long getIdleConnectionTimeoutMillis() {
+        return idleConnectionTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a connection may remain idle in the pool before it is closed by a background evictor.  Evicting
+     * idle connections avoids reusing connections the server or an intermediary has already dropped.  Defaults to 30
+     * seconds; a value less than or equal to zero disables eviction.
+     *
+     * @param timeout how long a connection may remain idle
+     * @param unit    the unit of the {@code timeout} argument
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setIdleConnectionTimeout(long timeout, TimeUnit unit) {
+        this.idleConnectionTimeoutMillis = toMillis(timeout, unit);
+        return this;
+    }
+
+    /**
+     * Returns how long a request waits for a pooled connection, in milliseconds, or a value less than or equal to zero
+     * if requests wait indefinitely.
+     *
+     * @return how long a request waits for a pooled connection, in milliseconds.
+     */
+    public long getLeaseTimeoutMillis() {
+        return leaseTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a request waits for a connection when all pooled connections are in use, before failing.  A value
+     * less than or equal to zero (the default) means requests wait indefinitely.
+     *
+     * @param timeout how long a request waits for a pooled connection
+     * @param unit    the unit of the {@code timeout} argument
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setLeaseTimeout(long timeout, TimeUnit unit) {
+        this.leaseTimeoutMillis = toMillis(timeout, unit);
+        return this;
+    }
+
+    /**
+     * Returns how long a connection is kept alive for reuse when the server does not specify it, in milliseconds.
+     *
+     * @return how long a connection is kept alive for reuse when the server does not specify it, in milliseconds.
+     */
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    /**
+     * Sets how long a connection is kept alive for reuse when the server's response does not include a
+     * {@code Keep-Alive} timeout.  Defaults to 30 seconds; a value less than or equal to zero keeps such connections
+     * alive indefinitely.
+     *
+     * @param keepAlive how long a connection is kept alive for reuse
+     * @param unit      the unit of the {@code keepAlive} argument
+     * @return this instance for method chaining.
+     */
+    public ConnectionPoolConfig setKeepAlive(long keepAlive, TimeUnit unit) {
+        this.keepAliveMillis = toMillis(keepAlive, unit);
+        return this;
+    }
+
+    private static long toMillis(long duration, TimeUnit unit) {
+        Assert.notNull(unit, "TimeUnit argument cannot be null.");
+        return unit.toMillis(duration);
+    }
+
+    @Override
+    public String toString() {
+        return "maxConnectionsTotal=" + maxConnectionsTotal +
+               ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+               ", connectionTimeToLiveMillis=" + connectionTimeToLiveMillis +
+               ", idleConnectionTimeoutMillis=" + idleConnectionTimeoutMillis +
+               ", leaseTimeoutMillis=" + leaseTimeoutMillis +
+               ", keepAliveMillis=" + keepAliveMillis;
+    }
+}
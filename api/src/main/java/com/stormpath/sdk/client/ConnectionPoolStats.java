@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.client;
+
+/**
+ * A snapshot of the usage of the pool of HTTP connections a {@link Client} uses to communicate with the Stormpath API
+ * server.  Consistently having {@link #getPending() pending} requests while {@link #getLeased() leased} equals
+ * {@link #getMax() max} indicates the pool is too small for the application's load.
+ *
+ * @see Client#getConnectionPoolStats()
+ * @see ConnectionPoolConfig
+ * @since 1.0.RC7.7
+ */
+public interface ConnectionPoolStats {
+
+    /**
+     * Returns the number of connections currently in use by executing requests.
+     *
+     * @return the number of connections currently in use by executing requests.
+     */
+    int getLeased();
+
+    /**
+     * Returns the number of idle connections kept alive in the pool, ready to be reused.
+     *
+     * @return the number of idle connections kept alive in the pool, ready to be reused.
+     */
+    int getAvailable();
+
+    /**
+     * Returns the number of requests waiting for a connection to become available.
+     *
+     * @return the number of requests waiting for a connection to become available.
+     */
+    int getPending();
+
+    /**
+     * Returns the maximum number of connections the pool may hold.
+     *
+     * @return the maximum number of connections the pool may hold.
+     */
+    int getMax();
+}
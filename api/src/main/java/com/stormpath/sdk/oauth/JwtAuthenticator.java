@@ -15,6 +15,8 @@
 */
 package com.stormpath.sdk.oauth;
 
+import com.stormpath.sdk.lang.Duration;
+
 /**
  * This class is used to authenticate a Json Web Token against Stormpath. For example:
  * <pre>
@@ -70,4 +72,32 @@ public interface JwtAuthenticator extends Oauth2Authenticator<JwtAuthenticationR
      */
     JwtAuthenticator withLocalValidation();
 
+    /**
+     * Flags the authenticator to carry out a hybrid validation: the token is validated locally as with
+     * {@link #withLocalValidation()}, and is additionally rejected if it has been revoked (deleted) or if its account
+     * is not enabled.
+     * <p>To do so, the authenticator retains the ids of the access tokens currently held by each account it
+     * authenticates, as obtained from the account's {@code accessTokens} collection, and fetches them again once they
+     * are older than the {@link #withMaxStaleness(Duration) maximum staleness} (one minute by default).  A token issued
+     * after the ids were fetched is validated against Stormpath once instead.  This means a revoked token or a disabled
+     * account is detected within the maximum staleness, while most validations don't involve any network traffic.</p>
+     *
+     * @return This instance for method chaining.
+     * @since 1.0.RC7.7
+     */
+    JwtAuthenticator withHybridValidation();
+
+    /**
+     * Sets how long the result of validating a token with Stormpath may be reused to authenticate the very same token
+     * again, without validating it with Stormpath anew.  A result is never reused once the token has expired.
+     * <p>By default, the results of validating tokens with Stormpath are not reused, and a
+     * {@link #withHybridValidation() hybrid validation} uses a maximum staleness of one minute.  A local validation
+     * is not affected by this setting.</p>
+     *
+     * @param maxStaleness the maximum amount of time the result of validating a token with Stormpath may be reused
+     * @return This instance for method chaining.
+     * @since 1.0.RC7.7
+     */
+    JwtAuthenticator withMaxStaleness(Duration maxStaleness);
+
 }
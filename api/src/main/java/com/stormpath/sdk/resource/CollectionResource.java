@@ -15,6 +15,8 @@
  */
 package com.stormpath.sdk.resource;
 
+import java.util.Iterator;
+
 /**
  * A {@code CollectionResource} is a first-class {@link Resource} that has its own properties (such as
  * {@link #getOffset() offset} and {@link #getLimit() limit}, but also contains other {@link Resource} instances.
@@ -73,4 +75,25 @@ public interface CollectionResource<T extends Resource> extends Resource, Iterab
      */
     public T single();
 
+    /**
+     * Returns an iterator over all the resources in this collection that retrieves the collection in pages of
+     * {@code pageSize} resources and, while the caller consumes the current page, already requests up to
+     * {@code lookAhead} following pages in the background.
+     * <p>This is useful when iterating over large collections: instead of paying a full server round trip every
+     * {@code pageSize} resources, the latency of subsequent pages overlaps with the processing of the current one.
+     * Resources are still returned in collection order, and no more than {@code lookAhead} pages are ever buffered
+     * (or in flight) beyond the page being consumed.</p>
+     * <p>The server may apply a lower page size than requested (the maximum {@link #getLimit() limit} is {@code 100});
+     * pages are then requested with the limit actually applied by the server.  A {@code lookAhead} of {@code 0}
+     * disables prefetching, requesting each page only once the previous one has been consumed - the same as
+     * {@link #iterator()} does.</p>
+     *
+     * @param pageSize  the number of resources to request per page. Min: 1, Max: 100.
+     * @param lookAhead the maximum number of pages to request ahead of the page being consumed.
+     * @return an iterator over all the resources in this collection that prefetches subsequent pages.
+     * @throws IllegalArgumentException if {@code pageSize} is less than {@code 1} or {@code lookAhead} is negative.
+     * @since 1.0.RC7.7
+     */
+    public Iterator<T> prefetchingIterator(int pageSize, int lookAhead);
+
 }
@@ -15,23 +15,45 @@
  */
 package com.stormpath.sdk.hazelcast;
 
-import com.stormpath.sdk.cache.Cache;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import com.hazelcast.core.IMap;
+import com.stormpath.sdk.cache.ConcurrentCache;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
 import com.stormpath.sdk.lang.Assert;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * A simple {@code Cache} implementation that merely wraps a {@link ConcurrentMap} obtained from a
  * {@link com.hazelcast.core.HazelcastInstance HazelcastInstance}.  The backing Hazelcast-based map is used for all
  * caching operations.
+ * <h3>Near Cache</h3>
+ * When created with a {@link #HazelcastCache(IMap, int, long) near cache}, values read from the Hazelcast map are
+ * also retained locally, so repeated reads of the same entry do not require a round trip to the cluster.  A local
+ * entry is discarded as soon as the Hazelcast map notifies that the entry was added, updated, removed or evicted
+ * anywhere in the cluster, and at the latest once the near cache time to live has elapsed, which bounds staleness
+ * should notifications be lost (for example while a Hazelcast client reconnects).
+ * <h3>Atomic and Bulk Operations</h3>
+ * {@link #putIfAbsent(Object, Object) putIfAbsent} and {@link #replace(Object, Object, Object) replace} are performed
+ * atomically by the Hazelcast cluster, and, when the backing map is an {@link IMap},
+ * {@link #getAll(Collection) getAll} and {@link #putAll(Map) putAll} read or write all entries in a single call.
  *
  * @param <K> cache key type
  * @param <V> cache value type
  */
-public class HazelcastCache<K, V> implements Cache<K, V> {
+public class HazelcastCache<K, V> implements ConcurrentCache<K, V> {
 
     private final ConcurrentMap<K, V> HAZELCAST_MAP;
 
+    //since 1.0.RC7.7
+    private final BoundedConcurrentMap<K, Object> nearCache;
+    private final long nearCacheTtlMillis;
+    private final String listenerId;
+
     /**
      * Creates a new instance, delegating all caching operations to the specified {@code hazelcastMap}.
      *
@@ -40,20 +62,272 @@ public class HazelcastCache<K, V> implements Cache<K, V> {
     public HazelcastCache(ConcurrentMap<K, V> hazelcastMap) {
         Assert.notNull(hazelcastMap, "hazelcastMap argument cannot be null.");
         this.HAZELCAST_MAP = hazelcastMap;
+        this.nearCache = null;
+        this.nearCacheTtlMillis = 0;
+        this.listenerId = null;
+    }
+
+    /**
+     * Creates a new instance delegating all caching operations to the specified {@code hazelcastMap}, and retaining
+     * up to {@code nearCacheMaxEntries} of the values read for at most {@code nearCacheTtlMillis} locally.
+     *
+     * @param hazelcastMap        the backing map instance that will be used to satisfy caching operations.
+     * @param nearCacheMaxEntries the maximum number of values retained locally
+     * @param nearCacheTtlMillis  the maximum time in milliseconds a value is retained locally
+     * @since 1.0.RC7.7
+     */
+    public HazelcastCache(IMap<K, V> hazelcastMap, int nearCacheMaxEntries, long nearCacheTtlMillis) {
+        Assert.notNull(hazelcastMap, "hazelcastMap argument cannot be null.");
+        Assert.isTrue(nearCacheMaxEntries > 0, "nearCacheMaxEntries must be greater than zero.");
+        Assert.isTrue(nearCacheTtlMillis > 0, "nearCacheTtlMillis must be greater than zero.");
+        this.HAZELCAST_MAP = hazelcastMap;
+        this.nearCacheTtlMillis = nearCacheTtlMillis;
+        this.nearCache = new BoundedConcurrentMap<K, Object>(nearCacheMaxEntries);
+        this.nearCache.setExpiry(new BoundedConcurrentMap.Expiry<K, Object>() {
+            @Override
+            public boolean isExpired(K key, Object value, long nowMillis) {
+                return value instanceof NearCacheEntry && nowMillis >= ((NearCacheEntry) value).expiresAt;
+            }
+        });
+        this.listenerId = hazelcastMap.addEntryListener(new InvalidationListener(), false);
+    }
+
+    /**
+     * Returns {@code true} if values are also retained locally, {@code false} otherwise.
+     *
+     * @return {@code true} if values are also retained locally, {@code false} otherwise.
+     * @since 1.0.RC7.7
+     */
+    public boolean isNearCacheEnabled() {
+        return nearCache != null;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V get(K key) {
-        return HAZELCAST_MAP.get(key);
+        if (nearCache == null) {
+            return HAZELCAST_MAP.get(key);
+        }
+
+        V local = getLocal(key);
+        if (local != null) {
+            return local;
+        }
+
+        //reserve the key: an invalidation received while the value is read removes the reservation, so a value that
+        //was already stale when it arrived is never retained
+        Object reservation = new Object();
+        nearCache.put(key, reservation);
+
+        V value = HAZELCAST_MAP.get(key);
+
+        retainLocal(key, reservation, value);
+
+        return value;
+    }
+
+    /**
+     * Reads the values not retained locally from the backing map in a single call if it is an {@link IMap}.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> values = new LinkedHashMap<K, V>(keys.size());
+        Map<K, Object> reservations = new LinkedHashMap<K, Object>(keys.size());
+
+        for (K key : keys) {
+            V local = nearCache != null ? getLocal(key) : null;
+            if (local != null) {
+                values.put(key, local);
+            } else if (!reservations.containsKey(key)) {
+                Object reservation = new Object();
+                if (nearCache != null) {
+                    nearCache.put(key, reservation);
+                }
+                reservations.put(key, reservation);
+            }
+        }
+
+        if (reservations.isEmpty()) {
+            return values;
+        }
+
+        Map<K, V> found;
+        if (HAZELCAST_MAP instanceof IMap) {
+            found = ((IMap<K, V>) HAZELCAST_MAP).getAll(reservations.keySet());
+        } else {
+            found = new LinkedHashMap<K, V>(reservations.size());
+            for (K key : reservations.keySet()) {
+                found.put(key, HAZELCAST_MAP.get(key));
+            }
+        }
+
+        for (Map.Entry<K, Object> reservation : reservations.entrySet()) {
+            K key = reservation.getKey();
+            V value = found.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+            if (nearCache != null) {
+                retainLocal(key, reservation.getValue(), value);
+            }
+        }
+
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V getLocal(K key) {
+        Object local = nearCache.get(key);
+        if (local instanceof NearCacheEntry) {
+            NearCacheEntry entry = (NearCacheEntry) local;
+            if (System.currentTimeMillis() < entry.expiresAt) {
+                return (V) entry.value;
+            }
+            nearCache.remove(key, entry);
+        }
+        return null;
+    }
+
+    private void retainLocal(K key, Object reservation, V value) {
+        if (value != null) {
+            NearCacheEntry entry = new NearCacheEntry(value, System.currentTimeMillis() + nearCacheTtlMillis);
+            nearCache.replace(key, reservation, entry);
+        } else {
+            nearCache.remove(key, reservation);
+        }
     }
 
     @Override
     public V put(K key, V value) {
-        return HAZELCAST_MAP.put(key, value);
+        try {
+            return HAZELCAST_MAP.put(key, value);
+        } finally {
+            invalidate(key);
+        }
     }
 
     @Override
     public V remove(K key) {
-        return HAZELCAST_MAP.remove(key);
+        try {
+            return HAZELCAST_MAP.remove(key);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        try {
+            return HAZELCAST_MAP.putIfAbsent(key, value);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        try {
+            return HAZELCAST_MAP.replace(key, oldValue, newValue);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        try {
+            HAZELCAST_MAP.putAll(entries);
+        } finally {
+            for (K key : entries.keySet()) {
+                invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified entries without returning their previous values to avoid needlessly transferring them
+     * when the backing map is an {@link IMap}.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void removeAll(Collection<? extends K> keys) {
+        for (K key : keys) {
+            try {
+                if (HAZELCAST_MAP instanceof IMap) {
+                    ((IMap<K, V>) HAZELCAST_MAP).delete(key);
+                } else {
+                    HAZELCAST_MAP.remove(key);
+                }
+            } finally {
+                invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Stops listening to the backing Hazelcast map and discards all locally retained values.  This cache must not be
+     * used afterwards.
+     *
+     * @since 1.0.RC7.7
+     */
+    public void destroy() {
+        if (nearCache != null) {
+            ((IMap) HAZELCAST_MAP).removeEntryListener(listenerId);
+            nearCache.clear();
+        }
+    }
+
+    private void invalidate(Object key) {
+        if (nearCache != null) {
+            nearCache.remove(key);
+        }
+    }
+
+    private static final class NearCacheEntry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        private NearCacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private class InvalidationListener implements EntryListener<K, V> {
+
+        @Override
+        public void entryAdded(EntryEvent<K, V> event) {
+            invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<K, V> event) {
+            invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<K, V> event) {
+            invalidate(event.getKey());
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<K, V> event) {
+            invalidate(event.getKey());
+        }
     }
 }
@@ -15,12 +15,21 @@
  */
 package com.stormpath.sdk.hazelcast;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.cache.CacheManager;
+import com.stormpath.sdk.impl.cache.CacheConfiguration;
 import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.lang.Duration;
 
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A {@code CacheManager} implementation that manages and returns {@link Cache} instances backed by
@@ -79,12 +88,51 @@ import java.util.concurrent.ConcurrentMap;
  * Client stormpathClient = {@link com.stormpath.sdk.client.Clients Clients}.builder()<b>.setCacheManager(cacheManager)</b>.build();
  * </pre>
  *
+ * <h3>Region Configuration</h3>
+ *
+ * <p>Time-To-Live, Time-To-Idle and maximum number of entries can be specified per cache region with the SDK's
+ * {@link #setCacheConfigurations(Collection) cache configurations} and applied to a Hazelcast {@code Config}, along
+ * with the compact {@link ResourceDataSerializer}, before the {@code HazelcastInstance} is created:</p>
+ *
+ * <pre>
+ * HazelcastCacheManager cacheManager = new HazelcastCacheManager();
+ * cacheManager.setCacheConfigurations(myCacheConfigurations);
+ * Config config = new Config();
+ * <b>cacheManager.configure(config);</b>
+ * cacheManager.setHazelcastInstance(Hazelcast.newHazelcastInstance(config));
+ * </pre>
+ *
+ * <p>Hazelcast map configuration explicitly present in the {@code Config} is never overridden.</p>
+ *
+ * <h3>Near Cache</h3>
+ *
+ * <p>When {@link #setNearCacheEnabled(boolean) enabled}, each cache also retains the values it reads locally, and
+ * discards them as soon as Hazelcast notifies that they changed anywhere in the cluster.  See {@link HazelcastCache}
+ * for more information.</p>
+ *
  * @since 1.0.RC3
  */
 public class HazelcastCacheManager implements CacheManager {
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final int DEFAULT_NEAR_CACHE_MAX_ENTRIES = 1000;
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final Duration DEFAULT_NEAR_CACHE_TIME_TO_LIVE = new Duration(1, TimeUnit.MINUTES);
+
     private HazelcastInstance hazelcastInstance;
 
+    //since 1.0.RC7.7
+    private final ConcurrentMap<String, CacheConfiguration> configs = new ConcurrentHashMap<String, CacheConfiguration>();
+    private final ConcurrentMap<String, HazelcastCache> caches = new ConcurrentHashMap<String, HazelcastCache>();
+    private boolean nearCacheEnabled = false;
+    private int nearCacheMaxEntries = DEFAULT_NEAR_CACHE_MAX_ENTRIES;
+    private Duration nearCacheTimeToLive = DEFAULT_NEAR_CACHE_TIME_TO_LIVE;
+
     /**
      * Creates a new {@code HazelcastCacheManager} that, after creation, must be configured with a
      * {@link HazelcastInstance} via the
@@ -117,12 +165,163 @@ public class HazelcastCacheManager implements CacheManager {
     public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
         Assert.notNull(hazelcastInstance, "HazelcastInstance argument cannot be null.");
         this.hazelcastInstance = hazelcastInstance;
+        destroyCaches();
+    }
+
+    /**
+     * Sets cache-specific configuration entries, to be applied to a Hazelcast {@code Config} by
+     * {@link #configure(Config)}.  A Time-To-Live configuration also bounds the time values are retained by the
+     * region's near cache.
+     *
+     * @param configs cache-specific configuration entries
+     * @since 1.0.RC7.7
+     */
+    public void setCacheConfigurations(Collection<CacheConfiguration> configs) {
+        Assert.notNull(configs, "Argument cannot be null.  To remove all configuration, set an empty collection.");
+        this.configs.clear();
+        for (CacheConfiguration config : configs) {
+            this.configs.put(config.getName(), config);
+        }
+    }
+
+    /**
+     * Returns {@code true} if caches retain the values they read locally, {@code false} otherwise (the default).
+     *
+     * @return {@code true} if caches retain the values they read locally, {@code false} otherwise.
+     * @since 1.0.RC7.7
+     */
+    public boolean isNearCacheEnabled() {
+        return nearCacheEnabled;
+    }
+
+    /**
+     * Sets whether caches retain the values they read locally.  This setting does not affect existing caches.
+     *
+     * @param nearCacheEnabled whether caches retain the values they read locally.
+     * @since 1.0.RC7.7
+     */
+    public void setNearCacheEnabled(boolean nearCacheEnabled) {
+        this.nearCacheEnabled = nearCacheEnabled;
+    }
+
+    /**
+     * Sets the maximum number of values each cache retains locally when the near cache is enabled.  The default value
+     * is {@link #DEFAULT_NEAR_CACHE_MAX_ENTRIES}.
+     *
+     * @param nearCacheMaxEntries the maximum number of values each cache retains locally.
+     * @since 1.0.RC7.7
+     */
+    public void setNearCacheMaxEntries(int nearCacheMaxEntries) {
+        Assert.isTrue(nearCacheMaxEntries > 0, "nearCacheMaxEntries must be greater than zero.");
+        this.nearCacheMaxEntries = nearCacheMaxEntries;
+    }
+
+    /**
+     * Sets the maximum time a value is retained locally when the near cache is enabled, should the invalidation
+     * notification of a change be lost.  The default value is {@link #DEFAULT_NEAR_CACHE_TIME_TO_LIVE}.
+     *
+     * @param nearCacheTimeToLive the maximum time a value is retained locally.
+     * @since 1.0.RC7.7
+     */
+    public void setNearCacheTimeToLive(Duration nearCacheTimeToLive) {
+        Assert.notNull(nearCacheTimeToLive, "nearCacheTimeToLive cannot be null.");
+        Assert.isTrue(nearCacheTimeToLive.getValue() > 0, "nearCacheTimeToLive must be greater than zero.");
+        this.nearCacheTimeToLive = nearCacheTimeToLive;
+    }
+
+    /**
+     * Applies the {@link #setCacheConfigurations(Collection) cache configurations} as Hazelcast map configurations
+     * to the specified {@code Config}, and registers the {@link ResourceDataSerializer}.  This must be called before
+     * the {@code HazelcastInstance} is created from the {@code Config}.  Map configurations already present in the
+     * {@code Config} are left untouched.
+     *
+     * @param config the Hazelcast configuration used to create the {@code HazelcastInstance}
+     * @since 1.0.RC7.7
+     */
+    public void configure(Config config) {
+        Assert.notNull(config, "config argument cannot be null.");
+        for (CacheConfiguration cacheConfig : configs.values()) {
+            if (!config.getMapConfigs().containsKey(cacheConfig.getName())) {
+                config.addMapConfig(createMapConfig(cacheConfig));
+            }
+        }
+        config.getSerializationConfig().addSerializerConfig(ResourceDataSerializer.newSerializerConfig());
+    }
+
+    /**
+     * Creates the Hazelcast map configuration equivalent to the specified cache configuration.  Hazelcast maps can't
+     * be bounded by weight: {@link CacheConfiguration#getMaxWeight() maxWeight} is ignored.
+     *
+     * @param cacheConfig the SDK cache configuration
+     * @return the equivalent Hazelcast map configuration.
+     * @since 1.0.RC7.7
+     */
+    protected MapConfig createMapConfig(CacheConfiguration cacheConfig) {
+        MapConfig mapConfig = new MapConfig(cacheConfig.getName());
+        if (cacheConfig.getTimeToLive() != null) {
+            mapConfig.setTimeToLiveSeconds(toSeconds(cacheConfig.getTimeToLive()));
+        }
+        if (cacheConfig.getTimeToIdle() != null) {
+            mapConfig.setMaxIdleSeconds(toSeconds(cacheConfig.getTimeToIdle()));
+        }
+        if (cacheConfig.getMaxEntries() > 0) {
+            int size = (int) Math.min(cacheConfig.getMaxEntries(), Integer.MAX_VALUE);
+            mapConfig.setMaxSizeConfig(new MaxSizeConfig(size, MaxSizeConfig.MaxSizePolicy.PER_NODE));
+            mapConfig.setEvictionPolicy(MapConfig.EvictionPolicy.LRU);
+        }
+        return mapConfig;
+    }
+
+    //Hazelcast only supports whole seconds, and 0 means 'forever': round up so a short duration still expires
+    private static int toSeconds(Duration duration) {
+        long millis = duration.getTimeUnit().toMillis(duration.getValue());
+        return (int) Math.min(Math.max((millis + 999) / 1000, 1), Integer.MAX_VALUE);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <K, V> Cache<K, V> getCache(String name) {
         Assert.hasText(name, "name argument cannot be null or empty.");
-        ConcurrentMap<K, V> hazelcastMap = hazelcastInstance.getMap(name);
-        return new HazelcastCache<K, V>(hazelcastMap);
+
+        HazelcastCache<K, V> cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        cache = createCache(name);
+
+        HazelcastCache<K, V> existing = caches.putIfAbsent(name, cache);
+        if (existing != null) {
+            cache.destroy();
+            return existing;
+        }
+        return cache;
+    }
+
+    private <K, V> HazelcastCache<K, V> createCache(String name) {
+        IMap<K, V> hazelcastMap = hazelcastInstance.getMap(name);
+
+        if (!nearCacheEnabled) {
+            return new HazelcastCache<K, V>(hazelcastMap);
+        }
+
+        long ttlMillis = nearCacheTimeToLive.getTimeUnit().toMillis(nearCacheTimeToLive.getValue());
+        CacheConfiguration config = configs.get(name);
+        if (config != null && config.getTimeToLive() != null) {
+            Duration ttl = config.getTimeToLive();
+            ttlMillis = Math.max(Math.min(ttlMillis, ttl.getTimeUnit().toMillis(ttl.getValue())), 1);
+        }
+        return new HazelcastCache<K, V>(hazelcastMap, nearCacheMaxEntries, ttlMillis);
+    }
+
+    private void destroyCaches() {
+        for (HazelcastCache cache : caches.values()) {
+            try {
+                cache.destroy();
+            } catch (RuntimeException ignored) {
+                //the previous HazelcastInstance may already be shut down, its listeners are gone with it
+            }
+        }
+        caches.clear();
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.hazelcast;
+
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Hazelcast {@code StreamSerializer} for the {@link LinkedHashMap}s the SDK caches to represent resources.
+ * <p/>
+ * Cached resource data only consists of strings, numbers, booleans, nested maps (resource references) and lists
+ * (collection items), which this serializer writes with a one byte type tag instead of Java serialization's class
+ * descriptors, making cached entries smaller and faster to read.  Any other value is written with Hazelcast's own
+ * serialization, so any {@code LinkedHashMap} is serialized faithfully.
+ * <p/>
+ * Because Hazelcast serializers are selected by class, registering this serializer applies to every
+ * {@code LinkedHashMap} serialized by the Hazelcast instance, and it must be registered on every cluster member and
+ * client:
+ * <pre>
+ * config.getSerializationConfig().addSerializerConfig(ResourceDataSerializer.newSerializerConfig());
+ * </pre>
+ *
+ * @since 1.0.RC7.7
+ */
+public class ResourceDataSerializer implements StreamSerializer<LinkedHashMap> {
+
+    /**
+     * The Hazelcast type id of this serializer.
+     */
+    public static final int TYPE_ID = 0x53504301;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte MAP = 7;
+    private static final byte LIST = 8;
+    private static final byte OBJECT = 9;
+
+    /**
+     * Returns a new Hazelcast {@code SerializerConfig} registering a {@code ResourceDataSerializer} for
+     * {@code LinkedHashMap}s.
+     *
+     * @return a new Hazelcast {@code SerializerConfig} registering a {@code ResourceDataSerializer}.
+     */
+    public static SerializerConfig newSerializerConfig() {
+        return new SerializerConfig().setTypeClass(LinkedHashMap.class).setImplementation(new ResourceDataSerializer());
+    }
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, LinkedHashMap map) throws IOException {
+        writeMap(out, map);
+    }
+
+    @Override
+    public LinkedHashMap read(ObjectDataInput in) throws IOException {
+        return readMap(in);
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static void writeMap(ObjectDataOutput out, Map<?, ?> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static LinkedHashMap<Object, Object> readMap(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        LinkedHashMap<Object, Object> map = new LinkedHashMap<Object, Object>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(in);
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    private static void writeValue(ObjectDataOutput out, Object value) throws IOException {
+        //exact class checks: subclasses are written with Hazelcast's serialization so they are read back as is
+        Class<?> clazz = value != null ? value.getClass() : null;
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (clazz == String.class) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (clazz == Integer.class) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (clazz == Long.class) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (clazz == Double.class) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (clazz == Boolean.class) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (clazz == LinkedHashMap.class) {
+            out.writeByte(MAP);
+            writeMap(out, (Map<?, ?>) value);
+        } else if (clazz == ArrayList.class) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            out.writeByte(OBJECT);
+            out.writeObject(value);
+        }
+    }
+
+    private static Object readValue(ObjectDataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case MAP:
+                return readMap(in);
+            case LIST:
+                int size = in.readInt();
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case OBJECT:
+                return in.readObject();
+            default:
+                throw new IOException("Unrecognized cached resource value type: " + type);
+        }
+    }
+}
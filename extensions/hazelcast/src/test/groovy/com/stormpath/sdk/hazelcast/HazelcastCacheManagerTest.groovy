@@ -15,10 +15,17 @@
  */
 package com.stormpath.sdk.hazelcast
 
+import com.hazelcast.config.Config
+import com.hazelcast.config.MapConfig
+import com.hazelcast.core.EntryListener
 import com.hazelcast.core.HazelcastInstance
 import com.hazelcast.core.IMap
+import com.stormpath.sdk.impl.cache.DefaultCacheConfiguration
+import com.stormpath.sdk.lang.Duration
 import org.testng.annotations.Test
 
+import java.util.concurrent.TimeUnit
+
 import static org.easymock.EasyMock.*
 import static org.testng.Assert.*
 
@@ -85,4 +92,71 @@ class HazelcastCacheManagerTest {
 
         verify hz, imap
     }
+
+    @Test
+    void testGetCacheReturnsSameInstance() {
+        def hz = createStrictMock(HazelcastInstance)
+        def imap = createStrictMock(IMap)
+        def cm = new HazelcastCacheManager(hz)
+
+        expect(hz.getMap(eq('foo'))).andReturn(imap)
+
+        replay hz, imap
+
+        assertSame cm.getCache('foo'), cm.getCache('foo')
+
+        verify hz, imap
+    }
+
+    @Test
+    void testGetCacheWithNearCache() {
+        def hz = createStrictMock(HazelcastInstance)
+        def imap = createStrictMock(IMap)
+        def cm = new HazelcastCacheManager(hz)
+        cm.nearCacheEnabled = true
+
+        expect(hz.getMap(eq('foo'))).andReturn(imap)
+        expect(imap.addEntryListener(isA(EntryListener) as EntryListener, eq(false) as boolean)).andReturn("id")
+
+        replay hz, imap
+
+        def cache = cm.getCache('foo') as HazelcastCache
+        assertTrue cache.nearCacheEnabled
+
+        verify hz, imap
+    }
+
+    @Test
+    void testCreateMapConfig() {
+        def cm = new HazelcastCacheManager()
+        def cacheConfig = new DefaultCacheConfiguration('foo', new Duration(90, TimeUnit.MINUTES),
+                new Duration(1500, TimeUnit.MILLISECONDS), 500, 0)
+
+        MapConfig mapConfig = cm.createMapConfig(cacheConfig)
+
+        assertEquals mapConfig.name, 'foo'
+        assertEquals mapConfig.timeToLiveSeconds, 5400
+        assertEquals mapConfig.maxIdleSeconds, 2
+        assertEquals mapConfig.maxSizeConfig.size, 500
+        assertEquals mapConfig.evictionPolicy, MapConfig.EvictionPolicy.LRU
+    }
+
+    @Test
+    void testConfigure() {
+        def cm = new HazelcastCacheManager()
+        cm.cacheConfigurations = [
+                new DefaultCacheConfiguration('foo', new Duration(1, TimeUnit.HOURS), null),
+                new DefaultCacheConfiguration('bar', new Duration(1, TimeUnit.HOURS), null)
+        ]
+        def config = new Config()
+        config.addMapConfig(new MapConfig('bar').setTimeToLiveSeconds(42))
+
+        cm.configure(config)
+
+        assertEquals config.getMapConfig('foo').timeToLiveSeconds, 3600
+        //explicit Hazelcast configuration wins:
+        assertEquals config.getMapConfig('bar').timeToLiveSeconds, 42
+        assertEquals config.serializationConfig.serializerConfigs.size(), 1
+        assertTrue config.serializationConfig.serializerConfigs[0].implementation instanceof ResourceDataSerializer
+    }
 }
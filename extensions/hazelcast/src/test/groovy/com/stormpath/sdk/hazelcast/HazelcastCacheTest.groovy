@@ -15,12 +15,16 @@
  */
 package com.stormpath.sdk.hazelcast
 
+import com.hazelcast.core.EntryEvent
+import com.hazelcast.core.EntryListener
+import com.hazelcast.core.IMap
 import org.testng.annotations.Test
 
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
-import static org.testng.Assert.assertEquals
-import static org.testng.Assert.assertNull
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
 
 class HazelcastCacheTest {
 
@@ -47,4 +51,161 @@ class HazelcastCacheTest {
 
         assertNull cache.get('foo')
     }
+
+    private static class MapStub {
+        Map backing = new ConcurrentHashMap()
+        AtomicInteger reads = new AtomicInteger()
+        AtomicInteger bulkReads = new AtomicInteger()
+        EntryListener listener
+        Closure onRead = {}
+
+        IMap asIMap() {
+            return [
+                get: { key -> reads.incrementAndGet(); onRead(key); backing.get(key) },
+                put: { key, value -> backing.put(key, value) },
+                remove: { key -> backing.remove(key) },
+                putIfAbsent: { key, value -> backing.putIfAbsent(key, value) },
+                replace: { key, oldValue, newValue -> backing.replace(key, oldValue, newValue) },
+                putAll: { Map entries -> backing.putAll(entries) },
+                delete: { key -> backing.remove(key) },
+                getAll: { Set keys ->
+                    bulkReads.incrementAndGet()
+                    Map found = [:]
+                    keys.each { if (backing.containsKey(it)) { found[it] = backing.get(it) } }
+                    return found
+                },
+                addEntryListener: { EntryListener l, boolean includeValue -> listener = l; return 'id' },
+                removeEntryListener: { String id -> listener = null; return true }
+            ] as IMap
+        }
+
+        static EntryEvent event(String key) {
+            def event = createNiceMock(EntryEvent)
+            expect(event.getKey()).andStubReturn(key)
+            replay event
+            return event
+        }
+    }
+
+    @Test
+    void testNearCacheHit() {
+        def stub = new MapStub()
+        stub.backing.put('foo', 'bar')
+        def cache = new HazelcastCache(stub.asIMap(), 10, 60000)
+
+        assertTrue cache.nearCacheEnabled
+        assertEquals cache.get('foo'), 'bar'
+        assertEquals cache.get('foo'), 'bar'
+        assertEquals stub.reads.get(), 1
+
+        //misses are not retained:
+        assertNull cache.get('missing')
+        assertNull cache.get('missing')
+        assertEquals stub.reads.get(), 3
+    }
+
+    @Test
+    void testNearCacheInvalidatedByEvents() {
+        def stub = new MapStub()
+        stub.backing.put('foo', 'bar')
+        def cache = new HazelcastCache(stub.asIMap(), 10, 60000)
+        cache.get('foo')
+
+        //changed by another member:
+        stub.backing.put('foo', 'baz')
+        stub.listener.entryUpdated(MapStub.event('foo'))
+
+        assertEquals cache.get('foo'), 'baz'
+        assertEquals stub.reads.get(), 2
+
+        cache.destroy()
+        assertNull stub.listener
+    }
+
+    @Test
+    void testNearCacheInvalidatedByWrites() {
+        def stub = new MapStub()
+        def cache = new HazelcastCache(stub.asIMap(), 10, 60000)
+
+        cache.put('foo', 'bar')
+        assertEquals cache.get('foo'), 'bar'
+        cache.put('foo', 'baz')
+        assertEquals cache.get('foo'), 'baz'
+        cache.remove('foo')
+        assertNull cache.get('foo')
+    }
+
+    @Test
+    void testNearCacheDoesNotRetainValueInvalidatedWhileRead() {
+        def stub = new MapStub()
+        stub.backing.put('foo', 'bar')
+        def cache = new HazelcastCache(stub.asIMap(), 10, 60000)
+        stub.onRead = { key -> stub.listener.entryUpdated(MapStub.event(key)) }
+
+        assertEquals cache.get('foo'), 'bar'
+
+        stub.onRead = {}
+        cache.get('foo')
+        assertEquals stub.reads.get(), 2
+    }
+
+    @Test
+    void testNearCacheTimeToLive() {
+        def stub = new MapStub()
+        stub.backing.put('foo', 'bar')
+        def cache = new HazelcastCache(stub.asIMap(), 10, 20)
+
+        cache.get('foo')
+        Thread.sleep(40)
+        cache.get('foo')
+
+        assertEquals stub.reads.get(), 2
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testConcurrentOperations() {
+        def cache = new HazelcastCache(new ConcurrentHashMap())
+
+        assertNull cache.putIfAbsent('foo', 'bar')
+        assertEquals cache.putIfAbsent('foo', 'baz'), 'bar'
+        assertFalse cache.replace('foo', 'baz', 'qux')
+        assertTrue cache.replace('foo', 'bar', 'qux')
+        assertEquals cache.get('foo'), 'qux'
+
+        cache.putAll([a: '1', b: '2'])
+        assertEquals cache.getAll(['a', 'b', 'c']), [a: '1', b: '2']
+        cache.removeAll(['a', 'foo'])
+        assertEquals cache.getAll(['a', 'b', 'foo']), [b: '2']
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testNearCacheGetAll() {
+        def stub = new MapStub()
+        def cache = new HazelcastCache(stub.asIMap(), 10, 60000)
+
+        cache.putAll([a: '1', b: '2', c: '3'])
+        assertEquals cache.get('a'), '1'
+        assertEquals stub.reads.get(), 1
+
+        //'a' is retained locally, only the others are read, in a single call:
+        assertEquals cache.getAll(['a', 'b', 'c', 'd']), [a: '1', b: '2', c: '3']
+        assertEquals stub.bulkReads.get(), 1
+        assertEquals stub.reads.get(), 1
+
+        //all values are now retained locally:
+        assertEquals cache.getAll(['a', 'b', 'c']), [a: '1', b: '2', c: '3']
+        assertEquals stub.bulkReads.get(), 1
+
+        //writes invalidate the local values:
+        assertNull cache.putIfAbsent('d', '4')
+        cache.removeAll(['a'])
+        assertEquals cache.getAll(['a', 'b', 'd']), [b: '2', d: '4']
+        assertEquals stub.bulkReads.get(), 2
+    }
 }
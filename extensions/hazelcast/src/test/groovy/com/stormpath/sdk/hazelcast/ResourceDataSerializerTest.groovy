@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.hazelcast
+
+import com.hazelcast.config.SerializationConfig
+import com.hazelcast.nio.serialization.SerializationService
+import com.hazelcast.nio.serialization.SerializationServiceBuilder
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class ResourceDataSerializerTest {
+
+    private static SerializationService newSerializationService(boolean withSerializer) {
+        def config = new SerializationConfig()
+        if (withSerializer) {
+            config.addSerializerConfig(ResourceDataSerializer.newSerializerConfig())
+        }
+        return new SerializationServiceBuilder().setConfig(config).build()
+    }
+
+    private static LinkedHashMap newResourceData() {
+        def data = new LinkedHashMap()
+        data.put('href', 'https://api.stormpath.com/v1/accounts/foo')
+        data.put('username', 'jsmith')
+        data.put('middleName', null)
+        data.put('count', 42)
+        data.put('size', 1234567890123L)
+        data.put('ratio', 0.5d)
+        data.put('enabled', true)
+        data.put('locked', false)
+        data.put('directory', new LinkedHashMap([href: 'https://api.stormpath.com/v1/directories/bar']))
+        data.put('items', new ArrayList([new LinkedHashMap([href: 'https://api.stormpath.com/v1/groups/baz']), 'x']))
+        data.put('amount', new BigDecimal('12.34'))
+        data.put('createdAt', new Date(0))
+        return data
+    }
+
+    @Test
+    void testRoundTrip() {
+        def service = newSerializationService(true)
+        def data = newResourceData()
+
+        def serialized = service.toData(data)
+        assertEquals serialized.type, ResourceDataSerializer.TYPE_ID
+
+        def result = service.toObject(serialized)
+
+        assertTrue result instanceof LinkedHashMap
+        assertEquals result, data
+        assertEquals new ArrayList(result.keySet()), new ArrayList(data.keySet())
+        assertTrue result.get('directory') instanceof LinkedHashMap
+        assertTrue result.get('items') instanceof ArrayList
+        assertTrue result.get('size') instanceof Long
+        assertTrue result.get('amount') instanceof BigDecimal
+    }
+
+    @Test
+    void testSmallerThanJavaSerialization() {
+        def data = newResourceData()
+
+        int compact = newSerializationService(true).toData(data).bufferSize()
+        int java = newSerializationService(false).toData(data).bufferSize()
+
+        assertTrue compact < java, "compact: $compact, java: $java"
+    }
+}
@@ -17,20 +17,26 @@ package com.stormpath.sdk.impl.http.httpclient;
 
 import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.client.AuthenticationScheme;
+import com.stormpath.sdk.client.ConnectionPoolStats;
 import com.stormpath.sdk.client.Proxy;
+import com.stormpath.sdk.impl.http.AsyncRequestExecutor;
 import com.stormpath.sdk.impl.http.HttpHeaders;
 import com.stormpath.sdk.impl.http.MediaType;
+import com.stormpath.sdk.impl.http.PooledRequestExecutor;
 import com.stormpath.sdk.impl.http.QueryString;
 import com.stormpath.sdk.impl.http.Request;
-import com.stormpath.sdk.impl.http.RequestExecutor;
 import com.stormpath.sdk.impl.http.Response;
 import com.stormpath.sdk.impl.http.RestException;
 import com.stormpath.sdk.impl.http.authc.DefaultRequestAuthenticatorFactory;
 import com.stormpath.sdk.impl.http.authc.RequestAuthenticator;
 import com.stormpath.sdk.impl.http.authc.RequestAuthenticatorFactory;
 import com.stormpath.sdk.impl.http.support.BackoffStrategy;
+import com.stormpath.sdk.impl.http.support.DefaultConnectionPoolStats;
 import com.stormpath.sdk.impl.http.support.DefaultRequest;
 import com.stormpath.sdk.impl.http.support.DefaultResponse;
+import com.stormpath.sdk.impl.util.ListenableFuture;
+import com.stormpath.sdk.impl.util.SettableFuture;
+import com.stormpath.sdk.impl.util.SharedExecutors;
 import com.stormpath.sdk.lang.Assert;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
@@ -51,6 +57,7 @@ import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.conn.params.ConnRoutePNames;
 import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +69,10 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@code RequestExecutor} implementation that uses the
@@ -70,7 +81,7 @@ import java.util.Random;
  *
  * @since 0.1
  */
-public class HttpClientRequestExecutor implements RequestExecutor {
+public class HttpClientRequestExecutor implements AsyncRequestExecutor, PooledRequestExecutor {
 
     private static final Logger log = LoggerFactory.getLogger(HttpClientRequestExecutor.class);
 
@@ -93,6 +104,8 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
     private final RequestAuthenticator requestAuthenticator;
 
+    private final PoolingClientConnectionManager connMgr;
+
     private DefaultHttpClient httpClient;
 
     private BackoffStrategy backoffStrategy;
@@ -101,6 +114,18 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
     private final RequestAuthenticatorFactory requestAuthenticatorFactory = new DefaultRequestAuthenticatorFactory();
 
+    /**
+     * Executes asynchronous request attempts.  Shared by all executors (see {@link SharedExecutors}), and grown to the
+     * largest connection pool of the executors created so far.
+     */
+    private final ExecutorService asyncExecutor;
+
+    /**
+     * Schedules asynchronous retries once their back-off delay has elapsed.  It never executes requests itself.
+     * Shared by all executors.
+     */
+    private final ScheduledExecutorService retryScheduler;
+
     //doesn't need to be SecureRandom: only used in backoff strategy, not for crypto:
     private final Random random = new Random();
 
@@ -113,8 +138,25 @@ public class HttpClientRequestExecutor implements RequestExecutor {
      *                             If null, then Sauthc1 will be used.
      */
     public HttpClientRequestExecutor(ApiKey apiKey, Proxy proxy, AuthenticationScheme authenticationScheme, Integer connectionTimeout) {
+        this(apiKey, proxy, authenticationScheme, connectionTimeout, createDefaultConnectionManager());
+    }
+
+    /**
+     * Creates a new {@code HttpClientRequestExecutor} that obtains its connections from the specified connection
+     * manager.
+     *
+     * @param apiKey the Stormpath account API Key that will be used to authenticate the client with Stormpath's API sever
+     * @param proxy the HTTP proxy to be used when communicating with the Stormpath API server (can be null)
+     * @param authenticationScheme the HTTP authentication scheme to be used when communicating with the Stormpath API server.
+     *                             If null, then Sauthc1 will be used.
+     * @param connectionTimeout connection and socket timeout in milliseconds
+     * @param connMgr the connection pool used to execute requests
+     * @since 1.0.RC7.7
+     */
+    protected HttpClientRequestExecutor(ApiKey apiKey, Proxy proxy, AuthenticationScheme authenticationScheme, Integer connectionTimeout, PoolingClientConnectionManager connMgr) {
         Assert.notNull(apiKey, "apiKey argument is required.");
         Assert.isTrue(connectionTimeout >= 0, "Timeout cannot be a negative number.");
+        Assert.notNull(connMgr, "connMgr argument is required.");
 
         this.apiKey = apiKey;
 
@@ -122,6 +164,37 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
         this.httpClientRequestFactory = new HttpClientRequestFactory();
 
+        this.connMgr = connMgr;
+
+        this.httpClient = new DefaultHttpClient(connMgr);
+        httpClient.getParams().setParameter(AllClientPNames.PROTOCOL_VERSION, HttpVersion.HTTP_1_1);
+        httpClient.getParams().setParameter(AllClientPNames.SO_TIMEOUT, connectionTimeout);
+        httpClient.getParams().setParameter(AllClientPNames.CONNECTION_TIMEOUT, connectionTimeout);
+        httpClient.getParams().setParameter(ClientPNames.HANDLE_REDIRECTS, false);
+        httpClient.getParams().setParameter("http.protocol.content-charset", "UTF-8");
+
+        this.asyncExecutor = SharedExecutors.getAsyncExecutor(connMgr.getMaxTotal());
+        this.retryScheduler = SharedExecutors.getScheduler();
+
+        if (proxy != null) {
+            //We have some proxy setting to use!
+            HttpHost httpProxyHost = new HttpHost(proxy.getHost(), proxy.getPort());
+            httpClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, httpProxyHost);
+
+            if (proxy.isAuthenticationRequired()) {
+                httpClient.getCredentialsProvider().setCredentials(
+                        new AuthScope(proxy.getHost(), proxy.getPort()),
+                        new UsernamePasswordCredentials(proxy.getUsername(), proxy.getPassword()));
+            }
+
+        }
+    }
+
+    /**
+     * Creates the connection pool used by default, sized according to the
+     * {@code com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor.connPoolControl.*} system properties.
+     */
+    private static PoolingClientConnectionManager createDefaultConnectionManager() {
         int connectionMaxPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
         try {
             if (System.getProperty(MAX_CONNECTIONS_PER_ROUTE_PROPERTY_KEY) != null) {
@@ -159,25 +232,7 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         connMgr.setDefaultMaxPerRoute(connectionMaxPerRoute);
         connMgr.setMaxTotal(connectionMaxTotal);
 
-        this.httpClient = new DefaultHttpClient(connMgr);
-        httpClient.getParams().setParameter(AllClientPNames.PROTOCOL_VERSION, HttpVersion.HTTP_1_1);
-        httpClient.getParams().setParameter(AllClientPNames.SO_TIMEOUT, connectionTimeout);
-        httpClient.getParams().setParameter(AllClientPNames.CONNECTION_TIMEOUT, connectionTimeout);
-        httpClient.getParams().setParameter(ClientPNames.HANDLE_REDIRECTS, false);
-        httpClient.getParams().setParameter("http.protocol.content-charset", "UTF-8");
-
-        if (proxy != null) {
-            //We have some proxy setting to use!
-            HttpHost httpProxyHost = new HttpHost(proxy.getHost(), proxy.getPort());
-            httpClient.getParams().setParameter(ConnRoutePNames.DEFAULT_PROXY, httpProxyHost);
-
-            if (proxy.isAuthenticationRequired()) {
-                httpClient.getCredentialsProvider().setCredentials(
-                        new AuthScope(proxy.getHost(), proxy.getPort()),
-                        new UsernamePasswordCredentials(proxy.getUsername(), proxy.getPassword()));
-            }
-
-        }
+        return connMgr;
     }
 
     public int getNumRetries() {
@@ -203,6 +258,29 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         this.httpClient = httpClient;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    protected DefaultHttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    protected PoolingClientConnectionManager getConnectionManager() {
+        return this.connMgr;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public ConnectionPoolStats getConnectionPoolStats() {
+        PoolStats stats = connMgr.getTotalStats();
+        return new DefaultConnectionPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
     @Override
     public Response executeRequest(Request request) throws RestException {
 
@@ -212,108 +290,51 @@ public class HttpClientRequestExecutor implements RequestExecutor {
             requestLog.debug("Sending Request: " + request.toString());
         }*/
 
-        int retryCount = 0;
-        URI redirectUri = null;
-        HttpEntity entity = null;
-        RestException exception = null;
-
-        // Make a copy of the original request params and headers so that we can
-        // permute them in the loop and start over with the original every time.
-        QueryString originalQuery = new QueryString();
-        originalQuery.putAll(request.getQueryString());
-
-        HttpHeaders originalHeaders = new HttpHeaders();
-        originalHeaders.putAll(request.getHeaders());
+        Execution execution = new Execution(request);
 
         while (true) {
 
-            if (redirectUri != null) {
-                request = new DefaultRequest(
-                        request.getMethod(),
-                        redirectUri.toString(),
-                        null,
-                        null,
-                        request.getBody(),
-                        request.getHeaders().getContentLength()
-                );
-            }
-
-            if (retryCount > 0) {
-                request.setQueryString(originalQuery);
-                request.setHeaders(originalHeaders);
+            long delay = execution.getDelayMillis();
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RestException(e.getMessage(), e);
+                }
             }
 
-            // Sign the request
-            if (this.apiKey != null) {
-                this.requestAuthenticator.authenticate(request, this.apiKey);
+            Response response = execution.attempt();
+            if (response != null) {
+                return response;
             }
+        }
+    }
 
-            HttpRequestBase httpRequest = this.httpClientRequestFactory.createHttpClientRequest(request, entity);
-
-            if (httpRequest instanceof HttpEntityEnclosingRequest) {
-                entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
-            }
-
-
-            HttpResponse httpResponse = null;
-            try {
-                if (retryCount > 0) {
-                    pauseExponentially(retryCount, exception);
-                    if (entity != null) {
-                        InputStream content = entity.getContent();
-                        if (content.markSupported()) {
-                            content.reset();
-                        }
-                    }
-                }
-
-                exception = null;
-                retryCount++;
-
-                //long start = System.currentTimeMillis();
-                httpResponse = httpClient.execute(httpRequest);
-                //long end = System.currentTimeMillis();
-                //executionContext.getTimingInfo().addSubMeasurement(HTTP_REQUEST_TIME, new TimingInfo(start, end));
-
-                if (isRedirect(httpResponse)) {
-                    Header[] locationHeaders = httpResponse.getHeaders("Location");
-                    String location = locationHeaders[0].getValue();
-                    log.debug("Redirecting to: " + location);
-                    redirectUri = URI.create(location);
-                    httpRequest.setURI(redirectUri);
-                } else {
-
-                    Response response = toSdkResponse(httpResponse);
-
-                    int httpStatus = response.getHttpStatus();
-
-                    if (httpStatus == 429) {
-                        throw new RestException("HTTP 429: Too Many Requests.  Exceeded request rate limit in the allotted amount of time.");
-                    }
-                    if ((httpStatus == 503 || httpStatus == 504) && retryCount <= this.numRetries) {
-                        //allow the loop to continue to execute a retry request
-                        continue;
-                    }
+    /**
+     * Executes the request on a worker thread, returning immediately.  Unlike
+     * {@link #executeRequest(Request) executeRequest}, no thread is held while waiting to retry a request: retries are
+     * scheduled on a timer and executed on a worker thread once their back-off delay has elapsed.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public ListenableFuture<Response> executeRequestAsync(Request request) {
 
-                    return response;
-                }
-            } catch (Throwable t) {
-                log.warn("Unable to execute HTTP request: " + t.getMessage());
+        Assert.notNull(request, "Request argument cannot be null.");
 
-                if (t instanceof RestException) {
-                    exception = (RestException)t;
-                }
+        SettableFuture<Response> future = new SettableFuture<Response>();
+        new AsyncExecution(new Execution(request), future).submit(0);
+        return future;
+    }
 
-                if (!shouldRetry(httpRequest, t, retryCount)) {
-                    throw new RestException("Unable to execute HTTP request: " + t.getMessage(), t);
-                }
-            } finally {
-                try {
-                    httpResponse.getEntity().getContent().close();
-                } catch (Throwable ignored) {
-                }
-            }
-        }
+    /**
+     * Executes the specified request with the underlying HttpClient.
+     *
+     * @since 1.0.RC7.7
+     */
+    protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+        return httpClient.execute(httpRequest);
     }
 
     private boolean isRedirect(org.apache.http.HttpResponse response) {
@@ -331,13 +352,14 @@ public class HttpClientRequestExecutor implements RequestExecutor {
     }*/
 
     /**
-     * Exponential sleep on failed request to avoid flooding a service with
+     * Returns the exponential delay to wait before retrying a failed request, to avoid flooding a service with
      * retries.
      *
      * @param retries           Current retry count.
      * @param previousException Exception information for the previous attempt, if any.
+     * @return the number of milliseconds to wait before retrying.
      */
-    private void pauseExponentially(int retries, RestException previousException) {
+    private long getBackoffDelayMillis(int retries, RestException previousException) {
         long delay;
         if (backoffStrategy != null) {
             delay = this.backoffStrategy.getDelayMillis(retries);
@@ -353,13 +375,7 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         if (log.isDebugEnabled()) {
             log.debug("Retryable condition detected, will retry in " + delay + "ms, attempt number: " + retries);
         }
-
-        try {
-            Thread.sleep(delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RestException(e.getMessage(), e);
-        }
+        return delay;
     }
 
     /**
@@ -423,6 +439,23 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         return EntityUtils.toByteArray(entity);
     }
 
+    /**
+     * Returns {@code true} if the response body may be handed to the caller as the live connection stream instead of
+     * being buffered first, {@code false} otherwise.  Only successful JSON responses with content are streamed: they
+     * are always fully read (and closed) by the data store, which releases the connection back to the pool.  Error
+     * responses are buffered since they may be inspected before deciding to retry.
+     *
+     * @param response the response received from the server, before its body is buffered
+     * @return {@code true} if the response body may be streamed, {@code false} otherwise.
+     * @since 1.0.RC7.7
+     */
+    protected boolean isStreamable(Response response) {
+        int httpStatus = response.getHttpStatus();
+        MediaType contentType = response.getHeaders().getContentType();
+        return httpStatus >= 200 && httpStatus < 300 && response.hasBody() &&
+               contentType != null && MediaType.APPLICATION_JSON.includes(contentType);
+    }
+
     protected Response toSdkResponse(HttpResponse httpResponse) throws IOException {
 
         int httpStatus = httpResponse.getStatusLine().getStatusCode();
@@ -435,6 +468,14 @@ public class HttpClientRequestExecutor implements RequestExecutor {
         InputStream body = entity != null ? entity.getContent() : null;
         long contentLength = entity != null ? entity.getContentLength() : -1;
 
+        //streamed: the connection is released once the body has been read or closed
+        if (body != null) {
+            Response response = new DefaultResponse(httpStatus, mediaType, body, contentLength);
+            if (isStreamable(response)) {
+                return response;
+            }
+        }
+
         //ensure that the content has been fully acquired before closing the http stream
         if (body != null) {
             byte[] bytes = toBytes(entity);
@@ -479,4 +520,199 @@ public class HttpClientRequestExecutor implements RequestExecutor {
 
         return headers;
     }
+
+    /**
+     * The state of a single logical request across its redirects and retries.
+     *
+     * @since 1.0.RC7.7
+     */
+    private class Execution {
+
+        private final QueryString originalQuery;
+        private final HttpHeaders originalHeaders;
+
+        private Request request;
+        private int retryCount = 0;
+        private URI redirectUri = null;
+        private HttpEntity entity = null;
+        private RestException exception = null;
+
+        private Execution(Request request) {
+            this.request = request;
+
+            // Make a copy of the original request params and headers so that we can
+            // permute them on each attempt and start over with the original every time.
+            this.originalQuery = new QueryString();
+            this.originalQuery.putAll(request.getQueryString());
+
+            this.originalHeaders = new HttpHeaders();
+            this.originalHeaders.putAll(request.getHeaders());
+        }
+
+        /**
+         * Returns how long to wait before the next {@link #attempt() attempt}.
+         */
+        private long getDelayMillis() {
+            return retryCount > 0 ? getBackoffDelayMillis(retryCount, exception) : 0;
+        }
+
+        /**
+         * Sends the request once.
+         *
+         * @return the server's response, or {@code null} if the request must be attempted again (after a redirect or a
+         * retryable failure).
+         * @throws RestException if the request failed and cannot be retried.
+         */
+        private Response attempt() throws RestException {
+
+            if (redirectUri != null) {
+                request = new DefaultRequest(
+                        request.getMethod(),
+                        redirectUri.toString(),
+                        null,
+                        null,
+                        request.getBody(),
+                        request.getHeaders().getContentLength()
+                );
+            }
+
+            if (retryCount > 0) {
+                request.setQueryString(originalQuery);
+                request.setHeaders(originalHeaders);
+            }
+
+            // Sign the request
+            if (apiKey != null) {
+                requestAuthenticator.authenticate(request, apiKey);
+            }
+
+            HttpRequestBase httpRequest = httpClientRequestFactory.createHttpClientRequest(request, entity);
+
+            if (httpRequest instanceof HttpEntityEnclosingRequest) {
+                entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            }
+
+            HttpResponse httpResponse = null;
+            boolean streamed = false;
+            try {
+                if (retryCount > 0 && entity != null) {
+                    InputStream content = entity.getContent();
+                    if (content.markSupported()) {
+                        content.reset();
+                    }
+                }
+
+                exception = null;
+                retryCount++;
+
+                httpResponse = execute(httpRequest);
+
+                if (isRedirect(httpResponse)) {
+                    Header[] locationHeaders = httpResponse.getHeaders("Location");
+                    String location = locationHeaders[0].getValue();
+                    log.debug("Redirecting to: " + location);
+                    redirectUri = URI.create(location);
+                    httpRequest.setURI(redirectUri);
+                } else {
+
+                    Response response = toSdkResponse(httpResponse);
+
+                    int httpStatus = response.getHttpStatus();
+
+                    if (httpStatus == 429) {
+                        throw new RestException("HTTP 429: Too Many Requests.  Exceeded request rate limit in the allotted amount of time.");
+                    }
+                    if ((httpStatus == 503 || httpStatus == 504) && retryCount <= numRetries) {
+                        //signal the caller to execute a retry request
+                        return null;
+                    }
+
+                    //the caller now owns the streamed body, so the connection must not be released here:
+                    streamed = isStreamable(response);
+                    return response;
+                }
+            } catch (Throwable t) {
+                log.warn("Unable to execute HTTP request: " + t.getMessage());
+
+                if (t instanceof RestException) {
+                    exception = (RestException)t;
+                }
+
+                if (!shouldRetry(httpRequest, t, retryCount)) {
+                    throw new RestException("Unable to execute HTTP request: " + t.getMessage(), t);
+                }
+            } finally {
+                if (!streamed) {
+                    try {
+                        httpResponse.getEntity().getContent().close();
+                    } catch (Throwable ignored) {
+                    }
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Drives an {@link Execution} asynchronously: each attempt runs on the {@link #asyncExecutor} and each retry is
+     * handed to the {@link #retryScheduler} instead of sleeping.
+     *
+     * @since 1.0.RC7.7
+     */
+    private class AsyncExecution implements Runnable {
+
+        private final Execution execution;
+        private final SettableFuture<Response> future;
+
+        private AsyncExecution(Execution execution, SettableFuture<Response> future) {
+            this.execution = execution;
+            this.future = future;
+        }
+
+        private void submit(long delayMillis) {
+            try {
+                if (delayMillis > 0) {
+                    retryScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            submit(0);
+                        }
+                    }, delayMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    asyncExecutor.execute(this);
+                }
+            } catch (RejectedExecutionException e) {
+                future.setException(new RestException("Unable to execute HTTP request: " + e.getMessage(), e));
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                //cancelled by the caller, don't bother:
+                return;
+            }
+
+            Response response;
+            try {
+                response = execution.attempt();
+            } catch (Throwable t) {
+                future.setException(t);
+                return;
+            }
+
+            if (response != null) {
+                if (!future.set(response) && response.getBody() != null) {
+                    //cancelled meanwhile: nobody will read a streamed body, so release its connection now
+                    try {
+                        response.getBody().close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            } else {
+                submit(execution.getDelayMillis());
+            }
+        }
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.http.httpclient;
+
+import com.stormpath.sdk.api.ApiKey;
+import com.stormpath.sdk.client.AuthenticationScheme;
+import com.stormpath.sdk.client.ConnectionPoolConfig;
+import com.stormpath.sdk.client.Proxy;
+import com.stormpath.sdk.lang.Assert;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code HttpClientRequestExecutor} whose connection pool is tuned by a {@link ConnectionPoolConfig} instead of system
+ * properties.  In addition to the pool size, it supports:
+ * <ul>
+ * <li>a connection time-to-live, after which connections are closed instead of being reused,</li>
+ * <li>a lease timeout, bounding how long a request waits for a connection when the pool is exhausted,</li>
+ * <li>a default keep-alive duration for responses that do not specify one, and</li>
+ * <li>background eviction of expired and idle connections, so that connections dropped by the server or an
+ * intermediary are not reused.</li>
+ * </ul>
+ * Pool usage is available via {@link #getConnectionPoolStats()}.
+ *
+ * @see com.stormpath.sdk.client.ClientBuilder#setConnectionPoolConfig(ConnectionPoolConfig)
+ * @since 1.0.RC7.7
+ */
+public class PooledHttpClientRequestExecutor extends HttpClientRequestExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledHttpClientRequestExecutor.class);
+
+    /**
+     * How often expired and idle connections are evicted, in milliseconds.
+     */
+    static final long EVICTION_INTERVAL_MILLIS = 5000;
+
+    private static final ScheduledExecutorService EVICTOR =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "stormpath-http-connection-evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final ConnectionPoolConfig config;
+
+    public PooledHttpClientRequestExecutor(ApiKey apiKey, Proxy proxy, AuthenticationScheme authenticationScheme, Integer connectionTimeout, ConnectionPoolConfig config) {
+        super(apiKey, proxy, authenticationScheme, connectionTimeout, createConnectionManager(config));
+        this.config = config;
+
+        if (config.getLeaseTimeoutMillis() > 0) {
+            getHttpClient().getParams().setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, config.getLeaseTimeoutMillis());
+        }
+
+        getHttpClient().setKeepAliveStrategy(new DefaultKeepAliveStrategy(config.getKeepAliveMillis()));
+
+        if (config.getIdleConnectionTimeoutMillis() > 0 || config.getConnectionTimeToLiveMillis() > 0) {
+            EvictionTask task = new EvictionTask(this);
+            task.future = EVICTOR.scheduleWithFixedDelay(task, EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static PoolingClientConnectionManager createConnectionManager(ConnectionPoolConfig config) {
+        Assert.notNull(config, "ConnectionPoolConfig argument is required.");
+
+        PoolingClientConnectionManager connMgr;
+        if (config.getConnectionTimeToLiveMillis() > 0) {
+            connMgr = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault(),
+                    config.getConnectionTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            connMgr = new PoolingClientConnectionManager();
+        }
+        connMgr.setMaxTotal(config.getMaxConnectionsTotal());
+        connMgr.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        return connMgr;
+    }
+
+    public ConnectionPoolConfig getConnectionPoolConfig() {
+        return config;
+    }
+
+    /**
+     * Closes expired connections, and connections idle for longer than the configured idle connection timeout.
+     */
+    void evictConnections() {
+        PoolingClientConnectionManager connMgr = getConnectionManager();
+        connMgr.closeExpiredConnections();
+        if (config.getIdleConnectionTimeoutMillis() > 0) {
+            connMgr.closeIdleConnections(config.getIdleConnectionTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Honors the server's {@code Keep-Alive} header, falling back to a default duration when absent.
+     */
+    private static class DefaultKeepAliveStrategy extends DefaultConnectionKeepAliveStrategy {
+
+        private final long defaultKeepAliveMillis;
+
+        private DefaultKeepAliveStrategy(long defaultKeepAliveMillis) {
+            this.defaultKeepAliveMillis = defaultKeepAliveMillis;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = super.getKeepAliveDuration(response, context);
+            if (duration < 0 && defaultKeepAliveMillis > 0) {
+                return defaultKeepAliveMillis;
+            }
+            return duration;
+        }
+    }
+
+    /**
+     * Only weakly references the executor, so that it stops once the executor is no longer used by the application.
+     */
+    private static class EvictionTask implements Runnable {
+
+        private final WeakReference<PooledHttpClientRequestExecutor> executorRef;
+        private volatile ScheduledFuture<?> future;
+
+        private EvictionTask(PooledHttpClientRequestExecutor executor) {
+            this.executorRef = new WeakReference<PooledHttpClientRequestExecutor>(executor);
+        }
+
+        @Override
+        public void run() {
+            PooledHttpClientRequestExecutor executor = executorRef.get();
+            if (executor == null) {
+                ScheduledFuture<?> future = this.future;
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                executor.evictConnections();
+            } catch (RuntimeException e) {
+                //don't let an exception cancel future evictions:
+                log.warn("Unable to evict HTTP connections: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
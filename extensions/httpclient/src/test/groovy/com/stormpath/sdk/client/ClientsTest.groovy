@@ -23,6 +23,8 @@ import com.stormpath.sdk.impl.cache.DefaultCacheManager
 import com.stormpath.sdk.impl.client.DefaultClientBuilder
 import com.stormpath.sdk.impl.http.authc.BasicRequestAuthenticator
 import com.stormpath.sdk.impl.http.authc.SAuthc1RequestAuthenticator
+import com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor
+import com.stormpath.sdk.impl.http.httpclient.PooledHttpClientRequestExecutor
 import com.stormpath.sdk.lang.Duration
 import org.apache.http.client.params.AllClientPNames
 import org.testng.annotations.Test
@@ -60,6 +62,33 @@ public class ClientsTest {
         assertEquals client.dataStore.cacheManager.defaultTimeToIdle, new Duration(1, TimeUnit.HOURS)
         assertEquals(client.dataStore.requestExecutor.httpClient.getParams().getParameter(AllClientPNames.SO_TIMEOUT), 20000)
         assertEquals(client.dataStore.requestExecutor.httpClient.getParams().getParameter(AllClientPNames.CONNECTION_TIMEOUT), 20000)
+
+        assertEquals client.dataStore.requestExecutor.class, HttpClientRequestExecutor
+        assertEquals client.connectionPoolStats.max, 20
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testSetConnectionPoolConfig() {
+
+        def config = new ConnectionPoolConfig().setMaxConnectionsTotal(50).setMaxConnectionsPerRoute(40)
+                .setLeaseTimeout(3, TimeUnit.SECONDS).setConnectionTimeToLive(5, TimeUnit.MINUTES)
+
+        def client = Clients.builder().setApiKey(new ClientApiKey('foo', 'bar')).setConnectionPoolConfig(config).build()
+
+        def executor = client.dataStore.requestExecutor
+        assertTrue executor instanceof PooledHttpClientRequestExecutor
+        assertSame executor.connectionPoolConfig, config
+        assertEquals executor.httpClient.getParams().getParameter(AllClientPNames.CONN_MANAGER_TIMEOUT), 3000L
+        assertEquals executor.connectionManager.defaultMaxPerRoute, 40
+
+        def stats = client.connectionPoolStats
+        assertEquals stats.max, 50
+        assertEquals stats.leased, 0
+        assertEquals stats.available, 0
+        assertEquals stats.pending, 0
     }
 
     @Test
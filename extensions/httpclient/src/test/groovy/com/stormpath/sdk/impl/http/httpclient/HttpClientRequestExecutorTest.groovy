@@ -19,13 +19,27 @@ package com.stormpath.sdk.impl.http.httpclient
 
 import com.stormpath.sdk.api.ApiKey
 import com.stormpath.sdk.client.AuthenticationScheme
+import com.stormpath.sdk.http.HttpMethod
+import com.stormpath.sdk.impl.api.ClientApiKey
+import com.stormpath.sdk.impl.ds.JacksonMapMarshaller
+import com.stormpath.sdk.impl.http.RestException
+import com.stormpath.sdk.impl.http.support.BackoffStrategy
+import com.stormpath.sdk.impl.http.support.DefaultRequest
 import org.apache.http.HttpEntity
 import org.apache.http.HttpResponse
+import org.apache.http.HttpVersion
 import org.apache.http.StatusLine
+import org.apache.http.client.methods.HttpRequestBase
+import org.apache.http.entity.InputStreamEntity
+import org.apache.http.entity.StringEntity
+import org.apache.http.message.BasicHttpResponse
 import org.testng.annotations.Test
 
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
 import static org.easymock.EasyMock.*
-import static org.testng.Assert.assertNull
+import static org.testng.Assert.*
 
 class HttpClientRequestExecutorTest {
 
@@ -63,4 +77,245 @@ class HttpClientRequestExecutorTest {
         verify apiKey, httpResponse, statusLine, entity, entityContent
 
     }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testExecuteRequestAsyncRetriesWithoutBlocking() {
+
+        def responses = [response(503), response(503), response(200, '{"href":"foo"}')]
+        def threads = []
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000) {
+            @Override
+            protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+                threads << Thread.currentThread()
+                return responses.remove(0)
+            }
+        }
+        e.backoffStrategy = new BackoffStrategy() {
+            @Override
+            long getDelayMillis(int retryCount) {
+                return 10
+            }
+        }
+
+        def future = e.executeRequestAsync(new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/tenants/current'))
+        def response = future.get(5, TimeUnit.SECONDS)
+
+        assertEquals response.httpStatus, 200
+        assertEquals response.body.text, '{"href":"foo"}'
+        assertTrue responses.isEmpty()
+        assertEquals threads.size(), 3
+        assertFalse threads.contains(Thread.currentThread())
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testExecuteRequestAsyncRetriesExhausted() {
+
+        def count = 0
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000) {
+            @Override
+            protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+                count++
+                return response(503)
+            }
+        }
+        e.numRetries = 2
+        e.backoffStrategy = new BackoffStrategy() {
+            @Override
+            long getDelayMillis(int retryCount) {
+                return 1
+            }
+        }
+
+        def response = e.executeRequestAsync(new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/tenants/current'))
+                .get(5, TimeUnit.SECONDS)
+
+        assertEquals response.httpStatus, 503
+        assertEquals count, 3 //the original request plus 2 retries
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testExecuteRequestAsyncFailure() {
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000) {
+            @Override
+            protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+                throw new IOException('boom')
+            }
+        }
+
+        def future = e.executeRequestAsync(new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/tenants/current'))
+
+        try {
+            future.get(5, TimeUnit.SECONDS)
+            fail("should have thrown")
+        } catch (ExecutionException ex) {
+            assertTrue ex.getCause() instanceof RestException
+            assertEquals ex.getCause().getMessage(), 'Unable to execute HTTP request: boom'
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testExecuteRequestRetries() {
+
+        def responses = [response(504), response(200, '{"href":"foo"}')]
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000) {
+            @Override
+            protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+                return responses.remove(0)
+            }
+        }
+        e.backoffStrategy = new BackoffStrategy() {
+            @Override
+            long getDelayMillis(int retryCount) {
+                return 1
+            }
+        }
+
+        def response = e.executeRequest(new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/tenants/current'))
+
+        assertEquals response.httpStatus, 200
+        assertTrue responses.isEmpty()
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testSuccessfulJsonResponseIsStreamed() {
+
+        def closed = []
+        def content = new ByteArrayInputStream('{"href":"foo"}'.getBytes('UTF-8')) {
+            @Override
+            void close() throws IOException {
+                closed << true
+                super.close()
+            }
+        }
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000) {
+            @Override
+            protected HttpResponse execute(HttpRequestBase httpRequest) throws IOException {
+                def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, null)
+                response.entity = new InputStreamEntity(content, -1)
+                response.setHeader('Content-Type', 'application/json;charset=UTF-8')
+                return response
+            }
+        }
+
+        def response = e.executeRequest(new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/tenants/current'))
+
+        //the body is the live content, left open for the caller to read:
+        assertSame response.body, content
+        assertTrue closed.isEmpty()
+        assertEquals new JacksonMapMarshaller().unmarshall(response.body), [href: 'foo']
+        assertFalse closed.isEmpty()
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testExecutorsShareDaemonThreadPools() {
+
+        def a = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000)
+        def b = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000)
+
+        assertSame a.asyncExecutor, b.asyncExecutor
+        assertSame a.retryScheduler, b.retryScheduler
+        assertTrue a.asyncExecutor.allowsCoreThreadTimeOut()
+        assertTrue a.retryScheduler.allowsCoreThreadTimeOut()
+        assertTrue a.asyncExecutor.getMaximumPoolSize() >= a.getConnectionManager().getMaxTotal()
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testIsStreamable() {
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000)
+
+        assertTrue e.isStreamable(e.toSdkResponse(response(200, '{}', 'application/json')))
+        assertFalse e.isStreamable(e.toSdkResponse(response(200, '{}')))
+        assertFalse e.isStreamable(e.toSdkResponse(response(200, 'foo', 'text/plain')))
+        assertFalse e.isStreamable(e.toSdkResponse(response(404, '{"status":404}', 'application/json')))
+        assertFalse e.isStreamable(e.toSdkResponse(response(204, null, 'application/json')))
+        assertFalse e.isStreamable(e.toSdkResponse(response(200, '', 'application/json')))
+        assertTrue e.isStreamable(e.toSdkResponse(response(201, '{}', 'application/json;charset=UTF-8')))
+
+        //buffered error bodies can still be read:
+        assertEquals e.toSdkResponse(response(404, '{"status":404}', 'application/json')).body.text, '{"status":404}'
+    }
+
+    /**
+     * Compares unmarshalling a realistic account collection page from a buffered copy of the body (the previous
+     * behavior) and directly from the stream.  Run manually.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Test(enabled = false)
+    void benchmarkUnmarshallAccountCollection() {
+
+        def marshaller = new JacksonMapMarshaller()
+        def items = (1..100).collect { i ->
+            [href: "https://api.stormpath.com/v1/accounts/acct$i".toString(), username: "jsmith$i".toString(),
+             email: "jsmith$i@example.com".toString(), givenName: 'Joe', middleName: null, surname: 'Smith',
+             fullName: 'Joe Smith', status: 'ENABLED', createdAt: '2015-10-01T12:00:00.000Z',
+             modifiedAt: '2015-10-01T12:00:00.000Z', emailVerificationToken: null,
+             customData: [href: "https://api.stormpath.com/v1/accounts/acct$i/customData".toString(), favoriteColor: 'blue',
+                          createdAt: '2015-10-01T12:00:00.000Z', modifiedAt: '2015-10-01T12:00:00.000Z'],
+             providerData: [href: "https://api.stormpath.com/v1/accounts/acct$i/providerData".toString()],
+             directory: [href: 'https://api.stormpath.com/v1/directories/dir'],
+             tenant: [href: 'https://api.stormpath.com/v1/tenants/tenant'],
+             groups: [href: "https://api.stormpath.com/v1/accounts/acct$i/groups".toString()],
+             groupMemberships: [href: "https://api.stormpath.com/v1/accounts/acct$i/groupMemberships".toString()],
+             apiKeys: [href: "https://api.stormpath.com/v1/accounts/acct$i/apiKeys".toString()]]
+        }
+        byte[] json = marshaller.marshal([href: 'https://api.stormpath.com/v1/applications/app/accounts', offset: 0,
+                                          limit: 100, size: 100, items: items]).getBytes('UTF-8')
+
+        def e = new HttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000)
+        def buffered = { HttpResponse r -> marshaller.unmarshall(new ByteArrayInputStream(e.toBytes(r.entity))) }
+        def streamed = { HttpResponse r -> marshaller.unmarshall(r.entity.content) }
+
+        int iterations = 5000
+        for (int round = 0; round < 3; round++) {
+            [buffered: buffered, streamed: streamed].each { name, unmarshall ->
+                long start = System.nanoTime()
+                for (int i = 0; i < iterations; i++) {
+                    def r = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, null)
+                    r.entity = new InputStreamEntity(new ByteArrayInputStream(json), json.length)
+                    assertEquals unmarshall(r).size, 100
+                }
+                long micros = (System.nanoTime() - start) / 1000 / iterations
+                println "$name: $micros us per ${json.length} byte page"
+            }
+        }
+    }
+
+    private static HttpResponse response(int status, String body = null, String contentType = null) {
+        def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null)
+        if (body != null) {
+            response.entity = new StringEntity(body)
+        }
+        if (contentType != null) {
+            response.setHeader('Content-Type', contentType)
+        }
+        return response
+    }
 }
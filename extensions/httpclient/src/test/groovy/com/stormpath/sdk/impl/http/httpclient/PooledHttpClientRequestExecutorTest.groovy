@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.http.httpclient
+
+import com.stormpath.sdk.client.AuthenticationScheme
+import com.stormpath.sdk.client.ConnectionPoolConfig
+import com.stormpath.sdk.impl.api.ClientApiKey
+import org.apache.http.HttpVersion
+import org.apache.http.client.params.ClientPNames
+import org.apache.http.message.BasicHttpResponse
+import org.apache.http.protocol.BasicHttpContext
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class PooledHttpClientRequestExecutorTest {
+
+    @Test
+    void testDefaults() {
+        def e = new PooledHttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000, new ConnectionPoolConfig())
+
+        assertEquals e.connectionManager.maxTotal, ConnectionPoolConfig.DEFAULT_MAX_CONNECTIONS_TOTAL
+        assertEquals e.connectionManager.defaultMaxPerRoute, ConnectionPoolConfig.DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        //no lease timeout by default: requests wait for a connection indefinitely
+        assertNull e.httpClient.params.getParameter(ClientPNames.CONN_MANAGER_TIMEOUT)
+    }
+
+    @Test
+    void testKeepAliveStrategy() {
+        def config = new ConnectionPoolConfig().setKeepAlive(10, TimeUnit.SECONDS)
+        def e = new PooledHttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000, config)
+        def strategy = e.httpClient.connectionKeepAliveStrategy
+
+        def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, 'OK')
+        assertEquals strategy.getKeepAliveDuration(response, new BasicHttpContext()), 10000
+
+        //the server's keep-alive takes precedence:
+        response.addHeader('Keep-Alive', 'timeout=5')
+        assertEquals strategy.getKeepAliveDuration(response, new BasicHttpContext()), 5000
+    }
+
+    @Test
+    void testConnectionPoolStats() {
+        def config = new ConnectionPoolConfig().setMaxConnectionsTotal(7).setMaxConnectionsPerRoute(7)
+        def e = new PooledHttpClientRequestExecutor(new ClientApiKey('id', 'secret'), null, AuthenticationScheme.SAUTHC1, 20000, config)
+
+        e.evictConnections() //nothing to evict, must not fail
+
+        def stats = e.connectionPoolStats
+        assertEquals stats.max, 7
+        assertEquals stats.leased, 0
+        assertEquals stats.available, 0
+        assertEquals stats.pending, 0
+        assertEquals stats.toString(), 'leased=0, available=0, pending=0, max=7'
+    }
+
+    @Test
+    void testConfigValidation() {
+        try {
+            new ConnectionPoolConfig().setMaxConnectionsTotal(0)
+            fail("should have thrown")
+        } catch (IllegalArgumentException expected) {
+            assertEquals expected.message, 'maxConnectionsTotal must be greater than zero.'
+        }
+        try {
+            new ConnectionPoolConfig().setLeaseTimeout(1, null)
+            fail("should have thrown")
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
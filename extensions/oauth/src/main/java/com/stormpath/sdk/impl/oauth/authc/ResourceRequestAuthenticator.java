@@ -22,9 +22,11 @@ import com.stormpath.sdk.api.ApiKeyStatus;
 import com.stormpath.sdk.application.Application;
 import com.stormpath.sdk.error.authc.AccessTokenOauthException;
 import com.stormpath.sdk.error.jwt.InvalidJwtException;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
 import com.stormpath.sdk.impl.api.DefaultApiKeyOptions;
 import com.stormpath.sdk.impl.ds.InternalDataStore;
 import com.stormpath.sdk.impl.error.ApiAuthenticationExceptionFactory;
+import com.stormpath.sdk.impl.jwt.JwtClaims;
 import com.stormpath.sdk.impl.jwt.JwtSignatureValidator;
 import com.stormpath.sdk.impl.jwt.JwtWrapper;
 import com.stormpath.sdk.lang.Assert;
@@ -34,7 +36,6 @@ import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 
@@ -71,21 +72,19 @@ public class ResourceRequestAuthenticator {
                 .newOauthException(AccessTokenOauthException.class, INVALID_ACCESS_TOKEN);
         }
 
-        Map jsonMap = jwtWrapper.getJsonPayloadAsMap();
+        //only the claims needed below are read from the payload:
+        JwtClaims claims = jwtWrapper.getJsonPayloadClaims();
 
-        //Number createdTimestamp = getRequiredValue(jsonMap, AccessTokenRequestAuthenticator.ACCESS_TOKEN_CREATION_TIMESTAMP_FIELD_NAME);
+        Number expirationTimestamp = getRequiredValue(claims.getExpiration());
 
-        Number expirationTimestamp =
-            getRequiredValue(jsonMap, AccessTokenRequestAuthenticator.ACCESS_TOKEN_EXPIRATION_TIMESTAMP_FIELD_NAME);
+        assertTokenNotExpired(expirationTimestamp.longValue());
 
-        assertTokenNotExpired(/*createdTimestamp.longValue(), */expirationTimestamp.longValue());
-
-        String apiKeyId = getRequiredValue(jsonMap, AccessTokenRequestAuthenticator.ACCESS_TOKEN_SUBJECT_FIELD_NAME);
+        String apiKeyId = getRequiredValue(claims.getSubject());
 
         //Retrieve the ApiKey that owns this
         ApiKey apiKey = getTokenApiKey(application, apiKeyId);
 
-        String grantedScopes = getOptionalValue(jsonMap, OAUTH_SCOPE);
+        String grantedScopes = claims.getScope();
 
         Set<String> scope;
         if (Strings.hasText(grantedScopes)) {
@@ -126,7 +125,15 @@ public class ResourceRequestAuthenticator {
      */
     private ApiKey getTokenApiKey(Application application, String apiKeyId) {
 
-        ApiKey apiKey = application.getApiKey(apiKeyId, new DefaultApiKeyOptions().withAccount());
+        //the access token signature has been verified, so a recent verdict on the API Key is enough:
+        ApiKeyAuthenticationCache cache = dataStore.getApiKeyAuthenticationCache();
+        long cacheVersion = cache.getVersion();
+        ApiKey apiKey = cache.get(application.getHref(), apiKeyId);
+        if (apiKey != null) {
+            return apiKey;
+        }
+
+        apiKey = application.getApiKey(apiKeyId, new DefaultApiKeyOptions().withAccount());
 
         if (apiKey == null || apiKey.getStatus() == ApiKeyStatus.DISABLED) {
             throw ApiAuthenticationExceptionFactory.newOauthException(AccessTokenOauthException.class, INVALID_CLIENT);
@@ -138,26 +145,15 @@ public class ResourceRequestAuthenticator {
             throw ApiAuthenticationExceptionFactory.newOauthException(AccessTokenOauthException.class, INVALID_CLIENT);
         }
 
-        return apiKey;
-    }
-
-    private <T> T getRequiredValue(Map jsonMap, String parameterName) {
+        cache.put(application.getHref(), apiKey, cacheVersion);
 
-        Object object = jsonMap.get(parameterName);
-
-        Assert.notNull(object, "required jwt parameter is missing or null.");
-
-        return (T) object;
+        return apiKey;
     }
 
-    private <T> T getOptionalValue(Map jsonMap, String parameterName) {
+    private <T> T getRequiredValue(T value) {
 
-        Object object = jsonMap.get(parameterName);
-
-        if (object == null) {
-            return null;
-        }
+        Assert.notNull(value, "required jwt parameter is missing or null.");
 
-        return (T) object;
+        return value;
     }
 }
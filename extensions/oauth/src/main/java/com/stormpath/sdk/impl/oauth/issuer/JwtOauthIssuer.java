@@ -15,8 +15,8 @@
  */
 package com.stormpath.sdk.impl.oauth.issuer;
 
-import com.stormpath.sdk.impl.ds.JacksonMapMarshaller;
 import com.stormpath.sdk.impl.ds.MapMarshaller;
+import com.stormpath.sdk.impl.jwt.JwtJson;
 import com.stormpath.sdk.impl.jwt.signer.JwtSigner;
 import com.stormpath.sdk.lang.Assert;
 import org.apache.oltu.oauth2.as.issuer.OAuthIssuer;
@@ -42,7 +42,7 @@ public class JwtOauthIssuer implements OAuthIssuer {
         Assert.notEmpty(payload, "payload cannot be null or empty.");
         this.jwtSigner = jwtSigner;
         this.payload = payload;
-        this.mapMarshaller = new JacksonMapMarshaller();
+        this.mapMarshaller = JwtJson.getMapMarshaller();
     }
 
     @Override
@@ -39,6 +39,10 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
     public static final String STORMPATH_CACHE_TTL_SUFFIX    = ".ttl";
     public static final String STORMPATH_CACHE_TTI           = STORMPATH_CACHE_CONFIG_PREFIX + "tti";
     public static final String STORMPATH_CACHE_TTL           = STORMPATH_CACHE_CONFIG_PREFIX + "ttl";
+    public static final String STORMPATH_CACHE_MAX_ENTRIES_SUFFIX = ".maxEntries";
+    public static final String STORMPATH_CACHE_MAX_WEIGHT_SUFFIX  = ".maxWeight";
+    public static final String STORMPATH_CACHE_MAX_ENTRIES        = STORMPATH_CACHE_CONFIG_PREFIX + "maxEntries";
+    public static final String STORMPATH_CACHE_MAX_WEIGHT         = STORMPATH_CACHE_CONFIG_PREFIX + "maxWeight";
 
     @Override
     public CacheManager createCacheManager(Map<String,String> config) {
@@ -94,6 +98,16 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
                 long ttl = parseLong(sKey, value);
                 builder.withDefaultTimeToLive(ttl, TimeUnit.MILLISECONDS);
 
+            } else if (STORMPATH_CACHE_MAX_ENTRIES.equals(sKey)) {
+
+                String value = config.get(sKey);
+                builder.withDefaultMaxEntries(parseLong(sKey, value, ""));
+
+            } else if (STORMPATH_CACHE_MAX_WEIGHT.equals(sKey)) {
+
+                String value = config.get(sKey);
+                builder.withDefaultMaxWeight(parseLong(sKey, value, ""));
+
             } else if (sKey.startsWith(STORMPATH_CACHE_CONFIG_PREFIX)) {
 
                 String value = config.get(sKey);
@@ -102,6 +116,8 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
                 String regionName;
                 long ttl = -1;
                 long tti = -1;
+                long maxEntries = -1;
+                long maxWeight = -1;
 
                 if (suffix.endsWith(STORMPATH_CACHE_TTI_SUFFIX)) {
                     regionName = suffix.substring(0, suffix.length() - STORMPATH_CACHE_TTI_SUFFIX.length());
@@ -109,11 +125,17 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
                 } else if (suffix.endsWith(STORMPATH_CACHE_TTL_SUFFIX)) {
                     regionName = suffix.substring(0, suffix.length() - STORMPATH_CACHE_TTL_SUFFIX.length());
                     ttl = parseLong(sKey, value);
+                } else if (suffix.endsWith(STORMPATH_CACHE_MAX_ENTRIES_SUFFIX)) {
+                    regionName = suffix.substring(0, suffix.length() - STORMPATH_CACHE_MAX_ENTRIES_SUFFIX.length());
+                    maxEntries = parseLong(sKey, value, "");
+                } else if (suffix.endsWith(STORMPATH_CACHE_MAX_WEIGHT_SUFFIX)) {
+                    regionName = suffix.substring(0, suffix.length() - STORMPATH_CACHE_MAX_WEIGHT_SUFFIX.length());
+                    maxWeight = parseLong(sKey, value, "");
                 } else {
                     throw new IllegalArgumentException(
                         "Unrecognized configuration property [" + sKey + "]. Ensure any " +
-                        "configured region specifies either a TTI or TTL or both via " +
-                        "the appropriate suffix (.tti or .ttl respectively).");
+                        "configured region specifies a TTI, TTL, maximum number of entries or maximum weight via " +
+                        "the appropriate suffix (.tti, .ttl, .maxEntries or .maxWeight respectively).");
                 }
 
                 CacheConfigurationBuilder ccb = regionConfigs.get(regionName);
@@ -128,6 +150,12 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
                 if (tti >= 0) {
                     ccb.withTimeToIdle(tti, TimeUnit.MILLISECONDS);
                 }
+                if (maxEntries >= 0) {
+                    ccb.withMaxEntries(maxEntries);
+                }
+                if (maxWeight >= 0) {
+                    ccb.withMaxWeight(maxWeight);
+                }
             }
             //else not a stormpath.cache property - ignore it for CacheManager building purposes
         }
@@ -140,10 +168,14 @@ public class PropertiesCacheManagerFactory implements CacheManagerFactory {
     }
 
     protected long parseLong(String key, String value) {
+        return parseLong(key, value, " (milliseconds)");
+    }
+
+    private long parseLong(String key, String value, String unit) {
         try {
             return Long.parseLong(value);
         } catch (NumberFormatException e) {
-            String msg = "Unable to parse " + key + " value to a long (milliseconds).";
+            String msg = "Unable to parse " + key + " value to a long" + unit + ".";
             throw new IllegalArgumentException(msg, e);
         }
     }
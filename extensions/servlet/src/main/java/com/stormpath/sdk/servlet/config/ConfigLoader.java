@@ -18,6 +18,7 @@ package com.stormpath.sdk.servlet.config;
 import com.stormpath.sdk.lang.Classes;
 import com.stormpath.sdk.lang.Strings;
 import com.stormpath.sdk.lang.UnknownClassException;
+import com.stormpath.sdk.servlet.config.impl.DefaultConfig;
 import com.stormpath.sdk.servlet.config.impl.DefaultConfigFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -189,6 +190,10 @@ public class ConfigLoader {
      */
     public void destroyConfig(ServletContext servletContext) {
         servletContext.log("Cleaning up Stormpath config.");
+        Object config = servletContext.getAttribute(CONFIG_ATTRIBUTE_NAME);
+        if (config instanceof DefaultConfig) {
+            ((DefaultConfig) config).destroy();
+        }
         servletContext.removeAttribute(CONFIG_ATTRIBUTE_NAME);
     }
 }
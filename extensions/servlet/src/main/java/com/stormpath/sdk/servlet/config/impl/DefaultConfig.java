@@ -21,6 +21,7 @@ import com.stormpath.sdk.servlet.config.Config;
 import com.stormpath.sdk.servlet.config.CookieConfig;
 import com.stormpath.sdk.servlet.config.Factory;
 import com.stormpath.sdk.servlet.config.ImplementationClassResolver;
+import com.stormpath.sdk.servlet.util.Destroyable;
 import com.stormpath.sdk.servlet.util.ServletContextInitializable;
 
 import javax.servlet.ServletContext;
@@ -30,6 +31,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @since 1.0.RC3
@@ -60,6 +62,14 @@ public class DefaultConfig implements Config {
     public static final String ACCOUNT_COOKIE_HTTP_ONLY = "stormpath.web.account.cookie.httpOnly";
     public static final String ACCOUNT_JWT_TTL = "stormpath.web.account.jwt.ttl";
 
+    /**
+     * Whether the configuration values are evaluated once and retained ({@code true}) or evaluated on every access
+     * ({@code false}, the default).  See {@link SnapshotConfigReader} and {@link #refresh()}.
+     *
+     * @since 1.0.RC7.7
+     */
+    public static final String CONFIG_SNAPSHOT_ENABLED = "stormpath.web.config.snapshot.enabled";
+
     private final ServletContext servletContext;
     private final ConfigReader CFG;
     private final Map<String, String> props;
@@ -74,8 +84,12 @@ public class DefaultConfig implements Config {
         Assert.notNull(configProps, "Properties argument cannot be null.");
         this.servletContext = servletContext;
         this.props = Collections.unmodifiableMap(configProps);
-        this.CFG = new ExpressionConfigReader(servletContext, this.props);
-        this.SINGLETONS = new LinkedHashMap<String, Object>();
+        ConfigReader reader = new ExpressionConfigReader(servletContext, this.props);
+        if (Boolean.parseBoolean(this.props.get(CONFIG_SNAPSHOT_ENABLED))) {
+            reader = new SnapshotConfigReader(reader, this.props);
+        }
+        this.CFG = reader;
+        this.SINGLETONS = new ConcurrentHashMap<String, Object>();
 
         this.ACCOUNT_COOKIE_CONFIG = new AccountCookieConfig(CFG);
 
@@ -177,27 +191,66 @@ public class DefaultConfig implements Config {
         return _ACCOUNT_JWT_TTL;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Evaluates the configuration values again if they are {@link #CONFIG_SNAPSHOT_ENABLED retained}, for example
+     * after a change of state a configuration expression depends on.  Does nothing otherwise.
+     *
+     * @since 1.0.RC7.7
+     */
+    public void refresh() {
+        if (CFG instanceof SnapshotConfigReader) {
+            ((SnapshotConfigReader) CFG).refresh();
+        }
+    }
+
+    /**
+     * Destroys the instances created by this config that are {@link Destroyable}, such as ones holding threads.  This
+     * is called when the web application is shut down.
+     *
+     * @since 1.0.RC7.7
+     */
+    public void destroy() {
+        for (Object instance : SINGLETONS.values()) {
+            if (instance instanceof Destroyable) {
+                try {
+                    ((Destroyable) instance).destroy();
+                } catch (Exception e) {
+                    servletContext.log("Unable to destroy " + instance + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        SINGLETONS.clear();
+    }
+
     @Override
     public <T> T getInstance(String classPropertyName) throws ServletException {
+        return getSingleton(classPropertyName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getSingleton(String classPropertyName) throws ServletException {
         T instance = (T) SINGLETONS.get(classPropertyName);
         if (instance == null) {
-            instance = newInstance(classPropertyName);
-            SINGLETONS.put(classPropertyName, instance);
+            //one lock for all instances, as creating one instance may require (and therefore create) others; the
+            //lock is reentrant, so this cannot deadlock:
+            synchronized (SINGLETONS) {
+                instance = (T) SINGLETONS.get(classPropertyName);
+                if (instance == null) {
+                    instance = newInstance(classPropertyName);
+                    if (instance != null) {
+                        SINGLETONS.put(classPropertyName, instance);
+                    }
+                }
+            }
         }
 
         return instance;
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T getInstance(String classPropertyName, Class<T> expectedType) throws ServletException {
         Assert.notNull(expectedType, "expectedType argument cannot be null.");
 
-        T instance = (T) SINGLETONS.get(classPropertyName);
-        if (instance == null) {
-            instance = newInstance(classPropertyName);
-            SINGLETONS.put(classPropertyName, instance);
-        }
+        T instance = getSingleton(classPropertyName);
 
         if (!expectedType.isInstance(instance)) {
             String msg = "Configured " + classPropertyName + " class name must be an instance of " +
@@ -25,6 +25,8 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import javax.servlet.ServletContext;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @since 1.0.RC3
@@ -52,6 +54,9 @@ public class ExpressionConfigReader implements ConfigReader {
     private final Map<String, String> PROPS;
     private final StandardEvaluationContext EXPR_CONTEXT;
 
+    //parsed expressions by expression template, so each one is only parsed once:
+    private final ConcurrentMap<String, Expression> EXPRESSIONS;
+
     private static SpelExpressionParser createExpressionParser() {
         SpelCompilerMode mode = SpelCompilerMode.MIXED;
         ClassLoader cl = DefaultConfig.class.getClassLoader();
@@ -68,14 +73,23 @@ public class ExpressionConfigReader implements ConfigReader {
         EvaluationModel model = new EvaluationModel(servletContext, props);
         ctx.setRootObject(model);
         this.EXPR_CONTEXT = ctx;
+        this.EXPRESSIONS = new ConcurrentHashMap<String, Expression>();
+    }
+
+    private Object evaluate(String expression) {
+        Expression exp = EXPRESSIONS.get(expression);
+        if (exp == null) {
+            exp = EXPR_PARSER.parseExpression(expression, PARSER_CONTEXT);
+            EXPRESSIONS.putIfAbsent(expression, exp);
+        }
+        return exp.getValue(EXPR_CONTEXT);
     }
 
     @Override
     public String getString(String name) {
         String val = PROPS.get(name);
         if (isExpression(val)) {
-            Expression exp = EXPR_PARSER.parseExpression(val, PARSER_CONTEXT);
-            Object o = exp.getValue(EXPR_CONTEXT);
+            Object o = evaluate(val);
             return o != null ? String.valueOf(o) : null;
         }
         return val;
@@ -86,8 +100,7 @@ public class ExpressionConfigReader implements ConfigReader {
         String val = PROPS.get(name);
         try {
             if (isExpression(val)) {
-                Expression exp = EXPR_PARSER.parseExpression(val, PARSER_CONTEXT);
-                Object o = exp.getValue(EXPR_CONTEXT);
+                Object o = evaluate(val);
                 if (o instanceof Integer) {
                     return (Integer) o;
                 }
@@ -107,8 +120,7 @@ public class ExpressionConfigReader implements ConfigReader {
         String val = PROPS.get(name);
         try {
             if (isExpression(val)) {
-                Expression exp = EXPR_PARSER.parseExpression(val, PARSER_CONTEXT);
-                Object o = exp.getValue(EXPR_CONTEXT);
+                Object o = evaluate(val);
                 if (o instanceof Long) {
                     return (Long) o;
                 }
@@ -128,8 +140,7 @@ public class ExpressionConfigReader implements ConfigReader {
         String val = PROPS.get(name);
         try {
             if (isExpression(val)) {
-                Expression exp = EXPR_PARSER.parseExpression(val, PARSER_CONTEXT);
-                Object o = exp.getValue(EXPR_CONTEXT);
+                Object o = evaluate(val);
                 if (!(o instanceof Boolean)) {
                     String msg = "The " + name + " property expression must evaluate to a boolean.";
                     throw new IllegalArgumentException(msg);
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.config.impl;
+
+import com.stormpath.sdk.lang.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link ConfigReader} that evaluates every {@code stormpath.*} property of another {@code ConfigReader} once and
+ * then serves the evaluated values, so configuration expressions are not evaluated again for every request.
+ * <p/>
+ * String values are evaluated when the snapshot is taken.  Typed ({@code int}, {@code long}, {@code boolean}) values
+ * are evaluated on first access and then also retained until the next {@link #refresh() refresh}.  Properties that
+ * cannot be evaluated when the snapshot is taken (for example because they depend on state that is not yet
+ * available) are evaluated on access until they can be, and properties that fail to convert to the requested type
+ * always throw the delegate's exception and are never retained.
+ * <p/>
+ * If any configuration value depends on state that changes after startup, call {@link #refresh()} after the change to
+ * take a new snapshot.
+ *
+ * @since 1.0.RC7.7
+ */
+public class SnapshotConfigReader implements ConfigReader {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotConfigReader.class);
+
+    private static final String PROPERTY_PREFIX = "stormpath.";
+
+    private static final Object NULL = new Object(); //ConcurrentHashMap cannot retain null values
+
+    private final ConfigReader delegate;
+    private final Map<String, String> props;
+
+    private volatile Snapshot snapshot;
+
+    public SnapshotConfigReader(ConfigReader delegate, Map<String, String> props) {
+        Assert.notNull(delegate, "delegate ConfigReader cannot be null.");
+        Assert.notNull(props, "props cannot be null.");
+        this.delegate = delegate;
+        this.props = props;
+        refresh();
+    }
+
+    /**
+     * Discards all retained values and evaluates the {@code stormpath.*} string values again.
+     */
+    public void refresh() {
+        Snapshot snapshot = new Snapshot();
+        for (String name : props.keySet()) {
+            if (name.startsWith(PROPERTY_PREFIX)) {
+                try {
+                    snapshot.put(snapshot.strings, name, delegate.getString(name));
+                } catch (RuntimeException e) {
+                    log.debug("Unable to evaluate config property {} for the config snapshot, it will be evaluated " +
+                              "when accessed instead.", name, e);
+                }
+            }
+        }
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public String getString(String name) {
+        Snapshot snapshot = this.snapshot;
+        Object o = snapshot.strings.get(name);
+        if (o == null) {
+            o = snapshot.put(snapshot.strings, name, delegate.getString(name));
+        }
+        return o != NULL ? (String) o : null;
+    }
+
+    @Override
+    public int getInt(String name) {
+        Snapshot snapshot = this.snapshot;
+        Object o = snapshot.ints.get(name);
+        if (o == null) {
+            o = snapshot.put(snapshot.ints, name, delegate.getInt(name));
+        }
+        return (Integer) o;
+    }
+
+    @Override
+    public long getLong(String name) {
+        Snapshot snapshot = this.snapshot;
+        Object o = snapshot.longs.get(name);
+        if (o == null) {
+            o = snapshot.put(snapshot.longs, name, delegate.getLong(name));
+        }
+        return (Long) o;
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        Snapshot snapshot = this.snapshot;
+        Object o = snapshot.booleans.get(name);
+        if (o == null) {
+            o = snapshot.put(snapshot.booleans, name, delegate.getBoolean(name));
+        }
+        return (Boolean) o;
+    }
+
+    private static class Snapshot {
+
+        private final ConcurrentMap<String, Object> strings = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentMap<String, Object> ints = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentMap<String, Object> longs = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentMap<String, Object> booleans = new ConcurrentHashMap<String, Object>();
+
+        private Object put(ConcurrentMap<String, Object> values, String name, Object value) {
+            if (value == null) {
+                value = NULL;
+            }
+            values.put(name, value);
+            return value;
+        }
+    }
+}
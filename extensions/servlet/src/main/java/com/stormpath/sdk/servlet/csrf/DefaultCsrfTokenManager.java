@@ -17,6 +17,7 @@ package com.stormpath.sdk.servlet.csrf;
 
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.client.Client;
+import com.stormpath.sdk.impl.cache.ConcurrentCaches;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Strings;
 import io.jsonwebtoken.Claims;
@@ -108,11 +109,10 @@ public class DefaultCsrfTokenManager implements CsrfTokenManager {
 
             String id = jws.getBody().getId();
 
-            String usedNonce = nonceCache.get(id);
+            //atomically mark the token as used only if it hasn't been used yet:
+            String usedNonce = ConcurrentCaches.putIfAbsent(nonceCache, id, csrfToken);
 
             if (usedNonce == null) {
-                //CSRF token hasn't been used yet, mark it as used:
-                nonceCache.put(id, csrfToken);
                 return true;
             }
         } catch (Exception e) {
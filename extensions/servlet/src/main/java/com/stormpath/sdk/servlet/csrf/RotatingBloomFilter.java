@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.csrf;
+
+import com.stormpath.sdk.lang.Assert;
+
+/**
+ * A fixed-size, time-windowed Bloom filter used to detect (probabilistically) whether a value has been seen before
+ * within a given time window, without storing the values themselves.
+ * <p/>
+ * Two filter generations are kept, each covering one {@code windowMillis} period: values are added to the current
+ * generation and looked up in both.  When the current generation is older than the window, it becomes the previous
+ * generation and the oldest one is cleared and reused, so a value is always remembered for at least
+ * {@code windowMillis} after it was added and memory use never grows beyond the two generations' bit sets.
+ * <p/>
+ * As with any Bloom filter, a value that was never added may be reported as seen (a false positive), with a
+ * probability no greater than the configured {@code falsePositiveProbability} per generation, as long as no more than
+ * {@code expectedInsertions} values are added per window.  A value that was added is never reported as unseen within
+ * the window.
+ * <p/>
+ * Values are identified by (at least 16 bytes of) uniformly distributed bytes, such as a MAC or a cryptographic
+ * digest of the value, which are used directly as the filter's hash functions.
+ *
+ * @since 1.0.RC7.7
+ */
+public class RotatingBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long windowMillis;
+    private final int numBits;
+    private final int numHashFunctions;
+
+    private long[] current;
+    private long[] previous;
+    private long currentStart;
+
+    /**
+     * Creates a new filter sized for the specified number of values per window and false positive probability.
+     *
+     * @param windowMillis             the minimum length of time in milliseconds a value is remembered after it has
+     *                                 been added
+     * @param expectedInsertions       the number of values expected to be added per window
+     * @param falsePositiveProbability the desired false positive probability (between 0 and 1, exclusive) when no more
+     *                                 than {@code expectedInsertions} values are added per window
+     */
+    public RotatingBloomFilter(long windowMillis, int expectedInsertions, double falsePositiveProbability) {
+        Assert.isTrue(windowMillis > 0, "windowMillis must be greater than zero.");
+        Assert.isTrue(expectedInsertions > 0, "expectedInsertions must be greater than zero.");
+        Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+                      "falsePositiveProbability must be between 0 and 1 (exclusive).");
+        this.windowMillis = windowMillis;
+
+        //optimal sizing: m = -n ln(p) / (ln 2)^2 bits and k = (m / n) ln 2 hash functions:
+        double bits = -expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2);
+        Assert.isTrue(bits <= Integer.MAX_VALUE - 63, "expectedInsertions and falsePositiveProbability require a " +
+                                                      "filter larger than " + Integer.MAX_VALUE + " bits.");
+        this.numBits = Math.max(64, (int) Math.ceil(bits));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * LN2));
+
+        int numWords = (numBits + 63) >>> 6;
+        this.current = new long[numWords];
+        this.previous = new long[numWords];
+        this.currentStart = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the number of bits of each filter generation.
+     *
+     * @return the number of bits of each filter generation.
+     */
+    public int getNumBits() {
+        return numBits;
+    }
+
+    /**
+     * Returns the number of hash functions (bits set) per value.
+     *
+     * @return the number of hash functions (bits set) per value.
+     */
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * Returns the minimum length of time in milliseconds a value is remembered after it has been added.
+     *
+     * @return the minimum length of time in milliseconds a value is remembered after it has been added.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Returns {@code true} if the value identified by the specified bytes might have been added within the window,
+     * {@code false} if it definitely has not.
+     *
+     * @param hash at least 16 uniformly distributed bytes identifying the value
+     * @return {@code true} if the value might have been added within the window, {@code false} if it definitely has
+     * not.
+     */
+    public synchronized boolean mightContain(byte[] hash) {
+        rotateIfNecessary(System.currentTimeMillis());
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    /**
+     * Adds the value identified by the specified bytes, returning {@code true} if it had not been seen within the
+     * window, or {@code false} if it (probably) had been seen already.  Checking and adding is atomic, so two
+     * concurrent calls for the same value never both return {@code true}.
+     *
+     * @param hash at least 16 uniformly distributed bytes identifying the value
+     * @return {@code true} if the value had not been seen within the window, {@code false} if it (probably) had.
+     */
+    public synchronized boolean add(byte[] hash) {
+        rotateIfNecessary(System.currentTimeMillis());
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+        if (contains(current, h1, h2) || contains(previous, h1, h2)) {
+            return false;
+        }
+        long combined = h1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            int index = index(combined);
+            current[index >>> 6] |= 1L << index;
+            combined += h2;
+        }
+        return true;
+    }
+
+    private boolean contains(long[] bits, long h1, long h2) {
+        long combined = h1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            int index = index(combined);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    private int index(long combined) {
+        return (int) ((combined & Long.MAX_VALUE) % numBits);
+    }
+
+    private void rotateIfNecessary(long now) {
+        long elapsed = now - currentStart;
+        if (elapsed < windowMillis) {
+            return;
+        }
+        long[] oldest = previous;
+        clear(oldest);
+        if (elapsed < 2 * windowMillis) {
+            previous = current;
+            currentStart += windowMillis;
+        } else {
+            //nothing was added during the last full window, both generations are stale:
+            clear(current);
+            previous = current;
+            currentStart = now;
+        }
+        current = oldest;
+    }
+
+    private static void clear(long[] bits) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = 0;
+        }
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        Assert.isTrue(bytes != null && bytes.length >= offset + 8, "hash must have at least 16 bytes.");
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.csrf;
+
+import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.impl.util.Base64;
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.lang.Strings;
+import com.stormpath.sdk.servlet.account.AccountResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * A {@link CsrfTokenManager} that does not need a (distributed) nonce cache: tokens are compact HMAC-signed values
+ * bound to the browser they were issued to, and consumed tokens are remembered in a fixed-size, node-local
+ * {@link RotatingBloomFilter} instead of being written to a cache on every form post.
+ * <p/>
+ * A token is {@code base64url(issuedAt + random nonce) + '.' + base64url(truncated HMAC-SHA256)}, where the HMAC also
+ * covers the {@link #getTokenBinding(HttpServletRequest) token binding}:
+ * <ul>
+ * <li>the href of the current account or, if there is none, the id of the current HTTP session (if any), so a token
+ * issued to one account or session cannot be submitted on behalf of another;</li>
+ * <li>a signed random value kept in an HTTP-only {@value #BINDING_COOKIE_NAME} cookie ({@value
+ * #SECURE_BINDING_COOKIE_NAME} on secure requests, which browsers only accept from a secure origin for the whole host),
+ * set when the first token is created for a browser, so anonymous tokens are bound to a browser as well.</li>
+ * </ul>
+ * Tokens issued by a node whose clock is ahead by no more than {@link #ALLOWED_CLOCK_SKEW_MILLIS} are accepted.
+ * <h4>Trade-offs</h4>
+ * <p>Replays are detected probabilistically: a fresh token is rejected with (at most) the replay filter's false
+ * positive probability, in which case the form is simply shown again with a new token.  And because the replay filter
+ * is node-local, a token consumed on one node could be replayed <em>once</em> on each other node of a cluster until it
+ * expires; use the {@link DefaultCsrfTokenManager} with a distributed nonce cache if that is not acceptable.</p>
+ *
+ * @since 1.0.RC7.7
+ */
+public class StatelessCsrfTokenManager implements CsrfTokenManager {
+
+    private static final String DEFAULT_CSRF_TOKEN_NAME = "csrfToken";
+
+    private static final Logger log = LoggerFactory.getLogger(StatelessCsrfTokenManager.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final int NONCE_LENGTH = 12;
+    private static final int PAYLOAD_LENGTH = 8 + NONCE_LENGTH; //issuedAt millis + nonce
+    private static final int MAC_LENGTH = 16; //truncated HMAC-SHA256, also the replay filter hash
+    private static final int BINDING_LENGTH = 16;
+
+    /**
+     * Name of the cookie holding the random value tokens are bound to: {@value}.
+     */
+    public static final String BINDING_COOKIE_NAME = "csrfBinding";
+
+    /**
+     * Name of the cookie holding the random value tokens are bound to on secure requests: {@value}.
+     */
+    public static final String SECURE_BINDING_COOKIE_NAME = "__Host-" + BINDING_COOKIE_NAME;
+
+    /**
+     * Maximum difference in milliseconds between the clocks of the nodes issuing and checking a token: 60 seconds.
+     */
+    public static final long ALLOWED_CLOCK_SKEW_MILLIS = 60 * 1000;
+
+    private static final String BINDING_ATTRIBUTE_NAME = StatelessCsrfTokenManager.class.getName() + ".binding";
+
+    private final String tokenName;
+    private final SecretKeySpec signingKey;
+    private final long ttlMillis;
+    private final RotatingBloomFilter replayFilter;
+    private final SecureRandom random;
+
+    /**
+     * Instantiates a new StatelessCsrfTokenManager.
+     *
+     * @param tokenName                The name that will be used to identify the CSRF token. This name is used to
+     *                                 obtain the token from the forms for example.
+     * @param signingKey               a (hopefully secure-random) cryptographic signing key used to sign the CSRF token
+     *                                 to ensure it cannot be tampered with by HTTP clients.
+     * @param ttlMillis                the length of time in milliseconds for which a generated CSRF token is valid.
+     * @param expectedTokens           the number of tokens expected to be consumed (on this node) per {@code ttlMillis}
+     *                                 period, used to size the replay filter.
+     * @param falsePositiveProbability the acceptable probability of a fresh token being mistaken for a replayed one
+     *                                 when no more than {@code expectedTokens} are consumed per {@code ttlMillis}.
+     */
+    public StatelessCsrfTokenManager(String tokenName, String signingKey, long ttlMillis, int expectedTokens,
+                                     double falsePositiveProbability) {
+        Assert.hasText(signingKey, "signingKey cannot be null or empty.");
+        Assert.isTrue(ttlMillis > 0, "ttlMillis must be greater than zero.");
+        this.tokenName = Strings.hasText(tokenName) ? tokenName : DEFAULT_CSRF_TOKEN_NAME;
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(UTF_8), HMAC_ALGORITHM);
+        this.ttlMillis = ttlMillis;
+        //a token issued by a node with a clock ahead of ours is accepted for longer than ttlMillis:
+        this.replayFilter = new RotatingBloomFilter(ttlMillis + ALLOWED_CLOCK_SKEW_MILLIS, expectedTokens,
+                                                    falsePositiveProbability);
+        this.random = new SecureRandom();
+    }
+
+    @Override
+    public String getTokenName() {
+        return this.tokenName;
+    }
+
+    @Override
+    public String createCsrfToken(HttpServletRequest request, HttpServletResponse response) {
+
+        byte[] payload = new byte[PAYLOAD_LENGTH];
+        long now = System.currentTimeMillis();
+        for (int i = 7; i >= 0; i--) {
+            payload[i] = (byte) now;
+            now >>>= 8;
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        System.arraycopy(nonce, 0, payload, 8, NONCE_LENGTH);
+
+        String binding = getTokenBinding(request);
+        if (binding == null) {
+            binding = createTokenBinding(request, response);
+        }
+
+        String encodedPayload = Base64.encodeBase64URLSafeString(payload);
+        byte[] mac = mac(encodedPayload, binding);
+
+        return encodedPayload + '.' + Base64.encodeBase64URLSafeString(mac);
+    }
+
+    @Override
+    public boolean isValidCsrfToken(HttpServletRequest request, HttpServletResponse response, String csrfToken) {
+
+        if (csrfToken == null) {
+            return false;
+        }
+
+        String binding = getTokenBinding(request);
+        if (binding == null) {
+            //no token has been issued to this browser:
+            return false;
+        }
+
+        try {
+            int separator = csrfToken.indexOf('.');
+            if (separator <= 0) {
+                return false;
+            }
+            String encodedPayload = csrfToken.substring(0, separator);
+            byte[] payload = Base64.decodeBase64(encodedPayload);
+            byte[] mac = Base64.decodeBase64(csrfToken.substring(separator + 1));
+            if (payload.length != PAYLOAD_LENGTH || mac.length != MAC_LENGTH) {
+                return false;
+            }
+
+            //constant-time comparison to not leak how much of a forged MAC is correct:
+            if (!MessageDigest.isEqual(mac, mac(encodedPayload, binding))) {
+                return false;
+            }
+
+            long issuedAt = 0;
+            for (int i = 0; i < 8; i++) {
+                issuedAt = (issuedAt << 8) | (payload[i] & 0xFF);
+            }
+            long now = System.currentTimeMillis();
+            if (issuedAt - now > ALLOWED_CLOCK_SKEW_MILLIS || now - issuedAt >= ttlMillis) {
+                return false;
+            }
+
+            //signature is valid and the token has not expired, now let's ensure it hasn't been submitted before:
+            return replayFilter.add(mac);
+
+        } catch (Exception e) {
+            log.debug("CSRF token is invalid (this is likely to happen and not an error condition).", e);
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the value the token is bound to: a token is only valid for a request with the same binding as the request
+     * it was created for.  This implementation returns the signed value of the browser's binding cookie (or the one set
+     * earlier during the same request), followed by the {@link #getTokenSubject(HttpServletRequest) token subject}.
+     *
+     * @param request the inbound request
+     * @return the value the token is bound to, or {@code null} if the request does not have one yet.
+     */
+    protected String getTokenBinding(HttpServletRequest request) {
+        String browserBinding = getBrowserBinding(request);
+        return browserBinding != null ? browserBinding + ' ' + getTokenSubject(request) : null;
+    }
+
+    /**
+     * Creates a new binding for a request that does not have one yet, as returned by
+     * {@link #getTokenBinding(HttpServletRequest)} for the next requests.  This implementation sets a new signed random
+     * value in the browser's binding cookie.
+     *
+     * @param request  the inbound request
+     * @param response the outbound response
+     * @return the new value the token is bound to, never {@code null}.
+     */
+    protected String createTokenBinding(HttpServletRequest request, HttpServletResponse response) {
+        return createBrowserBinding(request, response) + ' ' + getTokenSubject(request);
+    }
+
+    /**
+     * Returns the href of the request's account if there is one, otherwise the id of the request's HTTP session if
+     * there is one, otherwise an empty string.
+     *
+     * @param request the inbound request
+     * @return the account or session the token is bound to, never {@code null}.
+     */
+    protected String getTokenSubject(HttpServletRequest request) {
+        Account account = AccountResolver.INSTANCE.getAccount(request);
+        if (account != null) {
+            return account.getHref();
+        }
+        HttpSession session = request.getSession(false);
+        return session != null ? session.getId() : "";
+    }
+
+    private String getBrowserBinding(HttpServletRequest request) {
+        Object binding = request.getAttribute(BINDING_ATTRIBUTE_NAME);
+        if (binding instanceof String) {
+            return (String) binding;
+        }
+        String cookieName = getBindingCookieName(request);
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName()) && isSignedBinding(cookie.getValue())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private String createBrowserBinding(HttpServletRequest request, HttpServletResponse response) {
+        byte[] bytes = new byte[BINDING_LENGTH];
+        random.nextBytes(bytes);
+        String value = Base64.encodeBase64URLSafeString(bytes);
+        String binding = value + '.' + Base64.encodeBase64URLSafeString(mac(value, BINDING_COOKIE_NAME));
+
+        Cookie cookie = new Cookie(getBindingCookieName(request), binding);
+        String path = request.getContextPath();
+        //a __Host- cookie must be secure and apply to the whole host:
+        cookie.setPath(Strings.hasText(path) && !request.isSecure() ? path : "/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        response.addCookie(cookie);
+
+        //tokens created later in this same request must share the binding:
+        request.setAttribute(BINDING_ATTRIBUTE_NAME, binding);
+        return binding;
+    }
+
+    private String getBindingCookieName(HttpServletRequest request) {
+        return request.isSecure() ? SECURE_BINDING_COOKIE_NAME : BINDING_COOKIE_NAME;
+    }
+
+    /**
+     * Returns {@code true} if the binding cookie value was created by a node sharing our signing key, so a cookie
+     * planted by a third party (e.g. from a sibling sub domain) is ignored.
+     */
+    private boolean isSignedBinding(String binding) {
+        if (!Strings.hasText(binding)) {
+            return false;
+        }
+        int separator = binding.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+        byte[] mac = Base64.decodeBase64(binding.substring(separator + 1));
+        return MessageDigest.isEqual(mac, mac(binding.substring(0, separator), BINDING_COOKIE_NAME));
+    }
+
+    private byte[] mac(String encodedPayload, String binding) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            mac.update(encodedPayload.getBytes(UTF_8));
+            mac.update((byte) '.');
+            byte[] digest = mac.doFinal(binding.getBytes(UTF_8));
+            byte[] truncated = new byte[MAC_LENGTH];
+            System.arraycopy(digest, 0, truncated, 0, MAC_LENGTH);
+            return truncated;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute " + HMAC_ALGORITHM + " of CSRF token.", e);
+        }
+    }
+}
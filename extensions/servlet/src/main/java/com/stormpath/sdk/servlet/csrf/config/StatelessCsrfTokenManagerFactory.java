@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.csrf.config;
+
+import com.stormpath.sdk.client.Client;
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.servlet.client.ClientResolver;
+import com.stormpath.sdk.servlet.config.ConfigSingletonFactory;
+import com.stormpath.sdk.servlet.csrf.CsrfTokenManager;
+import com.stormpath.sdk.servlet.csrf.StatelessCsrfTokenManager;
+
+import javax.servlet.ServletContext;
+
+/**
+ * Creates a {@link StatelessCsrfTokenManager}, which does not need the nonce cache.  To use it, set:
+ * <pre>
+ * stormpath.web.csrf.token.manager = com.stormpath.sdk.servlet.csrf.config.StatelessCsrfTokenManagerFactory
+ * </pre>
+ *
+ * @since 1.0.RC7.7
+ */
+public class StatelessCsrfTokenManagerFactory extends ConfigSingletonFactory<CsrfTokenManager> {
+
+    public static final String REPLAY_FILTER_EXPECTED_TOKENS = "stormpath.web.csrf.replayFilter.expectedTokens";
+    public static final String REPLAY_FILTER_FALSE_POSITIVE_PROBABILITY =
+        "stormpath.web.csrf.replayFilter.falsePositiveProbability";
+
+    @Override
+    protected CsrfTokenManager createInstance(ServletContext servletContext) throws Exception {
+
+        long ttlMillis;
+        try {
+            ttlMillis = Long.parseLong(getConfig().get(CsrfTokenManagerFactory.CSRF_TOKEN_TTL));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(CsrfTokenManagerFactory.CSRF_TOKEN_TTL +
+                                               " config value must be a long.", e);
+        }
+
+        int expectedTokens;
+        try {
+            expectedTokens = Integer.parseInt(getConfig().get(REPLAY_FILTER_EXPECTED_TOKENS));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(REPLAY_FILTER_EXPECTED_TOKENS + " config value must be an integer.", e);
+        }
+
+        String fppString = getConfig().get(REPLAY_FILTER_FALSE_POSITIVE_PROBABILITY);
+        Assert.hasText(fppString, REPLAY_FILTER_FALSE_POSITIVE_PROBABILITY + " config value is required.");
+        double falsePositiveProbability;
+        try {
+            falsePositiveProbability = Double.parseDouble(fppString);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(REPLAY_FILTER_FALSE_POSITIVE_PROBABILITY +
+                                               " config value must be a decimal number.", e);
+        }
+
+        Client client = ClientResolver.INSTANCE.getClient(servletContext);
+        String signingKey = client.getApiKey().getSecret();
+
+        String tokenName = getConfig().get(CsrfTokenManagerFactory.CSRF_TOKEN_NAME);
+
+        return new StatelessCsrfTokenManager(tokenName, signingKey, ttlMillis, expectedTokens,
+                                             falsePositiveProbability);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.event;
+
+import java.util.List;
+
+/**
+ * A {@link RequestEventListener} that can process multiple events at once, for example to write them in a single
+ * database transaction.
+ * <p/>
+ * An {@link com.stormpath.sdk.servlet.event.impl.AsyncRequestEventPublisher AsyncRequestEventPublisher} delivers the
+ * events that accumulated while the listener was busy to {@link #on(List)} instead of calling the listener once per
+ * event.  Other publishers call the listener once per event as usual.
+ *
+ * @since 1.0.RC7.7
+ */
+public interface BatchRequestEventListener extends RequestEventListener {
+
+    /**
+     * Called with one or more events, in the order they were published.  Each event can be dispatched to this
+     * listener's type-safe methods with {@link RequestEvent#accept(RequestEventListener) event.accept(this)}.
+     *
+     * @param events the events, never empty
+     */
+    void on(List<RequestEvent> events);
+}
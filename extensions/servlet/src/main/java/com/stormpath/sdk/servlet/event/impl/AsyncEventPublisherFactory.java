@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.event.impl;
+
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.servlet.config.ConfigSingletonFactory;
+import com.stormpath.sdk.servlet.event.RequestEventListener;
+
+import javax.servlet.ServletContext;
+
+/**
+ * Creates an {@link AsyncRequestEventPublisher}.  Enable it by setting
+ * {@code stormpath.web.request.event.publisher = com.stormpath.sdk.servlet.event.impl.AsyncEventPublisherFactory}.
+ *
+ * @since 1.0.RC7.7
+ */
+public class AsyncEventPublisherFactory extends ConfigSingletonFactory<Publisher> {
+
+    public static final String BUFFER_SIZE = "stormpath.web.request.event.publisher.async.bufferSize";
+    public static final String WORKERS = "stormpath.web.request.event.publisher.async.workers";
+    public static final String MAX_BATCH_SIZE = "stormpath.web.request.event.publisher.async.maxBatchSize";
+    public static final String OVERFLOW_POLICY = "stormpath.web.request.event.publisher.async.overflowPolicy";
+
+    @Override
+    protected Publisher createInstance(ServletContext servletContext) throws Exception {
+
+        RequestEventListener listener = getConfig().getInstance(EventPublisherFactory.REQUEST_EVENT_PUBLISHER);
+
+        int bufferSize = getInt(BUFFER_SIZE);
+        int workers = getInt(WORKERS);
+        int maxBatchSize = getInt(MAX_BATCH_SIZE);
+
+        String policyName = getConfig().get(OVERFLOW_POLICY);
+        Assert.hasText(policyName, OVERFLOW_POLICY + " config value is required.");
+        AsyncRequestEventPublisher.OverflowPolicy policy;
+        try {
+            policy = AsyncRequestEventPublisher.OverflowPolicy.valueOf(policyName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(OVERFLOW_POLICY + " config value must be one of block, drop_newest, " +
+                                               "drop_oldest or caller_runs.", e);
+        }
+
+        return new AsyncRequestEventPublisher(listener, bufferSize, workers, maxBatchSize, policy);
+    }
+
+    private int getInt(String key) {
+        try {
+            return Integer.parseInt(getConfig().get(key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " config value must be an integer.", e);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.event.impl;
+
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.servlet.event.BatchRequestEventListener;
+import com.stormpath.sdk.servlet.event.RequestEvent;
+import com.stormpath.sdk.servlet.event.RequestEventListener;
+import com.stormpath.sdk.servlet.util.Destroyable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Publisher} that delivers events to the listener on background worker threads, so that a slow listener
+ * (for example one writing audit records) does not add to the latency of the request that triggered the event.
+ * <p/>
+ * Published events are held in a bounded buffer until a worker takes them.  A worker takes all the events that
+ * accumulated (up to a maximum batch size) at once: if the listener is a {@link BatchRequestEventListener}, they are
+ * delivered in a single call, otherwise the listener is called once per event.  When the buffer is full, the
+ * {@link OverflowPolicy} determines what happens to a newly published event.  The number of events published,
+ * dispatched, dropped and that failed to be processed by the listener are available via the respective getters.
+ * <h3>Caveats</h3>
+ * <ul>
+ * <li>The request has usually completed by the time the listener is called: the listener must not use the event's
+ * {@link RequestEvent#getRequest() request} or {@link RequestEvent#getResponse() response} (the servlet container may
+ * already be reusing them for another request), only the other information carried by the event.</li>
+ * <li>With more than one worker, events may be delivered out of order and concurrently.</li>
+ * </ul>
+ * Events still buffered when this publisher is {@link #destroy() destroyed} are delivered before it returns, up to a
+ * timeout.
+ *
+ * @since 1.0.RC7.7
+ */
+public class AsyncRequestEventPublisher implements Publisher<RequestEvent>, Destroyable {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncRequestEventPublisher.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_WORKERS = 1;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Maximum time in milliseconds a publishing thread waits for room in the buffer with the
+     * {@link OverflowPolicy#BLOCK BLOCK} policy before delivering the event itself.
+     */
+    public static final long MAX_BLOCK_MILLIS = 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * What happens to an event published while the buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The publishing thread waits until there is room in the buffer (backpressure), for at most
+         * {@link #MAX_BLOCK_MILLIS} milliseconds, after which it delivers the event itself.
+         */
+        BLOCK,
+
+        /**
+         * The published event is discarded.
+         */
+        DROP_NEWEST,
+
+        /**
+         * The oldest buffered event is discarded to make room for the published event.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The published event is delivered on the publishing thread, as a synchronous publisher would.
+         */
+        CALLER_RUNS
+    }
+
+    private final RequestEventListener listener;
+    private final BlockingQueue<RequestEvent> buffer;
+    private final int maxBatchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread[] workers;
+    private volatile boolean shutdown;
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public AsyncRequestEventPublisher(RequestEventListener listener) {
+        this(listener, DEFAULT_BUFFER_SIZE, DEFAULT_WORKERS, DEFAULT_MAX_BATCH_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    public AsyncRequestEventPublisher(RequestEventListener listener, int bufferSize, int workers, int maxBatchSize,
+                                      OverflowPolicy overflowPolicy) {
+        Assert.notNull(listener, "RequestEventListener argument cannot be null.");
+        Assert.isTrue(bufferSize > 0, "bufferSize must be greater than zero.");
+        Assert.isTrue(workers > 0, "workers must be greater than zero.");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than zero.");
+        Assert.notNull(overflowPolicy, "overflowPolicy cannot be null.");
+        this.listener = listener;
+        this.buffer = new ArrayBlockingQueue<RequestEvent>(bufferSize);
+        this.maxBatchSize = maxBatchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.workers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = newWorker(i);
+        }
+        for (Thread worker : this.workers) {
+            worker.start();
+        }
+    }
+
+    private Thread newWorker(int index) {
+        Thread worker = new Thread(new Worker(), "stormpath-request-event-publisher-" + (index + 1));
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    /**
+     * Replaces the workers that stopped unexpectedly (i.e. were interrupted), so buffered events are not left behind.
+     */
+    private void ensureWorkers() {
+        for (int i = 0; i < workers.length; i++) {
+            if (!workers[i].isAlive()) {
+                restartWorker(i);
+            }
+        }
+    }
+
+    private void restartWorker(int index) {
+        synchronized (workers) {
+            if (shutdown || workers[index].isAlive()) {
+                return;
+            }
+            log.warn("Request event publisher worker {} has stopped, starting a new one.", workers[index].getName());
+            workers[index] = newWorker(index);
+            workers[index].start();
+        }
+    }
+
+    @Override
+    public void publish(RequestEvent e) {
+
+        Assert.notNull(e, "RequestEvent argument cannot be null.");
+
+        publishedCount.incrementAndGet();
+
+        if (shutdown) {
+            dispatch(Collections.singletonList(e));
+            return;
+        }
+
+        ensureWorkers();
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    long deadline = System.currentTimeMillis() + MAX_BLOCK_MILLIS;
+                    while (!buffer.offer(e, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (shutdown || System.currentTimeMillis() >= deadline) {
+                            dispatch(Collections.singletonList(e));
+                            return;
+                        }
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    dispatch(Collections.singletonList(e));
+                }
+                break;
+            case DROP_NEWEST:
+                if (!buffer.offer(e)) {
+                    droppedCount.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!buffer.offer(e)) {
+                    if (buffer.poll() != null) {
+                        droppedCount.incrementAndGet();
+                    }
+                }
+                break;
+            default: //CALLER_RUNS
+                if (!buffer.offer(e)) {
+                    dispatch(Collections.singletonList(e));
+                }
+        }
+    }
+
+    private void dispatch(List<RequestEvent> events) {
+        if (listener instanceof BatchRequestEventListener) {
+            try {
+                ((BatchRequestEventListener) listener).on(events);
+                dispatchedCount.addAndGet(events.size());
+            } catch (Throwable ex) { //an Error must not stop the worker either
+                failedCount.addAndGet(events.size());
+                log.warn("Unable to process {} request event(s): {}", events.size(), ex.getMessage(), ex);
+            }
+            return;
+        }
+
+        for (RequestEvent e : events) {
+            try {
+                //visitor pattern / double dispatch for type safe event handling:
+                e.accept(listener);
+                dispatchedCount.incrementAndGet();
+            } catch (Throwable ex) {
+                failedCount.incrementAndGet();
+                log.warn("Unable to process request event {}: {}", e, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads once all buffered events have been delivered, waiting at most
+     * {@link #DEFAULT_SHUTDOWN_TIMEOUT_MILLIS} milliseconds.  Events published afterwards are delivered on the
+     * publishing thread.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        shutdown = true;
+        long deadline = System.currentTimeMillis() + DEFAULT_SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread worker : workers) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining > 0) {
+                worker.join(remaining);
+            }
+        }
+        //events buffered concurrently with the shutdown:
+        List<RequestEvent> remaining = new ArrayList<RequestEvent>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            dispatch(remaining);
+        }
+    }
+
+    /**
+     * Returns the number of events published to this publisher.
+     *
+     * @return the number of events published to this publisher.
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * Returns the number of events successfully processed by the listener.
+     *
+     * @return the number of events successfully processed by the listener.
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * Returns the number of events discarded because the buffer was full.
+     *
+     * @return the number of events discarded because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Returns the number of events the listener failed to process (by throwing an exception).
+     *
+     * @return the number of events the listener failed to process.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of events currently waiting to be delivered.
+     *
+     * @return the number of events currently waiting to be delivered.
+     */
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            List<RequestEvent> batch = new ArrayList<RequestEvent>(Math.min(maxBatchSize, 1024));
+            while (true) {
+                RequestEvent e;
+                try {
+                    e = buffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ie) {
+                    //a new worker is started by the next publish:
+                    log.warn("Request event publisher worker {} was interrupted, stopping.", Thread.currentThread().getName());
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (e == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(e);
+                buffer.drainTo(batch, maxBatchSize - 1);
+                //the listener may retain the list:
+                dispatch(new ArrayList<RequestEvent>(batch));
+                batch.clear();
+            }
+        }
+    }
+}
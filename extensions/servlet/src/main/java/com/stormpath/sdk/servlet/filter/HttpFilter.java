@@ -253,7 +253,7 @@ public abstract class HttpFilter implements Filter {
                         log.debug(msg, this.name);
                     }
                 } else {
-                    log.debug("Filter '{}' is not enabled. Continuing filter chain immediately.", this.name);
+                    log.trace("Filter '{}' is not enabled. Continuing filter chain immediately.", this.name);
                     chain.doFilter(request, response);
                 }
             } catch (IOException ioe) {
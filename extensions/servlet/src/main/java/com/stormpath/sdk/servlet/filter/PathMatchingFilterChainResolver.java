@@ -15,6 +15,7 @@
  */
 package com.stormpath.sdk.servlet.filter;
 
+import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.servlet.util.AntPathMatcher;
 import com.stormpath.sdk.servlet.util.PatternMatcher;
 import com.stormpath.sdk.servlet.util.ServletUtils;
@@ -26,6 +27,7 @@ import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
 
 /**
  * @since 1.0.RC3
@@ -34,13 +36,27 @@ public class PathMatchingFilterChainResolver implements FilterChainResolver {
 
     private static transient final Logger log = LoggerFactory.getLogger(PathMatchingFilterChainResolver.class);
 
+    /**
+     * Default number of request paths whose matching chain is remembered: 1000.
+     *
+     * @since 1.0.RC7.7
+     */
+    public static final int DEFAULT_RESOLVED_PATH_CACHE_SIZE = 1000;
+
     private FilterChainManager filterChainManager;
 
     private PatternMatcher pathMatcher;
 
+    private int resolvedPathCacheSize = DEFAULT_RESOLVED_PATH_CACHE_SIZE;
+
+    private final boolean pathMatchesOverridden;
+
+    private volatile PathPatternIndex pathPatternIndex;
+
     public PathMatchingFilterChainResolver(ServletContext servletContext) throws ServletException {
         this.pathMatcher = new AntPathMatcher();
         this.filterChainManager = new DefaultFilterChainManager(servletContext);
+        this.pathMatchesOverridden = isPathMatchesOverridden();
     }
 
     /**
@@ -65,6 +81,31 @@ public class PathMatchingFilterChainResolver implements FilterChainResolver {
      */
     public void setPathMatcher(PatternMatcher pathMatcher) {
         this.pathMatcher = pathMatcher;
+        this.pathPatternIndex = null;
+    }
+
+    /**
+     * Returns the maximum number of request paths whose matching chain is remembered so that hot paths are resolved
+     * without any pattern matching.  Defaults to {@link #DEFAULT_RESOLVED_PATH_CACHE_SIZE}.
+     *
+     * @return the maximum number of request paths whose matching chain is remembered.
+     * @since 1.0.RC7.7
+     */
+    public int getResolvedPathCacheSize() {
+        return resolvedPathCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of request paths whose matching chain is remembered so that hot paths are resolved
+     * without any pattern matching.  A value of {@code 0} disables remembering resolved paths.
+     *
+     * @param resolvedPathCacheSize the maximum number of request paths whose matching chain is remembered.
+     * @since 1.0.RC7.7
+     */
+    public void setResolvedPathCacheSize(int resolvedPathCacheSize) {
+        Assert.isTrue(resolvedPathCacheSize >= 0, "resolvedPathCacheSize cannot be negative.");
+        this.resolvedPathCacheSize = resolvedPathCacheSize;
+        this.pathPatternIndex = null;
     }
 
     public FilterChainManager getFilterChainManager() {
@@ -74,6 +115,7 @@ public class PathMatchingFilterChainResolver implements FilterChainResolver {
     @SuppressWarnings({"UnusedDeclaration"})
     public void setFilterChainManager(FilterChainManager filterChainManager) {
         this.filterChainManager = filterChainManager;
+        this.pathPatternIndex = null;
     }
 
     public FilterChain getChain(HttpServletRequest request, HttpServletResponse response, FilterChain originalChain) {
@@ -85,6 +127,19 @@ public class PathMatchingFilterChainResolver implements FilterChainResolver {
 
         String requestUri = getContextRelativeUri(request);
 
+        PathPatternIndex index = getPathPatternIndex(filterChainManager);
+        if (index != null) {
+            String pathPattern = index.getMatchingPattern(requestUri);
+            if (pathPattern == null) {
+                return originalChain;
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Matched path pattern [" + pathPattern + "] for requestUri [" + requestUri + "].  " +
+                          "Utilizing corresponding filter chain...");
+            }
+            return filterChainManager.proxy(originalChain, pathPattern);
+        }
+
         //the 'chain names' in this implementation are actually path patterns defined by the user.  We just use them
         //as the chain name for the FilterChainManager's requirements
         for (String pathPattern : filterChainManager.getChainNames()) {
@@ -102,6 +157,42 @@ public class PathMatchingFilterChainResolver implements FilterChainResolver {
         return originalChain;
     }
 
+    /**
+     * Returns the compiled index of the configured path patterns, or {@code null} if path matching is customized (a
+     * {@code PatternMatcher} other than the {@link AntPathMatcher} or an overridden {@link #pathMatches(String,
+     * String) pathMatches} method) and every pattern must be evaluated in turn instead.  The index is (re)built
+     * lazily whenever the chain names change, as chains may be created after this resolver.
+     */
+    private PathPatternIndex getPathPatternIndex(FilterChainManager filterChainManager) {
+
+        PatternMatcher pathMatcher = getPathMatcher();
+        if (pathMatcher == null || pathMatcher.getClass() != AntPathMatcher.class || pathMatchesOverridden) {
+            return null;
+        }
+
+        Set<String> chainNames = filterChainManager.getChainNames();
+
+        PathPatternIndex index = this.pathPatternIndex;
+        //chains are only ever added (never removed), so a different count means different chain names:
+        if (index == null || index.size() != chainNames.size()) {
+            index = new PathPatternIndex(chainNames, (AntPathMatcher) pathMatcher, resolvedPathCacheSize);
+            this.pathPatternIndex = index;
+        }
+        return index;
+    }
+
+    private boolean isPathMatchesOverridden() {
+        for (Class c = getClass(); c != PathMatchingFilterChainResolver.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("pathMatches", String.class, String.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+                //not overridden at this level
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns {@code true} if an incoming request path (the {@code path} argument)
      * matches a configured filter chain path (the {@code pattern} argument), {@code false} otherwise.
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter;
+
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
+import com.stormpath.sdk.servlet.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ant-style path patterns compiled once into a trie keyed by their leading literal 'directories', used by the
+ * {@link PathMatchingFilterChainResolver} to find the first pattern (in configuration order) matching a request path
+ * without evaluating every configured pattern.
+ * <p/>
+ * A pattern can only match a path whose leading directories are equal to the pattern's leading literal directories
+ * (those before the first one containing a {@code *} or {@code ?}), so walking the path's directories down the trie
+ * visits every pattern that could possibly match it.  Only those candidates are then evaluated, in configuration
+ * order, with the {@link AntPathMatcher} itself, which keeps the exact matching semantics (trailing separators,
+ * {@code **} handling, etc) of a linear scan.  Resolved paths are additionally remembered in a bounded LRU map.
+ *
+ * @since 1.0.RC7.7
+ */
+class PathPatternIndex {
+
+    private static final String NO_MATCH = new String("NO_MATCH"); //identity compared, never a real pattern
+
+    private static final int MAX_CACHED_PATH_LENGTH = 512;
+
+    private final AntPathMatcher pathMatcher;
+    private final String pathSeparator;
+    private final String[] patterns;
+    private final String[][] patternDirs;
+    private final Node absoluteRoot;
+    private final Node relativeRoot;
+    private final BoundedConcurrentMap<String, String> resolvedPaths;
+
+    /**
+     * Compiles the given patterns, retaining their iteration order as their match priority.
+     *
+     * @param patterns              the patterns in configuration order
+     * @param pathMatcher           the matcher used to evaluate candidate patterns
+     * @param resolvedPathCacheSize the maximum number of resolved paths to remember, or {@code 0} to not remember any
+     */
+    PathPatternIndex(Collection<String> patterns, AntPathMatcher pathMatcher, int resolvedPathCacheSize) {
+        this.pathMatcher = pathMatcher;
+        this.pathSeparator = pathMatcher.getPathSeparator();
+        this.patterns = patterns.toArray(new String[patterns.size()]);
+        this.patternDirs = new String[this.patterns.length][];
+        this.absoluteRoot = new Node();
+        this.relativeRoot = new Node();
+
+        for (int i = 0; i < this.patterns.length; i++) {
+            String pattern = this.patterns[i];
+            String[] dirs = pathMatcher.tokenize(pattern);
+            this.patternDirs[i] = dirs;
+
+            //AntPathMatcher never matches an absolute path with a relative pattern or vice versa:
+            Node node = pattern.startsWith(pathSeparator) ? absoluteRoot : relativeRoot;
+            for (String dir : dirs) {
+                if (isWildcard(dir)) {
+                    break;
+                }
+                node = node.child(dir);
+            }
+            node.add(i);
+        }
+
+        this.absoluteRoot.compact();
+        this.relativeRoot.compact();
+
+        this.resolvedPaths = resolvedPathCacheSize > 0 ?
+                             new BoundedConcurrentMap<String, String>(resolvedPathCacheSize) : null;
+    }
+
+    private static boolean isWildcard(String dir) {
+        return dir.indexOf('*') != -1 || dir.indexOf('?') != -1;
+    }
+
+    /**
+     * Returns the number of compiled patterns.
+     *
+     * @return the number of compiled patterns.
+     */
+    int size() {
+        return patterns.length;
+    }
+
+    /**
+     * Returns the first pattern, in configuration order, that matches the specified path, or {@code null} if no
+     * pattern matches it.
+     *
+     * @param path the path to match
+     * @return the first pattern that matches the specified path, or {@code null} if no pattern matches it.
+     */
+    String getMatchingPattern(String path) {
+
+        boolean cacheable = resolvedPaths != null && path.length() <= MAX_CACHED_PATH_LENGTH;
+
+        if (cacheable) {
+            String pattern = resolvedPaths.get(path);
+            if (pattern != null) {
+                return pattern == NO_MATCH ? null : pattern;
+            }
+        }
+
+        String pattern = findMatchingPattern(path);
+
+        if (cacheable) {
+            resolvedPaths.put(path, pattern != null ? pattern : NO_MATCH);
+        }
+
+        return pattern;
+    }
+
+    private String findMatchingPattern(String path) {
+
+        String[] pathDirs = pathMatcher.tokenize(path);
+
+        Node node = path.startsWith(pathSeparator) ? absoluteRoot : relativeRoot;
+
+        int match = Integer.MAX_VALUE;
+
+        for (int i = 0; node != null; i++) {
+
+            //each node's candidates are in ascending order, so the first match is the best one of that node:
+            for (int candidate : node.patterns) {
+                if (candidate >= match) {
+                    break;
+                }
+                if (pathMatcher.match(patterns[candidate], patternDirs[candidate], path, pathDirs)) {
+                    match = candidate;
+                    break;
+                }
+            }
+
+            node = i < pathDirs.length ? node.get(pathDirs[i]) : null;
+        }
+
+        return match != Integer.MAX_VALUE ? patterns[match] : null;
+    }
+
+    private static class Node {
+
+        private static final int[] NONE = new int[0];
+
+        private Map<String, Node> children;
+        private List<Integer> building = new ArrayList<Integer>();
+        private int[] patterns = NONE;
+
+        Node child(String dir) {
+            if (children == null) {
+                children = new HashMap<String, Node>();
+            }
+            Node child = children.get(dir);
+            if (child == null) {
+                child = new Node();
+                children.put(dir, child);
+            }
+            return child;
+        }
+
+        Node get(String dir) {
+            return children != null ? children.get(dir) : null;
+        }
+
+        void add(int pattern) {
+            building.add(pattern);
+        }
+
+        void compact() {
+            if (!building.isEmpty()) {
+                patterns = new int[building.size()];
+                for (int i = 0; i < patterns.length; i++) {
+                    patterns[i] = building.get(i);
+                }
+            }
+            building = null;
+            if (children != null) {
+                for (Node child : children.values()) {
+                    child.compact();
+                }
+            }
+        }
+    }
+}
@@ -38,14 +38,19 @@ public class StormpathFilter extends HttpFilter {
 
     private static final Logger log = LoggerFactory.getLogger(StormpathFilter.class);
 
+    private static final String[] NO_NAMES = new String[0];
+
     private FilterChainResolver filterChainResolver;
-    private Set<String> clientRequestAttributeNames;
-    private Set<String> applicationRequestAttributeNames;
+    //arrays instead of the configured sets so setting the request attributes does not create an iterator per request:
+    private String[] clientRequestAttributeNames;
+    private String[] applicationRequestAttributeNames;
+    private String[] bypassPrefixes;
     private WrappedServletRequestFactory factory;
 
     public StormpathFilter() {
-        this.clientRequestAttributeNames = java.util.Collections.emptySet();
-        this.applicationRequestAttributeNames = java.util.Collections.emptySet();
+        this.clientRequestAttributeNames = NO_NAMES;
+        this.applicationRequestAttributeNames = NO_NAMES;
+        this.bypassPrefixes = NO_NAMES;
     }
 
     public void setFilterChainResolver(FilterChainResolver filterChainResolver) {
@@ -54,13 +59,49 @@ public class StormpathFilter extends HttpFilter {
     }
 
     public void setClientRequestAttributeNames(Set<String> clientRequestAttributeNames) {
-        this.clientRequestAttributeNames =
-            clientRequestAttributeNames != null ? clientRequestAttributeNames : new LinkedHashSet<String>();
+        this.clientRequestAttributeNames = toNames(clientRequestAttributeNames, Client.class.getName());
     }
 
     public void setApplicationRequestAttributeNames(Set<String> applicationRequestAttributeNames) {
-        this.applicationRequestAttributeNames =
-            applicationRequestAttributeNames != null ? applicationRequestAttributeNames : new LinkedHashSet<String>();
+        this.applicationRequestAttributeNames = toNames(applicationRequestAttributeNames, Application.class.getName());
+    }
+
+    private static String[] toNames(Set<String> names, String alwaysSetName) {
+        if (names == null) {
+            return NO_NAMES;
+        }
+        Set<String> set = new LinkedHashSet<String>(names);
+        set.remove(alwaysSetName); //always set anyway, no need to set it twice
+        return set.toArray(new String[set.size()]);
+    }
+
+    /**
+     * Sets the context-relative path prefixes (for example {@code /static/} or {@code /assets/}) of requests that
+     * bypass all Stormpath request handling: such requests do not have the Stormpath request attributes, are not
+     * wrapped and never reach the Stormpath filter chain.  This is intended for static resources that do not need
+     * identity functionality, to avoid any Stormpath overhead for them.
+     * <p/>
+     * A prefix matches the path itself and any path below it, so {@code /static} matches {@code /static} and
+     * {@code /static/app.js}, but not {@code /staticfoo}.  Paths are matched after being normalized by the servlet
+     * container (decoded, without path parameters or {@code ..} segments).
+     *
+     * @param bypassPrefixes the context-relative path prefixes of requests that bypass all Stormpath request handling.
+     * @since 1.0.RC7.7
+     */
+    public void setBypassPrefixes(Set<String> bypassPrefixes) {
+        if (bypassPrefixes == null) {
+            this.bypassPrefixes = NO_NAMES;
+            return;
+        }
+        Set<String> set = new LinkedHashSet<String>();
+        for (String prefix : bypassPrefixes) {
+            if (Strings.hasText(prefix)) {
+                prefix = prefix.trim();
+                Assert.isTrue(prefix.startsWith("/"), "Bypass prefix [" + prefix + "] must start with a '/'.");
+                set.add(prefix.endsWith("/") ? prefix : prefix + "/");
+            }
+        }
+        this.bypassPrefixes = set.toArray(new String[set.size()]);
     }
 
     public void setWrappedServletRequestFactory(WrappedServletRequestFactory factory) {
@@ -89,13 +130,19 @@ public class StormpathFilter extends HttpFilter {
         String val = config.get("stormpath.web.request.client.attributeNames");
         if (Strings.hasText(val)) {
             String[] vals = Strings.split(val);
-            this.clientRequestAttributeNames = new LinkedHashSet<String>(Arrays.asList(vals));
+            setClientRequestAttributeNames(new LinkedHashSet<String>(Arrays.asList(vals)));
         }
 
         val = config.get("stormpath.web.request.application.attributeNames");
         if (Strings.hasText(val)) {
             String[] vals = Strings.split(val);
-            this.applicationRequestAttributeNames = new LinkedHashSet<String>(Arrays.asList(vals));
+            setApplicationRequestAttributeNames(new LinkedHashSet<String>(Arrays.asList(vals)));
+        }
+
+        val = config.get("stormpath.web.stormpathFilter.bypassPrefixes");
+        if (Strings.hasText(val)) {
+            String[] vals = Strings.split(val);
+            setBypassPrefixes(new LinkedHashSet<String>(Arrays.asList(vals)));
         }
 
         this.factory = config.getInstance("stormpath.web.request.factory");
@@ -105,6 +152,37 @@ public class StormpathFilter extends HttpFilter {
         return this.filterChainResolver;
     }
 
+    /**
+     * Returns {@code false} if the request path matches one of the {@link #setBypassPrefixes(Set) bypass prefixes},
+     * {@code true} otherwise.
+     */
+    @Override
+    protected boolean isEnabled(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        String[] prefixes = this.bypassPrefixes;
+        if (prefixes.length == 0) {
+            return true;
+        }
+
+        //the servlet path and path info are already decoded and normalized by the container:
+        String path = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (pathInfo != null) {
+            path = path != null ? path + pathInfo : pathInfo;
+        }
+        if (path == null) {
+            return true;
+        }
+
+        for (String prefix : prefixes) {
+            //prefixes end with a '/' and also match that path without it:
+            if (path.startsWith(prefix) ||
+                (path.length() == prefix.length() - 1 && prefix.startsWith(path))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void filter(HttpServletRequest request, HttpServletResponse response, final FilterChain chain)
         throws Exception {
@@ -132,7 +210,12 @@ public class StormpathFilter extends HttpFilter {
 
     protected void setClientRequestAttributes(HttpServletRequest request) {
         String name = Client.class.getName();
-        Client client = (Client) request.getServletContext().getAttribute(name);
+        Client client = getClient();
+        if (client == null) {
+            client = (Client) request.getServletContext().getAttribute(name);
+            //the Client never changes once available, so it does not have to be looked up for every request:
+            setClient(client);
+        }
         //value must always be set:
         request.setAttribute(name, client);
 
@@ -144,7 +227,12 @@ public class StormpathFilter extends HttpFilter {
 
     protected void setApplicationRequestAttributes(HttpServletRequest request) {
         String name = Application.class.getName();
-        Application application = (Application) request.getServletContext().getAttribute(name);
+        Application application = getApplication();
+        if (application == null) {
+            application = (Application) request.getServletContext().getAttribute(name);
+            //the Application never changes once available, so it does not have to be looked up for every request:
+            setApplication(application);
+        }
         //this must always be set:
         request.setAttribute(name, application);
 
@@ -18,6 +18,7 @@ package com.stormpath.sdk.servlet.filter.account;
 import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.authc.AuthenticationResult;
 import com.stormpath.sdk.lang.Assert;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -77,6 +78,11 @@ public class DefaultAuthenticationJwtFactory implements AuthenticationJwtFactory
         JwtBuilder builder =
             Jwts.builder().setId(id).setIssuedAt(now).setSubject(sub).signWith(alg, signingKey);
 
+        String kid = getJwtKeyId(request, response, result);
+        if (kid != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, kid);
+        }
+
         long ttl = getJwtTtlSeconds(request, response, result);
         if (ttl >= 0) {
             long ttlMillis = ttl * 1000; //JWT requires times to be in seconds (not millis) since epoch
@@ -119,6 +125,23 @@ public class DefaultAuthenticationJwtFactory implements AuthenticationJwtFactory
         return getJwtSigningKeyResolver().getSigningKey(request, response, result, getJwtSignatureAlgorithm());
     }
 
+    /**
+     * Returns the id of the key returned by {@link #getJwtSigningKey(HttpServletRequest, HttpServletResponse,
+     * AuthenticationResult) getJwtSigningKey}, to be set as the JWT {@code kid} header, or {@code null} if the key is not
+     * identified.  The key id is known when the {@link JwtSigningKeyResolver} is a {@link DefaultJwtSigningKeyResolver}.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("UnusedParameters")
+    protected String getJwtKeyId(HttpServletRequest request, HttpServletResponse response,
+                                 AuthenticationResult result) {
+        JwtSigningKeyResolver resolver = getJwtSigningKeyResolver();
+        if (resolver instanceof DefaultJwtSigningKeyResolver) {
+            return ((DefaultJwtSigningKeyResolver) resolver).getSigningKeyId(request);
+        }
+        return null;
+    }
+
     @SuppressWarnings("UnusedParameters")
     protected long getJwtTtlSeconds(HttpServletRequest request, HttpServletResponse response,
                                    AuthenticationResult result) {
@@ -19,6 +19,7 @@ import com.stormpath.sdk.account.Account;
 import com.stormpath.sdk.client.Client;
 import com.stormpath.sdk.lang.Assert;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SigningKeyResolver;
@@ -34,18 +35,60 @@ import java.security.Key;
 public class DefaultJwtAccountResolver implements JwtAccountResolver {
 
     private final JwtSigningKeyResolver jwtSigningKeyResolver;
+    private final VerifiedJwtCache verifiedJwtCache;
 
     public DefaultJwtAccountResolver(JwtSigningKeyResolver jwtSigningKeyResolver) {
+        this(jwtSigningKeyResolver, null);
+    }
+
+    /**
+     * @param jwtSigningKeyResolver the resolver of the key used to verify the JWT signature
+     * @param verifiedJwtCache      the cache of already verified JWTs, or {@code null} to verify every JWT.
+     * @since 1.0.RC7.7
+     */
+    public DefaultJwtAccountResolver(JwtSigningKeyResolver jwtSigningKeyResolver, VerifiedJwtCache verifiedJwtCache) {
         Assert.notNull(jwtSigningKeyResolver, "JwtSigningKeyResolver cannot be null.");
         this.jwtSigningKeyResolver = jwtSigningKeyResolver;
+        this.verifiedJwtCache = verifiedJwtCache;
     }
 
     protected JwtSigningKeyResolver getJwtSigningKeyResolver() {
         return this.jwtSigningKeyResolver;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    protected VerifiedJwtCache getVerifiedJwtCache() {
+        return this.verifiedJwtCache;
+    }
+
     @Override
-    public Account getAccountByJwt(final HttpServletRequest request, final HttpServletResponse response, String jwt) {
+    public Account getAccountByJwt(HttpServletRequest request, HttpServletResponse response, String jwt) {
+
+        VerifiedJwtCache cache = getVerifiedJwtCache();
+
+        Jws<Claims> jws = cache != null ? cache.get(jwt) : null;
+        if (jws == null) {
+            jws = parseJws(request, response, jwt);
+            if (cache != null) {
+                cache.put(jwt, jws);
+            }
+        }
+
+        String accountHref = jws.getBody().getSubject();
+
+        //will hit the cache:
+        Client client = getClient(request);
+        return client.getResource(accountHref, Account.class);
+    }
+
+    /**
+     * Parses the specified JWT, verifying its signature with the key returned by the {@link JwtSigningKeyResolver}.
+     *
+     * @since 1.0.RC7.7
+     */
+    protected Jws<Claims> parseJws(final HttpServletRequest request, final HttpServletResponse response, String jwt) {
 
         final JwtSigningKeyResolver resolver = getJwtSigningKeyResolver();
 
@@ -57,13 +100,7 @@ public class DefaultJwtAccountResolver implements JwtAccountResolver {
             }
         };
 
-        Claims claims = Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(jwt).getBody();
-
-        String accountHref = claims.getSubject();
-
-        //will hit the cache:
-        Client client = getClient(request);
-        return client.getResource(accountHref, Account.class);
+        return Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(jwt);
     }
 
     protected Client getClient(HttpServletRequest request) {
@@ -15,20 +15,25 @@
  */
 package com.stormpath.sdk.servlet.filter.account;
 
+import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.authc.AuthenticationResult;
 import com.stormpath.sdk.client.Client;
-import com.stormpath.sdk.impl.util.Base64;
 import com.stormpath.sdk.lang.Assert;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
 
-import javax.crypto.spec.SecretKeySpec;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.security.Key;
 
 /**
+ * Signs JWTs with a key derived from the secret of the request {@link Client}'s API Key, identifying it with the API
+ * Key id as the JWT {@code kid} header.  Keys are obtained from a {@link SigningKeyRegistry}, so additional
+ * (for example previous) keys may be {@link SigningKeyRegistry#register(String, String) registered} to keep verifying
+ * JWTs signed with them.  JWTs without a {@code kid} header are verified with the current API Key.
+ *
  * @since 1.0.RC3
  */
 public class DefaultJwtSigningKeyResolver implements JwtSigningKeyResolver {
@@ -43,6 +48,27 @@ public class DefaultJwtSigningKeyResolver implements JwtSigningKeyResolver {
                                              "may want to implement your own JwtSigningKeyResolver implementation " +
                                              "to support Elliptic Curve keys.";
 
+    private final SigningKeyRegistry signingKeyRegistry;
+
+    public DefaultJwtSigningKeyResolver() {
+        this(new SigningKeyRegistry());
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public DefaultJwtSigningKeyResolver(SigningKeyRegistry signingKeyRegistry) {
+        Assert.notNull(signingKeyRegistry, "SigningKeyRegistry cannot be null.");
+        this.signingKeyRegistry = signingKeyRegistry;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public SigningKeyRegistry getSigningKeyRegistry() {
+        return signingKeyRegistry;
+    }
+
     @Override
     public Key getSigningKey(HttpServletRequest request, HttpServletResponse response, AuthenticationResult result,
                              SignatureAlgorithm alg) {
@@ -54,20 +80,46 @@ public class DefaultJwtSigningKeyResolver implements JwtSigningKeyResolver {
     @Override
     public Key getSigningKey(HttpServletRequest request, HttpServletResponse response, JwsHeader jwsHeader,
                              Claims claims) {
-        return getSigningKey(request, SignatureAlgorithm.forName(jwsHeader.getAlgorithm()));
-    }
 
-    protected Key getSigningKey(HttpServletRequest request, SignatureAlgorithm alg) {
+        SignatureAlgorithm alg = SignatureAlgorithm.forName(jwsHeader.getAlgorithm());
+        Assert.isTrue(!alg.isRsa(), RSA_ERR_MSG);
+        Assert.isTrue(!alg.isEllipticCurve(), EC_ERR_MSG);
 
-        Client client = (Client) request.getAttribute(Client.class.getName());
-        Assert.notNull(client, "Client must be accessible as a request attribute.");
+        String kid = jwsHeader.getKeyId();
+        if (kid != null) {
+            Key key = getSigningKeyRegistry().getKey(kid, alg);
+            if (key != null) {
+                return key;
+            }
+            //the current API Key may not have been used on this node yet:
+            if (!kid.equals(getApiKey(request).getId())) {
+                throw new SignatureException("Unknown JWT signing key id '" + kid + "'.");
+            }
+        }
 
-        String apiKeySecret = client.getApiKey().getSecret();
+        return getSigningKey(request, alg);
+    }
 
-        //Stormpath API Keys are base-64-encoded secure random byte arrays:
-        byte[] apiKeySecretBytes = Base64.decodeBase64(apiKeySecret);
+    /**
+     * Returns the id of the key returned by {@link #getSigningKey(HttpServletRequest, SignatureAlgorithm)}, to be set
+     * as the {@code kid} header of the JWTs signed with it.
+     *
+     * @since 1.0.RC7.7
+     */
+    public String getSigningKeyId(HttpServletRequest request) {
+        return getApiKey(request).getId();
+    }
 
-        return new SecretKeySpec(apiKeySecretBytes, alg.getJcaName());
+    protected Key getSigningKey(HttpServletRequest request, SignatureAlgorithm alg) {
+        return getSigningKeyRegistry().getKey(getApiKey(request), alg);
+    }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    protected ApiKey getApiKey(HttpServletRequest request) {
+        Client client = (Client) request.getAttribute(Client.class.getName());
+        Assert.notNull(client, "Client must be accessible as a request attribute.");
+        return client.getApiKey();
     }
 }
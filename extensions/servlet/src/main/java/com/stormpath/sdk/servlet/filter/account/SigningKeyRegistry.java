@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter.account;
+
+import com.stormpath.sdk.api.ApiKey;
+import com.stormpath.sdk.impl.util.Base64;
+import com.stormpath.sdk.lang.Assert;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A registry of the HMAC keys used to sign and verify JWTs, indexed by key id ({@code kid}).
+ * <p/>
+ * Each key is derived from its (Base64-encoded) secret only once per {@link SignatureAlgorithm} and then reused, so
+ * obtaining a key is a constant time lookup that does not decode the secret or allocate a new key instance.
+ * <h3>Key Rotation</h3>
+ * Any number of keys may be registered at the same time.  Tokens identify the key they were signed with in their
+ * {@code kid} header, so a secret may be rolled over without invalidating the tokens already issued: keep the
+ * previous key {@link #register(String, String) registered} while tokens signed with it may still be presented,
+ * and {@link #unregister(String) unregister} it once they have all expired.
+ *
+ * @see DefaultJwtSigningKeyResolver
+ * @since 1.0.RC7.7
+ */
+public class SigningKeyRegistry {
+
+    private static final int ALGORITHM_COUNT = SignatureAlgorithm.values().length;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Registers (or replaces) the key identified by {@code kid}.
+     *
+     * @param kid    the id of the key, as found in the {@code kid} header of the JWTs signed with it
+     * @param secret the Base64-encoded key secret
+     */
+    public void register(String kid, String secret) {
+        Assert.hasText(kid, "kid cannot be null or empty.");
+        Assert.hasText(secret, "secret cannot be null or empty.");
+        entries.put(kid, new Entry(secret));
+    }
+
+    /**
+     * Removes the key identified by {@code kid}: JWTs signed with it will no longer be verifiable.
+     *
+     * @param kid the id of the key to remove
+     * @return {@code true} if the key was registered, {@code false} otherwise.
+     */
+    public boolean unregister(String kid) {
+        return entries.remove(kid) != null;
+    }
+
+    public Set<String> getKeyIds() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Returns the key identified by {@code kid} for the specified algorithm, or {@code null} if no such key has been
+     * registered.
+     *
+     * @param kid the id of the key
+     * @param alg the signature algorithm the key will be used with
+     * @return the key identified by {@code kid} for the specified algorithm, or {@code null} if no such key has been
+     *         registered.
+     */
+    public Key getKey(String kid, SignatureAlgorithm alg) {
+        Entry entry = entries.get(kid);
+        return entry != null ? entry.getKey(alg) : null;
+    }
+
+    /**
+     * Returns the key derived from the specified API Key's secret for the specified algorithm, registering it with the
+     * API Key id as its {@code kid} if necessary (or if the API Key secret has changed).
+     *
+     * @param apiKey the API Key whose secret is the key material
+     * @param alg    the signature algorithm the key will be used with
+     * @return the key derived from the specified API Key's secret for the specified algorithm.
+     */
+    public Key getKey(ApiKey apiKey, SignatureAlgorithm alg) {
+        String kid = apiKey.getId();
+        String secret = apiKey.getSecret();
+
+        Entry entry = entries.get(kid);
+        if (entry == null || !entry.secret.equals(secret)) {
+            entry = new Entry(secret);
+            entries.put(kid, entry);
+        }
+        return entry.getKey(alg);
+    }
+
+    private static class Entry {
+
+        private final String secret;
+        private final byte[] secretBytes;
+        private final AtomicReferenceArray<Key> keys = new AtomicReferenceArray<Key>(ALGORITHM_COUNT);
+
+        private Entry(String secret) {
+            this.secret = secret;
+            //Stormpath API Keys are base-64-encoded secure random byte arrays:
+            this.secretBytes = Base64.decodeBase64(secret);
+        }
+
+        private Key getKey(SignatureAlgorithm alg) {
+            int i = alg.ordinal();
+            Key key = keys.get(i);
+            if (key == null) {
+                //SecretKeySpec is immutable, so a duplicate created by a concurrent caller is harmless:
+                key = new SecretKeySpec(secretBytes, alg.getJcaName());
+                keys.set(i, key);
+            }
+            return key;
+        }
+    }
+}
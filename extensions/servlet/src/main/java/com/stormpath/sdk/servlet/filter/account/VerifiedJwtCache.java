@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter.account;
+
+import com.stormpath.sdk.impl.util.Base64;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
+import com.stormpath.sdk.lang.Assert;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of JWTs whose signature has already been verified, allowing requests that present the same token
+ * over and over again (for example, the account cookie or the Bearer token sent by a single page application) to skip
+ * parsing and signature verification.
+ * <p/>
+ * Tokens are not retained: entries are keyed by the SHA-256 digest of the token.  An entry is only returned until the
+ * token's {@code exp} claim is reached or, at the latest, until {@link #getMaxTtlMillis() maxTtlMillis} after it was
+ * verified, after which the token is verified again (and rejected if it has expired).  The maximum TTL bounds how
+ * long a token remains accepted after the signing key it was verified with has been changed.
+ * <p/>
+ * Because a cached token is no longer checked against the key returned by the {@link JwtSigningKeyResolver}, this cache
+ * should be disabled (by setting a {@code maxEntries} value of {@code 0}) if the resolver returns different keys for
+ * different requests.
+ *
+ * @since 1.0.RC7.7
+ */
+public class VerifiedJwtCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_MAX_TTL_MILLIS = 5 * 60 * 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 MessageDigest is not available.", e);
+            }
+        }
+    };
+
+    private final BoundedConcurrentMap<String, Entry> entries;
+    private final long maxTtlMillis;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public VerifiedJwtCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_TTL_MILLIS);
+    }
+
+    /**
+     * Creates a new cache retaining at most {@code maxEntries} verified tokens for at most {@code maxTtlMillis} each.
+     *
+     * @param maxEntries   the maximum number of verified tokens to retain, or {@code 0} to disable caching.
+     * @param maxTtlMillis the maximum time in milliseconds a verified token is retained, regardless of its expiration.
+     */
+    public VerifiedJwtCache(int maxEntries, long maxTtlMillis) {
+        Assert.isTrue(maxEntries >= 0, "maxEntries cannot be negative.");
+        Assert.isTrue(maxTtlMillis > 0, "maxTtlMillis must be greater than zero.");
+        this.maxTtlMillis = maxTtlMillis;
+        if (maxEntries > 0) {
+            this.entries = new BoundedConcurrentMap<String, Entry>(maxEntries);
+            this.entries.setExpiry(new BoundedConcurrentMap.Expiry<String, Entry>() {
+                @Override
+                public boolean isExpired(String key, Entry entry, long nowMillis) {
+                    return entry.isExpired(nowMillis);
+                }
+            });
+        } else {
+            this.entries = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.entries != null;
+    }
+
+    public long getMaxTtlMillis() {
+        return maxTtlMillis;
+    }
+
+    /**
+     * Returns the verified claims of the specified token if it has been {@link #put(String, Jws) put} in this cache
+     * and has not expired yet, {@code null} otherwise.
+     *
+     * @param jwt the compact JWT string presented by the client
+     * @return the verified claims of the specified token, or {@code null} if it must be verified.
+     */
+    public Jws<Claims> get(String jwt) {
+        if (entries == null) {
+            return null;
+        }
+        String key = digest(jwt);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (!entry.isExpired(System.currentTimeMillis())) {
+                hitCount.incrementAndGet();
+                return entry.jws;
+            }
+            entries.remove(key, entry);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Retains the specified claims, which <em>must</em> have been obtained by verifying the signature of the specified
+     * token, so subsequent requests presenting the same token do not need to verify it again.
+     *
+     * @param jwt the compact JWT string presented by the client
+     * @param jws the claims obtained by parsing and verifying {@code jwt}
+     */
+    public void put(String jwt, Jws<Claims> jws) {
+        if (entries == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlMillis;
+        Date exp = jws.getBody().getExpiration();
+        if (exp != null) {
+            expiresAt = Math.min(expiresAt, exp.getTime());
+        }
+        if (expiresAt > now) {
+            entries.put(digest(jwt), new Entry(jws, expiresAt));
+        }
+    }
+
+    public void clear() {
+        if (entries != null) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        return entries != null ? entries.size() : 0;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static String digest(String jwt) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return Base64.encodeBase64URLSafeString(digest.digest(jwt.getBytes(UTF_8)));
+    }
+
+    private static class Entry {
+
+        private final Jws<Claims> jws;
+        private final long expiresAt;
+
+        private Entry(Jws<Claims> jws, long expiresAt) {
+            this.jws = jws;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAt;
+        }
+    }
+}
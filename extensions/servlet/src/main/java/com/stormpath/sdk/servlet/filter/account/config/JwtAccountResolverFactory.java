@@ -20,6 +20,7 @@ import com.stormpath.sdk.servlet.config.ConfigSingletonFactory;
 import com.stormpath.sdk.servlet.filter.account.DefaultJwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 
 import javax.servlet.ServletContext;
 
@@ -32,6 +33,7 @@ public class JwtAccountResolverFactory extends ConfigSingletonFactory<JwtAccount
     protected JwtAccountResolver createInstance(ServletContext servletContext) throws Exception {
         Config config = (Config) servletContext.getAttribute(Config.class.getName());
         JwtSigningKeyResolver resolver = config.getInstance("stormpath.web.account.jwt.signingKey.resolver");
-        return new DefaultJwtAccountResolver(resolver);
+        VerifiedJwtCache cache = config.getInstance("stormpath.web.account.jwt.cache");
+        return new DefaultJwtAccountResolver(resolver, cache);
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter.account.config;
+
+import com.stormpath.sdk.lang.Strings;
+import com.stormpath.sdk.servlet.config.ConfigSingletonFactory;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
+
+import javax.servlet.ServletContext;
+
+/**
+ * @since 1.0.RC7.7
+ */
+public class VerifiedJwtCacheFactory extends ConfigSingletonFactory<VerifiedJwtCache> {
+
+    public static final String MAX_ENTRIES = "stormpath.web.account.jwt.cache.maxEntries";
+    public static final String MAX_TTL = "stormpath.web.account.jwt.cache.maxTtl";
+
+    @Override
+    protected VerifiedJwtCache createInstance(ServletContext servletContext) throws Exception {
+
+        int maxEntries = VerifiedJwtCache.DEFAULT_MAX_ENTRIES;
+        String value = getConfig().get(MAX_ENTRIES);
+        if (Strings.hasText(value)) {
+            try {
+                maxEntries = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(MAX_ENTRIES + " config value must be an integer.", e);
+            }
+        }
+
+        long maxTtlMillis = VerifiedJwtCache.DEFAULT_MAX_TTL_MILLIS;
+        value = getConfig().get(MAX_TTL);
+        if (Strings.hasText(value)) {
+            try {
+                maxTtlMillis = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(MAX_TTL + " config value must be a long.", e);
+            }
+        }
+
+        return new VerifiedJwtCache(maxEntries, maxTtlMillis);
+    }
+}
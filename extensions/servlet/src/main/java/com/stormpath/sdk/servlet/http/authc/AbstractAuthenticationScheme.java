@@ -20,10 +20,13 @@ import com.stormpath.sdk.account.AccountStatus;
 import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.api.ApiKeyStatus;
 import com.stormpath.sdk.application.Application;
+import com.stormpath.sdk.client.Client;
 import com.stormpath.sdk.error.Error;
 import com.stormpath.sdk.error.authc.DisabledAccountException;
 import com.stormpath.sdk.error.authc.DisabledApiKeyException;
 import com.stormpath.sdk.error.authc.InvalidApiKeyException;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
+import com.stormpath.sdk.impl.ds.InternalDataStore;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -39,10 +42,35 @@ public abstract class AbstractAuthenticationScheme implements HttpAuthentication
         return (Application)request.getAttribute(Application.class.getName());
     }
 
+    /**
+     * Returns the cache of recently verified API Keys of the request {@link Client}, or {@code null} if the client
+     * does not provide one.
+     *
+     * @since 1.0.RC7.7
+     */
+    protected ApiKeyAuthenticationCache getApiKeyAuthenticationCache(HttpServletRequest request) {
+        Client client = (Client) request.getAttribute(Client.class.getName());
+        if (client != null && client.getDataStore() instanceof InternalDataStore) {
+            return ((InternalDataStore) client.getDataStore()).getApiKeyAuthenticationCache();
+        }
+        return null;
+    }
+
     protected ApiKey getEnabledApiKey(HttpServletRequest request, String apiKeyId)
         throws InvalidApiKeyException, DisabledApiKeyException, DisabledAccountException {
 
         Application app = getApplication(request);
+
+        ApiKeyAuthenticationCache cache = getApiKeyAuthenticationCache(request);
+        long cacheVersion = 0;
+        if (cache != null) {
+            cacheVersion = cache.getVersion();
+            ApiKey apiKey = cache.get(app.getHref(), apiKeyId);
+            if (apiKey != null) {
+                return apiKey;
+            }
+        }
+
         ApiKey apiKey = app.getApiKey(apiKeyId);
 
         if (apiKey == null) {
@@ -60,6 +88,10 @@ public abstract class AbstractAuthenticationScheme implements HttpAuthentication
             throw new DisabledAccountException(newError("account is disabled."), status);
         }
 
+        if (cache != null) {
+            cache.put(app.getHref(), apiKey, cacheVersion);
+        }
+
         return apiKey;
     }
 
@@ -22,6 +22,7 @@ import com.stormpath.sdk.application.Application;
 import com.stormpath.sdk.authc.AuthenticationRequest;
 import com.stormpath.sdk.authc.AuthenticationResult;
 import com.stormpath.sdk.authc.AuthenticationResultVisitor;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
 import com.stormpath.sdk.impl.util.Base64;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Strings;
@@ -151,6 +152,32 @@ public class BasicAuthenticationScheme extends AbstractAuthenticationScheme {
         return new DefaultHttpAuthenticationResult(request, response, result);
     }
 
+    /**
+     * Returns the enabled API Key identified by {@code apiKeyId} if its secret is {@code apiKeySecret}.  A key recently
+     * verified with the same secret is returned without querying Stormpath.
+     *
+     * @since 1.0.RC7.7
+     */
+    protected ApiKey getAuthenticatedApiKey(HttpServletRequest request, String apiKeyId, String apiKeySecret)
+        throws HttpAuthenticationException {
+
+        ApiKeyAuthenticationCache cache = getApiKeyAuthenticationCache(request);
+        if (cache != null) {
+            ApiKey apiKey = cache.get(getApplication(request).getHref(), apiKeyId, apiKeySecret);
+            if (apiKey != null) {
+                return apiKey;
+            }
+        }
+
+        ApiKey apiKey = getEnabledApiKey(request, apiKeyId);
+
+        if (!apiKeySecret.equals(apiKey.getSecret())) {
+            throw new HttpAuthenticationException("Submitted API Key secret does not match stored API Key secret.");
+        }
+
+        return apiKey;
+    }
+
     protected HttpAuthenticationResult authenticateApiKey(HttpAuthenticationAttempt attempt, String submittedApiKeyId,
                                                           String submittedApiKeySecret)
         throws HttpAuthenticationException {
@@ -164,11 +191,7 @@ public class BasicAuthenticationScheme extends AbstractAuthenticationScheme {
             request = attempt.getRequest();
             response = attempt.getResponse();
 
-            final ApiKey apiKey = getEnabledApiKey(request, submittedApiKeyId);
-
-            if (!submittedApiKeySecret.equals(apiKey.getSecret())) {
-                throw new HttpAuthenticationException("Submitted API Key secret does not match stored API Key secret.");
-            }
+            final ApiKey apiKey = getAuthenticatedApiKey(request, submittedApiKeyId, submittedApiKeySecret);
 
             final Account account = apiKey.getAccount();
 
@@ -28,6 +28,7 @@ import com.stormpath.sdk.oauth.OauthAuthenticationResult;
 import com.stormpath.sdk.resource.ResourceException;
 import com.stormpath.sdk.servlet.authc.impl.TransientAuthenticationResult;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 import com.stormpath.sdk.servlet.filter.oauth.OauthErrorCode;
 import com.stormpath.sdk.servlet.filter.oauth.OauthException;
 import com.stormpath.sdk.servlet.http.impl.StormpathHttpServletRequest;
@@ -59,9 +60,21 @@ public class BearerAuthenticationScheme extends AbstractAuthenticationScheme {
 
     private JwtSigningKeyResolver jwtSigningKeyResolver;
 
+    private VerifiedJwtCache verifiedJwtCache;
+
     public BearerAuthenticationScheme(JwtSigningKeyResolver jwtSigningKeyResolver) {
+        this(jwtSigningKeyResolver, null);
+    }
+
+    /**
+     * @param jwtSigningKeyResolver the resolver of the key used to verify the access token signature
+     * @param verifiedJwtCache      the cache of already verified tokens, or {@code null} to verify every token.
+     * @since 1.0.RC7.7
+     */
+    public BearerAuthenticationScheme(JwtSigningKeyResolver jwtSigningKeyResolver, VerifiedJwtCache verifiedJwtCache) {
         Assert.notNull(jwtSigningKeyResolver, "JwtSigningKeyResolver cannot be null.");
         this.jwtSigningKeyResolver = jwtSigningKeyResolver;
+        this.verifiedJwtCache = verifiedJwtCache;
     }
 
     @Override
@@ -73,6 +86,13 @@ public class BearerAuthenticationScheme extends AbstractAuthenticationScheme {
         return this.jwtSigningKeyResolver;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    protected VerifiedJwtCache getVerifiedJwtCache() {
+        return this.verifiedJwtCache;
+    }
+
     @Override
     public HttpAuthenticationResult authenticate(HttpAuthenticationAttempt attempt) throws HttpAuthenticationException {
 
@@ -118,22 +138,21 @@ public class BearerAuthenticationScheme extends AbstractAuthenticationScheme {
         }
     }
 
-    protected HttpAuthenticationResult authenticate(final HttpServletRequest request,
-                                                    final HttpServletResponse response, String token) {
+    protected HttpAuthenticationResult authenticate(HttpServletRequest request, HttpServletResponse response,
+                                                    String token) {
 
         Jws<Claims> jws;
 
         try {
-            final JwtSigningKeyResolver resolver = getJwtSigningKeyResolver();
+            VerifiedJwtCache cache = getVerifiedJwtCache();
 
-            SigningKeyResolver signingKeyResolver = new SigningKeyResolverAdapter() {
-                @Override
-                public Key resolveSigningKey(JwsHeader header, Claims claims) {
-                    return resolver.getSigningKey(request, response, header, claims);
+            jws = cache != null ? cache.get(token) : null;
+            if (jws == null) {
+                jws = parseJws(request, response, token);
+                if (cache != null) {
+                    cache.put(token, jws);
                 }
-            };
-
-            jws = Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(token);
+            }
 
             return createAuthenticationResult(request, response, jws);
 
@@ -147,6 +166,27 @@ public class BearerAuthenticationScheme extends AbstractAuthenticationScheme {
         }
     }
 
+    /**
+     * Parses the specified access token, verifying its signature with the key returned by the
+     * {@link JwtSigningKeyResolver}.
+     *
+     * @since 1.0.RC7.7
+     */
+    protected Jws<Claims> parseJws(final HttpServletRequest request, final HttpServletResponse response,
+                                   String token) {
+
+        final JwtSigningKeyResolver resolver = getJwtSigningKeyResolver();
+
+        SigningKeyResolver signingKeyResolver = new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolver.getSigningKey(request, response, header, claims);
+            }
+        };
+
+        return Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(token);
+    }
+
     protected HttpAuthenticationResult createAuthenticationResult(HttpServletRequest request,
                                                                   HttpServletResponse response, Jws<Claims> jws)
         throws OauthException {
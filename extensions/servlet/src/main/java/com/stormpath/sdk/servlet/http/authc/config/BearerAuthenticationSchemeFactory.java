@@ -19,6 +19,7 @@ import com.stormpath.sdk.servlet.config.Config;
 import com.stormpath.sdk.servlet.config.ConfigResolver;
 import com.stormpath.sdk.servlet.config.ConfigSingletonFactory;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 import com.stormpath.sdk.servlet.http.authc.BearerAuthenticationScheme;
 
 import javax.servlet.ServletContext;
@@ -32,6 +33,7 @@ public class BearerAuthenticationSchemeFactory extends ConfigSingletonFactory<Be
     protected BearerAuthenticationScheme createInstance(ServletContext servletContext) throws Exception {
         Config config = ConfigResolver.INSTANCE.getConfig(servletContext);
         JwtSigningKeyResolver resolver = config.getInstance("stormpath.web.account.jwt.signingKey.resolver");
-        return new BearerAuthenticationScheme(resolver);
+        VerifiedJwtCache cache = config.getInstance("stormpath.web.account.jwt.cache");
+        return new BearerAuthenticationScheme(resolver, cache);
     }
 }
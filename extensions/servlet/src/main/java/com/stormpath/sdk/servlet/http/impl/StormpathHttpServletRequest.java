@@ -89,6 +89,12 @@ public class StormpathHttpServletRequest extends HttpServletRequestWrapper {
     private final String userPrincipalStrategyName;
     private final String remoteUserStrategyName;
 
+    //lazily populated, as most requests never need them:
+    private Config config;
+    private boolean configResolved;
+    private HttpSession session;
+    private HttpSession wrappedSession;
+
     public StormpathHttpServletRequest(HttpServletRequest request, HttpServletResponse response,
                                        UsernamePasswordRequestFactory usernamePasswordRequestFactory,
                                        Publisher<RequestEvent> eventPublisher,
@@ -170,8 +176,12 @@ public class StormpathHttpServletRequest extends HttpServletRequestWrapper {
     }
 
     protected Config getConfig() {
-        ServletContext servletContext = getServletContext();
-        return (Config)servletContext.getAttribute(Config.class.getName());
+        if (!configResolved) {
+            ServletContext servletContext = getServletContext();
+            config = (Config) servletContext.getAttribute(Config.class.getName());
+            configResolved = true;
+        }
+        return config;
     }
 
     protected boolean hasAccount() {
@@ -186,10 +196,15 @@ public class StormpathHttpServletRequest extends HttpServletRequestWrapper {
     public HttpSession getSession(boolean create) {
         //need to wrap the session so get/setAttribute and get/putValue implementations handle Resources efficiently:
         HttpSession session = super.getSession(create);
-        if (session != null) {
-            session = new StormpathHttpSession(session);
+        if (session == null) {
+            return null;
+        }
+        //reuse the wrapper for as long as the container returns the same session:
+        if (session != this.session) {
+            this.session = session;
+            this.wrappedSession = new StormpathHttpSession(session);
         }
-        return session;
+        return this.wrappedSession;
     }
 
     @Override
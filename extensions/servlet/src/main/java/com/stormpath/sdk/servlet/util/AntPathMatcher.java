@@ -71,6 +71,44 @@ public class AntPathMatcher implements PatternMatcher {
     }
 
 
+    /**
+     * Returns the path separator used for pattern parsing, "/" by default.
+     *
+     * @return the path separator used for pattern parsing.
+     * @since 1.0.RC7.7
+     */
+    public String getPathSeparator() {
+        return pathSeparator;
+    }
+
+    /**
+     * Splits the given pattern or path into its 'directories' exactly as they are evaluated during matching, so that
+     * callers matching the same pattern or path many times can tokenize it once and use
+     * {@link #match(String, String[], String, String[])}.
+     *
+     * @param patternOrPath the pattern or path to tokenize
+     * @return the 'directories' of the given pattern or path.
+     * @since 1.0.RC7.7
+     */
+    public String[] tokenize(String patternOrPath) {
+        return Strings.tokenizeToStringArray(patternOrPath, this.pathSeparator);
+    }
+
+    /**
+     * Same as {@link #match(String, String)}, but with the pattern and path already split via {@link
+     * #tokenize(String)}.
+     *
+     * @param pattern  the pattern to match against
+     * @param pattDirs the {@link #tokenize(String) tokenized} pattern
+     * @param path     the path String to test
+     * @param pathDirs the {@link #tokenize(String) tokenized} path
+     * @return <code>true</code> if the supplied <code>path</code> matched, <code>false</code> if it didn't
+     * @since 1.0.RC7.7
+     */
+    public boolean match(String pattern, String[] pattDirs, String path, String[] pathDirs) {
+        return doMatch(pattern, pattDirs, path, pathDirs, true);
+    }
+
     public boolean isPattern(String path) {
         return (path.indexOf('*') != -1 || path.indexOf('?') != -1);
     }
@@ -104,8 +142,13 @@ public class AntPathMatcher implements PatternMatcher {
             return false;
         }
 
-        String[] pattDirs = Strings.tokenizeToStringArray(pattern, this.pathSeparator);
-        String[] pathDirs = Strings.tokenizeToStringArray(path, this.pathSeparator);
+        return doMatch(pattern, tokenize(pattern), path, tokenize(path), fullMatch);
+    }
+
+    private boolean doMatch(String pattern, String[] pattDirs, String path, String[] pathDirs, boolean fullMatch) {
+        if (path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
+            return false;
+        }
 
         int pattIdxStart = 0;
         int pattIdxEnd = pattDirs.length - 1;
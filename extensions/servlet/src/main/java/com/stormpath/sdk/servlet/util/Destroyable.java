@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.util;
+
+/**
+ * Implemented by configured instances that hold resources (such as threads) that must be released when the web
+ * application is shut down.
+ *
+ * @since 1.0.RC7.7
+ */
+public interface Destroyable {
+
+    void destroy() throws Exception;
+
+}
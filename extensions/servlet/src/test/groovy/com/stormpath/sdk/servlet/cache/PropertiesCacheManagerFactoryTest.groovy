@@ -128,6 +128,35 @@ class PropertiesCacheManagerFactoryTest {
         assertEquals cache.timeToIdle.value, 4004
     }
 
+    @Test
+    void testWithDefaultMaxEntries() {
+        def factory = new PropertiesCacheManagerFactory()
+        def mgr = factory.createCacheManager(['stormpath.cache.maxEntries': '5005']);
+        assertNotNull mgr
+        assertEquals mgr.defaultMaxEntries, 5005
+    }
+
+    @Test
+    void testCacheRegionMaxEntriesAndMaxWeight() {
+        def factory = new PropertiesCacheManagerFactory()
+        def mgr = factory.createCacheManager(['stormpath.cache.foo.maxEntries': '6006',
+                                              'stormpath.cache.bar.maxWeight': '7007']);
+        assertNotNull mgr
+        assertEquals mgr.getCache('foo').map.getCapacity(), 6006
+        assertEquals mgr.getCache('bar').map.getCapacity(), 7007
+    }
+
+    @Test
+    void testCacheRegionMaxEntriesWithNonLongValue() {
+        def factory = new PropertiesCacheManagerFactory()
+        try {
+            factory.createCacheManager(['stormpath.cache.foo.maxEntries': 'whatever']);
+            fail('expected IllegalArgumentException')
+        } catch (IllegalArgumentException iae) {
+            assertEquals iae.message, 'Unable to parse stormpath.cache.foo.maxEntries value to a long.'
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException)
     void testCacheRegionWithNoSuffix() {
         def factory = new PropertiesCacheManagerFactory()
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.config.impl
+
+import org.testng.annotations.Test
+
+import javax.servlet.ServletContext
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class DefaultConfigTest {
+
+    static final AtomicInteger INSTANCES = new AtomicInteger()
+
+    static class Counted {
+        Counted() {
+            INSTANCES.incrementAndGet()
+            Thread.sleep(20) //widen the window for concurrent creation
+        }
+    }
+
+    private static DefaultConfig config(boolean snapshot) {
+        def servletContext = createNiceMock(ServletContext)
+        replay servletContext
+        def props = [
+            (DefaultConfig.ACCOUNT_COOKIE_NAME)     : 'account',
+            (DefaultConfig.ACCOUNT_COOKIE_MAX_AGE)  : '-1',
+            (DefaultConfig.ACCOUNT_COOKIE_HTTP_ONLY): 'true',
+            (DefaultConfig.ACCOUNT_JWT_TTL)         : '${1000 * 60}',
+            (DefaultConfig.LOGIN_URL)               : '${config[\'stormpath.web.logout.uri\'] == null ? \'/login\' : \'/x\'}',
+            (DefaultConfig.CONFIG_SNAPSHOT_ENABLED) : String.valueOf(snapshot),
+            'stormpath.web.counted'                 : Counted.class.getName()
+        ]
+        return new DefaultConfig(servletContext, props)
+    }
+
+    @Test
+    void testConfigValues() {
+        for (boolean snapshot : [true, false]) {
+            def config = config(snapshot)
+            assertEquals config.getLoginUrl(), '/login'
+            assertEquals config.getAccountJwtTtl(), 60000L
+            assertEquals config.getAccountCookieConfig().getName(), 'account'
+            config.refresh()
+            assertEquals config.getLoginUrl(), '/login'
+        }
+    }
+
+    @Test
+    void testConcurrentFirstGetInstanceCreatesOneInstance() {
+        def config = config(false)
+        INSTANCES.set(0)
+
+        int threads = 8
+        def executor = Executors.newFixedThreadPool(threads)
+        def start = new CountDownLatch(1)
+        try {
+            List<Future<Object>> futures = []
+            threads.times {
+                futures << executor.submit(new Callable<Object>() {
+                    @Override
+                    Object call() throws Exception {
+                        start.await()
+                        return config.getInstance('stormpath.web.counted')
+                    }
+                })
+            }
+            start.countDown()
+
+            def instances = futures.collect { it.get() }
+            assertEquals INSTANCES.get(), 1
+            assertTrue instances.every { it.is(instances[0]) }
+            assertTrue config.getInstance('stormpath.web.counted', Counted).is(instances[0])
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+}
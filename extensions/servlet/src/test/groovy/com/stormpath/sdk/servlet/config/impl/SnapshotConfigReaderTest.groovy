@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.config.impl
+
+import org.testng.annotations.Test
+
+import javax.servlet.ServletContext
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class SnapshotConfigReaderTest {
+
+    private static Map<String, String> props() {
+        def props = new LinkedHashMap<String, String>()
+        props.put('stormpath.a', '${config[\'stormpath.b\']}/login')
+        props.put('stormpath.b', 'foo')
+        props.put('stormpath.ttl', '${config[\'stormpath.n\'] == \'1\' ? 100 : 200}')
+        props.put('stormpath.n', '1')
+        props.put('stormpath.enabled', 'true')
+        props.put('stormpath.empty', null)
+        return props
+    }
+
+    private static ExpressionConfigReader expressionReader(Map<String, String> props) {
+        def servletContext = createNiceMock(ServletContext)
+        replay servletContext
+        return new ExpressionConfigReader(servletContext, props)
+    }
+
+    @Test
+    void testValuesAreEquivalent() {
+        def props = props()
+        def expressions = expressionReader(props)
+        def snapshot = new SnapshotConfigReader(expressions, props)
+
+        assertEquals snapshot.getString('stormpath.a'), expressions.getString('stormpath.a')
+        assertEquals snapshot.getString('stormpath.a'), 'foo/login'
+        assertEquals snapshot.getInt('stormpath.ttl'), 100
+        assertEquals snapshot.getLong('stormpath.ttl'), 100L
+        assertTrue snapshot.getBoolean('stormpath.enabled')
+        assertNull snapshot.getString('stormpath.empty')
+        assertNull snapshot.getString('stormpath.missing')
+    }
+
+    @Test
+    void testValuesAreRetainedUntilRefresh() {
+        def props = props()
+        def snapshot = new SnapshotConfigReader(expressionReader(props), props)
+        assertEquals snapshot.getString('stormpath.a'), 'foo/login'
+        assertEquals snapshot.getInt('stormpath.ttl'), 100
+
+        props.put('stormpath.b', 'bar')
+        props.put('stormpath.n', '2')
+        assertEquals snapshot.getString('stormpath.a'), 'foo/login'
+        assertEquals snapshot.getInt('stormpath.ttl'), 100
+
+        snapshot.refresh()
+        assertEquals snapshot.getString('stormpath.a'), 'bar/login'
+        assertEquals snapshot.getInt('stormpath.ttl'), 200
+    }
+
+    @Test
+    void testConversionFailuresAreNotRetained() {
+        def props = props()
+        def snapshot = new SnapshotConfigReader(expressionReader(props), props)
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                snapshot.getInt('stormpath.b')
+                fail()
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
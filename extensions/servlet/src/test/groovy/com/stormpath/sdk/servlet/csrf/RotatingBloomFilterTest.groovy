@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.csrf
+
+import org.testng.annotations.Test
+
+import java.security.MessageDigest
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class RotatingBloomFilterTest {
+
+    private static byte[] hash(String value) {
+        return MessageDigest.getInstance('SHA-256').digest(value.getBytes('UTF-8'))
+    }
+
+    @Test
+    void testSizing() {
+        def filter = new RotatingBloomFilter(60000, 1000, 0.01)
+        assertEquals filter.numBits, 9586 //-1000 ln(0.01) / (ln 2)^2, rounded up
+        assertEquals filter.numHashFunctions, 7
+        assertEquals filter.windowMillis, 60000
+    }
+
+    @Test
+    void testAddIsOnlySuccessfulOnce() {
+        def filter = new RotatingBloomFilter(60000, 1000, 0.001)
+        assertFalse filter.mightContain(hash('a'))
+        assertTrue filter.add(hash('a'))
+        assertTrue filter.mightContain(hash('a'))
+        assertFalse filter.add(hash('a'))
+        assertTrue filter.add(hash('b'))
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        int expected = 10000
+        def filter = new RotatingBloomFilter(60000, expected, 0.01)
+        for (int i = 0; i < expected; i++) {
+            filter.add(hash("added-$i")) //false when (rarely) already a false positive, it is then contained already
+        }
+        int falsePositives = 0
+        for (int i = 0; i < expected; i++) {
+            assertTrue filter.mightContain(hash("added-$i"))
+            if (filter.mightContain(hash("other-$i"))) {
+                falsePositives++
+            }
+        }
+        assertTrue falsePositives < expected * 0.02, "$falsePositives false positives" as String
+    }
+
+    @Test
+    void testValuesAreForgottenAfterTwoWindows() {
+        def filter = new RotatingBloomFilter(100, 1000, 0.001)
+        assertTrue filter.add(hash('a'))
+        Thread.sleep(250)
+        assertFalse filter.mightContain(hash('a'))
+        assertTrue filter.add(hash('a'))
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testShortHash() {
+        new RotatingBloomFilter(100, 1000, 0.001).add(new byte[8])
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testInvalidFalsePositiveProbability() {
+        new RotatingBloomFilter(100, 1000, 1)
+    }
+}
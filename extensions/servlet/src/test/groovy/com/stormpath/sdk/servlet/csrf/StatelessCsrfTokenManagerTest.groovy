@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.csrf
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.impl.util.Base64
+import org.testng.annotations.Test
+
+import javax.servlet.http.Cookie
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import javax.servlet.http.HttpSession
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class StatelessCsrfTokenManagerTest {
+
+    private static final String KEY = 'aSecretKeyThatIsLongEnoughForHmacSha256'
+
+    /**
+     * A browser: keeps the cookies set by the responses and sends them with its next requests.
+     */
+    private static class Browser {
+
+        Map<String, Cookie> cookies = [:]
+        boolean secure
+        String accountHref
+        String sessionId
+
+        HttpServletRequest request() {
+            Map<String, Object> attributes = [:]
+            if (accountHref != null) {
+                attributes[Account.class.getName()] = [getHref: { accountHref }] as Account
+            }
+            HttpSession session = sessionId != null ? [getId: { sessionId }, getAttribute: { String name -> null }] as HttpSession : null
+            return [getCookies   : { cookies.isEmpty() ? null : cookies.values() as Cookie[] },
+                    getAttribute : { String name -> attributes[name] },
+                    setAttribute : { String name, Object value -> attributes[name] = value },
+                    getSession   : { boolean create -> session },
+                    getContextPath: { '/app' },
+                    isSecure     : { secure }] as HttpServletRequest
+        }
+
+        HttpServletResponse response() {
+            return [addCookie: { Cookie cookie -> cookies[cookie.getName()] = cookie }] as HttpServletResponse
+        }
+
+        String createToken(StatelessCsrfTokenManager manager) {
+            return manager.createCsrfToken(request(), response())
+        }
+
+        boolean isValid(StatelessCsrfTokenManager manager, String token) {
+            return manager.isValidCsrfToken(request(), response(), token)
+        }
+    }
+
+    @Test
+    void testTokenIsValidOnlyOnce() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser()
+
+        assertEquals manager.tokenName, 'csrfToken'
+
+        String token = browser.createToken(manager)
+        assertNotEquals browser.createToken(manager), token
+
+        assertTrue browser.isValid(manager, token)
+        assertFalse browser.isValid(manager, token)
+    }
+
+    @Test
+    void testBindingCookie() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser()
+
+        def request = browser.request()
+        def response = browser.response()
+        String first = manager.createCsrfToken(request, response)
+        String second = manager.createCsrfToken(request, response)
+
+        Cookie cookie = browser.cookies[StatelessCsrfTokenManager.BINDING_COOKIE_NAME]
+        assertTrue cookie.isHttpOnly()
+        assertFalse cookie.getSecure()
+        assertEquals cookie.getPath(), '/app'
+
+        //tokens created in the same request share the binding, and the cookie is kept by later tokens:
+        String binding = cookie.getValue()
+        String third = browser.createToken(manager)
+        assertEquals browser.cookies[StatelessCsrfTokenManager.BINDING_COOKIE_NAME].getValue(), binding
+        for (String token : [first, second, third]) {
+            assertTrue browser.isValid(manager, token)
+        }
+    }
+
+    @Test
+    void testAnonymousTokenIsBoundToBrowser() {
+        def manager = new StatelessCsrfTokenManager('token', KEY, 60000, 1000, 0.0001)
+        def attacker = new Browser()
+        def victim = new Browser()
+
+        //a token the attacker obtained can't be submitted by the victim's browser:
+        String token = attacker.createToken(manager)
+        assertFalse victim.isValid(manager, token)
+        victim.createToken(manager)
+        assertFalse victim.isValid(manager, token)
+
+        assertTrue attacker.isValid(manager, token)
+    }
+
+    @Test
+    void testSecureRequestsUseHostPrefixedBindingCookie() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser(secure: true)
+
+        String token = browser.createToken(manager)
+
+        Cookie cookie = browser.cookies[StatelessCsrfTokenManager.SECURE_BINDING_COOKIE_NAME]
+        assertEquals cookie.getName(), '__Host-csrfBinding'
+        assertTrue cookie.getSecure()
+        assertTrue cookie.isHttpOnly()
+        assertEquals cookie.getPath(), '/'
+        assertNull browser.cookies[StatelessCsrfTokenManager.BINDING_COOKIE_NAME]
+        assertTrue browser.isValid(manager, token)
+
+        //a cookie without the prefix (which can be set by an insecure origin) is ignored on secure requests:
+        def insecure = new Browser()
+        String insecureToken = insecure.createToken(manager)
+        def planted = new Browser(secure: true, cookies: insecure.cookies)
+        assertFalse planted.isValid(manager, insecureToken)
+        assertTrue insecure.isValid(manager, insecureToken)
+    }
+
+    @Test
+    void testTokenIsBoundToAccount() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser(accountHref: 'https://api.stormpath.com/v1/accounts/a', sessionId: 'S')
+
+        String token = browser.createToken(manager)
+
+        browser.accountHref = 'https://api.stormpath.com/v1/accounts/b'
+        assertFalse browser.isValid(manager, token)
+        browser.accountHref = null
+        assertFalse browser.isValid(manager, token)
+        browser.accountHref = 'https://api.stormpath.com/v1/accounts/a'
+        assertTrue browser.isValid(manager, token)
+    }
+
+    @Test
+    void testAnonymousTokenIsBoundToSession() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser(sessionId: 'S1')
+
+        String token = browser.createToken(manager)
+
+        browser.sessionId = 'S2'
+        assertFalse browser.isValid(manager, token)
+        browser.sessionId = 'S1'
+        assertTrue browser.isValid(manager, token)
+    }
+
+    @Test
+    void testPlantedBindingCookie() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def attacker = new Browser()
+        def victim = new Browser(accountHref: 'https://api.stormpath.com/v1/accounts/victim')
+
+        //an unsigned binding cookie is ignored:
+        victim.cookies[StatelessCsrfTokenManager.BINDING_COOKIE_NAME] =
+            new Cookie(StatelessCsrfTokenManager.BINDING_COOKIE_NAME, 'forged')
+        assertFalse victim.isValid(manager, token(manager, 'forged https://api.stormpath.com/v1/accounts/victim', System.currentTimeMillis()))
+
+        //the attacker's own (signed) binding cookie does not make the attacker's token valid for the victim's account:
+        String token = attacker.createToken(manager)
+        victim.cookies.putAll(attacker.cookies)
+        assertFalse victim.isValid(manager, token)
+        assertTrue attacker.isValid(manager, token)
+    }
+
+    @Test
+    void testTamperedOrForeignTokensAreInvalid() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def other = new StatelessCsrfTokenManager(null, KEY + 'x', 60000, 1000, 0.0001)
+        def browser = new Browser()
+
+        String token = browser.createToken(manager)
+        String payload = token.substring(0, token.indexOf('.'))
+        String mac = token.substring(token.indexOf('.') + 1)
+        String tampered = (payload.charAt(0) == 'A' as char ? 'B' : 'A') + payload.substring(1) + '.' + mac
+
+        assertFalse browser.isValid(manager, null)
+        assertFalse browser.isValid(manager, 'foo')
+        assertFalse browser.isValid(manager, '.foo')
+        assertFalse browser.isValid(manager, tampered)
+        assertFalse browser.isValid(other, token)
+        assertTrue browser.isValid(manager, token)
+    }
+
+    @Test
+    void testExpiredTokenIsInvalid() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 50, 1000, 0.0001)
+        def browser = new Browser()
+
+        String token = browser.createToken(manager)
+        Thread.sleep(100)
+
+        assertFalse browser.isValid(manager, token)
+    }
+
+    @Test
+    void testTokenFromNodeWithClockAheadIsValid() {
+        def manager = new StatelessCsrfTokenManager(null, KEY, 60000, 1000, 0.0001)
+        def browser = new Browser()
+        browser.createToken(manager)
+        //anonymous, without a session:
+        String binding = browser.cookies[StatelessCsrfTokenManager.BINDING_COOKIE_NAME].getValue() + ' '
+
+        long now = System.currentTimeMillis()
+        assertTrue browser.isValid(manager, token(manager, binding, now + 30000))
+        assertFalse browser.isValid(manager, token(manager, binding, now + StatelessCsrfTokenManager.ALLOWED_CLOCK_SKEW_MILLIS + 30000))
+    }
+
+    private static String token(StatelessCsrfTokenManager manager, String binding, long issuedAt) {
+        byte[] payload = new byte[20]
+        for (int i = 7; i >= 0; i--) {
+            payload[i] = (byte) issuedAt
+            issuedAt >>>= 8
+        }
+        String encodedPayload = Base64.encodeBase64URLSafeString(payload)
+        return encodedPayload + '.' + Base64.encodeBase64URLSafeString(manager.mac(encodedPayload, binding))
+    }
+}
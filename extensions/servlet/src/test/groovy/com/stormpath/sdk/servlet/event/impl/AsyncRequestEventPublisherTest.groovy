@@ -0,0 +1,270 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.event.impl
+
+import com.stormpath.sdk.servlet.authc.LogoutRequestEvent
+import com.stormpath.sdk.servlet.authc.impl.DefaultLogoutRequestEvent
+import com.stormpath.sdk.servlet.event.BatchRequestEventListener
+import com.stormpath.sdk.servlet.event.RequestEvent
+import com.stormpath.sdk.servlet.event.RequestEventListenerAdapter
+import org.testng.annotations.Test
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.easymock.EasyMock.createNiceMock
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class AsyncRequestEventPublisherTest {
+
+    static RequestEvent newEvent() {
+        return new DefaultLogoutRequestEvent(createNiceMock(HttpServletRequest), createNiceMock(HttpServletResponse), null)
+    }
+
+    @Test
+    void testEventsAreDeliveredOnWorkerThread() {
+        def listener = new RecordingListener()
+        def publisher = new AsyncRequestEventPublisher(listener)
+
+        def events = [newEvent(), newEvent(), newEvent()]
+        events.each { publisher.publish(it) }
+        publisher.destroy()
+
+        assertEquals listener.events, events
+        assertFalse listener.threadNames.contains(Thread.currentThread().name)
+        assertEquals publisher.publishedCount, 3L
+        assertEquals publisher.dispatchedCount, 3L
+        assertEquals publisher.droppedCount, 0L
+        assertEquals publisher.bufferedCount, 0
+    }
+
+    @Test
+    void testBatchListenerReceivesBufferedEventsTogether() {
+        def listener = new BlockingBatchListener()
+        def publisher = new AsyncRequestEventPublisher(listener, 10, 1, 3, AsyncRequestEventPublisher.OverflowPolicy.BLOCK)
+
+        publisher.publish(newEvent())
+        assertTrue listener.started.await(5, TimeUnit.SECONDS)
+        5.times { publisher.publish(newEvent()) }
+        listener.release.countDown()
+        publisher.destroy()
+
+        assertEquals listener.batchSizes, [1, 3, 2]
+        assertEquals publisher.dispatchedCount, 6L
+    }
+
+    @Test
+    void testDropNewest() {
+        def listener = new BlockingBatchListener()
+        def publisher = new AsyncRequestEventPublisher(listener, 2, 1, 10, AsyncRequestEventPublisher.OverflowPolicy.DROP_NEWEST)
+
+        def first = newEvent()
+        publisher.publish(first)
+        assertTrue listener.started.await(5, TimeUnit.SECONDS)
+        def buffered = [newEvent(), newEvent()]
+        buffered.each { publisher.publish(it) }
+        publisher.publish(newEvent())
+        publisher.publish(newEvent())
+
+        assertEquals publisher.droppedCount, 2L
+        assertEquals publisher.bufferedCount, 2
+
+        listener.release.countDown()
+        publisher.destroy()
+
+        assertEquals listener.events, [first] + buffered
+        assertEquals publisher.publishedCount, 5L
+        assertEquals publisher.dispatchedCount, 3L
+    }
+
+    @Test
+    void testDropOldest() {
+        def listener = new BlockingBatchListener()
+        def publisher = new AsyncRequestEventPublisher(listener, 2, 1, 10, AsyncRequestEventPublisher.OverflowPolicy.DROP_OLDEST)
+
+        def first = newEvent()
+        publisher.publish(first)
+        assertTrue listener.started.await(5, TimeUnit.SECONDS)
+        def events = [newEvent(), newEvent(), newEvent(), newEvent()]
+        events.each { publisher.publish(it) }
+
+        assertEquals publisher.droppedCount, 2L
+
+        listener.release.countDown()
+        publisher.destroy()
+
+        assertEquals listener.events, [first, events[2], events[3]]
+    }
+
+    @Test
+    void testCallerRuns() {
+        def listener = new BlockingBatchListener()
+        def publisher = new AsyncRequestEventPublisher(listener, 1, 1, 10, AsyncRequestEventPublisher.OverflowPolicy.CALLER_RUNS)
+
+        publisher.publish(newEvent())
+        assertTrue listener.started.await(5, TimeUnit.SECONDS)
+        publisher.publish(newEvent())
+        def overflow = newEvent()
+        publisher.publish(overflow) //the buffer is full: delivered on this thread
+        assertEquals listener.events, [overflow]
+        listener.release.countDown()
+        publisher.destroy()
+
+        assertEquals publisher.droppedCount, 0L
+        assertEquals publisher.dispatchedCount, 3L
+        assertTrue listener.events.contains(overflow)
+        assertTrue listener.threadNames.contains(Thread.currentThread().name)
+    }
+
+    @Test
+    void testListenerFailuresAreCounted() {
+        def listener = new RequestEventListenerAdapter() {
+            @Override
+            void on(LogoutRequestEvent e) {
+                throw new IllegalStateException("expected")
+            }
+        }
+        def publisher = new AsyncRequestEventPublisher(listener)
+
+        publisher.publish(newEvent())
+        publisher.publish(newEvent())
+        publisher.destroy()
+
+        assertEquals publisher.failedCount, 2L
+        assertEquals publisher.dispatchedCount, 0L
+    }
+
+    @Test
+    void testListenerErrorsDoNotStopTheWorker() {
+        def listener = new RecordingListener() {
+            @Override
+            void on(LogoutRequestEvent e) {
+                if (events.isEmpty()) {
+                    events << e
+                    throw new AssertionError("expected")
+                }
+                super.on(e)
+            }
+        }
+        def publisher = new AsyncRequestEventPublisher(listener)
+
+        def events = [newEvent(), newEvent(), newEvent()]
+        events.each { publisher.publish(it) }
+        publisher.destroy()
+
+        assertEquals publisher.failedCount, 1L
+        assertEquals publisher.dispatchedCount, 2L
+        assertEquals listener.events, events
+        assertFalse listener.threadNames.contains(Thread.currentThread().name)
+    }
+
+    @Test
+    void testInterruptedWorkerIsReplaced() {
+        def listener = new RecordingListener()
+        def publisher = new AsyncRequestEventPublisher(listener)
+
+        Thread worker = publisher.workers[0]
+        worker.interrupt()
+        worker.join(5000)
+        assertFalse worker.isAlive()
+
+        def event = newEvent()
+        publisher.publish(event)
+        publisher.destroy()
+
+        assertEquals listener.events, [event]
+        assertNotSame publisher.workers[0], worker
+        assertFalse listener.threadNames.contains(Thread.currentThread().name)
+    }
+
+    @Test
+    void testBlockedPublisherDeliversEventAfterMaxWait() {
+        def listener = new BlockingBatchListener()
+        def publisher = new AsyncRequestEventPublisher(listener, 1, 1, 10, AsyncRequestEventPublisher.OverflowPolicy.BLOCK)
+
+        publisher.publish(newEvent())
+        assertTrue listener.started.await(5, TimeUnit.SECONDS)
+        publisher.publish(newEvent())
+
+        //the worker is stuck and the buffer is full:
+        def overflow = newEvent()
+        long start = System.currentTimeMillis()
+        publisher.publish(overflow)
+        assertTrue System.currentTimeMillis() - start >= AsyncRequestEventPublisher.MAX_BLOCK_MILLIS
+        assertEquals listener.events, [overflow]
+        assertTrue listener.threadNames.contains(Thread.currentThread().name)
+
+        listener.release.countDown()
+        publisher.destroy()
+        assertEquals publisher.dispatchedCount, 3L
+    }
+
+    @Test
+    void testPublishAfterDestroyIsSynchronous() {
+        def listener = new RecordingListener()
+        def publisher = new AsyncRequestEventPublisher(listener)
+        publisher.destroy()
+
+        def event = newEvent()
+        publisher.publish(event)
+
+        assertEquals listener.events, [event]
+        assertEquals listener.threadNames, [Thread.currentThread().name]
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testInvalidBufferSize() {
+        new AsyncRequestEventPublisher(new RecordingListener(), 0, 1, 1, AsyncRequestEventPublisher.OverflowPolicy.BLOCK)
+    }
+}
+
+class RecordingListener extends RequestEventListenerAdapter {
+
+    List<RequestEvent> events = new CopyOnWriteArrayList<RequestEvent>()
+    List<String> threadNames = new CopyOnWriteArrayList<String>()
+
+    @Override
+    void on(LogoutRequestEvent e) {
+        events.add(e)
+        threadNames.add(Thread.currentThread().name)
+    }
+}
+
+class BlockingBatchListener extends RequestEventListenerAdapter implements BatchRequestEventListener {
+
+    CountDownLatch started = new CountDownLatch(1)
+    CountDownLatch release = new CountDownLatch(1)
+    List<RequestEvent> events = new CopyOnWriteArrayList<RequestEvent>()
+    List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>()
+    List<String> threadNames = new CopyOnWriteArrayList<String>()
+
+    @Override
+    void on(List<RequestEvent> batch) {
+        if (Thread.currentThread().name.startsWith("stormpath-request-event-publisher")) {
+            started.countDown()
+            release.await(5, TimeUnit.SECONDS)
+        }
+        events.addAll(batch)
+        batchSizes.add(batch.size())
+        threadNames.add(Thread.currentThread().name)
+    }
+}
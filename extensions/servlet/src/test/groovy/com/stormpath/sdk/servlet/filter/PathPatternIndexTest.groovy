@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter
+
+import com.stormpath.sdk.servlet.util.AntPathMatcher
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class PathPatternIndexTest {
+
+    private static final List<String> SEGMENTS = ['a', 'b', 'login', 'me', 'x.json', 'y ', '']
+
+    private static final List<String> PATTERN_SEGMENTS = SEGMENTS + ['*', '**', '?', 'l*n', '*.json', 'm?']
+
+    @Test
+    void testFirstMatchInConfigurationOrderWins() {
+        def index = new PathPatternIndex(['/login', '/me/**', '/**', '/me'], new AntPathMatcher(), 10)
+
+        assertEquals index.getMatchingPattern('/login'), '/login'
+        assertEquals index.getMatchingPattern('/me'), '/me/**'
+        assertEquals index.getMatchingPattern('/me/foo'), '/me/**'
+        assertEquals index.getMatchingPattern('/foo/bar'), '/**'
+        assertNull index.getMatchingPattern('relative')
+    }
+
+    @Test
+    void testTrailingSeparatorSemanticsArePreserved() {
+        def index = new PathPatternIndex(['/login', '/account/', '/foo/*'], new AntPathMatcher(), 0)
+
+        assertEquals index.getMatchingPattern('/login'), '/login'
+        assertNull index.getMatchingPattern('/login/')
+        assertEquals index.getMatchingPattern('/account/'), '/account/'
+        assertNull index.getMatchingPattern('/account')
+        assertEquals index.getMatchingPattern('/foo/'), '/foo/*'
+        assertEquals index.getMatchingPattern('/foo/bar'), '/foo/*'
+    }
+
+    @Test
+    void testResolvedPathsAreRemembered() {
+        int evaluations = 0
+        def matcher = new AntPathMatcher() {
+            @Override
+            boolean match(String pattern, String[] pattDirs, String path, String[] pathDirs) {
+                evaluations++
+                return super.match(pattern, pattDirs, path, pathDirs)
+            }
+        }
+        def index = new PathPatternIndex(['/a/**', '/b/*'], matcher, 10)
+
+        assertEquals index.getMatchingPattern('/b/c'), '/b/*'
+        assertNull index.getMatchingPattern('/c')
+        int count = evaluations
+
+        assertEquals index.getMatchingPattern('/b/c'), '/b/*'
+        assertNull index.getMatchingPattern('/c')
+        assertEquals evaluations, count
+    }
+
+    @Test
+    void testEquivalentToLinearScan() {
+        def random = new Random(42)
+        def matcher = new AntPathMatcher()
+
+        200.times {
+            List<String> patterns = []
+            (1 + random.nextInt(12)).times {
+                patterns << randomPath(random, PATTERN_SEGMENTS)
+            }
+            patterns = patterns.unique()
+
+            def index = new PathPatternIndex(patterns, matcher, random.nextBoolean() ? 16 : 0)
+
+            100.times {
+                String path = randomPath(random, SEGMENTS)
+                String expected = patterns.find { matcher.matches(it, path) }
+                assertEquals index.getMatchingPattern(path) as String, expected, "patterns $patterns, path '$path'" as String
+            }
+        }
+    }
+
+    private static String randomPath(Random random, List<String> segments) {
+        StringBuilder sb = new StringBuilder()
+        if (random.nextInt(5) > 0) {
+            sb.append('/')
+        }
+        int count = random.nextInt(5)
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append('/')
+            }
+            sb.append(segments[random.nextInt(segments.size())])
+        }
+        if (random.nextInt(4) == 0) {
+            sb.append('/')
+        }
+        return sb.toString()
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter
+
+import com.stormpath.sdk.application.Application
+import com.stormpath.sdk.client.Client
+import org.testng.annotations.Test
+
+import javax.servlet.FilterChain
+import javax.servlet.ServletContext
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletRequestWrapper
+import javax.servlet.http.HttpServletResponse
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class StormpathFilterTest {
+
+    private static StormpathFilter filter(FilterChainResolver resolver, Set<String> bypassPrefixes) {
+        def filter = new StormpathFilter()
+        filter.setFilterChainResolver(resolver)
+        filter.setWrappedServletRequestFactory(new WrappedServletRequestFactory() {
+            @Override
+            HttpServletRequest wrapHttpServletRequest(HttpServletRequest request, HttpServletResponse response) {
+                return new HttpServletRequestWrapper(request)
+            }
+        })
+        filter.setClientRequestAttributeNames([Client.class.getName(), 'client'] as Set)
+        filter.setApplicationRequestAttributeNames(['application'] as Set)
+        filter.setBypassPrefixes(bypassPrefixes)
+        return filter
+    }
+
+    @Test
+    void testClientAndApplicationAreLookedUpOnce() {
+        def client = createMock(Client)
+        def application = createMock(Application)
+        def servletContext = createMock(ServletContext)
+        def request = createMock(HttpServletRequest)
+        def response = createMock(HttpServletResponse)
+        def chain = createMock(FilterChain)
+        def resolver = createMock(FilterChainResolver)
+
+        expect(request.getServletContext()).andReturn(servletContext).times(2)
+        expect(servletContext.getAttribute(Client.class.getName())).andReturn(client).once()
+        expect(servletContext.getAttribute(Application.class.getName())).andReturn(application).once()
+        request.setAttribute(Client.class.getName(), client)
+        expectLastCall().times(2)
+        request.setAttribute('client', client)
+        expectLastCall().times(2)
+        request.setAttribute(Application.class.getName(), application)
+        expectLastCall().times(2)
+        request.setAttribute('application', application)
+        expectLastCall().times(2)
+        expect(resolver.getChain(isA(HttpServletRequestWrapper), same(response), same(chain))).andReturn(chain).times(2)
+        chain.doFilter(isA(HttpServletRequestWrapper), same(response))
+        expectLastCall().times(2)
+
+        replay client, application, servletContext, request, response, chain, resolver
+
+        def filter = filter(resolver, null)
+        filter.filter(request, response, chain)
+        filter.filter(request, response, chain)
+
+        verify client, application, servletContext, request, response, chain, resolver
+    }
+
+    @Test
+    void testBypassPrefixes() {
+        def filter = filter(createMock(FilterChainResolver), ['/static', '/assets/ '] as Set)
+
+        assertFalse filter.isEnabled(request('/static', null), null)
+        assertFalse filter.isEnabled(request('/static', '/app.js'), null)
+        assertFalse filter.isEnabled(request('', '/assets/img/logo.png'), null)
+        assertFalse filter.isEnabled(request('/assets', null), null)
+        assertTrue filter.isEnabled(request('/staticfoo', null), null)
+        assertTrue filter.isEnabled(request('/login', null), null)
+        assertTrue filter.isEnabled(request('', '/'), null)
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testRelativeBypassPrefix() {
+        new StormpathFilter().setBypassPrefixes(['static'] as Set)
+    }
+
+    private static HttpServletRequest request(String servletPath, String pathInfo) {
+        def request = createMock(HttpServletRequest)
+        expect(request.getServletPath()).andStubReturn(servletPath)
+        expect(request.getPathInfo()).andStubReturn(pathInfo)
+        replay request
+        return request
+    }
+
+    /**
+     * Measures the per-request overhead of the StormpathFilter itself (request attributes, wrapping and bypass
+     * checks) with a no-op chain.
+     * <p/>
+     * Disabled by default (on purpose), as it is a manual benchmark and not a correctness test: enable it to run it
+     * manually, but DO NOT COMMIT the change.
+     */
+    @Test(enabled = false)
+    void benchmarkFilterOverhead() {
+        def client = createNiceMock(Client)
+        def application = createNiceMock(Application)
+        def servletContext = createNiceMock(ServletContext)
+        expect(servletContext.getAttribute(Client.class.getName())).andStubReturn(client)
+        expect(servletContext.getAttribute(Application.class.getName())).andStubReturn(application)
+        def chain = createNiceMock(FilterChain)
+        def resolver = createNiceMock(FilterChainResolver)
+        expect(resolver.getChain(anyObject(HttpServletRequest), anyObject(HttpServletResponse), same(chain)))
+            .andStubReturn(chain)
+        def response = createNiceMock(HttpServletResponse)
+
+        def filtered = createNiceMock(HttpServletRequest)
+        expect(filtered.getServletContext()).andStubReturn(servletContext)
+        expect(filtered.getServletPath()).andStubReturn('/account')
+        def bypassed = createNiceMock(HttpServletRequest)
+        expect(bypassed.getServletPath()).andStubReturn('/static')
+        expect(bypassed.getPathInfo()).andStubReturn('/app.js')
+
+        replay client, application, servletContext, chain, resolver, response, filtered, bypassed
+
+        def filter = filter(resolver, ['/static', '/assets'] as Set)
+
+        for (HttpServletRequest request : [filtered, bypassed]) {
+            int iterations = 200000
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime()
+                for (int i = 0; i < iterations; i++) {
+                    filter.doFilter(request, response, chain)
+                }
+                long nanos = System.nanoTime() - start
+                println "${request.is(filtered) ? 'filtered' : 'bypassed'}: ${nanos / iterations} ns/request"
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter.account
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.api.ApiKey
+import com.stormpath.sdk.authc.AuthenticationResult
+import com.stormpath.sdk.client.Client
+import com.stormpath.sdk.impl.util.Base64
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.JwsHeader
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.SignatureException
+import io.jsonwebtoken.SigningKeyResolverAdapter
+import org.easymock.IAnswer
+import org.testng.annotations.Test
+
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.security.Key
+import java.security.SecureRandom
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class SigningKeyRegistryTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom()
+
+    private static String newSecret() {
+        byte[] bytes = new byte[32]
+        RANDOM.nextBytes(bytes)
+        return Base64.encodeBase64String(bytes)
+    }
+
+    private static ApiKey apiKey(String id, String secret) {
+        ApiKey apiKey = createNiceMock(ApiKey)
+        expect(apiKey.getId()).andReturn(id).anyTimes()
+        expect(apiKey.getSecret()).andReturn(secret).anyTimes()
+        replay apiKey
+        return apiKey
+    }
+
+    @Test
+    void testKeysAreDerivedOnce() {
+        def registry = new SigningKeyRegistry()
+        def secret = newSecret()
+        def apiKey = apiKey('current', secret)
+
+        Key key = registry.getKey(apiKey, SignatureAlgorithm.HS256)
+        assertEquals key.getEncoded(), Base64.decodeBase64(secret)
+        assertEquals key.getAlgorithm(), 'HmacSHA256'
+
+        assertSame registry.getKey(apiKey, SignatureAlgorithm.HS256), key
+        assertSame registry.getKey('current', SignatureAlgorithm.HS256), key
+
+        Key key512 = registry.getKey('current', SignatureAlgorithm.HS512)
+        assertEquals key512.getAlgorithm(), 'HmacSHA512'
+        assertSame registry.getKey(apiKey, SignatureAlgorithm.HS512), key512
+    }
+
+    @Test
+    void testChangedApiKeySecretIsDerivedAgain() {
+        def registry = new SigningKeyRegistry()
+        Key key = registry.getKey(apiKey('current', newSecret()), SignatureAlgorithm.HS256)
+
+        def secret = newSecret()
+        Key changed = registry.getKey(apiKey('current', secret), SignatureAlgorithm.HS256)
+
+        assertNotSame changed, key
+        assertEquals changed.getEncoded(), Base64.decodeBase64(secret)
+        assertEquals registry.getKeyIds(), ['current'] as Set
+    }
+
+    @Test
+    void testRegisterAndUnregister() {
+        def registry = new SigningKeyRegistry()
+        assertNull registry.getKey('previous', SignatureAlgorithm.HS256)
+
+        def secret = newSecret()
+        registry.register('previous', secret)
+        assertEquals registry.getKey('previous', SignatureAlgorithm.HS256).getEncoded(), Base64.decodeBase64(secret)
+
+        assertTrue registry.unregister('previous')
+        assertFalse registry.unregister('previous')
+        assertNull registry.getKey('previous', SignatureAlgorithm.HS256)
+    }
+
+    @Test
+    void testKeyRotation() {
+
+        ApiKey current = apiKey('old', newSecret())
+
+        def client = createNiceMock(Client)
+        expect(client.getApiKey()).andAnswer(new IAnswer<ApiKey>() {
+            @Override
+            ApiKey answer() throws Throwable {
+                return current
+            }
+        }).anyTimes()
+
+        def request = createNiceMock(HttpServletRequest)
+        expect(request.getAttribute(Client.class.getName())).andReturn(client).anyTimes()
+        def response = createNiceMock(HttpServletResponse)
+
+        def account = createNiceMock(Account)
+        expect(account.getHref()).andReturn('https://api.stormpath.com/v1/accounts/foo').anyTimes()
+        def result = createNiceMock(AuthenticationResult)
+        expect(result.getAccount()).andReturn(account).anyTimes()
+
+        replay client, request, response, account, result
+
+        def resolver = new DefaultJwtSigningKeyResolver()
+        def factory = new DefaultAuthenticationJwtFactory(resolver, SignatureAlgorithm.HS256, 3600)
+        def signingKeyResolver = new SigningKeyResolverAdapter() {
+            @Override
+            Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolver.getSigningKey(request, response, header, claims)
+            }
+        }
+
+        def oldJwt = factory.createAccountJwt(request, response, result)
+        def jws = Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(oldJwt)
+        assertEquals jws.getHeader().getKeyId(), 'old'
+
+        //roll the API Key over, keeping the previous one registered:
+        String oldSecret = current.getSecret()
+        current = apiKey('new', newSecret())
+        resolver.getSigningKeyRegistry().register('old', oldSecret)
+
+        def newJwt = factory.createAccountJwt(request, response, result)
+        assertEquals Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(newJwt).getHeader().getKeyId(), 'new'
+        assertEquals Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(oldJwt).getBody().getSubject(),
+                'https://api.stormpath.com/v1/accounts/foo'
+
+        //once the previous key is retired, its tokens are rejected:
+        resolver.getSigningKeyRegistry().unregister('old')
+        try {
+            Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(oldJwt)
+            fail("should have thrown")
+        } catch (SignatureException expected) {
+        }
+
+        //tokens issued before key ids were used are verified with the current API Key:
+        def legacyJwt = Jwts.builder().setSubject('https://api.stormpath.com/v1/accounts/foo')
+                .signWith(SignatureAlgorithm.HS256, Base64.decodeBase64(current.getSecret())).compact()
+        assertNotNull Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(legacyJwt)
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.servlet.filter.account
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.client.Client
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Jws
+import io.jsonwebtoken.JwsHeader
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import org.testng.annotations.Test
+
+import javax.crypto.spec.SecretKeySpec
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+import java.security.Key
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class VerifiedJwtCacheTest {
+
+    private static final String ACCOUNT_HREF = 'https://api.stormpath.com/v1/accounts/foo'
+    private static final Key KEY = new SecretKeySpec('a very secret signing key value'.getBytes('UTF-8'), 'HmacSHA256')
+
+    private static String jwt(Date expiration) {
+        def builder = Jwts.builder().setSubject(ACCOUNT_HREF).setIssuedAt(new Date())
+        if (expiration != null) {
+            builder.setExpiration(expiration)
+        }
+        return builder.signWith(SignatureAlgorithm.HS256, KEY).compact()
+    }
+
+    private static Jws<Claims> parse(String jwt) {
+        return Jwts.parser().setSigningKey(KEY).parseClaimsJws(jwt)
+    }
+
+    @Test
+    void testHitAndMiss() {
+        def cache = new VerifiedJwtCache()
+        def token = jwt(new Date(System.currentTimeMillis() + 60000))
+
+        assertNull cache.get(token)
+        assertEquals cache.getMissCount(), 1L
+
+        def jws = parse(token)
+        cache.put(token, jws)
+
+        assertSame cache.get(token), jws
+        assertSame cache.get(token), jws
+        assertEquals cache.getHitCount(), 2L
+        assertEquals cache.getMissCount(), 1L
+
+        //a different token, even with the same claims, is never mistaken for a verified one:
+        assertNull cache.get(token + 'x')
+        assertEquals cache.getMissCount(), 2L
+    }
+
+    @Test
+    void testExpirationIsHonored() {
+        def cache = new VerifiedJwtCache()
+        def token = jwt(new Date(System.currentTimeMillis() + 1000))
+        def jws = parse(token)
+        cache.put(token, jws)
+        assertSame cache.get(token), jws
+
+        //JWT expiration has a granularity of one second:
+        Thread.sleep(1100)
+
+        assertNull cache.get(token)
+        assertEquals cache.size(), 0
+    }
+
+    @Test
+    void testMaxTtlIsHonored() {
+        def cache = new VerifiedJwtCache(10, 50)
+        def token = jwt(null)
+        cache.put(token, parse(token))
+        assertNotNull cache.get(token)
+
+        Thread.sleep(100)
+
+        assertNull cache.get(token)
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        def cache = new VerifiedJwtCache(100, 60000)
+        def expiration = new Date(System.currentTimeMillis() + 60000)
+        1000.times {
+            def token = Jwts.builder().setId(String.valueOf(it)).setExpiration(expiration)
+                    .signWith(SignatureAlgorithm.HS256, KEY).compact()
+            cache.put(token, parse(token))
+        }
+        assertTrue cache.size() <= 100
+    }
+
+    @Test
+    void testDisabled() {
+        def cache = new VerifiedJwtCache(0, 60000)
+        def token = jwt(null)
+        cache.put(token, parse(token))
+
+        assertFalse cache.isEnabled()
+        assertNull cache.get(token)
+        assertEquals cache.size(), 0
+    }
+
+    @Test
+    void testAccountResolverVerifiesTokenOnce() {
+
+        def request = createStrictMock(HttpServletRequest)
+        def response = createStrictMock(HttpServletResponse)
+        def client = createStrictMock(Client)
+        def account = createStrictMock(Account)
+        def keyResolver = createStrictMock(JwtSigningKeyResolver)
+
+        expect(keyResolver.getSigningKey(same(request), same(response), anyObject(JwsHeader), anyObject(Claims))).andReturn(KEY)
+        3.times {
+            expect(request.getAttribute(Client.class.getName())).andReturn(client)
+            expect(client.getResource(ACCOUNT_HREF, Account)).andReturn(account)
+        }
+
+        replay request, response, client, account, keyResolver
+
+        def cache = new VerifiedJwtCache()
+        def resolver = new DefaultJwtAccountResolver(keyResolver, cache)
+        def token = jwt(new Date(System.currentTimeMillis() + 60000))
+
+        3.times {
+            assertSame resolver.getAccountByJwt(request, response, token), account
+        }
+        assertEquals cache.getHitCount(), 2L
+        assertEquals cache.getMissCount(), 1L
+
+        verify request, response, client, account, keyResolver
+    }
+}
@@ -37,6 +37,7 @@ import com.stormpath.sdk.servlet.filter.account.AuthenticationJwtFactory;
 import com.stormpath.sdk.servlet.filter.account.AuthenticationResultSaver;
 import com.stormpath.sdk.servlet.filter.account.JwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 import com.stormpath.sdk.servlet.filter.oauth.AccessTokenAuthenticationRequestFactory;
 import com.stormpath.sdk.servlet.filter.oauth.AccessTokenResultFactory;
 import com.stormpath.sdk.servlet.form.Field;
@@ -201,6 +202,12 @@ public class StormpathWebMvcAutoConfiguration extends AbstractStormpathWebMvcCon
         return super.stormpathCsrfTokenSigningKey();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public VerifiedJwtCache stormpathVerifiedJwtCache() {
+        return super.stormpathVerifiedJwtCache();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public JwtAccountResolver stormpathJwtAccountResolver() {
@@ -533,6 +540,7 @@ public class StormpathWebMvcAutoConfiguration extends AbstractStormpathWebMvcCon
         filter.setApplicationRequestAttributeNames(stormpathRequestApplicationAttributeNames());
         filter.setFilterChainResolver(stormpathFilterChainResolver());
         filter.setWrappedServletRequestFactory(stormpathWrappedServletRequestFactory());
+        filter.setBypassPrefixes(stormpathFilterBypassPrefixes());
 
         FilterRegistrationBean bean = new FilterRegistrationBean();
         bean.setFilter(filter);
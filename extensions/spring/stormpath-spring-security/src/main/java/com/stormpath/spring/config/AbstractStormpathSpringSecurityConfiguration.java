@@ -29,6 +29,7 @@ import com.stormpath.spring.security.provider.GroupPermissionResolver;
 import com.stormpath.spring.security.provider.StormpathAuthenticationProvider;
 import com.stormpath.spring.security.provider.UsernamePasswordAuthenticationTokenFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 
 /**
@@ -42,6 +43,18 @@ public abstract class AbstractStormpathSpringSecurityConfiguration {
     @Autowired
     private Application application;
 
+    @Value("#{ @environment['stormpath.spring.security.authorities.groupCustomDataExpansion.enabled'] ?: false }")
+    protected boolean groupCustomDataExpansionEnabled;
+
+    @Value("#{ @environment['stormpath.spring.security.authorities.groupPageSize'] ?: 100 }")
+    protected int groupPageSize;
+
+    @Value("#{ @environment['stormpath.spring.security.authorities.cache.ttl'] ?: 0 }")
+    protected long grantedAuthoritiesCacheTtl;
+
+    @Value("#{ @environment['stormpath.spring.security.authorities.cache.maxEntries'] ?: 10000 }")
+    protected int grantedAuthoritiesCacheMaxEntries;
+
     public GroupGrantedAuthorityResolver stormpathGroupGrantedAuthorityResolver() {
         return new DefaultGroupGrantedAuthorityResolver();
     }
@@ -75,6 +88,11 @@ public abstract class AbstractStormpathSpringSecurityConfiguration {
         provider.setAccountPermissionResolver(stormpathAccountPermissionResolver());
         provider.setAuthenticationTokenFactory(stormpathAuthenticationTokenFactory());
 
+        provider.setGroupCustomDataExpansionEnabled(groupCustomDataExpansionEnabled);
+        provider.setGroupPageSize(groupPageSize);
+        provider.setGrantedAuthoritiesCacheTtl(grantedAuthoritiesCacheTtl);
+        provider.setGrantedAuthoritiesCacheMaxEntries(grantedAuthoritiesCacheMaxEntries);
+
         return provider;
     }
 
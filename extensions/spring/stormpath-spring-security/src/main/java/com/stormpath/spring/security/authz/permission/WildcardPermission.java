@@ -161,7 +161,7 @@ public class WildcardPermission implements Permission, Serializable {
         }
     }
 
-    private boolean isCaseSensitive() {
+    boolean isCaseSensitive() {
         return this.caseSensitive;
     }
 
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.spring.security.authz.permission;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable index of the {@link WildcardPermission}s found in a collection of granted authorities, which determines
+ * whether any of them {@link WildcardPermission#implies(Permission) implies} a permission without comparing it to
+ * every granted permission.
+ * <p/>
+ * Granted permissions are compiled into a trie with one level per permission part: a part containing the
+ * {@link WildcardPermission#WILDCARD_TOKEN wildcard token} leads to a single wildcard branch, any other part is
+ * reachable from each of its subparts.  Case insensitive permissions are kept in a separate trie whose subparts are
+ * case-folded.  A check therefore only visits the branches that can match the checked permission, yielding exactly
+ * the same result as the {@code implies} method of each granted permission.
+ * <p/>
+ * {@code WildcardPermission} subclasses overriding {@code implies} are not indexed: they are checked one by one after
+ * the index.
+ *
+ * @since 1.0.RC7.7
+ */
+public final class WildcardPermissionIndex {
+
+    private static final ConcurrentMap<Class<?>, Boolean> INDEXABLE_TYPES = new ConcurrentHashMap<Class<?>, Boolean>();
+
+    private final Node caseSensitiveRoot;
+    private final Node caseInsensitiveRoot;
+    private final List<WildcardPermission> unindexed;
+
+    private WildcardPermissionIndex(Node caseSensitiveRoot, Node caseInsensitiveRoot,
+                                    List<WildcardPermission> unindexed) {
+        this.caseSensitiveRoot = caseSensitiveRoot;
+        this.caseInsensitiveRoot = caseInsensitiveRoot;
+        this.unindexed = unindexed;
+    }
+
+    /**
+     * Compiles the {@link WildcardPermission}s among the specified authorities into a new index.  Other kinds of
+     * authorities are ignored.
+     *
+     * @param authorities the granted authorities to index
+     * @return a new index of the specified authorities' {@code WildcardPermission}s.
+     */
+    public static WildcardPermissionIndex compile(Collection<? extends GrantedAuthority> authorities) {
+        Node caseSensitiveRoot = new Node(null);
+        Node caseInsensitiveRoot = new Node(null);
+        List<WildcardPermission> unindexed = new ArrayList<WildcardPermission>();
+
+        if (authorities != null) {
+            for (GrantedAuthority authority : authorities) {
+                if (!(authority instanceof WildcardPermission)) {
+                    continue;
+                }
+                WildcardPermission permission = (WildcardPermission) authority;
+                if (!isIndexable(permission)) {
+                    unindexed.add(permission);
+                } else if (permission.isCaseSensitive()) {
+                    caseSensitiveRoot.add(permission.getParts(), false);
+                } else {
+                    caseInsensitiveRoot.add(permission.getParts(), true);
+                }
+            }
+        }
+
+        caseSensitiveRoot.seal();
+        caseInsensitiveRoot.seal();
+
+        return new WildcardPermissionIndex(caseSensitiveRoot.isEmpty() ? null : caseSensitiveRoot,
+                                           caseInsensitiveRoot.isEmpty() ? null : caseInsensitiveRoot,
+                                           unindexed);
+    }
+
+    /**
+     * Returns {@code true} if no {@link WildcardPermission} has been indexed, {@code false} otherwise.
+     *
+     * @return {@code true} if no {@link WildcardPermission} has been indexed, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return caseSensitiveRoot == null && caseInsensitiveRoot == null && unindexed.isEmpty();
+    }
+
+    /**
+     * Returns {@code true} if any of the indexed permissions implies the specified permission, {@code false}
+     * otherwise.
+     *
+     * @param permission the permission to check
+     * @return {@code true} if any of the indexed permissions implies the specified permission, {@code false}
+     *         otherwise.
+     */
+    public boolean implies(WildcardPermission permission) {
+        List<Set<String>> parts = permission.getParts();
+
+        if (caseSensitiveRoot != null && matches(caseSensitiveRoot, parts, 0, false)) {
+            return true;
+        }
+        if (caseInsensitiveRoot != null && matches(caseInsensitiveRoot, parts, 0, true)) {
+            return true;
+        }
+        for (WildcardPermission granted : unindexed) {
+            if (granted.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(Node node, List<Set<String>> parts, int depth, boolean fold) {
+        if (depth == parts.size()) {
+            //any remaining granted parts must be wildcards:
+            return node.wildcardTail;
+        }
+        if (node.terminal) {
+            //the granted permission has less parts: everything after them is implied
+            return true;
+        }
+        if (node.wildcard != null && matches(node.wildcard, parts, depth + 1, fold)) {
+            return true;
+        }
+
+        Set<String> part = parts.get(depth);
+        Iterator<String> i = part.iterator();
+        if (!i.hasNext()) {
+            return false;
+        }
+        List<Node> candidates = node.children.get(fold(i.next(), fold));
+        if (candidates == null) {
+            return false;
+        }
+        for (Node candidate : candidates) {
+            if (containsAll(candidate.part, part, fold) && matches(candidate, parts, depth + 1, fold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAll(Set<String> granted, Set<String> part, boolean fold) {
+        if (part.size() == 1) {
+            //already matched by the children lookup
+            return true;
+        }
+        for (String subpart : part) {
+            if (!granted.contains(fold(subpart, fold))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the specified subpart so that two subparts equal according to {@link String#equalsIgnoreCase(String)}
+     * fold to the same string.  Returns the subpart itself if it is already folded (e.g. lower case).
+     */
+    private static String fold(String subpart, boolean fold) {
+        if (!fold) {
+            return subpart;
+        }
+        int length = subpart.length();
+        for (int i = 0; i < length; i++) {
+            char c = subpart.charAt(i);
+            if (foldChar(c) != c) {
+                char[] chars = subpart.toCharArray();
+                for (int j = i; j < length; j++) {
+                    chars[j] = foldChar(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return subpart;
+    }
+
+    //the same per-character equivalence as String.equalsIgnoreCase
+    private static char foldChar(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static boolean isIndexable(WildcardPermission permission) {
+        Class<?> clazz = permission.getClass();
+        Boolean indexable = INDEXABLE_TYPES.get(clazz);
+        if (indexable == null) {
+            try {
+                indexable = clazz.getMethod("implies", Permission.class).getDeclaringClass() == WildcardPermission.class;
+            } catch (NoSuchMethodException e) {
+                indexable = Boolean.FALSE;
+            }
+            INDEXABLE_TYPES.put(clazz, indexable);
+        }
+        return indexable;
+    }
+
+    private static final class Node {
+
+        private final Set<String> part;
+        private final Map<String, List<Node>> children = new HashMap<String, List<Node>>();
+        private final Map<Set<String>, Node> childrenByPart = new HashMap<Set<String>, Node>();
+        private Node wildcard;
+        private boolean terminal;
+        private boolean wildcardTail;
+
+        private Node(Set<String> part) {
+            this.part = part;
+        }
+
+        private boolean isEmpty() {
+            return wildcard == null && childrenByPart.isEmpty();
+        }
+
+        private void add(List<Set<String>> parts, boolean fold) {
+            Node node = this;
+            for (Set<String> part : parts) {
+                node = node.child(part, fold);
+            }
+            node.terminal = true;
+        }
+
+        private Node child(Set<String> part, boolean fold) {
+            if (part.contains(WildcardPermission.WILDCARD_TOKEN)) {
+                if (wildcard == null) {
+                    wildcard = new Node(null);
+                }
+                return wildcard;
+            }
+
+            Set<String> key = new HashSet<String>(part.size() * 4 / 3 + 1);
+            for (String subpart : part) {
+                key.add(fold(subpart, fold));
+            }
+
+            Node child = childrenByPart.get(key);
+            if (child == null) {
+                child = new Node(key);
+                childrenByPart.put(key, child);
+                for (String subpart : key) {
+                    List<Node> nodes = children.get(subpart);
+                    if (nodes == null) {
+                        nodes = new ArrayList<Node>(1);
+                        children.put(subpart, nodes);
+                    }
+                    nodes.add(child);
+                }
+            }
+            return child;
+        }
+
+        private boolean seal() {
+            for (Node child : childrenByPart.values()) {
+                child.seal();
+            }
+            boolean wildcardSealed = wildcard != null && wildcard.seal();
+            wildcardTail = terminal || wildcardSealed;
+            return wildcardTail;
+        }
+    }
+}
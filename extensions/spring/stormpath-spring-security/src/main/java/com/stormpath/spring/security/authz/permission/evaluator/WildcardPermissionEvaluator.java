@@ -16,14 +16,19 @@
 
 package com.stormpath.spring.security.authz.permission.evaluator;
 
-import com.stormpath.spring.security.authz.permission.Permission;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
 import com.stormpath.spring.security.authz.permission.WildcardPermission;
+import com.stormpath.spring.security.authz.permission.WildcardPermissionIndex;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link PermissionEvaluator} that determines if a {@link WildcardPermission} matches a given permission.
@@ -51,11 +56,36 @@ import java.util.Collection;
  *      <sec:authorize access="hasPermission(...)" />
  *      }
  * </pre>
+ * <h3>Performance</h3>
+ * The granted {@code WildcardPermission}s of an {@code Authentication} are compiled once into a
+ * {@link WildcardPermissionIndex} which is reused for every check of that {@code Authentication} (for as long as it
+ * returns the same authorities collection).  Checked permission strings are parsed once and then reused as well.
  *
  * @since 0.2.0
  */
 public class WildcardPermissionEvaluator implements PermissionEvaluator {
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final int MAX_CACHED_PERMISSIONS = 10000;
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final int MAX_CACHED_INDEXES = 10000;
+
+    //since 1.0.RC7.7, the least valuable entries are evicted once full:
+    private final ConcurrentMap<String, WildcardPermission> permissions =
+        new BoundedConcurrentMap<String, WildcardPermission>(MAX_CACHED_PERMISSIONS);
+
+    //since 1.0.RC7.7
+    private final ConcurrentMap<AuthenticationKey, CompiledAuthorities> indexes =
+        new BoundedConcurrentMap<AuthenticationKey, CompiledAuthorities>(MAX_CACHED_INDEXES);
+
+    //since 1.0.RC7.7
+    private final ReferenceQueue<Authentication> collected = new ReferenceQueue<Authentication>();
+
     @Override
     public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
 
@@ -65,21 +95,43 @@ public class WildcardPermissionEvaluator implements PermissionEvaluator {
         }
 
         //Let's construct a WildcardPermission out of the given parameters
-        Permission toMatch = new WildcardPermission( domainObjectString + permission);
+        WildcardPermission toMatch = getPermission(domainObjectString + permission);
 
+        //This evaluator only compares WildcardPermissions, the index ignores any other kind of authority
+        return getIndex(authentication).implies(toMatch);
+    }
+
+    private WildcardPermission getPermission(String wildcardString) {
+        WildcardPermission permission = permissions.get(wildcardString);
+        if (permission == null) {
+            permission = new WildcardPermission(wildcardString);
+            permissions.put(wildcardString, permission);
+        }
+        return permission;
+    }
+
+    private WildcardPermissionIndex getIndex(Authentication authentication) {
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        for(GrantedAuthority authority : authorities) {
-            //This evaluator only compares WildcardPermissions
-            if (authority instanceof WildcardPermission) {
-                WildcardPermission wp = (WildcardPermission) authority;
-                //Let's delegate the actual comparison to the WildcardPermission
-                if(wp.implies(toMatch)){
-                    return true;
-                }
-            }
+
+        AuthenticationKey key = new AuthenticationKey(authentication, null);
+        CompiledAuthorities compiled = indexes.get(key);
+        if (compiled != null && compiled.authorities == authorities) {
+            return compiled.index;
         }
 
-        return false;
+        compiled = new CompiledAuthorities(authorities, WildcardPermissionIndex.compile(authorities));
+
+        purgeCollected();
+        indexes.put(new AuthenticationKey(authentication, collected), compiled);
+
+        return compiled.index;
+    }
+
+    private void purgeCollected() {
+        Reference<? extends Authentication> ref;
+        while ((ref = collected.poll()) != null) {
+            indexes.remove(ref);
+        }
     }
 
     @Override
@@ -92,4 +144,45 @@ public class WildcardPermissionEvaluator implements PermissionEvaluator {
         return hasPermission(authentication, targetType + targetIdString, permission);
     }
 
+    /**
+     * Weakly references an {@code Authentication}, compared by identity.
+     */
+    private static final class AuthenticationKey extends WeakReference<Authentication> {
+
+        private final int hash;
+
+        private AuthenticationKey(Authentication authentication, ReferenceQueue<Authentication> queue) {
+            super(authentication, queue);
+            this.hash = System.identityHashCode(authentication);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof AuthenticationKey)) {
+                return false;
+            }
+            Authentication authentication = get();
+            return authentication != null && authentication == ((AuthenticationKey) o).get();
+        }
+    }
+
+    private static final class CompiledAuthorities {
+
+        private final Collection<? extends GrantedAuthority> authorities;
+        private final WildcardPermissionIndex index;
+
+        private CompiledAuthorities(Collection<? extends GrantedAuthority> authorities, WildcardPermissionIndex index) {
+            this.authorities = authorities;
+            this.index = index;
+        }
+    }
+
 }
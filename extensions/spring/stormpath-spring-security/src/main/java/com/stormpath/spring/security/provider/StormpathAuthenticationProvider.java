@@ -22,6 +22,8 @@ import com.stormpath.sdk.authc.UsernamePasswordRequest;
 import com.stormpath.sdk.client.Client;
 import com.stormpath.sdk.group.Group;
 import com.stormpath.sdk.group.GroupList;
+import com.stormpath.sdk.group.Groups;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
 import com.stormpath.sdk.lang.Strings;
 import com.stormpath.sdk.resource.ResourceException;
 import com.stormpath.spring.security.authz.permission.Permission;
@@ -32,10 +34,17 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * A {@code AuthenticationProvider} implementation that uses the <a href="http://www.stormpath.com">Stormpath</a> Cloud Identity
@@ -106,6 +115,20 @@ import java.util.Set;
  *     <li>Are assigned directly to the Account itself</li>
  *     <li>Are assigned to any of the Account's assigned Groups</li>
  * </ol>
+ * <h4>Resolution Performance</h4>
+ * By default every one of the account's groups is resolved on its own, and the default
+ * {@link GroupCustomDataPermissionResolver} retrieves each group's CustomData with a separate request.  Accounts
+ * assigned to many groups can be resolved more efficiently by:
+ * <ul>
+ *     <li>{@link #setGroupCustomDataExpansionEnabled(boolean) expanding} the groups' CustomData when retrieving the
+ *     account's groups, so all of them are acquired with a single request per {@link #setGroupPageSize(int) page};</li>
+ *     <li>configuring an {@link #setAuthorityResolutionExecutor(ExecutorService) authorityResolutionExecutor} to
+ *     resolve the groups concurrently when their CustomData is not expanded;</li>
+ *     <li>{@link #setGrantedAuthoritiesCacheTtl(long) caching} the granted authorities resolved for each account.  A
+ *     cached authority set is only used while the account is still assigned exactly the same groups, so group
+ *     membership changes take effect on the next authentication.  Permission changes are reflected once the cache
+ *     entry expires or is {@link #evictGrantedAuthorities(String) evicted}.</li>
+ * </ul>
  * <h4>Assigning Permissions</h4>
  * A Spring Security Authentication Provider is a read-only component - it typically does not support account/group/permission
  * updates directly.
@@ -139,6 +162,16 @@ import java.util.Set;
  */
 public class StormpathAuthenticationProvider implements AuthenticationProvider {
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final int DEFAULT_GROUP_PAGE_SIZE = 100;
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public static final int DEFAULT_GRANTED_AUTHORITIES_CACHE_MAX_ENTRIES = 10000;
+
     private Client client;
     private String applicationRestUrl;
     private GroupGrantedAuthorityResolver groupGrantedAuthorityResolver;
@@ -146,6 +179,14 @@ public class StormpathAuthenticationProvider implements AuthenticationProvider {
     private AccountGrantedAuthorityResolver accountGrantedAuthorityResolver;
     private AccountPermissionResolver accountPermissionResolver;
     private AuthenticationTokenFactory authenticationTokenFactory;
+    private boolean groupCustomDataExpansionEnabled = false;
+    private int groupPageSize = DEFAULT_GROUP_PAGE_SIZE;
+    private ExecutorService authorityResolutionExecutor;
+    private long grantedAuthoritiesCacheTtl = 0;
+    private int grantedAuthoritiesCacheMaxEntries = DEFAULT_GRANTED_AUTHORITIES_CACHE_MAX_ENTRIES;
+
+    private volatile BoundedConcurrentMap<String, CachedGrantedAuthorities> grantedAuthoritiesCache =
+        newGrantedAuthoritiesCache(DEFAULT_GRANTED_AUTHORITIES_CACHE_MAX_ENTRIES);
 
     private Application application; //acquired via the client at runtime, not configurable by the StormpathAuthenticationProvider user
 
@@ -320,6 +361,155 @@ public class StormpathAuthenticationProvider implements AuthenticationProvider {
         this.authenticationTokenFactory = authenticationTokenFactory;
     }
 
+    /**
+     * Returns {@code true} if the account's groups are retrieved with their CustomData expanded, {@code false}
+     * otherwise.  The default value is {@code false}.
+     *
+     * @return {@code true} if the account's groups are retrieved with their CustomData expanded.
+     * @since 1.0.RC7.7
+     */
+    public boolean isGroupCustomDataExpansionEnabled() {
+        return groupCustomDataExpansionEnabled;
+    }
+
+    /**
+     * Sets whether the account's groups are retrieved with their CustomData expanded, so that the
+     * {@link #getGroupPermissionResolver() groupPermissionResolver} does not need to retrieve each group's CustomData
+     * separately.  The default value is {@code false}.
+     *
+     * @param groupCustomDataExpansionEnabled whether the account's groups are retrieved with their CustomData
+     *                                        expanded.
+     * @since 1.0.RC7.7
+     */
+    public void setGroupCustomDataExpansionEnabled(boolean groupCustomDataExpansionEnabled) {
+        this.groupCustomDataExpansionEnabled = groupCustomDataExpansionEnabled;
+    }
+
+    /**
+     * Returns the number of groups retrieved per request when
+     * {@link #isGroupCustomDataExpansionEnabled() groupCustomDataExpansionEnabled} is {@code true}.  The default
+     * value is {@link #DEFAULT_GROUP_PAGE_SIZE}.
+     *
+     * @return the number of groups retrieved per request when group CustomData is expanded.
+     * @since 1.0.RC7.7
+     */
+    public int getGroupPageSize() {
+        return groupPageSize;
+    }
+
+    /**
+     * Sets the number of groups retrieved per request when
+     * {@link #isGroupCustomDataExpansionEnabled() groupCustomDataExpansionEnabled} is {@code true}.
+     *
+     * @param groupPageSize the number of groups retrieved per request when group CustomData is expanded.
+     * @since 1.0.RC7.7
+     */
+    public void setGroupPageSize(int groupPageSize) {
+        if (groupPageSize <= 0) {
+            throw new IllegalArgumentException("groupPageSize must be greater than zero.");
+        }
+        this.groupPageSize = groupPageSize;
+    }
+
+    /**
+     * Returns the {@code ExecutorService} used to resolve the account's groups concurrently, or {@code null} if
+     * groups are resolved sequentially by the authenticating thread (the default).
+     *
+     * @return the {@code ExecutorService} used to resolve the account's groups concurrently, or {@code null}.
+     * @since 1.0.RC7.7
+     */
+    public ExecutorService getAuthorityResolutionExecutor() {
+        return authorityResolutionExecutor;
+    }
+
+    /**
+     * Sets the {@code ExecutorService} used to resolve the account's groups concurrently.  It is only used when
+     * {@link #isGroupCustomDataExpansionEnabled() groupCustomDataExpansionEnabled} is {@code false}, as expanded
+     * groups are resolved without further requests.  The executor is not managed by this provider: it must be shut
+     * down by the application.
+     *
+     * @param authorityResolutionExecutor the {@code ExecutorService} used to resolve the account's groups
+     *                                    concurrently, or {@code null} to resolve them sequentially.
+     * @since 1.0.RC7.7
+     */
+    public void setAuthorityResolutionExecutor(ExecutorService authorityResolutionExecutor) {
+        this.authorityResolutionExecutor = authorityResolutionExecutor;
+    }
+
+    /**
+     * Returns the time in milliseconds the granted authorities resolved for an account are cached, or {@code 0} if
+     * they are not cached (the default).
+     *
+     * @return the time in milliseconds the granted authorities resolved for an account are cached.
+     * @since 1.0.RC7.7
+     */
+    public long getGrantedAuthoritiesCacheTtl() {
+        return grantedAuthoritiesCacheTtl;
+    }
+
+    /**
+     * Sets the time in milliseconds the granted authorities resolved for an account are cached, or {@code 0} to
+     * disable caching (the default).
+     *
+     * @param grantedAuthoritiesCacheTtl the time in milliseconds the granted authorities resolved for an account
+     *                                   are cached.
+     * @since 1.0.RC7.7
+     */
+    public void setGrantedAuthoritiesCacheTtl(long grantedAuthoritiesCacheTtl) {
+        if (grantedAuthoritiesCacheTtl < 0) {
+            throw new IllegalArgumentException("grantedAuthoritiesCacheTtl cannot be negative.");
+        }
+        this.grantedAuthoritiesCacheTtl = grantedAuthoritiesCacheTtl;
+        if (grantedAuthoritiesCacheTtl == 0) {
+            this.grantedAuthoritiesCache.clear();
+        }
+    }
+
+    /**
+     * Returns the maximum number of accounts whose granted authorities are cached.  The default value is
+     * {@link #DEFAULT_GRANTED_AUTHORITIES_CACHE_MAX_ENTRIES}.
+     *
+     * @return the maximum number of accounts whose granted authorities are cached.
+     * @since 1.0.RC7.7
+     */
+    public int getGrantedAuthoritiesCacheMaxEntries() {
+        return grantedAuthoritiesCacheMaxEntries;
+    }
+
+    /**
+     * Sets the maximum number of accounts whose granted authorities are cached.
+     *
+     * @param grantedAuthoritiesCacheMaxEntries the maximum number of accounts whose granted authorities are cached.
+     * @since 1.0.RC7.7
+     */
+    public void setGrantedAuthoritiesCacheMaxEntries(int grantedAuthoritiesCacheMaxEntries) {
+        if (grantedAuthoritiesCacheMaxEntries <= 0) {
+            throw new IllegalArgumentException("grantedAuthoritiesCacheMaxEntries must be greater than zero.");
+        }
+        this.grantedAuthoritiesCacheMaxEntries = grantedAuthoritiesCacheMaxEntries;
+        this.grantedAuthoritiesCache = newGrantedAuthoritiesCache(grantedAuthoritiesCacheMaxEntries);
+    }
+
+    /**
+     * Evicts the cached granted authorities of the account identified by {@code href}, or of every account assigned
+     * to the group identified by {@code href}.  This should be called when permissions of an account or group are
+     * modified, so the change is reflected before the cached authorities expire.
+     *
+     * @param href the href of the modified account or group
+     * @since 1.0.RC7.7
+     */
+    public void evictGrantedAuthorities(String href) {
+        if (href == null) {
+            return;
+        }
+        grantedAuthoritiesCache.remove(href);
+        for (Map.Entry<String, CachedGrantedAuthorities> entry : grantedAuthoritiesCache.entrySet()) {
+            if (entry.getValue().groupHrefs.contains(href)) {
+                grantedAuthoritiesCache.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     private void assertState() {
         if (this.client == null) {
             throw new IllegalStateException("Stormpath SDK Client instance must be configured.");
@@ -423,29 +613,143 @@ public class StormpathAuthenticationProvider implements AuthenticationProvider {
     }
 
     protected Collection<GrantedAuthority> getGrantedAuthorities(Account account) {
-        Collection<GrantedAuthority> grantedAuthorities = new HashSet<GrantedAuthority>();
 
-        GroupList groups = account.getGroups();
+        List<Group> groups = getGroups(account);
 
+        if (grantedAuthoritiesCacheTtl <= 0) {
+            return resolveGrantedAuthorities(account, groups);
+        }
+
+        String accountHref = account.getHref();
+        Set<String> groupHrefs = new HashSet<String>(groups.size());
         for (Group group : groups) {
-                Set<GrantedAuthority> groupGrantedAuthorities = resolveGrantedAuthorities(group);
-                grantedAuthorities.addAll(groupGrantedAuthorities);
+            groupHrefs.add(group.getHref());
+        }
 
-                Set<Permission> groupPermissions = resolvePermissions(group);
-                grantedAuthorities.addAll(groupPermissions);
+        long now = System.currentTimeMillis();
+        CachedGrantedAuthorities cached = grantedAuthoritiesCache.get(accountHref);
+        //a cached authority set is only valid while the account is assigned exactly the same groups:
+        if (cached != null && now < cached.expiresAt && cached.groupHrefs.equals(groupHrefs)) {
+            return new HashSet<GrantedAuthority>(cached.grantedAuthorities);
         }
 
-        Set<GrantedAuthority> accountGrantedAuthorities = resolveGrantedAuthorities(account);
-        grantedAuthorities.addAll(accountGrantedAuthorities);
+        Collection<GrantedAuthority> grantedAuthorities = resolveGrantedAuthorities(account, groups);
 
-        Set<Permission> accountPermissions = resolvePermissions(account);
-        for (GrantedAuthority permission : accountPermissions) {
-            grantedAuthorities.add(permission);
+        cached = new CachedGrantedAuthorities(groupHrefs, new HashSet<GrantedAuthority>(grantedAuthorities),
+                                              now + grantedAuthoritiesCacheTtl);
+        //the least valuable entries are evicted once the cache is full:
+        grantedAuthoritiesCache.put(accountHref, cached);
+
+        return grantedAuthorities;
+    }
+
+    /**
+     * Returns all of the groups assigned to the specified account, with their CustomData expanded if
+     * {@link #isGroupCustomDataExpansionEnabled() groupCustomDataExpansionEnabled} is {@code true}.
+     *
+     * @param account the authenticated account
+     * @return all of the groups assigned to the specified account.
+     * @since 1.0.RC7.7
+     */
+    protected List<Group> getGroups(Account account) {
+        GroupList groupList;
+        if (groupCustomDataExpansionEnabled) {
+            groupList = account.getGroups(Groups.criteria().withCustomData().limitTo(groupPageSize));
+        } else {
+            groupList = account.getGroups();
+        }
+
+        List<Group> groups = new ArrayList<Group>();
+        for (Group group : groupList) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private Collection<GrantedAuthority> resolveGrantedAuthorities(Account account, List<Group> groups) {
+        Collection<GrantedAuthority> grantedAuthorities = new HashSet<GrantedAuthority>();
+
+        ExecutorService executor = this.authorityResolutionExecutor;
+
+        if (executor == null || groupCustomDataExpansionEnabled || groups.size() < 2) {
+            for (Group group : groups) {
+                grantedAuthorities.addAll(resolveGroupAuthorities(group));
+            }
+            grantedAuthorities.addAll(resolveAccountAuthorities(account));
+            return grantedAuthorities;
+        }
+
+        List<Future<Set<GrantedAuthority>>> futures = new ArrayList<Future<Set<GrantedAuthority>>>(groups.size());
+        try {
+            for (final Group group : groups) {
+                futures.add(executor.submit(new Callable<Set<GrantedAuthority>>() {
+                    @Override
+                    public Set<GrantedAuthority> call() throws Exception {
+                        return resolveGroupAuthorities(group);
+                    }
+                }));
+            }
+
+            //resolve the account while the groups are being resolved:
+            grantedAuthorities.addAll(resolveAccountAuthorities(account));
+
+            for (Future<Set<GrantedAuthority>> future : futures) {
+                grantedAuthorities.addAll(getResolved(future));
+            }
+        } finally {
+            //no-op for completed futures, stops outstanding work if resolution failed:
+            for (Future<Set<GrantedAuthority>> future : futures) {
+                future.cancel(true);
+            }
         }
 
         return grantedAuthorities;
     }
 
+    private static Set<GrantedAuthority> getResolved(Future<Set<GrantedAuthority>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while resolving granted authorities.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AuthenticationServiceException("Unable to resolve granted authorities: " + cause.getMessage(), cause);
+        }
+    }
+
+    private Set<GrantedAuthority> resolveGroupAuthorities(Group group) {
+        Set<GrantedAuthority> grantedAuthorities = new HashSet<GrantedAuthority>();
+        grantedAuthorities.addAll(resolveGrantedAuthorities(group));
+        grantedAuthorities.addAll(resolvePermissions(group));
+        return grantedAuthorities;
+    }
+
+    private Set<GrantedAuthority> resolveAccountAuthorities(Account account) {
+        Set<GrantedAuthority> grantedAuthorities = new HashSet<GrantedAuthority>();
+        grantedAuthorities.addAll(resolveGrantedAuthorities(account));
+        grantedAuthorities.addAll(resolvePermissions(account));
+        return grantedAuthorities;
+    }
+
+    private static BoundedConcurrentMap<String, CachedGrantedAuthorities> newGrantedAuthoritiesCache(int maxEntries) {
+        BoundedConcurrentMap<String, CachedGrantedAuthorities> cache =
+            new BoundedConcurrentMap<String, CachedGrantedAuthorities>(maxEntries);
+        cache.setExpiry(new BoundedConcurrentMap.Expiry<String, CachedGrantedAuthorities>() {
+            @Override
+            public boolean isExpired(String accountHref, CachedGrantedAuthorities cached, long nowMillis) {
+                return nowMillis >= cached.expiresAt;
+            }
+        });
+        return cache;
+    }
+
     private Set<GrantedAuthority> resolveGrantedAuthorities(Group group) {
         if (groupGrantedAuthorityResolver != null) {
             return groupGrantedAuthorityResolver.resolveGrantedAuthorities(group);
@@ -476,5 +780,18 @@ public class StormpathAuthenticationProvider implements AuthenticationProvider {
         return Collections.emptySet();
     }
 
+    private static class CachedGrantedAuthorities {
+
+        private final Set<String> groupHrefs;
+        private final Set<GrantedAuthority> grantedAuthorities;
+        private final long expiresAt;
+
+        private CachedGrantedAuthorities(Set<String> groupHrefs, Set<GrantedAuthority> grantedAuthorities,
+                                         long expiresAt) {
+            this.groupHrefs = groupHrefs;
+            this.grantedAuthorities = grantedAuthorities;
+            this.expiresAt = expiresAt;
+        }
+    }
 
 }
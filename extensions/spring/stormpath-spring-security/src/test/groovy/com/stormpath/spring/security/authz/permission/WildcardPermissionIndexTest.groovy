@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.spring.security.authz.permission
+
+import org.junit.Ignore
+import org.junit.Test
+import org.springframework.security.core.GrantedAuthority
+import org.springframework.security.core.authority.SimpleGrantedAuthority
+
+import static org.junit.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class WildcardPermissionIndexTest {
+
+    private static final List<String> TOKENS = ['one', 'Two', 'three', 'FOUR', '*']
+
+    private static String randomPermission(Random random, boolean wildcards) {
+        int parts = 1 + random.nextInt(4)
+        (0..<parts).collect {
+            int subparts = 1 + random.nextInt(2)
+            (0..<subparts).collect {
+                String token = TOKENS[random.nextInt(wildcards ? TOKENS.size() : TOKENS.size() - 1)]
+                random.nextBoolean() ? token.toUpperCase() : token.toLowerCase()
+            }.join(',')
+        }.join(':')
+    }
+
+    private static boolean linearScan(Collection<? extends GrantedAuthority> authorities, WildcardPermission p) {
+        authorities.any { it instanceof WildcardPermission && it.implies(p) }
+    }
+
+    @Test
+    void testSameResultsAsImplies() {
+        def random = new Random(42)
+
+        200.times {
+            def authorities = []
+            (1 + random.nextInt(10)).times {
+                authorities << new WildcardPermission(randomPermission(random, true), random.nextInt(4) == 0)
+            }
+            def index = WildcardPermissionIndex.compile(authorities)
+
+            50.times {
+                def p = new WildcardPermission(randomPermission(random, false))
+                assertEquals("$authorities implies $p", linearScan(authorities, p), index.implies(p))
+            }
+        }
+    }
+
+    @Test
+    void testCaseSensitivity() {
+        def index = WildcardPermissionIndex.compile([new WildcardPermission('printer:Print', true),
+                                                     new WildcardPermission('newsletter:Edit')])
+
+        assertTrue index.implies(new WildcardPermission('printer:Print'))
+        assertFalse index.implies(new WildcardPermission('printer:print'))
+        assertTrue index.implies(new WildcardPermission('NEWSLETTER:edit'))
+    }
+
+    @Test
+    void testShorterAndLongerPermissions() {
+        def index = WildcardPermissionIndex.compile([new WildcardPermission('newsletter'),
+                                                     new WildcardPermission('printer:*:*'),
+                                                     new WildcardPermission('fax:send:*:42')])
+
+        assertTrue index.implies(new WildcardPermission('newsletter:edit:13'))
+        assertTrue index.implies(new WildcardPermission('printer'))
+        assertTrue index.implies(new WildcardPermission('printer:print'))
+        assertFalse index.implies(new WildcardPermission('fax:send'))
+        assertTrue index.implies(new WildcardPermission('fax:send:x:42:y'))
+    }
+
+    @Test
+    void testMultipleSubparts() {
+        def index = WildcardPermissionIndex.compile([new WildcardPermission('newsletter:view,edit'),
+                                                     new WildcardPermission('newsletter:create')])
+
+        assertTrue index.implies(new WildcardPermission('newsletter:edit,VIEW'))
+        assertFalse index.implies(new WildcardPermission('newsletter:edit,create'))
+    }
+
+    @Test
+    void testOtherAuthoritiesAreIgnored() {
+        def index = WildcardPermissionIndex.compile([new SimpleGrantedAuthority('*')])
+
+        assertTrue index.isEmpty()
+        assertFalse index.implies(new WildcardPermission('anything'))
+    }
+
+    @Test
+    void testOverriddenImpliesIsHonored() {
+        def permission = new WildcardPermission('nothing') {
+            @Override
+            boolean implies(Permission p) {
+                return true
+            }
+        }
+        def index = WildcardPermissionIndex.compile([permission])
+
+        assertTrue index.implies(new WildcardPermission('anything'))
+    }
+
+    /**
+     * Compares the index with a linear scan of the granted permissions.  Disabled by default (on purpose), as it is a
+     * manual benchmark and not a correctness test: enable it to run it manually, but DO NOT COMMIT the change.
+     */
+    @Ignore
+    @Test
+    void benchmarkIndexVersusLinearScan() {
+        def random = new Random(7)
+        def authorities = (0..<500).collect { new WildcardPermission("domain$it:action${it % 10}:${random.nextInt(100)}") }
+        def checks = (0..<100).collect { new WildcardPermission("domain${random.nextInt(1000)}:action${random.nextInt(10)}:${random.nextInt(100)}") }
+        def index = WildcardPermissionIndex.compile(authorities)
+        int iterations = 2000
+
+        2.times { //warm up, then measure
+            long start = System.nanoTime()
+            iterations.times { checks.each { linearScan(authorities, it) } }
+            long linear = System.nanoTime() - start
+
+            start = System.nanoTime()
+            iterations.times { checks.each { index.implies(it) } }
+            long indexed = System.nanoTime() - start
+
+            println "linear scan: ${linear / (iterations * checks.size())} ns/check, " +
+                "index: ${indexed / (iterations * checks.size())} ns/check"
+        }
+    }
+}
@@ -24,6 +24,8 @@ import org.springframework.security.core.GrantedAuthority
 
 import static org.easymock.EasyMock.*
 import static org.junit.Assert.assertEquals
+import static org.junit.Assert.assertSame
+import static org.junit.Assert.assertTrue
 
 
 class WildcardPermissionEvaluatorTest {
@@ -117,6 +119,48 @@ class WildcardPermissionEvaluatorTest {
         doTestFourParameters("123", "newsletter", "read:write", constructPermissionSet(["newsletter:*:read"] as String[]), true)
     }
 
+    @Test
+    public void testIndexIsReusedForSameAuthorities() {
+
+        def authorities = constructPermissionSet(["newsletter:*"] as String[])
+        def authentication = createMock(Authentication)
+
+        expect(authentication.getAuthorities()).andReturn(authorities).times(2)
+        expect(authentication.getAuthorities()).andReturn(constructPermissionSet(["printer:*"] as String[]))
+
+        replay authentication
+
+        WildcardPermissionEvaluator wpe = new WildcardPermissionEvaluator();
+        assertEquals(true, wpe.hasPermission(authentication, "newsletter", "read"))
+        def index = wpe.indexes.values().iterator().next().index
+        assertEquals(true, wpe.hasPermission(authentication, "newsletter", "write"))
+        assertSame(index, wpe.indexes.values().iterator().next().index)
+
+        //a different authorities collection is compiled again:
+        assertEquals(false, wpe.hasPermission(authentication, "newsletter", "read"))
+        assertEquals(1, wpe.indexes.size())
+
+        verify authentication
+    }
+
+    @Test
+    public void testFullPermissionCacheKeepsCaching() {
+
+        def authentication = createMock(Authentication)
+        expect(authentication.getAuthorities()).andStubReturn(constructPermissionSet(["newsletter:*"] as String[]))
+        replay authentication
+
+        WildcardPermissionEvaluator wpe = new WildcardPermissionEvaluator();
+        for (int i = 0; i <= WildcardPermissionEvaluator.MAX_CACHED_PERMISSIONS; i++) {
+            wpe.hasPermission(authentication, "printer" + i, "print")
+        }
+        assertEquals(true, wpe.hasPermission(authentication, "newsletter", "read"))
+
+        //the most recent permission is cached even though the cache was full:
+        assertTrue(wpe.permissions.containsKey("newsletter:read"))
+        assertTrue(wpe.permissions.size() <= WildcardPermissionEvaluator.MAX_CACHED_PERMISSIONS)
+    }
+
     private void doTestFourParameters(Serializable targetId, String targetType, Object permission, Collection<? extends GrantedAuthority> gaList, Boolean expected) {
 
         def authentication = createMock(Authentication)
@@ -24,6 +24,7 @@ import com.stormpath.sdk.client.Client
 import com.stormpath.sdk.directory.CustomData
 import com.stormpath.sdk.ds.DataStore
 import com.stormpath.sdk.group.Group
+import com.stormpath.sdk.group.GroupCriteria
 import com.stormpath.sdk.group.GroupList
 import org.easymock.IAnswer
 import org.junit.Before
@@ -31,8 +32,13 @@ import org.junit.Test
 import org.springframework.security.authentication.*
 import org.springframework.security.core.Authentication
 import org.springframework.security.core.GrantedAuthority
+import org.springframework.security.core.authority.SimpleGrantedAuthority
 import org.springframework.security.core.userdetails.UserDetails
 
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
 import static org.easymock.EasyMock.*
 import static org.junit.Assert.*
 
@@ -265,4 +271,136 @@ class StormpathAuthenticationProviderTest {
         assertFalse authenticationProvider.supports(Object)
     }
 
+    private static Group group(String name) {
+        def group = createNiceMock(Group)
+        expect(group.href).andStubReturn("https://api.stormpath.com/v1/groups/" + name)
+        expect(group.name).andStubReturn(name)
+        replay group
+        return group
+    }
+
+    private static GroupList groupList(List<Group> groups) {
+        def groupList = createNiceMock(GroupList)
+        expect(groupList.iterator()).andStubAnswer(new IAnswer<Iterator<Group>>() {
+            Iterator<Group> answer() throws Throwable {
+                return groups.iterator()
+            }
+        })
+        replay groupList
+        return groupList
+    }
+
+    private AtomicInteger countingGroupResolution() {
+        def resolutions = new AtomicInteger()
+        authenticationProvider.groupGrantedAuthorityResolver = new GroupGrantedAuthorityResolver() {
+            Set<GrantedAuthority> resolveGrantedAuthorities(Group group) {
+                resolutions.incrementAndGet()
+                return [new SimpleGrantedAuthority(group.name)] as Set<GrantedAuthority>
+            }
+        }
+        authenticationProvider.groupPermissionResolver = null
+        authenticationProvider.accountPermissionResolver = null
+        return resolutions
+    }
+
+    @Test
+    void testGroupCustomDataExpansion() {
+        def account = createStrictMock(Account)
+        def groups = groupList([group('a'), group('b')])
+
+        expect(account.getGroups(isA(GroupCriteria))).andReturn groups
+
+        replay account
+
+        countingGroupResolution()
+        authenticationProvider.groupCustomDataExpansionEnabled = true
+
+        def authorities = authenticationProvider.getGrantedAuthorities(account)
+
+        assertEquals([new SimpleGrantedAuthority('a'), new SimpleGrantedAuthority('b')] as Set, authorities as Set)
+
+        verify account
+    }
+
+    @Test
+    void testConcurrentGroupResolution() {
+        def groups = (1..20).collect { group("g$it") }
+        def account = createNiceMock(Account)
+        expect(account.groups).andStubReturn groupList(groups)
+        replay account
+
+        def resolutions = countingGroupResolution()
+        ExecutorService executor = Executors.newFixedThreadPool(4)
+        try {
+            authenticationProvider.authorityResolutionExecutor = executor
+
+            def authorities = authenticationProvider.getGrantedAuthorities(account)
+
+            assertEquals 20, authorities.size()
+            assertEquals 20, resolutions.get()
+            groups.each { assertTrue authorities.contains(new SimpleGrantedAuthority(it.name)) }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    void testGrantedAuthoritiesCache() {
+        def a = group('a')
+        def b = group('b')
+        def memberships = [a]
+        def account = createNiceMock(Account)
+        expect(account.href).andStubReturn 'https://api.stormpath.com/v1/accounts/123'
+        expect(account.groups).andStubReturn groupList(memberships)
+        replay account
+
+        def resolutions = countingGroupResolution()
+        authenticationProvider.grantedAuthoritiesCacheTtl = 60000
+
+        assertEquals([new SimpleGrantedAuthority('a')] as Set, authenticationProvider.getGrantedAuthorities(account) as Set)
+        assertEquals([new SimpleGrantedAuthority('a')] as Set, authenticationProvider.getGrantedAuthorities(account) as Set)
+        assertEquals 1, resolutions.get()
+
+        //membership change:
+        memberships << b
+        assertEquals 2, authenticationProvider.getGrantedAuthorities(account).size()
+        assertEquals 3, resolutions.get()
+
+        //explicit eviction by group href:
+        authenticationProvider.evictGrantedAuthorities(b.href)
+        authenticationProvider.getGrantedAuthorities(account)
+        assertEquals 5, resolutions.get()
+
+        //disabling the cache discards cached authorities:
+        authenticationProvider.grantedAuthoritiesCacheTtl = 0
+        authenticationProvider.getGrantedAuthorities(account)
+        assertEquals 7, resolutions.get()
+    }
+
+    @Test
+    void testFullGrantedAuthoritiesCacheKeepsCaching() {
+        def accounts = (1..2).collect { i ->
+            def account = createNiceMock(Account)
+            expect(account.href).andStubReturn 'https://api.stormpath.com/v1/accounts/' + i
+            expect(account.groups).andStubReturn groupList([group('g' + i)])
+            replay account
+            return account
+        }
+
+        def resolutions = countingGroupResolution()
+        authenticationProvider.grantedAuthoritiesCacheMaxEntries = 1
+        authenticationProvider.grantedAuthoritiesCacheTtl = 60000
+
+        authenticationProvider.getGrantedAuthorities(accounts[0])
+        //the cache is full, the new account's authorities replace the older ones:
+        authenticationProvider.getGrantedAuthorities(accounts[1])
+        authenticationProvider.getGrantedAuthorities(accounts[1])
+        assertEquals 2, resolutions.get()
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testSetInvalidGroupPageSize() {
+        authenticationProvider.groupPageSize = 0
+    }
+
 }
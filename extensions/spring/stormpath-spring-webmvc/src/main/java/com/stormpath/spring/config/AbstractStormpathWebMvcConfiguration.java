@@ -54,6 +54,7 @@ import com.stormpath.sdk.servlet.filter.account.DefaultJwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.DefaultJwtSigningKeyResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 import com.stormpath.sdk.servlet.filter.account.SessionAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.SessionAuthenticationResultSaver;
 import com.stormpath.sdk.servlet.filter.oauth.AccessTokenAuthenticationRequestFactory;
@@ -186,6 +187,12 @@ public abstract class AbstractStormpathWebMvcConfiguration {
     @Value("#{ @environment['stormpath.web.account.jwt.signatureAlgorithm'] ?: 'HS256' }") //3 days by default
     protected SignatureAlgorithm accountJwtSignatureAlgorithm;
 
+    @Value("#{ @environment['stormpath.web.account.jwt.cache.maxEntries'] ?: 10000 }")
+    protected int accountJwtCacheMaxEntries;
+
+    @Value("#{ @environment['stormpath.web.account.jwt.cache.maxTtl'] ?: 300000 }") //5 minutes by default
+    protected long accountJwtCacheMaxTtl;
+
     // ================  HTTP Servlet Request behavior  ===================
 
     @Value("#{ @environment['stormpath.web.request.remoteUser.strategy'] ?: 'username' }")
@@ -244,6 +251,9 @@ public abstract class AbstractStormpathWebMvcConfiguration {
     @Value("#{ @environment['stormpath.web.stormpathFilter.matchAfter'] ?: false }")
     protected boolean stormpathFilterMatchAfter;
 
+    @Value("#{ @environment['stormpath.web.stormpathFilter.bypassPrefixes'] }")
+    protected String stormpathFilterBypassPrefixes;
+
     // ================  'Head' view template properties  ===================
 
     @Value("#{ @environment['stormpath.web.head.view'] ?: 'stormpath/head' }")
@@ -621,8 +631,12 @@ public abstract class AbstractStormpathWebMvcConfiguration {
         return client.getApiKey().getSecret();
     }
 
+    public VerifiedJwtCache stormpathVerifiedJwtCache() {
+        return new VerifiedJwtCache(accountJwtCacheMaxEntries, accountJwtCacheMaxTtl);
+    }
+
     public JwtAccountResolver stormpathJwtAccountResolver() {
-        return new DefaultJwtAccountResolver(stormpathJwtSigningKeyResolver());
+        return new DefaultJwtAccountResolver(stormpathJwtSigningKeyResolver(), stormpathVerifiedJwtCache());
     }
 
     public Cache<String, String> stormpathNonceCache() {
@@ -655,7 +669,7 @@ public abstract class AbstractStormpathWebMvcConfiguration {
     }
 
     public HttpAuthenticationScheme stormpathBearerAuthenticationScheme() {
-        return new BearerAuthenticationScheme(stormpathJwtSigningKeyResolver());
+        return new BearerAuthenticationScheme(stormpathJwtSigningKeyResolver(), stormpathVerifiedJwtCache());
     }
 
     public List<HttpAuthenticationScheme> stormpathHttpAuthenticationSchemes() {
@@ -815,6 +829,10 @@ public abstract class AbstractStormpathWebMvcConfiguration {
         return set;
     }
 
+    public Set<String> stormpathFilterBypassPrefixes() {
+        return Strings.commaDelimitedListToSet(stormpathFilterBypassPrefixes);
+    }
+
     public Set<String> stormpathRequestApplicationAttributeNames() {
         Set<String> set = new LinkedHashSet<String>();
         set.addAll(Strings.commaDelimitedListToSet(requestApplicationAttributeNames));
@@ -39,6 +39,7 @@ import com.stormpath.sdk.servlet.filter.account.AuthenticationJwtFactory;
 import com.stormpath.sdk.servlet.filter.account.AuthenticationResultSaver;
 import com.stormpath.sdk.servlet.filter.account.JwtAccountResolver;
 import com.stormpath.sdk.servlet.filter.account.JwtSigningKeyResolver;
+import com.stormpath.sdk.servlet.filter.account.VerifiedJwtCache;
 import com.stormpath.sdk.servlet.filter.oauth.AccessTokenAuthenticationRequestFactory;
 import com.stormpath.sdk.servlet.filter.oauth.AccessTokenResultFactory;
 import com.stormpath.sdk.servlet.form.Field;
@@ -378,6 +379,11 @@ public class StormpathWebMvcConfiguration extends AbstractStormpathWebMvcConfigu
         return super.stormpathCsrfTokenSigningKey();
     }
 
+    @Bean
+    public VerifiedJwtCache stormpathVerifiedJwtCache() {
+        return super.stormpathVerifiedJwtCache();
+    }
+
     @Bean
     public JwtAccountResolver stormpathJwtAccountResolver() {
         return super.stormpathJwtAccountResolver();
@@ -577,6 +583,7 @@ public class StormpathWebMvcConfiguration extends AbstractStormpathWebMvcConfigu
         filter.setApplicationRequestAttributeNames(stormpathRequestApplicationAttributeNames());
         filter.setFilterChainResolver(stormpathFilterChainResolver());
         filter.setWrappedServletRequestFactory(stormpathWrappedServletRequestFactory());
+        filter.setBypassPrefixes(stormpathFilterBypassPrefixes());
 
         return filter;
     }
@@ -15,22 +15,30 @@
  */
 package com.stormpath.spring.cache;
 
-import com.stormpath.sdk.cache.Cache;
+import com.stormpath.sdk.cache.ConcurrentCache;
 import com.stormpath.sdk.lang.Assert;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * A Stormpath SDK {@link com.stormpath.sdk.cache.Cache} implementation that wraps a Spring {@link org.springframework.cache.Cache Cache} instance.
  * This allows the Stormpath SDK to use your existing Spring caching mechanism so you only need to configure one
  * caching implementation.
  * <p/>
  * This implementation effectively acts as an adapter or bridge from the Stormpath SDK cache API to the Spring cache API.
+ * <p/>
+ * {@link #putIfAbsent(Object, Object) putIfAbsent} is as atomic as the wrapped Spring cache's {@code putIfAbsent}.
+ * The Spring cache API has no conditional replace operation, so {@link #replace(Object, Object, Object) replace} is
+ * only atomic with respect to other calls to {@code replace} on this instance.
  *
  * @param <K> The cache key type
  * @param <V> The cache value type
  * @since 1.0.RC4
  */
 @SuppressWarnings("unchecked")
-public class SpringCache<K, V> implements Cache<K, V> {
+public class SpringCache<K, V> implements ConcurrentCache<K, V> {
 
     private final org.springframework.cache.Cache springCache;
 
@@ -63,4 +71,66 @@ public class SpringCache<K, V> implements Cache<K, V> {
         springCache.evict(key);
         return v;
     }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        org.springframework.cache.Cache.ValueWrapper vw = springCache.putIfAbsent(key, value);
+        if (vw == null) {
+            return null;
+        }
+        return (V) vw.get();
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public synchronized boolean replace(K key, V oldValue, V newValue) {
+        V current = get(key);
+        if (current == null || !current.equals(oldValue)) {
+            return false;
+        }
+        springCache.put(key, newValue);
+        return true;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> values = new LinkedHashMap<K, V>(keys.size());
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            springCache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Evicts the specified entries without first reading their values.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void removeAll(Collection<? extends K> keys) {
+        for (K key : keys) {
+            springCache.evict(key);
+        }
+    }
 }
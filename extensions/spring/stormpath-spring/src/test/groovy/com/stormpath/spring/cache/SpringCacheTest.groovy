@@ -19,8 +19,11 @@ import org.junit.Test
 import org.springframework.cache.concurrent.ConcurrentMapCache
 
 import static org.easymock.EasyMock.*
+import static org.junit.Assert.assertEquals
+import static org.junit.Assert.assertFalse
 import static org.junit.Assert.assertNull
 import static org.junit.Assert.assertSame
+import static org.junit.Assert.assertTrue
 
 /**
  * @since 0.2.0
@@ -117,4 +120,35 @@ class SpringCacheTest {
         verify(springCache, valueWrapper)
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testConcurrentOperations() {
+
+        def cache = new SpringCache(new ConcurrentMapCache('foo'))
+
+        assertNull cache.putIfAbsent('key', 'value1')
+        assertEquals 'value1', cache.putIfAbsent('key', 'value2')
+
+        assertFalse cache.replace('key', 'value2', 'value3')
+        assertTrue cache.replace('key', 'value1', 'value3')
+        assertEquals 'value3', cache.get('key')
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testBulkOperations() {
+
+        def cache = new SpringCache(new ConcurrentMapCache('foo'))
+
+        cache.put('a', '0')
+        cache.putAll([a: '1', b: '2'])
+        assertEquals([a: '1', b: '2'], cache.getAll(['a', 'b', 'c']))
+
+        cache.removeAll(['a', 'c'])
+        assertEquals([b: '2'], cache.getAll(['a', 'b', 'c']))
+    }
 }
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.api;
+
+import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.api.ApiKey;
+import com.stormpath.sdk.api.ApiKeyStatus;
+import com.stormpath.sdk.impl.ds.InternalDataStore;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
+import com.stormpath.sdk.lang.Assert;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers, for a short time, which API Keys have recently been verified to be enabled - and to belong to an enabled
+ * account - for a given application, so that steady API Key traffic can be authenticated without querying the
+ * Stormpath API for every request.
+ * <p/>
+ * Only successful verifications are retained.  Submitted secrets are compared in constant time against a salted
+ * SHA-256 digest of the secret recorded with each verdict (the salt is random, per cache instance) rather than
+ * against the API Key resource itself.  A verdict only retains the API Key's id, href and status and its account's href
+ * - never the API Key resource or its plaintext secret - and every hit returns a new API Key resource instance.
+ * <p/>
+ * Verdicts are {@link #invalidate(String) invalidated} as soon as the API Key, its account or the application is
+ * modified or deleted with the SDK; changes made by other means are picked up once the verdict's time to live has
+ * elapsed.  Invalidations are tracked per href: each one records, for the href, a stamp from the same monotonic clock
+ * as the {@link #getVersion() version} obtained before an API Key is read.  A verdict is only used if none of its
+ * API Key, account and application hrefs has been invalidated since that version, so a read racing with a write
+ * cannot re-cache the state the write just replaced, while writes to unrelated resources do not affect it.  Both
+ * invalidating and checking a verdict are constant time operations.
+ *
+ * @since 1.0.RC7.7
+ */
+public class ApiKeyAuthenticationCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_TTL_MILLIS = 30 * 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 MessageDigest is not available.", e);
+            }
+        }
+    };
+
+    private final InternalDataStore dataStore;
+    private final BoundedConcurrentMap<String, Verdict> verdicts;
+    private final long ttlMillis;
+    /**
+     * Time in milliseconds an invalidation is remembered for on top of the verdicts' time to live, i.e. the longest an
+     * API Key read for authentication can take for its verdict to be recorded.
+     */
+    private static final long MAX_READ_MILLIS = 60 * 1000;
+
+    //stamps are in microseconds (but strictly increasing), so they can be compared with the time:
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentMap<String, Long> invalidations;
+    //verdicts read before this stamp are not used; invalidations before it are forgotten:
+    private final AtomicLong floor = new AtomicLong();
+    private final int maxEntries;
+    private final byte[] salt;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public ApiKeyAuthenticationCache(InternalDataStore dataStore) {
+        this(dataStore, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Creates a new cache retaining at most {@code maxEntries} verdicts for {@code ttlMillis} each.
+     *
+     * @param dataStore  the data store used to instantiate the API Key resources returned on cache hits.
+     * @param maxEntries the maximum number of verdicts to retain, or {@code 0} to disable caching.
+     * @param ttlMillis  the time in milliseconds a verdict is trusted after the API Key has been verified.
+     */
+    public ApiKeyAuthenticationCache(InternalDataStore dataStore, int maxEntries, long ttlMillis) {
+        Assert.notNull(dataStore, "dataStore cannot be null.");
+        Assert.isTrue(maxEntries >= 0, "maxEntries cannot be negative.");
+        Assert.isTrue(ttlMillis > 0, "ttlMillis must be greater than zero.");
+        this.dataStore = dataStore;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.salt = new byte[16];
+        new SecureRandom().nextBytes(this.salt);
+        if (maxEntries > 0) {
+            this.verdicts = new BoundedConcurrentMap<String, Verdict>(maxEntries);
+            this.verdicts.setExpiry(new BoundedConcurrentMap.Expiry<String, Verdict>() {
+                @Override
+                public boolean isExpired(String key, Verdict verdict, long nowMillis) {
+                    return verdict.isExpired(nowMillis);
+                }
+            });
+            this.invalidations = new ConcurrentHashMap<String, Long>();
+        } else {
+            this.verdicts = null;
+            this.invalidations = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.verdicts != null;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    /**
+     * Returns a new version of this cache: any later {@link #invalidate(String) invalidation} is stamped with a greater
+     * value.  Callers obtain it before retrieving an API Key from Stormpath and pass it to
+     * {@link #put(String, ApiKey, long)}.
+     *
+     * @return a new version of this cache.
+     */
+    public long getVersion() {
+        return nextStamp();
+    }
+
+    /**
+     * Returns the API Key identified by {@code apiKeyId} if it has recently been verified to be enabled (with an
+     * enabled account) for the specified application, {@code null} otherwise.  This is only appropriate when the
+     * request has already been authenticated by other means, for example with a signed access token.
+     *
+     * @param applicationHref the href of the application the API Key is used with
+     * @param apiKeyId        the id of the API Key
+     * @return a new instance of the recently verified API Key, or {@code null} if it must be verified.
+     */
+    public ApiKey get(String applicationHref, String apiKeyId) {
+        Verdict verdict = getVerdict(applicationHref, apiKeyId);
+        return verdict != null ? toApiKey(verdict) : null;
+    }
+
+    /**
+     * Returns the API Key identified by {@code apiKeyId} if it has recently been verified to be enabled (with an
+     * enabled account) for the specified application <em>and</em> its secret is {@code secret}, {@code null}
+     * otherwise.
+     *
+     * @param applicationHref the href of the application the API Key is used with
+     * @param apiKeyId        the id of the API Key
+     * @param secret          the submitted API Key secret
+     * @return a new instance of the recently verified API Key, or {@code null} if it must be verified.
+     */
+    public ApiKey get(String applicationHref, String apiKeyId, String secret) {
+        Verdict verdict = getVerdict(applicationHref, apiKeyId);
+        if (verdict == null) {
+            return null;
+        }
+        if (secret == null || !MessageDigest.isEqual(verdict.secretDigest, digest(secret))) {
+            //let the caller reject it as usual:
+            return null;
+        }
+        return toApiKey(verdict);
+    }
+
+    /**
+     * Records that the specified API Key has just been verified to be enabled, with an enabled account, for the
+     * specified application.  The verdict is not used if the API Key, its account or the application has been
+     * invalidated since {@code version} was {@link #getVersion() obtained}, as the API Key might then reflect a state
+     * that has since been modified.
+     *
+     * @param applicationHref the href of the application the API Key is used with
+     * @param apiKey          the enabled API Key
+     * @param version         the {@link #getVersion() version} of this cache before the API Key was retrieved
+     */
+    public void put(String applicationHref, ApiKey apiKey, long version) {
+        if (verdicts == null) {
+            return;
+        }
+        String secret = apiKey.getSecret();
+        Account account = apiKey.getAccount();
+        String accountHref = account != null ? account.getHref() : null;
+        if (applicationHref == null || secret == null || accountHref == null || apiKey.getHref() == null) {
+            return;
+        }
+        ApiKeyStatus status = apiKey.getStatus();
+        Verdict verdict = new Verdict(apiKey.getId(), apiKey.getHref(), status != null ? status.name() : null,
+                                      applicationHref, accountHref, digest(secret), version,
+                                      System.currentTimeMillis() + ttlMillis);
+        if (isCurrent(verdict)) {
+            verdicts.put(key(applicationHref, apiKey.getId()), verdict);
+        }
+    }
+
+    /**
+     * Discards every verdict involving the resource identified by {@code href}, be it an API Key, an account or an
+     * application, including the verdicts of API Keys being read at the time of this call.
+     *
+     * @param href the href of a modified or deleted resource
+     */
+    public void invalidate(String href) {
+        if (verdicts == null || href == null) {
+            return;
+        }
+        invalidations.put(href, nextStamp());
+        if (invalidations.size() > maxEntries) {
+            purgeInvalidations();
+        }
+    }
+
+    public void clear() {
+        if (verdicts != null) {
+            verdicts.clear();
+        }
+    }
+
+    /**
+     * Returns the number of verdicts retained, including the ones invalidated but not looked up since.
+     *
+     * @return the number of verdicts retained.
+     */
+    public int size() {
+        return verdicts != null ? verdicts.size() : 0;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private Verdict getVerdict(String applicationHref, String apiKeyId) {
+        if (verdicts == null) {
+            return null;
+        }
+        String key = key(applicationHref, apiKeyId);
+        Verdict verdict = verdicts.get(key);
+        if (verdict != null) {
+            if (!verdict.isExpired(System.currentTimeMillis()) && isCurrent(verdict)) {
+                hitCount.incrementAndGet();
+                return verdict;
+            }
+            verdicts.remove(key, verdict);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if none of the resources involved in the verdict has been invalidated since the API Key
+     * was read.
+     */
+    private boolean isCurrent(Verdict verdict) {
+        return verdict.version >= floor.get() &&
+               !isInvalidatedSince(verdict.apiKeyHref, verdict.version) &&
+               !isInvalidatedSince(verdict.accountHref, verdict.version) &&
+               !isInvalidatedSince(verdict.applicationHref, verdict.version);
+    }
+
+    private boolean isInvalidatedSince(String href, long version) {
+        Long stamp = invalidations.get(href);
+        return stamp != null && stamp > version;
+    }
+
+    /**
+     * Forgets the invalidations older than any verdict still in use (raising the floor first, so they can't be
+     * missed), or all of them if too many resources are being modified at once.
+     */
+    private void purgeInvalidations() {
+        purgeInvalidationsBefore((System.currentTimeMillis() - ttlMillis - MAX_READ_MILLIS) * 1000);
+        if (invalidations.size() > maxEntries) {
+            purgeInvalidationsBefore(nextStamp());
+        }
+    }
+
+    private void purgeInvalidationsBefore(long stamp) {
+        raiseFloor(stamp);
+        for (Map.Entry<String, Long> entry : invalidations.entrySet()) {
+            //invalidations made concurrently with a greater stamp are kept:
+            if (entry.getValue() < stamp) {
+                invalidations.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void raiseFloor(long stamp) {
+        long current;
+        do {
+            current = floor.get();
+            if (current >= stamp) {
+                return;
+            }
+        } while (!floor.compareAndSet(current, stamp));
+    }
+
+    private long nextStamp() {
+        long now = System.currentTimeMillis() * 1000;
+        long current;
+        long next;
+        do {
+            current = clock.get();
+            next = Math.max(current + 1, now);
+        } while (!clock.compareAndSet(current, next));
+        return next;
+    }
+
+    private ApiKey toApiKey(Verdict verdict) {
+        Map<String, Object> properties = new LinkedHashMap<String, Object>();
+        properties.put("href", verdict.apiKeyHref);
+        properties.put("id", verdict.apiKeyId);
+        if (verdict.status != null) {
+            properties.put("status", verdict.status);
+        }
+        properties.put("account", Collections.<String, Object>singletonMap("href", verdict.accountHref));
+        return dataStore.instantiate(ApiKey.class, properties);
+    }
+
+    private static String key(String applicationHref, String apiKeyId) {
+        return applicationHref + '#' + apiKeyId;
+    }
+
+    private byte[] digest(String secret) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        digest.update(salt);
+        return digest.digest(secret.getBytes(UTF_8));
+    }
+
+    private static class Verdict {
+
+        private final String apiKeyId;
+        private final String apiKeyHref;
+        private final String status;
+        private final String applicationHref;
+        private final String accountHref;
+        private final byte[] secretDigest;
+        private final long version;
+        private final long expiresAt;
+
+        private Verdict(String apiKeyId, String apiKeyHref, String status, String applicationHref,
+                        String accountHref, byte[] secretDigest, long version, long expiresAt) {
+            this.apiKeyId = apiKeyId;
+            this.apiKeyHref = apiKeyHref;
+            this.status = status;
+            this.applicationHref = applicationHref;
+            this.accountHref = accountHref;
+            this.secretDigest = secretDigest;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAt;
+        }
+    }
+}
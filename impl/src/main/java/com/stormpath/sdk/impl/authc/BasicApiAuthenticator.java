@@ -23,6 +23,7 @@ import com.stormpath.sdk.api.ApiKeyStatus;
 import com.stormpath.sdk.application.Application;
 import com.stormpath.sdk.error.authc.DisabledApiKeyException;
 import com.stormpath.sdk.error.authc.IncorrectCredentialsException;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
 import com.stormpath.sdk.impl.api.DefaultApiKeyOptions;
 import com.stormpath.sdk.impl.ds.InternalDataStore;
 import com.stormpath.sdk.impl.error.ApiAuthenticationExceptionFactory;
@@ -52,7 +53,16 @@ public class BasicApiAuthenticator {
     public ApiAuthenticationResult authenticate(Application application, String id, String secret) {
         Assert.notNull(application, "application  cannot be null.");
 
-        ApiKey apiKey = application.getApiKey(id, new DefaultApiKeyOptions().withAccount());
+        ApiKeyAuthenticationCache cache = dataStore.getApiKeyAuthenticationCache();
+        long cacheVersion = cache.getVersion();
+
+        ApiKey apiKey = cache.get(application.getHref(), id, secret);
+        if (apiKey != null) {
+            //recently verified to be enabled, with an enabled account:
+            return new DefaultApiAuthenticationResult(dataStore, apiKey);
+        }
+
+        apiKey = application.getApiKey(id, new DefaultApiKeyOptions().withAccount());
 
         if (apiKey == null || !apiKey.getSecret().equals(secret)) {
             throw ApiAuthenticationExceptionFactory.newApiAuthenticationException(IncorrectCredentialsException.class);
@@ -68,6 +78,8 @@ public class BasicApiAuthenticator {
             throw ApiAuthenticationExceptionFactory.newDisabledAccountException(account.getStatus());
         }
 
+        cache.put(application.getHref(), apiKey, cacheVersion);
+
         return new DefaultApiAuthenticationResult(dataStore, apiKey);
     }
 }
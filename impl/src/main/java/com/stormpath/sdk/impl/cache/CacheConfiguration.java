@@ -44,4 +44,24 @@ public interface CacheConfiguration {
      * @return the Time-to-Idle setting to apply for all entries in the associated {@code Cache}.
      */
     Duration getTimeToIdle();
+
+    /**
+     * Returns the maximum number of entries the associated {@code Cache} may retain, or a value less than or equal to
+     * zero if the number of entries is not bounded.
+     *
+     * @return the maximum number of entries the associated {@code Cache} may retain, or a value less than or equal to
+     *         zero if the number of entries is not bounded.
+     * @since 1.0.RC7.7
+     */
+    long getMaxEntries();
+
+    /**
+     * Returns the maximum total weight of entries the associated {@code Cache} may retain, or a value less than or
+     * equal to zero if the total weight is not bounded.
+     *
+     * @return the maximum total weight of entries the associated {@code Cache} may retain, or a value less than or
+     *         equal to zero if the total weight is not bounded.
+     * @since 1.0.RC7.7
+     */
+    long getMaxWeight();
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.cache;
+
+import com.stormpath.sdk.cache.Cache;
+import com.stormpath.sdk.cache.ConcurrentCache;
+import com.stormpath.sdk.lang.Assert;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Static helper methods that perform {@link ConcurrentCache} operations on any {@link Cache}: the operation is
+ * delegated to the cache if it is a {@code ConcurrentCache}, otherwise the equivalent sequence of {@code Cache}
+ * operations is performed instead.  The fallback of the conditional operations is only atomic with respect to
+ * other callers of these methods in the same JVM.
+ *
+ * @since 1.0.RC7.7
+ */
+public final class ConcurrentCaches {
+
+    private ConcurrentCaches() {
+    }
+
+    /**
+     * Adds a cache entry only if there is currently no entry for the specified {@code key}.
+     *
+     * @param cache the cache to add the entry to
+     * @param key   the key used to identify the object being stored.
+     * @param value the value to be stored in the cache.
+     * @return the value currently associated with the given {@code key}, or {@code null} if there was none and the
+     *         specified {@code value} was stored.
+     * @see ConcurrentCache#putIfAbsent(Object, Object)
+     */
+    public static <K, V> V putIfAbsent(Cache<K, V> cache, K key, V value) {
+        Assert.notNull(cache, "cache cannot be null.");
+        if (cache instanceof ConcurrentCache) {
+            return ((ConcurrentCache<K, V>) cache).putIfAbsent(key, value);
+        }
+        synchronized (cache) {
+            V existing = cache.get(key);
+            if (existing == null) {
+                cache.put(key, value);
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Returns the cached values stored under the specified {@code keys}.
+     *
+     * @param cache the cache to read from
+     * @param keys  the keys that the values were previously added with
+     * @return the cached values by key, never {@code null}.
+     * @see ConcurrentCache#getAll(Collection)
+     */
+    public static <K, V> Map<K, V> getAll(Cache<K, V> cache, Collection<? extends K> keys) {
+        Assert.notNull(cache, "cache cannot be null.");
+        if (cache instanceof ConcurrentCache) {
+            return ((ConcurrentCache<K, V>) cache).getAll(keys);
+        }
+        Map<K, V> values = new LinkedHashMap<K, V>(keys.size());
+        for (K key : keys) {
+            V value = cache.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Adds all of the specified entries to the cache.
+     *
+     * @param cache   the cache to add the entries to
+     * @param entries the entries to be stored in the cache.
+     * @see ConcurrentCache#putAll(Map)
+     */
+    public static <K, V> void putAll(Cache<K, V> cache, Map<? extends K, ? extends V> entries) {
+        Assert.notNull(cache, "cache cannot be null.");
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (cache instanceof ConcurrentCache) {
+            ((ConcurrentCache<K, V>) cache).putAll(entries);
+            return;
+        }
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the cached values stored under the specified {@code keys}.
+     *
+     * @param cache the cache to remove the entries from
+     * @param keys  the keys used to identify the objects being stored.
+     * @see ConcurrentCache#removeAll(Collection)
+     */
+    public static <K, V> void removeAll(Cache<K, V> cache, Collection<? extends K> keys) {
+        Assert.notNull(cache, "cache cannot be null.");
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (cache instanceof ConcurrentCache) {
+            ((ConcurrentCache<K, V>) cache).removeAll(keys);
+            return;
+        }
+        for (K key : keys) {
+            cache.remove(key);
+        }
+    }
+}
@@ -16,24 +16,44 @@
 package com.stormpath.sdk.impl.cache;
 
 import com.stormpath.sdk.cache.Cache;
+import com.stormpath.sdk.cache.ConcurrentCache;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
 import com.stormpath.sdk.impl.util.SoftHashMap;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Duration;
 
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A <code>DefaultCache</code> is a {@link Cache Cache} implementation that uses a backing {@link Map} instance to store
  * and retrieve cached data.
+ * <h2>Expiration</h2>
+ * If a {@link #setTimeToLive(com.stormpath.sdk.lang.Duration) timeToLive} or
+ * {@link #setTimeToIdle(com.stormpath.sdk.lang.Duration) timeToIdle} is configured, expired entries are never
+ * returned by {@link #get(Object) get}.  Additionally, each entry's expiration is scheduled on a hierarchical timer
+ * wheel when it is {@link #put(Object, Object) put}, and a daemon thread shared by all caches removes entries
+ * as they expire, so entries that are never read again do not remain in memory.  Timers only weakly reference their
+ * entry and are cancelled when the entry is replaced or removed, so they never keep an entry in memory, and the
+ * number of timers remains proportional to the number of entries.
  * <h2>Thread Safety</h2>
- * This implementation is thread-safe <em>only</em> if the backing map is thread-safe.
+ * This implementation is thread-safe <em>only</em> if the backing map is thread-safe.  The
+ * {@link #putIfAbsent(Object, Object) putIfAbsent} and {@link #replace(Object, Object, Object) replace} operations are
+ * atomic if the backing map is a {@link ConcurrentMap}, otherwise they are only atomic with respect to each other.
  *
  * @since 1.0
  */
-public class DefaultCache<K, V> implements Cache<K, V> {
+public class DefaultCache<K, V> implements ConcurrentCache<K, V> {
 
     /**
      * Backing map instance that stores the cache entries.
@@ -52,6 +72,13 @@ public class DefaultCache<K, V> implements Cache<K, V> {
      */
     private volatile Duration timeToIdle;
 
+    /**
+     * {@link #timeToLive} and {@link #timeToIdle} in milliseconds (or {@code 0} if not set), so that checking for
+     * expiration does not require any allocation.
+     */
+    private volatile long timeToLiveMillis;
+    private volatile long timeToIdleMillis;
+
     /**
      * The name of this cache.
      */
@@ -60,6 +87,20 @@ public class DefaultCache<K, V> implements Cache<K, V> {
     private final AtomicLong accessCount;
     private final AtomicLong hitCount;
     private final AtomicLong missCount;
+    private final AtomicLong evictionCount;
+
+    /**
+     * Entries put in the cache that have not yet been scheduled on the timer wheel.
+     */
+    private final Queue<ExpirationTimer<K, V>> pendingTimers;
+    private final TimerWheel<ExpirationTimer<K, V>> timerWheel; //guarded by itself
+    private final AtomicBoolean sweeping;
+
+    /**
+     * Timers that were cancelled, or whose entry was garbage collected, and may still be scheduled on the timer wheel.
+     */
+    private final ReferenceQueue<Entry<V>> deadTimers;
+    private int deadTimerCount; //guarded by 'timerWheel'
 
     /**
      * Creates a new {@code DefaultCache} instance with the specified {@code name}, expected to be unique among all
@@ -131,9 +172,16 @@ public class DefaultCache<K, V> implements Cache<K, V> {
         this.map = backingMap;
         this.timeToLive = timeToLive;
         this.timeToIdle = timeToIdle;
+        this.timeToLiveMillis = toMillis(timeToLive);
+        this.timeToIdleMillis = toMillis(timeToIdle);
         this.accessCount = new AtomicLong(0);
         this.hitCount = new AtomicLong(0);
         this.missCount = new AtomicLong(0);
+        this.evictionCount = new AtomicLong(0);
+        this.pendingTimers = new ConcurrentLinkedQueue<ExpirationTimer<K, V>>();
+        this.timerWheel = new TimerWheel<ExpirationTimer<K, V>>(System.currentTimeMillis());
+        this.sweeping = new AtomicBoolean(false);
+        this.deadTimers = new ReferenceQueue<Entry<V>>();
     }
 
     protected static void assertTtl(Duration ttl) throws IllegalArgumentException {
@@ -148,6 +196,45 @@ public class DefaultCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /**
+     * Returns {@code true} if the specified entry is older than this cache's {@link #getTimeToLive() timeToLive} or
+     * has been idle for longer than this cache's {@link #getTimeToIdle() timeToIdle}, {@code false} otherwise.
+     *
+     * @param entry     the entry to check
+     * @param nowMillis the current time in milliseconds since Epoch
+     * @return {@code true} if the specified entry has expired, {@code false} otherwise.
+     * @since 1.0.RC7.7
+     */
+    boolean isExpired(Entry<V> entry, long nowMillis) {
+        long ttl = this.timeToLiveMillis;
+        if (ttl > 0 && nowMillis - entry.getCreationTimeMillis() > ttl) {
+            return true;
+        }
+        long tti = this.timeToIdleMillis;
+        return tti > 0 && nowMillis - entry.getLastAccessTimeMillis() > tti;
+    }
+
+    /**
+     * Returns the time in milliseconds since Epoch after which the specified entry will have expired if it is not
+     * accessed again, or {@code Long.MAX_VALUE} if neither a timeToLive nor timeToIdle is configured.
+     */
+    private long getExpirationTimeMillis(Entry<V> entry) {
+        long expiration = Long.MAX_VALUE;
+        long ttl = this.timeToLiveMillis;
+        if (ttl > 0) {
+            expiration = entry.getCreationTimeMillis() + ttl;
+        }
+        long tti = this.timeToIdleMillis;
+        if (tti > 0) {
+            expiration = Math.min(expiration, entry.getLastAccessTimeMillis() + tti);
+        }
+        return expiration;
+    }
+
+    private static long toMillis(Duration d) {
+        return d != null ? d.getTimeUnit().toMillis(d.getValue()) : 0;
+    }
+
     public V get(K key) {
 
         this.accessCount.incrementAndGet();
@@ -161,25 +248,12 @@ public class DefaultCache<K, V> implements Cache<K, V> {
 
         long nowMillis = System.currentTimeMillis();
 
-        Duration ttl = this.timeToLive;
-        Duration tti = this.timeToIdle;
-
-        if (ttl != null) {
-            Duration sinceCreation = new Duration(nowMillis - entry.getCreationTimeMillis(), TimeUnit.MILLISECONDS);
-            if (sinceCreation.isGreaterThan(ttl)) {
-                map.remove(key);
-                missCount.incrementAndGet(); //count an expired TTL as a miss
-                return null;
-            }
-        }
-
-        if (tti != null) {
-            Duration sinceLastAccess = new Duration(nowMillis - entry.getLastAccessTimeMillis(), TimeUnit.MILLISECONDS);
-            if (sinceLastAccess.isGreaterThan(tti)) {
-                map.remove(key);
-                missCount.incrementAndGet(); //count an expired TTI as a miss
-                return null;
+        if (isExpired(entry, nowMillis)) {
+            if (removeEntry(key, entry)) {
+                evictionCount.incrementAndGet();
             }
+            missCount.incrementAndGet(); //count an expired TTL or TTI as a miss
+            return null;
         }
 
         entry.lastAccessTimeMillis = nowMillis;
@@ -191,8 +265,17 @@ public class DefaultCache<K, V> implements Cache<K, V> {
 
     public V put(K key, V value) {
         Entry<V> newEntry = new Entry<V>(value);
-        Entry<V> previous = map.put(key, newEntry);
+        Entry<V> previous;
+        if (map instanceof ConcurrentMap) {
+            previous = map.put(key, newEntry);
+        } else {
+            synchronized (map) {
+                previous = map.put(key, newEntry);
+            }
+        }
+        scheduleExpiration(key, newEntry);
         if (previous != null) {
+            cancelExpiration(previous);
             return previous.value;
         }
         return null;
@@ -201,8 +284,16 @@ public class DefaultCache<K, V> implements Cache<K, V> {
     @Override
     public V remove(K key) {
         accessCount.incrementAndGet();
-        Entry<V> previous = map.remove(key);
+        Entry<V> previous;
+        if (map instanceof ConcurrentMap) {
+            previous = map.remove(key);
+        } else {
+            synchronized (map) {
+                previous = map.remove(key);
+            }
+        }
         if (previous != null) {
+            cancelExpiration(previous);
             hitCount.incrementAndGet();
             return previous.value;
         } else {
@@ -211,6 +302,246 @@ public class DefaultCache<K, V> implements Cache<K, V> {
         }
     }
 
+    /**
+     * Adds a cache entry only if there is currently no entry (or only an expired entry) for the specified
+     * {@code key}.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        Entry<V> newEntry = new Entry<V>(value);
+
+        if (map instanceof ConcurrentMap) {
+            ConcurrentMap<K, Entry<V>> cmap = (ConcurrentMap<K, Entry<V>>) map;
+            for (; ; ) {
+                Entry<V> existing = cmap.putIfAbsent(key, newEntry);
+                if (existing == null) {
+                    scheduleExpiration(key, newEntry);
+                    return null;
+                }
+                long nowMillis = System.currentTimeMillis();
+                if (!isExpired(existing, nowMillis)) {
+                    existing.lastAccessTimeMillis = nowMillis;
+                    return existing.value;
+                }
+                if (cmap.replace(key, existing, newEntry)) {
+                    evictionCount.incrementAndGet();
+                    cancelExpiration(existing);
+                    scheduleExpiration(key, newEntry);
+                    return null;
+                }
+                //the expired entry was replaced or removed concurrently - try again
+            }
+        }
+
+        Entry<V> expired;
+        synchronized (map) {
+            expired = map.get(key);
+            long nowMillis = System.currentTimeMillis();
+            if (expired != null && !isExpired(expired, nowMillis)) {
+                expired.lastAccessTimeMillis = nowMillis;
+                return expired.value;
+            }
+            map.put(key, newEntry);
+        }
+        if (expired != null) {
+            evictionCount.incrementAndGet();
+            cancelExpiration(expired);
+        }
+        scheduleExpiration(key, newEntry);
+        return null;
+    }
+
+    /**
+     * Replaces the cache entry for the specified {@code key} only if it is currently associated with a value equal to
+     * {@code oldValue} that has not expired.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean replace(K key, V oldValue, V newValue) {
+        Entry<V> newEntry = new Entry<V>(newValue);
+        Entry<V> existing;
+        boolean replaced;
+
+        if (map instanceof ConcurrentMap) {
+            existing = map.get(key);
+            replaced = isCurrent(existing, oldValue) &&
+                       ((ConcurrentMap<K, Entry<V>>) map).replace(key, existing, newEntry);
+        } else {
+            synchronized (map) {
+                existing = map.get(key);
+                replaced = isCurrent(existing, oldValue);
+                if (replaced) {
+                    map.put(key, newEntry);
+                }
+            }
+        }
+
+        if (replaced) {
+            cancelExpiration(existing);
+            scheduleExpiration(key, newEntry);
+        }
+        return replaced;
+    }
+
+    private boolean isCurrent(Entry<V> entry, V value) {
+        if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+            return false;
+        }
+        return entry.value == null ? value == null : entry.value.equals(value);
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Map<K, V> values = new LinkedHashMap<K, V>(keys.size());
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void removeAll(Collection<? extends K> keys) {
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Removes the entry for the specified {@code key} only if it is still the specified {@code entry}.
+     *
+     * @return {@code true} if the entry was removed, {@code false} if it had been replaced or removed already.
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    private boolean removeEntry(K key, Entry<V> entry) {
+        boolean removed;
+        if (map instanceof ConcurrentMap) {
+            removed = ((ConcurrentMap<K, Entry<V>>) map).remove(key, entry);
+        } else {
+            synchronized (map) {
+                removed = map.get(key) == entry;
+                if (removed) {
+                    map.remove(key);
+                }
+            }
+        }
+        if (removed) {
+            cancelExpiration(entry);
+        }
+        return removed;
+    }
+
+    private void scheduleExpiration(K key, Entry<V> entry) {
+        long expiration = getExpirationTimeMillis(entry);
+        if (expiration == Long.MAX_VALUE) {
+            return;
+        }
+        ExpirationTimer<K, V> timer = new ExpirationTimer<K, V>(key, entry, expiration, deadTimers);
+        entry.expirationTimer = timer;
+        //the timer wheel is only ever modified by the sweeper thread, so we don't contend on it here:
+        pendingTimers.add(timer);
+        if (!sweeping.get() && sweeping.compareAndSet(false, true)) {
+            ExpirationSweeper.register(this);
+        }
+    }
+
+    /**
+     * Marks the expiration timer of an entry that was replaced or removed as dead, so that it can be purged from the
+     * timer wheel before its deadline.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static void cancelExpiration(Entry<?> entry) {
+        Reference<?> timer = entry.expirationTimer;
+        if (timer != null) {
+            entry.expirationTimer = null;
+            timer.clear();
+            timer.enqueue();
+        }
+    }
+
+    /**
+     * Removes all entries that have expired as of {@code nowMillis}.  This is called periodically by the
+     * {@link ExpirationSweeper}.
+     *
+     * @param nowMillis the current time in milliseconds since Epoch
+     */
+    void expireEntries(long nowMillis) {
+        synchronized (timerWheel) {
+            ExpirationTimer<K, V> timer;
+            while ((timer = pendingTimers.poll()) != null) {
+                timerWheel.schedule(timer, timer.expirationMillis);
+            }
+            while (deadTimers.poll() != null) {
+                deadTimerCount++;
+            }
+            //purging is linear in the number of timers, so only do it once at least half of them are dead:
+            if (deadTimerCount > 0 && deadTimerCount >= timerWheel.size() / 2) {
+                timerWheel.removeAll(new TimerWheel.Filter<ExpirationTimer<K, V>>() {
+                    @Override
+                    public boolean accept(ExpirationTimer<K, V> timer) {
+                        return timer.get() == null;
+                    }
+                });
+                deadTimerCount = 0;
+            }
+            timerWheel.advance(nowMillis, new TimerWheel.Listener<ExpirationTimer<K, V>>() {
+                @Override
+                public void onExpired(ExpirationTimer<K, V> timer, long nowMillis) {
+                    expire(timer, nowMillis);
+                }
+            });
+        }
+    }
+
+    //guarded by 'timerWheel'
+    private void expire(ExpirationTimer<K, V> timer, long nowMillis) {
+        Entry<V> entry = timer.get();
+
+        if (entry == null) {
+            //the entry was replaced, removed or garbage collected
+            return;
+        }
+
+        if (!isExpired(entry, nowMillis)) {
+            //the entry was accessed since it was scheduled (or the cache's TTL/TTI changed), so check again later:
+            long expiration = getExpirationTimeMillis(entry);
+            if (expiration != Long.MAX_VALUE) {
+                timerWheel.schedule(timer, expiration);
+            }
+            return;
+        }
+
+        //only remove the entry if it has not been replaced in the meantime:
+        if (removeEntry(timer.key, entry)) {
+            evictionCount.incrementAndGet();
+        }
+    }
+
     /**
      * Returns the amount of time a cache entry may exist after first being created before it will expire and no
      * longer be available.  If a cache entry ever becomes older than this amount of time (regardless of how often
@@ -234,6 +565,7 @@ public class DefaultCache<K, V> implements Cache<K, V> {
     public void setTimeToLive(Duration timeToLive) {
         assertTtl(timeToLive);
         this.timeToLive = timeToLive;
+        this.timeToLiveMillis = toMillis(timeToLive);
     }
 
     /**
@@ -259,6 +591,7 @@ public class DefaultCache<K, V> implements Cache<K, V> {
     public void setTimeToIdle(Duration timeToIdle) {
         assertTti(timeToIdle);
         this.timeToIdle = timeToIdle;
+        this.timeToIdleMillis = toMillis(timeToIdle);
     }
 
     /**
@@ -296,6 +629,23 @@ public class DefaultCache<K, V> implements Cache<K, V> {
         return missCount.get();
     }
 
+    /**
+     * Returns the total number of entries removed from this cache because they expired or, if the backing map is a
+     * {@link BoundedConcurrentMap}, because the cache exceeded its maximum size.  Explicit
+     * {@link #remove(Object) removals} are not included.
+     *
+     * @return the total number of entries removed from this cache because they expired or exceeded the cache's
+     *         maximum size.
+     * @since 1.0.RC7.7
+     */
+    public long getEvictionCount() {
+        long count = evictionCount.get();
+        if (map instanceof BoundedConcurrentMap) {
+            count += ((BoundedConcurrentMap) map).getEvictionCount();
+        }
+        return count;
+    }
+
     /**
      * Returns the ratio of {@link #getHitCount() hitCount} to {@link #getAccessCount() accessCount}.  The closer this
      * number is to {@code 1.0}, the more effectively the cache is being used.  The closer this number is to
@@ -318,6 +668,14 @@ public class DefaultCache<K, V> implements Cache<K, V> {
      */
     public void clear() {
         map.clear();
+        pendingTimers.clear();
+        synchronized (timerWheel) {
+            timerWheel.clear();
+            while (deadTimers.poll() != null) {
+                //discard, the timers are not scheduled anymore
+            }
+            deadTimerCount = 0;
+        }
     }
 
     /**
@@ -344,11 +702,28 @@ public class DefaultCache<K, V> implements Cache<K, V> {
                 .append("      \"accessCount\": ").append(getAccessCount()).append(",\n")
                 .append("      \"hitCount\": ").append(getHitCount()).append(",\n")
                 .append("      \"missCount\": ").append(getMissCount()).append(",\n")
+                .append("      \"evictionCount\": ").append(getEvictionCount()).append(",\n")
                 .append("      \"hitRatio\": ").append(getHitRatio()).append("\n")
                 .append("    }")
                 .toString();
     }
 
+    /**
+     * A scheduled check for whether or not an entry has expired.  The entry is only weakly referenced, so a timer never
+     * prevents a replaced, removed or memory-reclaimed entry from being garbage collected.
+     */
+    private static final class ExpirationTimer<K, V> extends WeakReference<Entry<V>> {
+
+        private final K key;
+        private final long expirationMillis;
+
+        private ExpirationTimer(K key, Entry<V> entry, long expirationMillis, ReferenceQueue<Entry<V>> deadTimers) {
+            super(entry, deadTimers);
+            this.key = key;
+            this.expirationMillis = expirationMillis;
+        }
+    }
+
     /**
      * An Entry is a wrapper that encapsulates the actual {@code value} stored in the cache as well as
      * {@link #getCreationTimeMillis() creationTimeMillis} and {@link #getLastAccessTimeMillis() lastAccessTimeMillis}
@@ -365,6 +740,14 @@ public class DefaultCache<K, V> implements Cache<K, V> {
         private final long creationTimeMillis;
         private volatile long lastAccessTimeMillis;
 
+        /**
+         * The timer scheduled to remove this entry once it expires, cancelled if the entry is replaced or removed
+         * first.
+         *
+         * @since 1.0.RC7.7
+         */
+        private transient volatile Reference<?> expirationTimer;
+
         /**
          * Creates a new Entry instance wrapping the specified {@code value}, defaulting both the
          * {@link #getCreationTimeMillis() creationTimeMillis} and the {@link #getLastAccessTimeMillis() lastAccessTimeMills}
@@ -28,12 +28,23 @@ public class DefaultCacheConfiguration implements CacheConfiguration {
     private final String name;
     private final Duration timeToLive;
     private final Duration timeToIdle;
+    private final long maxEntries;
+    private final long maxWeight;
 
     public DefaultCacheConfiguration(String name, Duration timeToLive, Duration timeToIdle) {
+        this(name, timeToLive, timeToIdle, 0, 0);
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public DefaultCacheConfiguration(String name, Duration timeToLive, Duration timeToIdle, long maxEntries, long maxWeight) {
         Assert.hasText(name, "Cache Region name cannot be null or empty.");
         this.name = name;
         this.timeToLive = timeToLive;
         this.timeToIdle = timeToIdle;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
     }
 
     static Duration toDuration(long value, TimeUnit tu) {
@@ -57,4 +68,14 @@ public class DefaultCacheConfiguration implements CacheConfiguration {
     public Duration getTimeToIdle() {
         return this.timeToIdle;
     }
+
+    @Override
+    public long getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    @Override
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
 }
@@ -17,11 +17,17 @@ package com.stormpath.sdk.impl.cache;
 
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.cache.CacheManager;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
 import com.stormpath.sdk.impl.util.SoftHashMap;
+import com.stormpath.sdk.impl.util.Weigher;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Duration;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -63,6 +69,17 @@ import java.util.concurrent.TimeUnit;
  * <p/>
  * The {@link #setDefaultTimeToLive(com.stormpath.sdk.lang.Duration) defaultTimeToLive} setting is only
  * applied to newly created {@code Cache} instances.  It does not affect already existing {@code Cache}s.
+ * <h2>Maximum Size</h2>
+ * By default, cache entries are stored in a {@link SoftHashMap}, which relies on garbage collection pressure to
+ * reclaim memory.  If a {@link #setDefaultMaxEntries(long) defaultMaxEntries} or
+ * {@link #setDefaultMaxWeight(long) defaultMaxWeight} is configured (or a region-specific
+ * {@link CacheConfiguration#getMaxEntries() maxEntries} or {@link CacheConfiguration#getMaxWeight() maxWeight}),
+ * entries are instead stored in a {@link BoundedConcurrentMap}, which evicts entries that are unlikely to be used
+ * again once the region's capacity is exceeded and proactively removes expired entries.  This keeps memory usage
+ * predictable and avoids lock contention on cache hits.
+ * <p/>
+ * When bounded by weight, each entry is weighed by the manager's {@link #setWeigher(Weigher) weigher}, which by
+ * default weighs a cached resource as {@code 1} plus its number of properties.
  * <h2>Thread Safety</h2>
  * This implementation and the cache instances it creates are thread-safe and usable in concurrent environments.
  *
@@ -86,6 +103,9 @@ public class DefaultCacheManager implements CacheManager {
 
     private volatile Duration defaultTimeToLive;
     private volatile Duration defaultTimeToIdle;
+    private volatile long defaultMaxEntries;
+    private volatile long defaultMaxWeight;
+    private volatile Weigher<Object, DefaultCache.Entry> weigher;
 
     /**
      * Default no-arg constructor that instantiates an internal name-to-cache {@code ConcurrentMap}.
@@ -93,6 +113,7 @@ public class DefaultCacheManager implements CacheManager {
     public DefaultCacheManager() {
         this.configs = new ConcurrentHashMap<String, CacheConfiguration>();
         this.caches = new ConcurrentHashMap<String, Cache>();
+        this.weigher = new EntryWeigher();
     }
 
     /**
@@ -167,6 +188,67 @@ public class DefaultCacheManager implements CacheManager {
         setDefaultTimeToIdle(new Duration(seconds, TimeUnit.SECONDS));
     }
 
+    /**
+     * Returns the default maximum number of entries to apply to newly created {@link DefaultCache} instances, or a
+     * value less than or equal to zero if caches are not bounded by size.  This setting does not affect existing
+     * {@link DefaultCache} instances.
+     *
+     * @return the default maximum number of entries to apply to newly created {@link DefaultCache} instances.
+     * @since 1.0.RC7.7
+     */
+    public long getDefaultMaxEntries() {
+        return defaultMaxEntries;
+    }
+
+    /**
+     * Sets the default maximum number of entries to apply to newly created {@link DefaultCache} instances.  A value
+     * less than or equal to zero indicates caches are not bounded by size.  This setting does not affect existing
+     * {@link DefaultCache} instances.
+     *
+     * @param defaultMaxEntries the default maximum number of entries to apply to newly created {@link DefaultCache}
+     *                          instances.
+     * @since 1.0.RC7.7
+     */
+    public void setDefaultMaxEntries(long defaultMaxEntries) {
+        this.defaultMaxEntries = defaultMaxEntries;
+    }
+
+    /**
+     * Returns the default maximum total weight of entries to apply to newly created {@link DefaultCache} instances, or
+     * a value less than or equal to zero if caches are not bounded by weight.  This setting does not affect existing
+     * {@link DefaultCache} instances.
+     *
+     * @return the default maximum total weight of entries to apply to newly created {@link DefaultCache} instances.
+     * @since 1.0.RC7.7
+     */
+    public long getDefaultMaxWeight() {
+        return defaultMaxWeight;
+    }
+
+    /**
+     * Sets the default maximum total weight of entries to apply to newly created {@link DefaultCache} instances, as
+     * determined by the {@link #setWeigher(Weigher) weigher}.  A value less than or equal to zero indicates caches are
+     * not bounded by weight.  This setting does not affect existing {@link DefaultCache} instances.
+     *
+     * @param defaultMaxWeight the default maximum total weight of entries to apply to newly created
+     *                         {@link DefaultCache} instances.
+     * @since 1.0.RC7.7
+     */
+    public void setDefaultMaxWeight(long defaultMaxWeight) {
+        this.defaultMaxWeight = defaultMaxWeight;
+    }
+
+    /**
+     * Sets the {@link Weigher} used to determine the weight of cache entries in caches bounded by a maximum weight.
+     *
+     * @param weigher the {@link Weigher} used to determine the weight of cache entries.
+     * @since 1.0.RC7.7
+     */
+    public void setWeigher(Weigher<Object, DefaultCache.Entry> weigher) {
+        Assert.notNull(weigher, "weigher cannot be null.");
+        this.weigher = weigher;
+    }
+
     /**
      * Sets cache-specific configuration entries, to be utilized when creating cache instances.
      *
@@ -181,6 +263,17 @@ public class DefaultCacheManager implements CacheManager {
         }
     }
 
+    /**
+     * Returns the names of the caches that have a specific configuration entry (as opposed to those created with the
+     * default settings).
+     *
+     * @return the names of the caches that have a specific configuration entry.
+     * @since 1.0.RC7.7
+     */
+    public Set<String> getCacheConfigurationNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<String>(this.configs.keySet()));
+    }
+
     /**
      * Returns the cache with the specified {@code name}.  If the cache instance does not yet exist, it will be lazily
      * created, retained for further access, and then returned.
@@ -217,6 +310,8 @@ public class DefaultCacheManager implements CacheManager {
     protected Cache createCache(String name) {
         Duration ttl = this.defaultTimeToLive != null ? this.defaultTimeToLive.clone() : null;
         Duration tti = this.defaultTimeToIdle != null ? this.defaultTimeToIdle.clone() : null;
+        long maxEntries = this.defaultMaxEntries;
+        long maxWeight = this.defaultMaxWeight;
 
         CacheConfiguration config = this.configs.get(name);
         if (config != null) {
@@ -228,9 +323,26 @@ public class DefaultCacheManager implements CacheManager {
             if (d != null) {
                 tti = d;
             }
+            //a region's own bound replaces both default bounds, so a region limited to a number of entries is not
+            //instead limited by the default maximum weight (which would otherwise take precedence):
+            if (config.getMaxEntries() > 0 || config.getMaxWeight() > 0) {
+                maxEntries = config.getMaxEntries();
+                maxWeight = config.getMaxWeight();
+            }
         }
 
-        return new DefaultCache(name, new SoftHashMap(), ttl, tti);
+        BoundedConcurrentMap map;
+        if (maxWeight > 0) {
+            map = new BoundedConcurrentMap(maxWeight, this.weigher);
+        } else if (maxEntries > 0) {
+            map = new BoundedConcurrentMap(maxEntries);
+        } else {
+            return new DefaultCache(name, new SoftHashMap(), ttl, tti);
+        }
+
+        DefaultCache cache = new DefaultCache(name, map, ttl, tti);
+        map.setExpiry(new EntryExpiry(cache));
+        return cache;
     }
 
     public String toString() {
@@ -262,4 +374,42 @@ public class DefaultCacheManager implements CacheManager {
     private String toString(Duration d) {
         return d != null ? d.toString() : "indefinite";
     }
+
+    /**
+     * Weighs a cache entry as {@code 1} plus the number of properties of the cached resource data.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static class EntryWeigher implements Weigher<Object, DefaultCache.Entry> {
+
+        @Override
+        public int weightOf(Object key, DefaultCache.Entry entry) {
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                return 1 + ((Map) value).size();
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Allows a {@link BoundedConcurrentMap} to proactively remove entries that have exceeded their cache's
+     * time to live or time to idle.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static class EntryExpiry implements BoundedConcurrentMap.Expiry<Object, DefaultCache.Entry> {
+
+        private final DefaultCache cache;
+
+        private EntryExpiry(DefaultCache cache) {
+            this.cache = cache;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean isExpired(Object key, DefaultCache.Entry entry, long nowMillis) {
+            return cache.isExpired(entry, nowMillis);
+        }
+    }
 }
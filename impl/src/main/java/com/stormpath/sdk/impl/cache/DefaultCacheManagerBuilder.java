@@ -33,6 +33,8 @@ public class DefaultCacheManagerBuilder implements CacheManagerBuilder {
 
     private Duration defaultTimeToLive;
     private Duration defaultTimeToIdle;
+    private long defaultMaxEntries;
+    private long defaultMaxWeight;
 
     private final Set<CacheConfiguration> configs = new LinkedHashSet<CacheConfiguration>();
 
@@ -48,6 +50,18 @@ public class DefaultCacheManagerBuilder implements CacheManagerBuilder {
         return this;
     }
 
+    @Override
+    public CacheManagerBuilder withDefaultMaxEntries(long maxEntries) {
+        this.defaultMaxEntries = maxEntries;
+        return this;
+    }
+
+    @Override
+    public CacheManagerBuilder withDefaultMaxWeight(long maxWeight) {
+        this.defaultMaxWeight = maxWeight;
+        return this;
+    }
+
     @Override
     public CacheManagerBuilder withCache(CacheConfigurationBuilder builder) {
         Assert.isInstanceOf(DefaultCacheConfigurationBuilder.class, builder,
@@ -72,6 +86,14 @@ public class DefaultCacheManagerBuilder implements CacheManagerBuilder {
             manager.setDefaultTimeToIdle(this.defaultTimeToIdle);
         }
 
+        if (this.defaultMaxEntries > 0) {
+            manager.setDefaultMaxEntries(this.defaultMaxEntries);
+        }
+
+        if (this.defaultMaxWeight > 0) {
+            manager.setDefaultMaxWeight(this.defaultMaxWeight);
+        }
+
         if (!Collections.isEmpty(configs)) {
             manager.setCacheConfigurations(configs);
         }
@@ -15,7 +15,11 @@
  */
 package com.stormpath.sdk.impl.cache;
 
-import com.stormpath.sdk.cache.Cache;
+import com.stormpath.sdk.cache.ConcurrentCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * A disabled implementation that does nothing.  This is useful for a CacheManager implementation to return instead
@@ -23,7 +27,7 @@ import com.stormpath.sdk.cache.Cache;
  *
  * @since 0.8
  */
-public class DisabledCache<K, V> implements Cache<K, V> {
+public class DisabledCache<K, V> implements ConcurrentCache<K, V> {
 
     /**
      * This implementation does not do anything and always returns null.
@@ -57,4 +61,63 @@ public class DisabledCache<K, V> implements Cache<K, V> {
     public V remove(K key) {
         return null;
     }
+
+    /**
+     * This implementation does not do anything (no caching) and always returns null.
+     *
+     * @param key   the key used to identify the object being stored.
+     * @param value the value to be stored in the cache.
+     * @return null always.
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return null;
+    }
+
+    /**
+     * This implementation does not do anything (no caching) and always returns false.
+     *
+     * @param key      the key used to identify the object being stored.
+     * @param oldValue the value expected to be currently associated with the {@code key}
+     * @param newValue the value to be stored in the cache.
+     * @return false always.
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return false;
+    }
+
+    /**
+     * This implementation does not do anything and always returns an empty map.
+     *
+     * @param keys the keys that the values were previously added with
+     * @return an empty map always.
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * This implementation does not do anything (no caching).
+     *
+     * @param entries the entries to be stored in the cache.
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+    }
+
+    /**
+     * This implementation does not do anything (no caching).
+     *
+     * @param keys the keys used to identify the objects being stored.
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public void removeAll(Collection<? extends K> keys) {
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically removes expired entries from {@link DefaultCache} instances on a single daemon thread shared by all
+ * caches in the JVM.
+ * <p/>
+ * Caches are only weakly referenced: once a cache is no longer used by the application and has been garbage
+ * collected, it is no longer swept.
+ *
+ * @since 1.0.RC7.7
+ */
+final class ExpirationSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpirationSweeper.class);
+
+    /**
+     * How often caches are swept, in milliseconds.
+     */
+    static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private static final ScheduledExecutorService EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "stormpath-cache-expiration");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private ExpirationSweeper() {
+    }
+
+    /**
+     * Registers the specified cache to have its expired entries removed periodically.
+     *
+     * @param cache the cache to sweep
+     */
+    static void register(DefaultCache<?, ?> cache) {
+        SweepTask task = new SweepTask(cache);
+        task.future = EXECUTOR.scheduleWithFixedDelay(task, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static class SweepTask implements Runnable {
+
+        private final WeakReference<DefaultCache<?, ?>> cacheRef;
+        private volatile ScheduledFuture<?> future;
+
+        private SweepTask(DefaultCache<?, ?> cache) {
+            this.cacheRef = new WeakReference<DefaultCache<?, ?>>(cache);
+        }
+
+        @Override
+        public void run() {
+            DefaultCache<?, ?> cache = cacheRef.get();
+            if (cache == null) {
+                ScheduledFuture<?> future = this.future;
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                cache.expireEntries(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                //don't let an exception cancel future sweeps:
+                log.warn("Unable to remove expired entries from cache '{}'", cache.getName(), e);
+            }
+        }
+    }
+}
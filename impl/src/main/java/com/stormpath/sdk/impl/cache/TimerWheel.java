@@ -0,0 +1,244 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.cache;
+
+/**
+ * A hierarchical timer wheel that schedules timers in O(1) time and fires them in amortized O(1) time per timer.
+ * <p/>
+ * The wheel has four levels of 64 buckets each.  Level 0 buckets span ~1 second, level 1 buckets ~65 seconds, level 2
+ * buckets ~70 minutes and level 3 buckets ~3 days, for a total horizon of ~200 days.  A timer is placed in the finest
+ * level able to hold its deadline; as time advances, the buckets of coarser levels are cascaded down into finer levels
+ * until a timer's deadline has passed and it is fired.  Timers further away than the horizon are parked in the last
+ * bucket and rescheduled when it is reached.
+ * <p/>
+ * This class is <b>not</b> thread-safe; callers are expected to guard access with their own lock.
+ *
+ * @param <T> the type of value associated with each timer
+ * @since 1.0.RC7.7
+ */
+class TimerWheel<T> {
+
+    /**
+     * Callback invoked by {@link TimerWheel#advance(long, Listener)} for each timer whose deadline has passed.
+     */
+    interface Listener<T> {
+
+        /**
+         * Invoked when the deadline of the specified timer has passed.  The listener may
+         * {@link TimerWheel#schedule(Object, long) schedule} new timers during this callback.
+         *
+         * @param value     the value associated with the timer
+         * @param nowMillis the time the wheel was advanced to, in milliseconds since Epoch
+         */
+        void onExpired(T value, long nowMillis);
+    }
+
+    /**
+     * Selects the timers to be removed by {@link TimerWheel#removeAll(Filter)}.
+     */
+    interface Filter<T> {
+
+        /**
+         * Returns {@code true} if the timer associated with the specified value should be removed.
+         *
+         * @param value the value associated with the timer
+         * @return {@code true} if the timer should be removed, {@code false} otherwise.
+         */
+        boolean accept(T value);
+    }
+
+    private static final int BUCKETS = 64;
+    private static final int BUCKET_MASK = BUCKETS - 1;
+    private static final int[] SHIFT = new int[]{10, 16, 22, 28, 34}; //SHIFT[i + 1] = SHIFT[i] + log2(BUCKETS)
+
+    private final Node<T>[][] wheel;
+    private long currentTime;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long nowMillis) {
+        int levels = SHIFT.length - 1;
+        this.wheel = new Node[levels][BUCKETS];
+        for (int i = 0; i < levels; i++) {
+            for (int j = 0; j < BUCKETS; j++) {
+                this.wheel[i][j] = Node.sentinel();
+            }
+        }
+        this.currentTime = nowMillis;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     *
+     * @return the number of scheduled timers.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer for the specified {@code value} that will fire once {@code deadlineMillis} has passed.
+     *
+     * @param value          the value associated with the timer
+     * @param deadlineMillis the time at which the timer should fire, in milliseconds since Epoch
+     */
+    void schedule(T value, long deadlineMillis) {
+        link(new Node<T>(value, deadlineMillis));
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis}, invoking the {@code listener} for each timer whose deadline has passed.
+     *
+     * @param nowMillis the current time in milliseconds since Epoch
+     * @param listener  the listener to notify of each expired timer
+     */
+    void advance(long nowMillis, Listener<T> listener) {
+        long previousTime = this.currentTime;
+        if (nowMillis <= previousTime) {
+            return;
+        }
+        this.currentTime = nowMillis;
+
+        for (int i = 0; i < wheel.length; i++) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long currentTicks = nowMillis >>> SHIFT[i];
+            if (currentTicks == previousTicks) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, nowMillis, listener);
+        }
+    }
+
+    /**
+     * Removes the scheduled timers whose value is accepted by the specified {@code filter}, without firing them.
+     *
+     * @param filter selects the timers to remove
+     * @return the number of timers removed
+     */
+    int removeAll(Filter<T> filter) {
+        int removed = 0;
+        for (Node<T>[] buckets : wheel) {
+            for (Node<T> sentinel : buckets) {
+                Node<T> node = sentinel.next;
+                while (node != sentinel) {
+                    Node<T> next = node.next;
+                    if (filter.accept(node.value)) {
+                        node.prev.next = next;
+                        next.prev = node.prev;
+                        node.prev = null;
+                        node.next = null;
+                        removed++;
+                    }
+                    node = next;
+                }
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Removes all scheduled timers.
+     */
+    void clear() {
+        for (Node<T>[] buckets : wheel) {
+            for (Node<T> sentinel : buckets) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+        size = 0;
+    }
+
+    private void expire(int level, long previousTicks, long delta, long nowMillis, Listener<T> listener) {
+        Node<T>[] buckets = wheel[level];
+        int start = (int) (previousTicks & BUCKET_MASK);
+        int steps = (int) Math.min(delta + 1, BUCKETS);
+
+        for (int i = 0; i < steps; i++) {
+            Node<T> sentinel = buckets[(start + i) & BUCKET_MASK];
+            Node<T> node = sentinel.next;
+
+            //detach the whole bucket before processing, as nodes may be re-linked into it:
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+
+            while (node != sentinel) {
+                Node<T> next = node.next;
+                node.prev = null;
+                node.next = null;
+                size--;
+
+                if (node.deadline <= nowMillis) {
+                    listener.onExpired(node.value, nowMillis);
+                } else {
+                    //cascade into a finer level:
+                    link(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private void link(Node<T> node) {
+        //timers already past their deadline go in the current bucket, to be fired on the next advance:
+        long deadline = Math.max(node.deadline, currentTime);
+        long duration = deadline - currentTime;
+        Node<T> sentinel = null;
+
+        for (int i = 0; i < wheel.length; i++) {
+            if (duration < (1L << SHIFT[i + 1])) {
+                long ticks = deadline >>> SHIFT[i];
+                sentinel = wheel[i][(int) (ticks & BUCKET_MASK)];
+                break;
+            }
+        }
+
+        if (sentinel == null) {
+            //beyond the horizon: park in the furthest bucket, it will be rescheduled when reached
+            int last = wheel.length - 1;
+            long ticks = (currentTime >>> SHIFT[last]) - 1;
+            sentinel = wheel[last][(int) (ticks & BUCKET_MASK)];
+        }
+
+        Node<T> tail = sentinel.prev;
+        node.prev = tail;
+        node.next = sentinel;
+        tail.next = node;
+        sentinel.prev = node;
+        size++;
+    }
+
+    private static final class Node<T> {
+
+        final T value;
+        final long deadline;
+        Node<T> prev;
+        Node<T> next;
+
+        Node(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        static <T> Node<T> sentinel() {
+            Node<T> sentinel = new Node<T>(null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import com.stormpath.sdk.application.CreateApplicationRequest;
 import com.stormpath.sdk.cache.CacheManager;
 import com.stormpath.sdk.client.AuthenticationScheme;
 import com.stormpath.sdk.client.Client;
+import com.stormpath.sdk.client.ConnectionPoolConfig;
+import com.stormpath.sdk.client.ConnectionPoolStats;
 import com.stormpath.sdk.client.Proxy;
 import com.stormpath.sdk.directory.CreateDirectoryRequest;
 import com.stormpath.sdk.directory.Directory;
@@ -35,6 +37,7 @@ import com.stormpath.sdk.ds.DataStore;
 import com.stormpath.sdk.group.GroupCriteria;
 import com.stormpath.sdk.group.GroupList;
 import com.stormpath.sdk.impl.ds.DefaultDataStore;
+import com.stormpath.sdk.impl.http.PooledRequestExecutor;
 import com.stormpath.sdk.impl.http.RequestExecutor;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Classes;
@@ -63,6 +66,8 @@ public class DefaultClient implements Client {
 
     private final DataStore dataStore;
 
+    private final RequestExecutor requestExecutor;
+
     private String currentTenantHref;
 
     /**
@@ -80,9 +85,29 @@ public class DefaultClient implements Client {
      *                             server (can be null)
      */
     public DefaultClient(ApiKey apiKey, String baseUrl, Proxy proxy, CacheManager cacheManager, AuthenticationScheme authenticationScheme, int connectionTimeout) {
+        this(apiKey, baseUrl, proxy, cacheManager, authenticationScheme, connectionTimeout, null);
+    }
+
+    /**
+     * Instantiates a new Client instance that will communicate with the Stormpath REST API over a connection pool
+     * configured as specified.
+     *
+     * @param apiKey               the Stormpath account API Key that will be used to authenticate the client with
+     *                             Stormpath's API server
+     * @param baseUrl              the Stormpath base URL
+     * @param proxy                the HTTP proxy to be used when communicating with the Stormpath API server (can be
+     *                             null)
+     * @param cacheManager         the {@link com.stormpath.sdk.cache.CacheManager} that should be used to cache
+     *                             Stormpath REST resources (can be null)
+     * @param authenticationScheme the HTTP authentication scheme to be used when communicating with the Stormpath API
+     *                             server (can be null)
+     * @param connectionPoolConfig the HTTP connection pool configuration (can be null to use the default pool)
+     * @since 1.0.RC7.7
+     */
+    public DefaultClient(ApiKey apiKey, String baseUrl, Proxy proxy, CacheManager cacheManager, AuthenticationScheme authenticationScheme, int connectionTimeout, ConnectionPoolConfig connectionPoolConfig) {
         Assert.notNull(apiKey, "apiKey argument cannot be null.");
         Assert.isTrue(connectionTimeout >= 0, "connectionTimeout cannot be a negative number.");
-        RequestExecutor requestExecutor = createRequestExecutor(apiKey, proxy, authenticationScheme, connectionTimeout);
+        this.requestExecutor = createRequestExecutor(apiKey, proxy, authenticationScheme, connectionTimeout, connectionPoolConfig);
         this.dataStore = createDataStore(requestExecutor, baseUrl, apiKey, cacheManager);
     }
 
@@ -116,10 +141,23 @@ public class DefaultClient implements Client {
         return this.dataStore;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public ConnectionPoolStats getConnectionPoolStats() {
+        if (this.requestExecutor instanceof PooledRequestExecutor) {
+            return ((PooledRequestExecutor) this.requestExecutor).getConnectionPoolStats();
+        }
+        return null;
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private RequestExecutor createRequestExecutor(ApiKey apiKey, Proxy proxy, AuthenticationScheme authenticationScheme, int connectionTimeout) {
+    private RequestExecutor createRequestExecutor(ApiKey apiKey, Proxy proxy, AuthenticationScheme authenticationScheme, int connectionTimeout, ConnectionPoolConfig connectionPoolConfig) {
 
-        String className = "com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor";
+        String className = connectionPoolConfig != null ?
+                "com.stormpath.sdk.impl.http.httpclient.PooledHttpClientRequestExecutor" :
+                "com.stormpath.sdk.impl.http.httpclient.HttpClientRequestExecutor";
 
         Class requestExecutorClass;
 
@@ -134,6 +172,11 @@ public class DefaultClient implements Client {
             throw new RuntimeException(msg);
         }
 
+        if (connectionPoolConfig != null) {
+            Constructor<RequestExecutor> ctor = Classes.getConstructor(requestExecutorClass, com.stormpath.sdk.api.ApiKey.class, Proxy.class, AuthenticationScheme.class, Integer.class, ConnectionPoolConfig.class);
+            return Classes.instantiate(ctor, apiKey, proxy, authenticationScheme, connectionTimeout, connectionPoolConfig);
+        }
+
         Constructor<RequestExecutor> ctor = Classes.getConstructor(requestExecutorClass, com.stormpath.sdk.api.ApiKey.class, Proxy.class, AuthenticationScheme.class, Integer.class);
 
         return Classes.instantiate(ctor, apiKey, proxy, authenticationScheme, connectionTimeout);
@@ -22,6 +22,7 @@ import com.stormpath.sdk.client.ApiKey;
 import com.stormpath.sdk.client.AuthenticationScheme;
 import com.stormpath.sdk.client.Client;
 import com.stormpath.sdk.client.ClientBuilder;
+import com.stormpath.sdk.client.ConnectionPoolConfig;
 import com.stormpath.sdk.client.Proxy;
 import com.stormpath.sdk.lang.Assert;
 import org.slf4j.Logger;
@@ -43,6 +44,7 @@ public class DefaultClientBuilder implements ClientBuilder {
     private Proxy                proxy;
     private AuthenticationScheme authenticationScheme;
     private CacheManager         cacheManager;
+    private ConnectionPoolConfig connectionPoolConfig;
 
     /**
      * Default connection timeout.
@@ -90,6 +92,14 @@ public class DefaultClientBuilder implements ClientBuilder {
         return this;
     }
 
+    /* @since 1.0.RC7.7 */
+    @Override
+    public ClientBuilder setConnectionPoolConfig(ConnectionPoolConfig connectionPoolConfig) {
+        Assert.notNull(connectionPoolConfig, "connectionPoolConfig argument cannot be null.");
+        this.connectionPoolConfig = connectionPoolConfig;
+        return this;
+    }
+
     @Override
     public Client build() {
         if (this.apiKey == null) {
@@ -110,7 +120,7 @@ public class DefaultClientBuilder implements ClientBuilder {
                                       .build();
         }
 
-        return new DefaultClient(this.apiKey, this.baseUrl, this.proxy, this.cacheManager, this.authenticationScheme, this.connectionTimeout);
+        return new DefaultClient(this.apiKey, this.baseUrl, this.proxy, this.cacheManager, this.authenticationScheme, this.connectionTimeout, this.connectionPoolConfig);
     }
 
     @Override
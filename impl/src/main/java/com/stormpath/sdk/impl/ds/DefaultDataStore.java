@@ -18,7 +18,10 @@ package com.stormpath.sdk.impl.ds;
 import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.cache.CacheManager;
 import com.stormpath.sdk.http.HttpMethod;
+import com.stormpath.sdk.impl.cache.DefaultCacheManager;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
 import com.stormpath.sdk.impl.cache.DisabledCacheManager;
+import com.stormpath.sdk.impl.ds.api.ApiKeyAuthenticationCacheFilter;
 import com.stormpath.sdk.impl.ds.api.ApiKeyQueryFilter;
 import com.stormpath.sdk.impl.ds.api.DecryptApiKeySecretFilter;
 import com.stormpath.sdk.impl.ds.cache.CacheResolver;
@@ -34,8 +37,12 @@ import com.stormpath.sdk.impl.query.DefaultCriteria;
 import com.stormpath.sdk.impl.query.DefaultOptions;
 import com.stormpath.sdk.impl.resource.AbstractResource;
 import com.stormpath.sdk.impl.resource.ReferenceFactory;
+import com.stormpath.sdk.impl.util.FutureCallback;
+import com.stormpath.sdk.impl.util.ListenableFuture;
+import com.stormpath.sdk.impl.util.SettableFuture;
 import com.stormpath.sdk.impl.util.StringInputStream;
 import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.lang.Classes;
 import com.stormpath.sdk.lang.Collections;
 import com.stormpath.sdk.lang.Strings;
 import com.stormpath.sdk.provider.ProviderData;
@@ -48,6 +55,7 @@ import com.stormpath.sdk.resource.Saveable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
@@ -78,8 +86,6 @@ public class DefaultDataStore implements InternalDataStore {
                                                "persisted and have an existing " + AbstractResource.HREF_PROP_NAME +
                                                " attribute.";
 
-    private static final boolean COLLECTION_CACHING_ENABLED = false; //EXPERIMENTAL - set to true only while developing.
-
     private final String baseUrl;
     private final ApiKey apiKey;
     private final RequestExecutor requestExecutor;
@@ -90,6 +96,10 @@ public class DefaultDataStore implements InternalDataStore {
     private final ResourceConverter resourceConverter;
     private final QueryStringFactory queryStringFactory;
     private final List<Filter> filters;
+    private final List<Filter> asyncFilters;
+    private final List<Filter> asyncResponseFilters;
+    private final ReadCoalescingFilter readCoalescingFilter;
+    private final ApiKeyAuthenticationCache apiKeyAuthenticationCache;
 
     /**
      * @since 1.0.RC3
@@ -129,16 +139,55 @@ public class DefaultDataStore implements InternalDataStore {
 
         this.filters.add(new EnlistmentFilter());
 
+        this.apiKeyAuthenticationCache = new ApiKeyAuthenticationCache(this);
+        this.filters.add(new ApiKeyAuthenticationCacheFilter(this.apiKeyAuthenticationCache));
+
         this.filters.add(new DecryptApiKeySecretFilter(apiKey));
 
+        this.readCoalescingFilter = new ReadCoalescingFilter();
+
+        ReadCacheFilter readCacheFilter = null;
+
         if (isCachingEnabled()) {
-            this.filters.add(new ReadCacheFilter(this.baseUrl, this.cacheResolver, COLLECTION_CACHING_ENABLED));
-            this.filters.add(new WriteCacheFilter(this.cacheResolver, COLLECTION_CACHING_ENABLED, referenceFactory));
+            Set<Class<? extends CollectionResource>> cachedCollectionTypes = getCachedCollectionTypes(this.cacheManager);
+            readCacheFilter = new ReadCacheFilter(this.baseUrl, this.cacheResolver, cachedCollectionTypes);
+            this.filters.add(readCacheFilter);
+            this.filters.add(this.readCoalescingFilter);
+            this.filters.add(new WriteCacheFilter(this.cacheResolver, cachedCollectionTypes, referenceFactory));
+        } else {
+            this.filters.add(this.readCoalescingFilter);
         }
 
         this.filters.add(new ApiKeyQueryFilter(this.queryStringFactory));
 
         this.filters.add(new ProviderAccountResultFilter());
+
+        //asynchronous requests never block a thread waiting on another request, so they are not coalesced:
+        this.asyncFilters = new ArrayList<Filter>(this.filters);
+        this.asyncFilters.remove(this.readCoalescingFilter);
+
+        //once an asynchronous response is received, it must be used: a cached value found in the meantime would
+        //leave the response unread
+        this.asyncResponseFilters = new ArrayList<Filter>(this.asyncFilters);
+        this.asyncResponseFilters.remove(readCacheFilter);
+    }
+
+    /**
+     * Returns the filter coalescing concurrent identical read requests, mostly to inspect its metrics.
+     *
+     * @return the filter coalescing concurrent identical read requests.
+     * @since 1.0.RC7.7
+     */
+    public ReadCoalescingFilter getReadCoalescingFilter() {
+        return this.readCoalescingFilter;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public ApiKeyAuthenticationCache getApiKeyAuthenticationCache() {
+        return this.apiKeyAuthenticationCache;
     }
 
     @Override
@@ -257,33 +306,19 @@ public class DefaultDataStore implements InternalDataStore {
         return (T) getResource(href, clazz, (Map) qs);
     }
 
-    @SuppressWarnings("unchecked")
     private ResourceDataResult getResourceData(String href, Class<? extends Resource> clazz, Map<String,?> queryParameters) {
+        ResourceDataRequest req = createReadRequest(href, clazz, queryParameters);
+        FilterChain chain = new DefaultFilterChain(this.filters, new ExecutingFilterChain(new ReadRequestHandler()));
+        return chain.filter(req);
+    }
+
+    private ResourceDataRequest createReadRequest(String href, Class<? extends Resource> clazz, Map<String,?> queryParameters) {
 
         Assert.hasText(href, "href argument cannot be null or empty.");
         Assert.notNull(clazz, "Resource class argument cannot be null.");
 
-        FilterChain chain = new DefaultFilterChain(this.filters, new FilterChain() {
-            @Override
-            public ResourceDataResult filter(final ResourceDataRequest req) {
-
-                CanonicalUri uri = req.getUri();
-
-                Request getRequest = new DefaultRequest(HttpMethod.GET, uri.getAbsolutePath(), uri.getQuery());
-                Response getResponse = execute(getRequest);
-                Map<String,?> body = getBody(getResponse);
-
-                if (Collections.isEmpty(body)) {
-                    throw new IllegalStateException("Unable to obtain resource data from the API server or from cache.");
-                }
-
-                return new DefaultResourceDataResult(req.getAction(), uri, req.getResourceClass(), (Map<String,Object>)body);
-            }
-        });
-
         CanonicalUri uri = canonicalize(href, queryParameters);
-        ResourceDataRequest req = new DefaultResourceDataRequest(ResourceAction.READ, uri, clazz, new HashMap<String,Object>());
-        return chain.filter(req);
+        return new DefaultResourceDataRequest(ResourceAction.READ, uri, clazz, new HashMap<String,Object>());
     }
 
     private ResourceAction getPostAction(ResourceDataRequest request, Response response) {
@@ -365,8 +400,17 @@ public class DefaultDataStore implements InternalDataStore {
         return queryStringFactory.createQueryString(href, defaultOptions);
     }
 
-    @SuppressWarnings("unchecked")
     private <T extends Resource, R extends Resource> R save(String href, final T resource, HttpHeaders requestHeaders, final Class<? extends R> returnType, final QueryString qs, final boolean create) {
+
+        ResourceDataRequest request = createSaveRequest(href, resource, requestHeaders, returnType, qs, create);
+
+        FilterChain chain = new DefaultFilterChain(this.filters, new ExecutingFilterChain(new SaveRequestHandler(returnType)));
+        ResourceDataResult result = chain.filter(request);
+
+        return toSavedResource((AbstractResource) resource, returnType, result);
+    }
+
+    private <T extends Resource> ResourceDataRequest createSaveRequest(String href, T resource, HttpHeaders requestHeaders, Class<? extends Resource> returnType, QueryString qs, boolean create) {
         Assert.hasText(href, "href argument cannot be null or empty.");
         Assert.notNull(resource, "resource argument cannot be null.");
         Assert.notNull(returnType, "returnType class cannot be null.");
@@ -377,49 +421,11 @@ public class DefaultDataStore implements InternalDataStore {
         final AbstractResource abstractResource = (AbstractResource) resource;
         final Map<String, Object> props = resourceConverter.convert(abstractResource);
 
-        FilterChain chain = new DefaultFilterChain(this.filters, new FilterChain() {
-            @Override
-            public ResourceDataResult filter(final ResourceDataRequest req) {
-
-                String bodyString;
-                if (req.getHttpHeaders().getContentType() != null && req.getHttpHeaders().getContentType().equals(MediaType.APPLICATION_FORM_URLENCODED)){
-                    bodyString = buildCanonicalBodyQueryParams(req.getData());
-                } else {
-
-                    bodyString = mapMarshaller.marshal(req.getData());
-                }
-                StringInputStream body = new StringInputStream(bodyString);
-                long length = body.available();
-
-                CanonicalUri uri = req.getUri();
-                String href = uri.getAbsolutePath();
-                QueryString qs = uri.getQuery();
-
-                HttpHeaders httpHeaders = req.getHttpHeaders();
-                Request request = new DefaultRequest(HttpMethod.POST, href, qs, httpHeaders, body, length);
-
-                Response response = execute(request);
-                Map<String, Object> responseBody = getBody(response);
-
-                if (Collections.isEmpty(responseBody)) {
-                    // Fix for https://github.com/stormpath/stormpath-sdk-java/issues/218
-                    if ( response.getHttpStatus() == 202 ) { //202 means that the request has been accepted for processing, but the processing has not been completed. Therefore we do not have a response body.
-                        responseBody = java.util.Collections.emptyMap();
-                    } else {
-                        throw new IllegalStateException("Unable to obtain resource data from the API server.");
-                    }
-                }
-
-                ResourceAction responseAction = getPostAction(req, response);
-
-                return new DefaultResourceDataResult(responseAction, uri, returnType, responseBody);
-            }
-        });
-
         ResourceAction action = create ? ResourceAction.CREATE : ResourceAction.UPDATE;
-        ResourceDataRequest request = new DefaultResourceDataRequest(action, uri, abstractResource.getClass(), props, requestHeaders);
+        return new DefaultResourceDataRequest(action, uri, abstractResource.getClass(), props, requestHeaders);
+    }
 
-        ResourceDataResult result = chain.filter(request);
+    private <R extends Resource> R toSavedResource(AbstractResource abstractResource, Class<? extends R> returnType, ResourceDataResult result) {
 
         Map<String,Object> data = result.getData();
 
@@ -485,7 +491,9 @@ public class DefaultDataStore implements InternalDataStore {
             @Override
             public ResourceDataResult filter(ResourceDataRequest request) {
                 Request deleteRequest = new DefaultRequest(HttpMethod.DELETE, requestHref);
-                execute(deleteRequest);
+                Response response = execute(deleteRequest);
+                //the body is not needed, but it may be the live connection stream:
+                close(response);
                 //delete requests have HTTP 204 (no content), so just create an empty body for the result:
                 return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), new HashMap<String, Object>());
             }
@@ -496,6 +504,149 @@ public class DefaultDataStore implements InternalDataStore {
         chain.filter(request);
     }
 
+    /* =====================================================================
+       Asynchronous Access
+       ===================================================================== */
+
+    /** @since 1.0.RC7.7 */
+    @Override
+    public <T extends Resource> ListenableFuture<T> getResourceAsync(String href, Class<T> clazz) {
+        return getResourceAsync(href, clazz, null);
+    }
+
+    /** @since 1.0.RC7.7 */
+    @Override
+    public <T extends Resource> ListenableFuture<T> getResourceAsync(String href, final Class<T> clazz, Map<String, Object> queryParameters) {
+        ResourceDataRequest request = createReadRequest(href, clazz, queryParameters);
+        return filterAsync(request, new ReadRequestHandler(), new ResultConverter<T>() {
+            @Override
+            public T convert(ResourceDataResult result) {
+                return instantiate(clazz, result.getData(), result.getUri().getQuery());
+            }
+        });
+    }
+
+    /** @since 1.0.RC7.7 */
+    @Override
+    public <T extends Resource & Saveable, R extends Resource> ListenableFuture<R> saveAsync(final T resource, final Class<? extends R> returnType) {
+        Assert.notNull(resource, "resource argument cannot be null.");
+        Assert.hasText(resource.getHref(), HREF_REQD_MSG);
+        ResourceDataRequest request = createSaveRequest(resource.getHref(), resource, null, returnType, null, false);
+        return filterAsync(request, new SaveRequestHandler(returnType), new ResultConverter<R>() {
+            @Override
+            public R convert(ResourceDataResult result) {
+                return toSavedResource((AbstractResource) resource, returnType, result);
+            }
+        });
+    }
+
+    /**
+     * Runs the filter chain for the specified request without blocking the calling thread on HTTP I/O.
+     * <p/>
+     * The chain is first run on the calling thread up to the point where the server must be contacted: if a filter
+     * (e.g. the cache) satisfies the request first, the returned future is already complete.  Otherwise the HTTP
+     * request is executed asynchronously and, once the response is available, the chain is run again on the thread
+     * that received it, this time completing with that response.  Both runs use the same request instance, so any
+     * query parameters added by a filter during the first run are seen by the second (see
+     * {@link #ensureQuery(ResourceDataRequest)}).
+     * <p/>
+     * The first run ends by throwing a {@link PendingRequestSignal} carrying the request to send: the filters only
+     * see a chain that never returns a result, so none of them caches or transforms anything for that run.  The second
+     * run does not consult the cache, and the response body (possibly the live connection stream) is closed if the
+     * chain fails before reading it, so the connection is always released.
+     * <p/>
+     * If the {@link RequestExecutor} is not an {@link AsyncRequestExecutor}, the request is executed synchronously and
+     * an already-completed future is returned.
+     *
+     * @since 1.0.RC7.7
+     */
+    private <T> ListenableFuture<T> filterAsync(ResourceDataRequest request, final RequestHandler handler,
+                                               final ResultConverter<T> converter) {
+
+        final SettableFuture<T> future = new SettableFuture<T>();
+
+        if (!(this.requestExecutor instanceof AsyncRequestExecutor)) {
+            try {
+                FilterChain chain = new DefaultFilterChain(this.asyncFilters, new ExecutingFilterChain(handler));
+                future.set(converter.convert(chain.filter(request)));
+            } catch (Throwable t) {
+                future.setException(t);
+            }
+            return future;
+        }
+
+        final ResourceDataRequest req = ensureQuery(request);
+
+        ResourceDataRequest pending;
+        try {
+            FilterChain chain = new DefaultFilterChain(this.asyncFilters, new FilterChain() {
+                @Override
+                public ResourceDataResult filter(ResourceDataRequest request) {
+                    throw new PendingRequestSignal(request);
+                }
+            });
+            future.set(converter.convert(chain.filter(req)));
+            return future;
+        } catch (PendingRequestSignal signal) {
+            pending = signal.request;
+        } catch (Throwable t) {
+            future.setException(t);
+            return future;
+        }
+
+        Request httpRequest = handler.createRequest(pending);
+        applyDefaultRequestHeaders(httpRequest);
+
+        ((AsyncRequestExecutor) this.requestExecutor).executeRequestAsync(httpRequest).addCallback(new FutureCallback<Response>() {
+            @Override
+            public void onSuccess(final Response response) {
+                log.trace("Executed asynchronous HTTP request.");
+                try {
+                    //an error response body is read (and closed) to create the exception:
+                    assertSuccessful(response);
+                } catch (Throwable t) {
+                    future.setException(t);
+                    return;
+                }
+                ResponseFilterChain terminal = new ResponseFilterChain(handler, response);
+                try {
+                    FilterChain chain = new DefaultFilterChain(asyncResponseFilters, terminal);
+                    future.set(converter.convert(chain.filter(req)));
+                } catch (Throwable t) {
+                    future.setException(t);
+                } finally {
+                    if (!terminal.consumed) {
+                        close(response);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.setException(t);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Filters may add query parameters to a request (e.g. the {@link ApiKeyQueryFilter}).  They do so in place when
+     * the request already has a query, so we ensure one exists to have the asynchronous filter runs agree on the
+     * parameters sent to the server.  An empty query is equivalent to no query for all other purposes.
+     *
+     * @since 1.0.RC7.7
+     */
+    private ResourceDataRequest ensureQuery(ResourceDataRequest request) {
+        CanonicalUri uri = request.getUri();
+        if (uri.hasQuery()) {
+            return request;
+        }
+        uri = new DefaultCanonicalUri(uri.getAbsolutePath(), new QueryString());
+        return new DefaultResourceDataRequest(request.getAction(), uri, request.getResourceClass(), request.getData(),
+                                              request.getHttpHeaders());
+    }
+
     /* =====================================================================
        Resource Caching
        ===================================================================== */
@@ -507,6 +658,38 @@ public class DefaultDataStore implements InternalDataStore {
         return this.cacheManager != null && !(this.cacheManager instanceof DisabledCacheManager);
     }
 
+    /**
+     * Collection pages are cached only for the collection types having a cache region explicitly configured, e.g.
+     * {@code Caches.forResource(AccountList.class)}.  Only the {@link DefaultCacheManager} exposes its configured
+     * regions, so collections are never cached with other {@code CacheManager} implementations.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<Class<? extends CollectionResource>> getCachedCollectionTypes(CacheManager cacheManager) {
+
+        if (!(cacheManager instanceof DefaultCacheManager)) {
+            return java.util.Collections.emptySet();
+        }
+
+        Set<Class<? extends CollectionResource>> types = new LinkedHashSet<Class<? extends CollectionResource>>();
+
+        for (String name : ((DefaultCacheManager) cacheManager).getCacheConfigurationNames()) {
+            if (Classes.isAvailable(name)) {
+                Class clazz = Classes.forName(name);
+                if (clazz.isInterface() && CollectionResource.class.isAssignableFrom(clazz)) {
+                    types.add(clazz);
+                }
+            }
+        }
+
+        if (!types.isEmpty()) {
+            log.debug("Collection caching enabled for {}", types);
+        }
+
+        return types;
+    }
+
     /**
      * @since 1.0.beta
      */
@@ -517,13 +700,20 @@ public class DefaultDataStore implements InternalDataStore {
         Response response = this.requestExecutor.executeRequest(request);
         log.trace("Executed HTTP request.");
 
+        assertSuccessful(response);
+
+        return response;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    private void assertSuccessful(Response response) throws ResourceException {
         if (response.isError()) {
             Map<String, Object> body = getBody(response);
             DefaultError error = new DefaultError(body);
             throw new ResourceException(error);
         }
-
-        return response;
     }
 
     private Map<String, Object> getBody(Response response) {
@@ -539,6 +729,20 @@ public class DefaultDataStore implements InternalDataStore {
         return out;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    private static void close(Response response) {
+        InputStream body = response.getBody();
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                log.debug("Unable to close response body: {}", e.getMessage());
+            }
+        }
+    }
+
     protected void applyDefaultRequestHeaders(Request request) {
         request.getHeaders().setAccept(java.util.Collections.singletonList(MediaType.APPLICATION_JSON));
         request.getHeaders().set("User-Agent", USER_AGENT_STRING);
@@ -606,4 +810,162 @@ public class DefaultDataStore implements InternalDataStore {
             return null;
         }
     }
+
+    /**
+     * Creates the HTTP request for the final step of a filter chain, and the chain's result from the HTTP response.
+     *
+     * @since 1.0.RC7.7
+     */
+    private interface RequestHandler {
+
+        Request createRequest(ResourceDataRequest request);
+
+        ResourceDataResult createResult(ResourceDataRequest request, Response response);
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    private interface ResultConverter<T> {
+
+        T convert(ResourceDataResult result);
+    }
+
+    /**
+     * The final step of a synchronous filter chain: executes the HTTP request and waits for the response.
+     *
+     * @since 1.0.RC7.7
+     */
+    private class ExecutingFilterChain implements FilterChain {
+
+        private final RequestHandler handler;
+
+        private ExecutingFilterChain(RequestHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public ResourceDataResult filter(ResourceDataRequest request) {
+            Response response = execute(handler.createRequest(request));
+            return handler.createResult(request, response);
+        }
+    }
+
+    /**
+     * The final step of the second asynchronous filter run: creates the result from the response received.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static class ResponseFilterChain implements FilterChain {
+
+        private final RequestHandler handler;
+        private final Response response;
+        private boolean consumed;
+
+        private ResponseFilterChain(RequestHandler handler, Response response) {
+            this.handler = handler;
+            this.response = response;
+        }
+
+        @Override
+        public ResourceDataResult filter(ResourceDataRequest request) {
+            //the handler reads (and closes) the body, even if it fails:
+            consumed = true;
+            return handler.createResult(request, response);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    private class ReadRequestHandler implements RequestHandler {
+
+        @Override
+        public Request createRequest(ResourceDataRequest req) {
+            CanonicalUri uri = req.getUri();
+            return new DefaultRequest(HttpMethod.GET, uri.getAbsolutePath(), uri.getQuery());
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public ResourceDataResult createResult(ResourceDataRequest req, Response response) {
+            Map<String,?> body = getBody(response);
+
+            if (Collections.isEmpty(body)) {
+                throw new IllegalStateException("Unable to obtain resource data from the API server or from cache.");
+            }
+
+            return new DefaultResourceDataResult(req.getAction(), req.getUri(), req.getResourceClass(), (Map<String,Object>)body);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    private class SaveRequestHandler implements RequestHandler {
+
+        private final Class<? extends Resource> returnType;
+
+        private SaveRequestHandler(Class<? extends Resource> returnType) {
+            this.returnType = returnType;
+        }
+
+        @Override
+        public Request createRequest(ResourceDataRequest req) {
+            String bodyString;
+            if (req.getHttpHeaders().getContentType() != null && req.getHttpHeaders().getContentType().equals(MediaType.APPLICATION_FORM_URLENCODED)){
+                bodyString = buildCanonicalBodyQueryParams(req.getData());
+            } else {
+
+                bodyString = mapMarshaller.marshal(req.getData());
+            }
+            StringInputStream body = new StringInputStream(bodyString);
+            long length = body.available();
+
+            CanonicalUri uri = req.getUri();
+            String href = uri.getAbsolutePath();
+            QueryString qs = uri.getQuery();
+
+            HttpHeaders httpHeaders = req.getHttpHeaders();
+            return new DefaultRequest(HttpMethod.POST, href, qs, httpHeaders, body, length);
+        }
+
+        @Override
+        public ResourceDataResult createResult(ResourceDataRequest req, Response response) {
+            Map<String, Object> responseBody = getBody(response);
+
+            if (Collections.isEmpty(responseBody)) {
+                // Fix for https://github.com/stormpath/stormpath-sdk-java/issues/218
+                if ( response.getHttpStatus() == 202 ) { //202 means that the request has been accepted for processing, but the processing has not been completed. Therefore we do not have a response body.
+                    responseBody = java.util.Collections.emptyMap();
+                } else {
+                    throw new IllegalStateException("Unable to obtain resource data from the API server.");
+                }
+            }
+
+            ResourceAction responseAction = getPostAction(req, response);
+
+            return new DefaultResourceDataResult(responseAction, req.getUri(), returnType, responseBody);
+        }
+    }
+
+    /**
+     * Thrown by the final step of the first asynchronous filter run to unwind the chain once the request that must be
+     * sent to the server is known.  It never escapes {@link #filterAsync}.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static class PendingRequestSignal extends RuntimeException {
+
+        private final ResourceDataRequest request;
+
+        private PendingRequestSignal(ResourceDataRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this; //used for control flow only, a stack trace is never needed
+        }
+    }
 }
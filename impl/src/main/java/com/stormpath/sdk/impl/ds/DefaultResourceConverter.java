@@ -17,6 +17,8 @@ package com.stormpath.sdk.impl.ds;
 
 import com.stormpath.sdk.directory.CustomData;
 import com.stormpath.sdk.impl.resource.AbstractResource;
+import com.stormpath.sdk.impl.resource.MapProperty;
+import com.stormpath.sdk.impl.resource.Property;
 import com.stormpath.sdk.impl.resource.ReferenceFactory;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Collections;
@@ -97,7 +99,7 @@ public class DefaultResourceConverter implements ResourceConverter {
         if (value instanceof Map) {
             //Since defaultModel is a map, the DataStore thinks it is a Resource. This causes the code to crash later one as Resources
             //do need to have an href property
-            if (resource instanceof ModeledEmailTemplate && propName.equals("defaultModel")) {
+            if (isMapProperty(resource, propName)) {
                 return value;
             } else {
                 //if the property is a reference, don't write the entire object - just the href will do:
@@ -113,4 +115,15 @@ public class DefaultResourceConverter implements ResourceConverter {
 
         return value;
     }
+
+    /**
+     * Returns {@code true} if the property is declared as a plain map (e.g. a {@link ModeledEmailTemplate}'s
+     * {@code defaultModel}) rather than a reference to another resource.
+     *
+     * @since 1.0.RC7.7
+     */
+    private boolean isMapProperty(AbstractResource resource, String propName) {
+        Property property = ResourceMetadataRegistry.getMetadata(resource.getClass()).getPropertyDescriptor(propName);
+        return property instanceof MapProperty;
+    }
 }
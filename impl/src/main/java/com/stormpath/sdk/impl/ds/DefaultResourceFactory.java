@@ -47,27 +47,20 @@ public class DefaultResourceFactory implements ResourceFactory {
             throw new NullPointerException("Resource class cannot be null.");
         }
 
-        Class<T> implClass = getImplementationClass(clazz);
+        ResourceMetadata<T> metadata = ResourceMetadataRegistry.getMetadata(clazz);
 
         Object[] ctorArgs = createConstructorArgs(constructorArgs);
 
-        Constructor<T> ctor;
-
-        if (ctorArgs.length == 1) {
-            ctor = Classes.getConstructor(implClass, InternalDataStore.class);
-        } else if (ctorArgs.length == 2) {
-            ctor = Classes.getConstructor(implClass, InternalDataStore.class, Map.class);
-        } else {
-            //collection resource - we want to retain the query parameters (3rd ctor argument):
-            ctor = Classes.getConstructor(implClass, InternalDataStore.class, Map.class, Map.class);
-        }
+        //1 arg: the data store, 2 args: plus the properties, 3 args: collection resource - we want to retain the
+        //query parameters (3rd ctor argument):
+        Constructor<T> ctor = metadata.getConstructor(Math.min(ctorArgs.length, 3));
 
         return Classes.instantiate(ctor, ctorArgs);
     }
 
     public static <T extends Resource> Class<T> getImplementationClass(Class<T> clazz) {
         if (clazz.isInterface()) {
-            return convertToImplClass(clazz);
+            return ResourceMetadataRegistry.getMetadata(clazz).getImplementationClass();
         }
         return clazz;
     }
@@ -76,7 +69,7 @@ public class DefaultResourceFactory implements ResourceFactory {
         if (clazz.isInterface()) {
             return clazz;
         }
-        return convertToInterfaceClass(clazz);
+        return ResourceMetadataRegistry.getMetadata(clazz).getInterfaceClass();
     }
 
     static <T extends Resource> Class<T> convertToInterfaceClass(Class<T> clazz) {
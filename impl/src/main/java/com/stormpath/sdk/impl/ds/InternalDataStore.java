@@ -15,9 +15,11 @@
  */
 package com.stormpath.sdk.impl.ds;
 
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
 import com.stormpath.sdk.ds.DataStore;
 import com.stormpath.sdk.impl.ds.cache.CacheResolver;
 import com.stormpath.sdk.impl.http.HttpHeaders;
+import com.stormpath.sdk.impl.util.ListenableFuture;
 import com.stormpath.sdk.query.Criteria;
 import com.stormpath.sdk.query.Options;
 import com.stormpath.sdk.resource.Resource;
@@ -69,4 +71,35 @@ public interface InternalDataStore extends DataStore {
 
     CacheResolver getCacheResolver();
 
+    /**
+     * Returns the cache of recently verified API Keys, invalidated by this data store whenever a resource is modified
+     * or deleted.
+     *
+     * @since 1.0.RC7.7
+     */
+    ApiKeyAuthenticationCache getApiKeyAuthenticationCache();
+
+    /**
+     * Retrieves the resource at the specified {@code href} without blocking the calling thread on HTTP I/O.
+     *
+     * @since 1.0.RC7.7
+     */
+    <T extends Resource> ListenableFuture<T> getResourceAsync(String href, Class<T> clazz);
+
+    /**
+     * Retrieves the resource at the specified {@code href} without blocking the calling thread on HTTP I/O.
+     *
+     * @since 1.0.RC7.7
+     */
+    <T extends Resource> ListenableFuture<T> getResourceAsync(String href, Class<T> clazz, Map<String,Object> queryParameters);
+
+    /**
+     * Persists the specified resource without blocking the calling thread on HTTP I/O.  As with
+     * {@link #save(Resource, Class)}, the resource's properties are updated with the server's response once the
+     * returned future completes, if the {@code returnType} is the resource's type.
+     *
+     * @since 1.0.RC7.7
+     */
+    <T extends Resource & Saveable, R extends Resource> ListenableFuture<R> saveAsync(T resource, Class<? extends R> returnType);
+
 }
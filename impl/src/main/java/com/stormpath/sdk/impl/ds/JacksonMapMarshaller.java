@@ -18,6 +18,7 @@ package com.stormpath.sdk.impl.ds;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.IOException;
@@ -30,13 +31,23 @@ import java.util.Map;
  */
 public class JacksonMapMarshaller implements MapMarshaller {
 
+    private static final TypeReference<LinkedHashMap<String,Object>> MAP_TYPE = new TypeReference<LinkedHashMap<String,Object>>(){};
+
     private ObjectMapper objectMapper;
 
+    /**
+     * Immutable and thread-safe, so it is created once instead of resolving the map type on every read.
+     *
+     * @since 1.0.RC7.7
+     */
+    private ObjectReader mapReader;
+
     private boolean prettyPrint = false;
 
     public JacksonMapMarshaller() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
+        this.mapReader = this.objectMapper.reader(MAP_TYPE);
     }
 
     public ObjectMapper getObjectMapper() {
@@ -45,6 +56,7 @@ public class JacksonMapMarshaller implements MapMarshaller {
 
     public void setObjectMapper(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
+        this.mapReader = objectMapper.reader(MAP_TYPE);
     }
 
     public boolean isPrettyPrint() {
@@ -67,20 +79,27 @@ public class JacksonMapMarshaller implements MapMarshaller {
     @Override
     public Map unmarshal(String marshalled) {
         try {
-            TypeReference<LinkedHashMap<String,Object>> typeRef = new TypeReference<LinkedHashMap<String,Object>>(){};
-            return this.objectMapper.readValue(marshalled, typeRef);
+            return this.mapReader.readValue(marshalled);
         } catch (IOException e) {
             throw new MarshalingException("Unable to convert JSON String to Map.", e);
         }
     }
 
+    /**
+     * Parses the stream incrementally, directly into the returned map, and closes it.  The stream may be the live
+     * HTTP response content: closing it releases the underlying connection, even if the JSON could not be parsed.
+     */
     @Override
     public Map<String, Object> unmarshall(InputStream marshalled) {
         try {
-            TypeReference<LinkedHashMap<String,Object>> typeRef = new TypeReference<LinkedHashMap<String,Object>>(){};
-            return this.objectMapper.readValue(marshalled, typeRef);
+            return this.mapReader.readValue(marshalled);
         } catch (IOException e) {
             throw new MarshalingException("Unable to convert InputStream String to Map.", e);
+        } finally {
+            try {
+                marshalled.close();
+            } catch (IOException ignored) {
+            }
         }
     }
 }
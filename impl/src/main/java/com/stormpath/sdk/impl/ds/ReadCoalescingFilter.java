@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds;
+
+import com.stormpath.sdk.impl.http.CanonicalUri;
+import com.stormpath.sdk.impl.http.HttpHeaders;
+import com.stormpath.sdk.impl.http.QueryString;
+import com.stormpath.sdk.impl.util.SettableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight filter for {@link ResourceAction#READ READ} requests: when several threads concurrently read the same
+ * resource (same href, canonical query and resource type), only the first one (the <em>leader</em>) continues down the
+ * filter chain and reaches the server.  The others wait for the leader to finish and receive its result, or the
+ * exception it failed with.
+ * <p/>
+ * This filter is placed right after the {@link com.stormpath.sdk.impl.ds.cache.ReadCacheFilter ReadCacheFilter} so
+ * that cache hits never wait on in-flight requests and the leader's response is written to the cache only once.  Each
+ * waiting caller receives its own deep copy of the data (nested resource maps and item lists included), taken from a
+ * snapshot of the leader's result, since upstream filters - in the leader's thread or in the waiters' ones - are free
+ * to modify it.
+ *
+ * @since 1.0.RC7.7
+ */
+public class ReadCoalescingFilter implements Filter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadCoalescingFilter.class);
+
+    private final ConcurrentMap<String, SettableFuture<ResourceDataResult>> inFlight;
+
+    private final AtomicLong executedCount = new AtomicLong();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public ReadCoalescingFilter() {
+        this.inFlight = new ConcurrentHashMap<String, SettableFuture<ResourceDataResult>>();
+    }
+
+    @Override
+    public ResourceDataResult filter(ResourceDataRequest request, FilterChain chain) {
+
+        if (!isCoalescable(request)) {
+            return chain.filter(request);
+        }
+
+        String key = getKey(request);
+
+        SettableFuture<ResourceDataResult> call = new SettableFuture<ResourceDataResult>();
+        SettableFuture<ResourceDataResult> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            log.trace("Coalescing read of '{}' with an in-flight request.", key);
+            return await(existing, request, chain);
+        }
+
+        executedCount.incrementAndGet();
+        try {
+            ResourceDataResult result = chain.filter(request);
+            //the leader's data is modified by upstream filters as soon as it is returned, so waiters copy a snapshot:
+            call.set(copy(result));
+            return result;
+        } catch (RuntimeException e) {
+            call.setException(e);
+            throw e;
+        } catch (Error e) {
+            call.setException(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private ResourceDataResult await(SettableFuture<ResourceDataResult> call, ResourceDataRequest request,
+                                     FilterChain chain) {
+        ResourceDataResult result;
+        try {
+            result = call.get();
+        } catch (InterruptedException e) {
+            //don't wait any longer, but let the caller still have its answer:
+            Thread.currentThread().interrupt();
+            return chain.filter(request);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to execute coalesced request: " + cause.getMessage(), cause);
+        }
+
+        return copy(result);
+    }
+
+    private static ResourceDataResult copy(ResourceDataResult result) {
+        Map<String, Object> data = result.getData();
+        if (data != null) {
+            data = copy(data);
+        }
+        return new DefaultResourceDataResult(result.getAction(), result.getUri(), result.getResourceClass(), data);
+    }
+
+    private static Map<String, Object> copy(Map<String, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<String, Object>(map.size());
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            return copy((Map<String, ?>) value);
+        }
+        if (value instanceof Collection) {
+            Collection<?> c = (Collection<?>) value;
+            List<Object> copy = new ArrayList<Object>(c.size());
+            for (Object element : c) {
+                copy.add(copyValue(element));
+            }
+            return copy;
+        }
+        //strings, numbers, booleans and nulls are immutable:
+        return value;
+    }
+
+    /**
+     * Only plain reads are coalesced: requests carrying their own headers may legitimately get a different response.
+     */
+    protected boolean isCoalescable(ResourceDataRequest request) {
+        if (request.getAction() != ResourceAction.READ) {
+            return false;
+        }
+        HttpHeaders headers = request.getHttpHeaders();
+        return headers == null || headers.isEmpty();
+    }
+
+    protected String getKey(ResourceDataRequest request) {
+        CanonicalUri uri = request.getUri();
+        StringBuilder sb = new StringBuilder(uri.getAbsolutePath());
+        if (uri.hasQuery()) {
+            QueryString query = uri.getQuery();
+            String canonical = query.toString(true);
+            if (canonical.length() > 0) {
+                sb.append('?').append(canonical);
+            }
+        }
+        return sb.append('#').append(request.getResourceClass().getName()).toString();
+    }
+
+    /**
+     * Returns the number of read requests that continued down the filter chain on behalf of all concurrent callers.
+     *
+     * @return the number of read requests that continued down the filter chain on behalf of all concurrent callers.
+     */
+    public long getExecutedRequestCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Returns the number of read requests that were satisfied by an identical request already in flight.
+     *
+     * @return the number of read requests that were satisfied by an identical request already in flight.
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedCount.get();
+    }
+}
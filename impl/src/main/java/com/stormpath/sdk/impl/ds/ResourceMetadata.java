@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds;
+
+import com.stormpath.sdk.impl.resource.ArrayProperty;
+import com.stormpath.sdk.impl.resource.Property;
+import com.stormpath.sdk.impl.resource.ResourceReference;
+import com.stormpath.sdk.lang.Classes;
+import com.stormpath.sdk.resource.Resource;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reflective information about a {@link Resource} type: its interface and implementation classes, the constructors
+ * used to instantiate it and its property descriptors.  Each piece of information is resolved the first time it is
+ * needed and then retained; instances are obtained from the {@link ResourceMetadataRegistry}.
+ *
+ * @since 1.0.RC7.7
+ */
+public class ResourceMetadata<T extends Resource> {
+
+    private final Class<T> type;
+
+    //all lazily resolved: resolving twice concurrently is harmless since the results are identical
+    private volatile Class<T> interfaceClass;
+    private volatile Class<T> implementationClass;
+    private volatile Map<String, Property> propertyDescriptors;
+    private volatile Map<String, ResourceReference> referenceProperties;
+    private volatile Map<String, ArrayProperty> arrayProperties;
+
+    private final AtomicReferenceArray<Constructor<T>> constructors;
+
+    ResourceMetadata(Class<T> type) {
+        this.type = type;
+        this.constructors = new AtomicReferenceArray<Constructor<T>>(3);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public Class<T> getInterfaceClass() {
+        Class<T> clazz = interfaceClass;
+        if (clazz == null) {
+            clazz = type.isInterface() ? type : DefaultResourceFactory.convertToInterfaceClass(type);
+            interfaceClass = clazz;
+        }
+        return clazz;
+    }
+
+    public Class<T> getImplementationClass() {
+        Class<T> clazz = implementationClass;
+        if (clazz == null) {
+            clazz = type.isInterface() ? DefaultResourceFactory.convertToImplClass(type) : type;
+            implementationClass = clazz;
+        }
+        return clazz;
+    }
+
+    /**
+     * Returns the implementation class constructor accepting the data store followed by {@code argCount - 1} maps:
+     * the resource properties and, for collections, the query parameters.
+     *
+     * @param argCount the number of constructor arguments, from 1 to 3
+     * @return the implementation class constructor accepting {@code argCount} arguments.
+     */
+    public Constructor<T> getConstructor(int argCount) {
+        Constructor<T> ctor = constructors.get(argCount - 1);
+        if (ctor == null) {
+            Class<T> implClass = getImplementationClass();
+            if (argCount == 1) {
+                ctor = Classes.getConstructor(implClass, InternalDataStore.class);
+            } else if (argCount == 2) {
+                ctor = Classes.getConstructor(implClass, InternalDataStore.class, Map.class);
+            } else {
+                ctor = Classes.getConstructor(implClass, InternalDataStore.class, Map.class, Map.class);
+            }
+            constructors.set(argCount - 1, ctor);
+        }
+        return ctor;
+    }
+
+    /**
+     * Returns the implementation class' {@code PROPERTY_DESCRIPTORS}, keyed by property name.
+     *
+     * @return the implementation class' {@code PROPERTY_DESCRIPTORS}, keyed by property name.
+     * @throws IllegalStateException if the implementation class does not declare them.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Property> getPropertyDescriptors() {
+        Map<String, Property> descriptors = propertyDescriptors;
+        if (descriptors == null) {
+            Class<T> implClass = getImplementationClass();
+            Field field = findPropertyDescriptorsField(implClass);
+            try {
+                field.setAccessible(true);
+                descriptors = Collections.unmodifiableMap((Map<String, Property>) field.get(null));
+            } catch (Exception e) {
+                throw new IllegalStateException(
+                    "Unable to access PROPERTY_DESCRIPTORS static field on implementation class " + type.getName(), e);
+            }
+            propertyDescriptors = descriptors;
+        }
+        return descriptors;
+    }
+
+    public Property getPropertyDescriptor(String name) {
+        return getPropertyDescriptors().get(name);
+    }
+
+    /**
+     * Returns the properties referencing other resources, keyed by property name.
+     *
+     * @return the properties referencing other resources, keyed by property name.
+     */
+    public Map<String, ResourceReference> getReferenceProperties() {
+        Map<String, ResourceReference> props = referenceProperties;
+        if (props == null) {
+            props = filter(ResourceReference.class);
+            referenceProperties = props;
+        }
+        return props;
+    }
+
+    /**
+     * Returns the properties holding arrays of resources (e.g. collection {@code items}), keyed by property name.
+     *
+     * @return the properties holding arrays of resources, keyed by property name.
+     */
+    public Map<String, ArrayProperty> getArrayProperties() {
+        Map<String, ArrayProperty> props = arrayProperties;
+        if (props == null) {
+            props = filter(ArrayProperty.class);
+            arrayProperties = props;
+        }
+        return props;
+    }
+
+    private <P extends Property> Map<String, P> filter(Class<P> propertyType) {
+        Map<String, P> props = new LinkedHashMap<String, P>();
+        for (Property property : getPropertyDescriptors().values()) {
+            if (propertyType.isInstance(property)) {
+                props.put(property.getName(), propertyType.cast(property));
+            }
+        }
+        return Collections.unmodifiableMap(props);
+    }
+
+    private Field findPropertyDescriptorsField(Class<?> implClass) {
+        for (Class<?> c = implClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField("PROPERTY_DESCRIPTORS");
+            } catch (NoSuchFieldException ignored) {
+                //try the parent class
+            }
+        }
+        throw new IllegalStateException(
+            "Unable to access PROPERTY_DESCRIPTORS static field on implementation class " + type.getName());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds;
+
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.resource.Resource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoizes the {@link ResourceMetadata} of every {@link Resource} type (interface or implementation class), so the
+ * class name conversions and reflective lookups needed to instantiate, cache and convert resources happen once per
+ * type instead of once per call.
+ *
+ * @since 1.0.RC7.7
+ */
+public final class ResourceMetadataRegistry {
+
+    private static final ConcurrentMap<Class<?>, ResourceMetadata<?>> METADATA =
+        new ConcurrentHashMap<Class<?>, ResourceMetadata<?>>();
+
+    private ResourceMetadataRegistry() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Resource> ResourceMetadata<T> getMetadata(Class<T> clazz) {
+        Assert.notNull(clazz, "Resource class cannot be null.");
+        ResourceMetadata<T> metadata = (ResourceMetadata<T>) METADATA.get(clazz);
+        if (metadata == null) {
+            metadata = new ResourceMetadata<T>(clazz);
+            ResourceMetadata<T> existing = (ResourceMetadata<T>) METADATA.putIfAbsent(clazz, metadata);
+            if (existing != null) {
+                metadata = existing;
+            }
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds.api;
+
+import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.api.ApiKey;
+import com.stormpath.sdk.application.Application;
+import com.stormpath.sdk.impl.api.ApiKeyAuthenticationCache;
+import com.stormpath.sdk.impl.ds.Filter;
+import com.stormpath.sdk.impl.ds.FilterChain;
+import com.stormpath.sdk.impl.ds.ResourceAction;
+import com.stormpath.sdk.impl.ds.ResourceDataRequest;
+import com.stormpath.sdk.impl.ds.ResourceDataResult;
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.resource.Resource;
+
+/**
+ * Invalidates the {@link ApiKeyAuthenticationCache} verdicts involving an API Key, account or application modified or
+ * deleted through the data store, for example an API Key being disabled or an account being deleted.  Writes to other
+ * resources can't change a verdict and are ignored.
+ *
+ * @since 1.0.RC7.7
+ */
+public class ApiKeyAuthenticationCacheFilter implements Filter {
+
+    private final ApiKeyAuthenticationCache cache;
+
+    public ApiKeyAuthenticationCacheFilter(ApiKeyAuthenticationCache cache) {
+        Assert.notNull(cache, "ApiKeyAuthenticationCache cannot be null.");
+        this.cache = cache;
+    }
+
+    @Override
+    public ResourceDataResult filter(ResourceDataRequest request, FilterChain chain) {
+
+        if (request.getAction() == ResourceAction.READ || !cache.isEnabled() ||
+            !isVerdictResource(request.getResourceClass())) {
+            return chain.filter(request);
+        }
+
+        String href = request.getUri().getAbsolutePath();
+
+        //Invalidating before the write stops verdicts on the old state from being used while it is in flight.  An
+        //authentication that read the old state before an invalidation can't record it afterwards; invalidating again
+        //once the write completed covers the reads made in between:
+        cache.invalidate(href);
+        try {
+            return chain.filter(request);
+        } finally {
+            cache.invalidate(href);
+        }
+    }
+
+    private static boolean isVerdictResource(Class<? extends Resource> clazz) {
+        return clazz != null && (ApiKey.class.isAssignableFrom(clazz) || Account.class.isAssignableFrom(clazz) ||
+                                 Application.class.isAssignableFrom(clazz));
+    }
+}
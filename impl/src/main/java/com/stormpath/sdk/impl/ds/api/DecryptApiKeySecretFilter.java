@@ -28,20 +28,41 @@ import com.stormpath.sdk.impl.ds.ResourceDataRequest;
 import com.stormpath.sdk.impl.ds.ResourceDataResult;
 import com.stormpath.sdk.impl.security.ApiKeySecretEncryptionService;
 import com.stormpath.sdk.impl.security.EncryptionService;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
+import com.stormpath.sdk.impl.util.SharedExecutors;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.resource.Resource;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
+ * Decrypts the secrets of the {@link ApiKey}s read through the DataStore.
+ * <p/>
+ * Deriving a decryption key (PBKDF2 with the server-specified salt, iterations and key size) is by far the most
+ * expensive part of decrypting a secret, so derived keys are retained (up to a maximum number, least recently used
+ * keys are discarded first) and reused for all secrets encrypted with the same parameters.  When a page of an
+ * {@link ApiKeyList} requires more than one key that has not been derived yet, those keys are derived in parallel on
+ * the SDK's {@link SharedExecutors shared} threads, as far as they are available.
+ *
  * @since 1.0.RC
  */
 public class DecryptApiKeySecretFilter implements Filter {
 
+    /**
+     * Default maximum number of derived decryption keys retained: 1000.
+     *
+     * @since 1.0.RC7.7
+     */
+    public static final int DEFAULT_MAX_CACHED_KEYS = 1000;
+
     private static String ENCRYPTION_KEY_SALT = ApiKeyParameter.ENCRYPTION_KEY_SALT.getName();
     private static String ENCRYPTION_KEY_SIZE = ApiKeyParameter.ENCRYPTION_KEY_SIZE.getName();
     private static String ENCRYPTION_KEY_ITERATIONS = ApiKeyParameter.ENCRYPTION_KEY_ITERATIONS.getName();
@@ -51,9 +72,23 @@ public class DecryptApiKeySecretFilter implements Filter {
 
     private final String SECRET_PROPERTY_NAME = DefaultApiKey.SECRET.getName();
 
+    //keyed by salt, iterations and key size; futures so concurrent readers of the same key derive it only once:
+    private final BoundedConcurrentMap<String, Derivation> encryptionServices;
+
     public DecryptApiKeySecretFilter(ApiKey clientApiKey) {
+        this(clientApiKey, DEFAULT_MAX_CACHED_KEYS);
+    }
+
+    /**
+     * @param clientApiKey  the client's ApiKey, the password of the decryption keys
+     * @param maxCachedKeys the maximum number of derived decryption keys retained
+     * @since 1.0.RC7.7
+     */
+    public DecryptApiKeySecretFilter(ApiKey clientApiKey, int maxCachedKeys) {
         Assert.notNull(clientApiKey);
+        Assert.isTrue(maxCachedKeys > 0, "maxCachedKeys must be greater than zero.");
         this.clientApiKey = clientApiKey;
+        this.encryptionServices = new BoundedConcurrentMap<String, Derivation>(maxCachedKeys);
     }
 
     @Override
@@ -82,10 +117,13 @@ public class DecryptApiKeySecretFilter implements Filter {
                 return result;
             }
 
+            List<Derivation> services = getEncryptionServices(items);
+
             List<Map<String, Object>> clonedItems = new ArrayList<Map<String, Object>>(items.size());
 
+            int i = 0;
             for (Map<String, Object> item : items) {
-                clonedItems.add(clone(item));
+                clonedItems.add(clone(item, services.get(i++)));
             }
 
             data.put(DefaultApiKeyList.ITEMS_PROPERTY_NAME, clonedItems);
@@ -93,24 +131,121 @@ public class DecryptApiKeySecretFilter implements Filter {
             return result;
         }
 
-        return new DefaultResourceDataResult(result.getAction(), result.getUri(), clazz, clone(data));
+        Derivation service = getEncryptionServices(Collections.singletonList(data)).get(0);
+
+        return new DefaultResourceDataResult(result.getAction(), result.getUri(), clazz, clone(data, service));
+    }
+
+    /**
+     * Returns the (future) services able to decrypt the secrets of the specified ApiKey data, in the same order.  All
+     * services are obtained first, so keys that still have to be derived can be derived in parallel.
+     */
+    private List<Derivation> getEncryptionServices(Collection<Map<String, Object>> items) {
+        List<Derivation> derivations = new ArrayList<Derivation>();
+        List<Derivation> services = new ArrayList<Derivation>(items.size());
+        boolean derived = false;
+        try {
+            for (Map<String, Object> item : items) {
+                services.add(getEncryptionService(item, derivations));
+            }
+            derive(derivations);
+            derived = true;
+        } finally {
+            if (!derived) {
+                abandon(derivations);
+            }
+        }
+        return services;
     }
 
-    private Map<String, Object> clone(Map<String, Object> input) {
+    /**
+     * Returns the (future) service able to decrypt the specified ApiKey data's secret, or {@code null} if the secret is
+     * not encrypted.  If the service's key has not been derived yet, the derivation is added to the specified list and
+     * must be {@link #derive(List) run} by the caller.
+     */
+    private Derivation getEncryptionService(Map<String, Object> input, List<Derivation> derivations) {
 
         if (!input.containsKey(ENCRYPTION_METADATA)) {
-            return input;
+            return null;
         }
 
         @SuppressWarnings("unchecked")
         Map<String, Object> metadata = (Map<String, Object>) input.get(ENCRYPTION_METADATA);
 
-        byte[] base64Salt = ((String) metadata.get(ENCRYPTION_KEY_SALT)).getBytes();
-        Integer iterations = (Integer) metadata.get(ENCRYPTION_KEY_ITERATIONS);
-        Integer size = (Integer) metadata.get(ENCRYPTION_KEY_SIZE);
+        final String base64Salt = (String) metadata.get(ENCRYPTION_KEY_SALT);
+        final Integer iterations = (Integer) metadata.get(ENCRYPTION_KEY_ITERATIONS);
+        final Integer size = (Integer) metadata.get(ENCRYPTION_KEY_SIZE);
+
+        String cacheKey = base64Salt + ':' + iterations + ':' + size;
+
+        Derivation service = encryptionServices.get(cacheKey);
+        if (service == null) {
+            Derivation derivation = new Derivation(cacheKey, new Callable<EncryptionService>() {
+                @Override
+                public EncryptionService call() throws Exception {
+                    return new ApiKeySecretEncryptionService.Builder().setPassword(clientApiKey.getSecret().toCharArray()).setKeySize(size)
+                            .setIterations(iterations).setBase64Salt(base64Salt.getBytes()).build();
+                }
+            });
+            service = encryptionServices.putIfAbsent(cacheKey, derivation);
+            if (service == null) {
+                service = derivation;
+                derivations.add(derivation);
+            }
+        }
+        return service;
+    }
+
+    private static void derive(List<Derivation> derivations) {
+        int last = derivations.size() - 1;
+        for (int i = 0; i < last; i++) {
+            SharedExecutors.getAsyncExecutor().execute(derivations.get(i));
+        }
+        if (last >= 0) {
+            //no need to wait for another thread for the last (usually the only) one:
+            derivations.get(last).run();
+        }
+    }
+
+    /**
+     * Completes and unpublishes derivations registered by a read that failed before running them all: other threads
+     * may already be waiting for them, and would otherwise wait forever.
+     */
+    private void abandon(List<Derivation> derivations) {
+        for (Derivation derivation : derivations) {
+            //no-op if it has already been run (or is running) by the executor:
+            derivation.run();
+            encryptionServices.remove(derivation.cacheKey, derivation);
+        }
+    }
+
+    private EncryptionService getEncryptionService(Derivation service) {
+        //the shared executor may be busy with other tasks, so derive the key here if it hasn't been started yet (this
+        //is a no-op otherwise):
+        service.run();
+        try {
+            return service.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ApiKey secret decryption key.", e);
+        } catch (ExecutionException e) {
+            //do not retain the failure, a later read will try again:
+            encryptionServices.remove(service.cacheKey, service);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Unable to derive the ApiKey secret decryption key.", cause);
+        }
+    }
+
+    private Map<String, Object> clone(Map<String, Object> input, Derivation encryptionService) {
+
+        if (encryptionService == null) {
+            return input;
+        }
 
-        EncryptionService service = new ApiKeySecretEncryptionService.Builder().setPassword(clientApiKey.getSecret().toCharArray()).setKeySize(size)
-                .setIterations(iterations).setBase64Salt(base64Salt).build();
+        EncryptionService service = getEncryptionService(encryptionService);
 
         String encryptedSecret = (String) input.get(SECRET_PROPERTY_NAME);
 
@@ -135,4 +270,13 @@ public class DecryptApiKeySecretFilter implements Filter {
         return clonedData;
     }
 
+    private static class Derivation extends FutureTask<EncryptionService> {
+
+        private final String cacheKey;
+
+        private Derivation(String cacheKey, Callable<EncryptionService> callable) {
+            super(callable);
+            this.cacheKey = cacheKey;
+        }
+    }
 }
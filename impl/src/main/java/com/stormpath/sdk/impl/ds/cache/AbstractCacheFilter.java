@@ -15,9 +15,11 @@
  */
 package com.stormpath.sdk.impl.ds.cache;
 
+import com.stormpath.sdk.api.ApiKeyList;
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.impl.ds.Filter;
 import com.stormpath.sdk.impl.ds.ResourceDataRequest;
+import com.stormpath.sdk.impl.ds.ResourceMetadataRegistry;
 import com.stormpath.sdk.impl.http.CanonicalUri;
 import com.stormpath.sdk.impl.http.QueryString;
 import com.stormpath.sdk.lang.Assert;
@@ -26,20 +28,62 @@ import com.stormpath.sdk.resource.CollectionResource;
 import com.stormpath.sdk.resource.Resource;
 
 import java.util.Map;
+import java.util.Set;
 
 abstract class AbstractCacheFilter implements Filter {
 
     private final CacheResolver cacheResolver;
-    private final boolean collectionCachingEnabled; //DEVELOPMENT PURPOSES ONLY! DOES NOT WORK FOR PRODUCTION!
+    private final Set<Class<? extends CollectionResource>> cachedCollectionTypes; //null: all collection types
 
+    /**
+     * @param resolver                 the resolver of the cache regions
+     * @param collectionCachingEnabled whether the pages of all collection types may be cached
+     * @deprecated since 1.0.RC7.7, use {@link #AbstractCacheFilter(CacheResolver, Set)} to enable collection caching
+     * per collection type.
+     */
+    @Deprecated
     protected AbstractCacheFilter(CacheResolver resolver, boolean collectionCachingEnabled) {
         Assert.notNull(resolver, "cacheResolver cannot be null.");
         this.cacheResolver = resolver;
-        this.collectionCachingEnabled = collectionCachingEnabled;
+        this.cachedCollectionTypes =
+            collectionCachingEnabled ? null : java.util.Collections.<Class<? extends CollectionResource>>emptySet();
     }
 
+    /**
+     * @param resolver              the resolver of the cache regions
+     * @param cachedCollectionTypes the collection resource interfaces whose pages may be cached, may be empty.
+     * @since 1.0.RC7.7
+     */
+    protected AbstractCacheFilter(CacheResolver resolver, Set<Class<? extends CollectionResource>> cachedCollectionTypes) {
+        Assert.notNull(resolver, "cacheResolver cannot be null.");
+        Assert.notNull(cachedCollectionTypes, "cachedCollectionTypes cannot be null.");
+        this.cacheResolver = resolver;
+        this.cachedCollectionTypes = cachedCollectionTypes;
+    }
+
+    /**
+     * Returns {@code true} if pages of at least one collection type may be cached, {@code false} otherwise.
+     *
+     * @since 1.0.RC7.7
+     */
     protected boolean isCollectionCachingEnabled() {
-        return collectionCachingEnabled;
+        return cachedCollectionTypes == null || !cachedCollectionTypes.isEmpty();
+    }
+
+    /**
+     * Returns {@code true} if pages of the specified collection type may be cached, {@code false} otherwise (including
+     * when the class is not a collection).  {@link ApiKeyList} query results are cached by api key id instead.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean isCollectionCachingEnabled(Class<? extends Resource> clazz) {
+        if (!isCollectionCachingEnabled() || !CollectionResource.class.isAssignableFrom(clazz) ||
+            ApiKeyList.class.isAssignableFrom(clazz)) {
+            return false;
+        }
+        return cachedCollectionTypes == null ||
+               cachedCollectionTypes.contains(ResourceMetadataRegistry.getMetadata(clazz).getInterfaceClass());
     }
 
     protected Map<String, ?> getCachedValue(String href, Class<? extends Resource> clazz) {
@@ -63,8 +107,8 @@ abstract class AbstractCacheFilter implements Filter {
 
         String key = href;
 
-        if (collectionCachingEnabled && CollectionResource.class.isAssignableFrom(clazz) && !Collections.isEmpty(query)) {
-            key = href + "?" + query.toString();
+        if (!Collections.isEmpty(query) && isCollectionCachingEnabled(clazz)) {
+            key = href + "?" + query.toString(true);
         }
 
         return key;
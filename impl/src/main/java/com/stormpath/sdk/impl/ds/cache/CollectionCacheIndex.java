@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds.cache;
+
+import com.stormpath.sdk.impl.ds.ResourceAction;
+import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.resource.Resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the collection pages placed in the cache and of the instance resources they depend on, so they can be
+ * invalidated when this data store writes to any of them.  A page is invalidated when:
+ * <ul>
+ * <li>it contains one of the resources written;</li>
+ * <li>its collection is nested under one of the resources written (e.g. {@code /groups/1234/accounts} when a group
+ * membership referencing group {@code 1234} is created);</li>
+ * <li>a resource is created in its collection;</li>
+ * <li>a resource of its item type is created or deleted (membership and offsets may change), or updated while the page
+ * is filtered or ordered by some criteria (the resource may start or stop matching them).</li>
+ * </ul>
+ * The resources referenced by a deleted resource are read from its cached representation; when a group membership or
+ * account store mapping that is not cached is deleted, all pages are invalidated.
+ * Each invalidation increments a generation counter: a page read from the server before an invalidation is never
+ * registered after it, so a concurrent write cannot be shadowed by a stale page.
+ * <p/>
+ * This index is local to the JVM: writes performed by other JVMs are only seen when cached pages expire.
+ *
+ * @since 1.0.RC7.7
+ */
+class CollectionCacheIndex {
+
+    static final int DEFAULT_MAX_PAGES = 10000;
+
+    private static final Set<String> PAGING_PARAMS = new HashSet<String>(Arrays.asList("offset", "limit", "expand"));
+
+    private final int maxPages;
+
+    //insertion ordered, so the oldest pages are evicted first:
+    private final Map<String, Page> pages;
+
+    private long generation;
+
+    CollectionCacheIndex() {
+        this(DEFAULT_MAX_PAGES);
+    }
+
+    CollectionCacheIndex(int maxPages) {
+        Assert.isTrue(maxPages > 0, "maxPages must be greater than zero.");
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<String, Page>();
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Registers a page read at the given {@code generation}.
+     *
+     * @param page       the page about to be cached
+     * @param generation the generation at the time the page was requested from the server
+     * @param evicted    receives the pages evicted to make room for this one; they must be removed from the cache.
+     * @return {@code true} if the page may be cached, {@code false} if an invalidation happened since it was requested.
+     */
+    synchronized boolean add(Page page, long generation, Collection<Page> evicted) {
+        if (generation != this.generation) {
+            return false;
+        }
+        pages.remove(page.getId());
+        Iterator<Page> i = pages.values().iterator();
+        while (pages.size() >= maxPages && i.hasNext()) {
+            evicted.add(i.next());
+            i.remove();
+        }
+        pages.put(page.getId(), page);
+        return true;
+    }
+
+    synchronized boolean contains(Page page) {
+        return pages.get(page.getId()) == page;
+    }
+
+    /**
+     * Removes and returns the pages depending on a write.
+     *
+     * @param action      the write action
+     * @param writtenType the type of the resource written
+     * @param path        the absolute path the write was sent to
+     * @param hrefs       the href of the resource written and the hrefs it references
+     * @return the pages to remove from the cache
+     */
+    synchronized List<Page> invalidate(ResourceAction action, Class<? extends Resource> writtenType, String path,
+                                       Collection<String> hrefs) {
+
+        generation++;
+
+        if (pages.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Page> invalidated = new ArrayList<Page>();
+
+        for (Iterator<Page> i = pages.values().iterator(); i.hasNext(); ) {
+            Page page = i.next();
+            if (page.dependsOn(action, writtenType, path, hrefs)) {
+                invalidated.add(page);
+                i.remove();
+            }
+        }
+
+        return invalidated;
+    }
+
+    /**
+     * Removes and returns all the pages, for writes whose dependent pages can't be determined.
+     *
+     * @return the pages to remove from the cache
+     */
+    synchronized List<Page> invalidateAll() {
+        generation++;
+        List<Page> invalidated = new ArrayList<Page>(pages.values());
+        pages.clear();
+        return invalidated;
+    }
+
+    synchronized int size() {
+        return pages.size();
+    }
+
+    static class Page {
+
+        private final Class<? extends Resource> collectionType;
+        private final String cacheKey;
+        private final String path;
+        private final Class<? extends Resource> itemType;
+        private final Set<String> memberHrefs;
+        private final boolean filtered;
+
+        Page(Class<? extends Resource> collectionType, String cacheKey, String path, Collection<String> queryParams,
+             Class<? extends Resource> itemType, Set<String> memberHrefs) {
+            this.collectionType = collectionType;
+            this.cacheKey = cacheKey;
+            this.path = path;
+            this.itemType = itemType;
+            this.memberHrefs = memberHrefs;
+            boolean filtered = false;
+            if (queryParams != null) {
+                for (String param : queryParams) {
+                    if (!PAGING_PARAMS.contains(param)) {
+                        filtered = true;
+                        break;
+                    }
+                }
+            }
+            this.filtered = filtered;
+        }
+
+        String getId() {
+            return collectionType.getName() + ' ' + cacheKey;
+        }
+
+        Class<? extends Resource> getCollectionType() {
+            return collectionType;
+        }
+
+        String getCacheKey() {
+            return cacheKey;
+        }
+
+        boolean isFiltered() {
+            return filtered;
+        }
+
+        Set<String> getMemberHrefs() {
+            return memberHrefs;
+        }
+
+        boolean dependsOn(ResourceAction action, Class<? extends Resource> writtenType, String path,
+                          Collection<String> hrefs) {
+
+            if (action == ResourceAction.CREATE && this.path.equals(path)) {
+                return true;
+            }
+
+            if (itemType != null && writtenType != null && itemType.isAssignableFrom(writtenType) &&
+                (action != ResourceAction.UPDATE || filtered)) {
+                return true;
+            }
+
+            for (String href : hrefs) {
+                if (memberHrefs.contains(href) || this.path.startsWith(href + "/")) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
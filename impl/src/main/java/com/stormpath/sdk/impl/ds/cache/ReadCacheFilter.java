@@ -23,16 +23,25 @@ import com.stormpath.sdk.impl.ds.FilterChain;
 import com.stormpath.sdk.impl.ds.ResourceAction;
 import com.stormpath.sdk.impl.ds.ResourceDataRequest;
 import com.stormpath.sdk.impl.ds.ResourceDataResult;
+import com.stormpath.sdk.impl.ds.ResourceMetadataRegistry;
 import com.stormpath.sdk.impl.http.CanonicalUri;
 import com.stormpath.sdk.impl.http.QueryString;
 import com.stormpath.sdk.impl.provider.ProviderAccountAccess;
+import com.stormpath.sdk.impl.resource.AbstractResource;
+import com.stormpath.sdk.impl.resource.ArrayProperty;
 import com.stormpath.sdk.impl.resource.CollectionProperties;
+import com.stormpath.sdk.impl.resource.Property;
 import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.lang.Collections;
 import com.stormpath.sdk.resource.CollectionResource;
 import com.stormpath.sdk.resource.Resource;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.stormpath.sdk.impl.api.ApiKeyParameter.ID;
 import static com.stormpath.sdk.impl.resource.AbstractCollectionResource.LIMIT;
@@ -40,14 +49,31 @@ import static com.stormpath.sdk.impl.resource.AbstractCollectionResource.OFFSET;
 
 public class ReadCacheFilter extends AbstractCacheFilter {
 
+    private static final String ITEMS = "items";
+
     private final String baseUrl;
 
+    /**
+     * @deprecated since 1.0.RC7.7, use {@link #ReadCacheFilter(String, CacheResolver, Set)} to enable collection
+     * caching per collection type.
+     */
+    @Deprecated
     public ReadCacheFilter(String baseUrl, CacheResolver cacheResolver, boolean collectionCachingEnabled) {
         super(cacheResolver, collectionCachingEnabled);
         Assert.hasText(baseUrl, "baseUrl cannot be null or empty.");
         this.baseUrl = baseUrl;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    public ReadCacheFilter(String baseUrl, CacheResolver cacheResolver,
+                           Set<Class<? extends CollectionResource>> cachedCollectionTypes) {
+        super(cacheResolver, cachedCollectionTypes);
+        Assert.hasText(baseUrl, "baseUrl cannot be null or empty.");
+        this.baseUrl = baseUrl;
+    }
+
     @Override
     public ResourceDataResult filter(ResourceDataRequest request, FilterChain chain) {
 
@@ -90,6 +116,9 @@ public class ReadCacheFilter extends AbstractCacheFilter {
             if (! (request.getUri().hasQuery() && request.getUri().getQuery().containsKey("expand") ^ (cacheKey != null && cacheKey.contains("expand=")))) {
                 data = getCachedValue(cacheKey, clazz);
             }
+            if (!Collections.isEmpty(data) && isCollectionCachingEnabled(clazz)) {
+                data = getCachedItems(clazz, data);
+            }
         }
 
         if (Collections.isEmpty(data)) {
@@ -99,6 +128,46 @@ public class ReadCacheFilter extends AbstractCacheFilter {
         return new DefaultResourceDataResult(request.getAction(), uri, clazz, coerce(data));
     }
 
+    /**
+     * Cached collection pages only reference their items, which are cached in their own region: returns a copy of the
+     * page with the cached data of every item, or {@code null} (a cache miss) if any item is no longer cached, so the
+     * page is not served with items that would each have to be retrieved separately.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> getCachedItems(Class<? extends Resource> clazz, Map<String, ?> page) {
+
+        Object items = page.get(ITEMS);
+        if (!(items instanceof Collection)) {
+            return page;
+        }
+
+        Property property = ResourceMetadataRegistry.getMetadata(clazz).getPropertyDescriptor(ITEMS);
+        if (!(property instanceof ArrayProperty)) {
+            return null;
+        }
+        Class<? extends Resource> itemType = ((ArrayProperty) property).getType();
+
+        Collection c = (Collection) items;
+        List<Object> cachedItems = new ArrayList<Object>(c.size());
+        for (Object item : c) {
+            if (item instanceof Map && !AbstractResource.isMaterialized((Map<String, ?>) item)) {
+                String itemHref = (String) ((Map) item).get(AbstractResource.HREF_PROP_NAME);
+                Map<String, ?> itemData = itemHref != null ? getCachedValue(itemHref, itemType) : null;
+                if (Collections.isEmpty(itemData)) {
+                    return null;
+                }
+                item = itemData;
+            }
+            cachedItems.add(item);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<String, Object>(page);
+        result.put(ITEMS, cachedItems);
+        return result;
+    }
+
     private int getValue(QueryString query, String propName, int defaultValue) {
         return query.containsKey(propName) ? Integer.valueOf(query.get(propName)) : defaultValue;
     }
@@ -128,9 +197,9 @@ public class ReadCacheFilter extends AbstractCacheFilter {
             //we don't cache ProviderAccountResults:
             !ProviderAccountAccess.class.isAssignableFrom(clazz) &&
 
-            //Collection caching is EXPERIMENTAL so it is off by default
+            //Collection caching is enabled per collection type (off by default)
             //we do cache ApiKeyList. This is a fix for #216
             (!CollectionResource.class.isAssignableFrom(clazz) || ApiKeyList.class.isAssignableFrom(clazz) ||
-                    (CollectionResource.class.isAssignableFrom(clazz) && isCollectionCachingEnabled()));
+                    isCollectionCachingEnabled(clazz));
     }
 }
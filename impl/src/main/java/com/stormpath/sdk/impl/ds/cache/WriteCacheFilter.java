@@ -18,19 +18,22 @@ package com.stormpath.sdk.impl.ds.cache;
 import com.stormpath.sdk.account.Account;
 import com.stormpath.sdk.account.EmailVerificationToken;
 import com.stormpath.sdk.account.PasswordResetToken;
+import com.stormpath.sdk.accountStoreMapping.AccountStoreMapping;
 import com.stormpath.sdk.api.ApiKey;
 import com.stormpath.sdk.api.ApiKeyList;
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.directory.CustomData;
+import com.stormpath.sdk.group.GroupMembership;
 import com.stormpath.sdk.impl.account.DefaultAccount;
 import com.stormpath.sdk.impl.api.ApiKeyParameter;
+import com.stormpath.sdk.impl.cache.ConcurrentCaches;
 import com.stormpath.sdk.impl.ds.CacheMapInitializer;
 import com.stormpath.sdk.impl.ds.DefaultCacheMapInitializer;
-import com.stormpath.sdk.impl.ds.DefaultResourceFactory;
 import com.stormpath.sdk.impl.ds.FilterChain;
 import com.stormpath.sdk.impl.ds.ResourceAction;
 import com.stormpath.sdk.impl.ds.ResourceDataRequest;
 import com.stormpath.sdk.impl.ds.ResourceDataResult;
+import com.stormpath.sdk.impl.ds.ResourceMetadataRegistry;
 import com.stormpath.sdk.impl.http.QueryString;
 import com.stormpath.sdk.impl.resource.AbstractExtendableInstanceResource;
 import com.stormpath.sdk.impl.resource.AbstractInstanceResource;
@@ -49,12 +52,13 @@ import com.stormpath.sdk.provider.ProviderAccountResult;
 import com.stormpath.sdk.resource.CollectionResource;
 import com.stormpath.sdk.resource.Resource;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.stormpath.sdk.impl.api.ApiKeyParameter.ID;
 import static com.stormpath.sdk.impl.resource.AbstractResource.HREF_PROP_NAME;
@@ -63,26 +67,62 @@ public class WriteCacheFilter extends AbstractCacheFilter {
 
     private final ReferenceFactory referenceFactory;
     private final CacheMapInitializer cacheMapInitializer;
+    private final CollectionCacheIndex collectionCacheIndex;
 
+    /**
+     * @deprecated since 1.0.RC7.7, use {@link #WriteCacheFilter(CacheResolver, Set, ReferenceFactory)} to enable
+     * collection caching per collection type.
+     */
+    @Deprecated
     public WriteCacheFilter(CacheResolver cacheResolver, boolean collectionCachingEnabled, ReferenceFactory referenceFactory) {
         super(cacheResolver, collectionCachingEnabled);
         Assert.notNull(referenceFactory, "referenceFactory cannot be null.");
         this.referenceFactory = referenceFactory;
         this.cacheMapInitializer = new DefaultCacheMapInitializer();
+        this.collectionCacheIndex = new CollectionCacheIndex();
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    public WriteCacheFilter(CacheResolver cacheResolver, Set<Class<? extends CollectionResource>> cachedCollectionTypes,
+                            ReferenceFactory referenceFactory) {
+        super(cacheResolver, cachedCollectionTypes);
+        Assert.notNull(referenceFactory, "referenceFactory cannot be null.");
+        this.referenceFactory = referenceFactory;
+        this.cacheMapInitializer = new DefaultCacheMapInitializer();
+        this.collectionCacheIndex = new CollectionCacheIndex();
     }
 
     @Override
     public ResourceDataResult filter(ResourceDataRequest request, FilterChain chain) {
 
+        //a collection page is only cached if no write happened while it was being read:
+        long generation = collectionCacheIndex.getGeneration();
+
+        Map<String, ?> deleted = null;
+
         if (request.getAction() == ResourceAction.DELETE) {
             String key = getCacheKey(request);
+            if (isCollectionCachingEnabled()) {
+                //a delete request carries no data: the resources the deleted one references come from the cache
+                deleted = getCachedValue(key, request.getResourceClass());
+            }
             uncache(key, request.getResourceClass());
         }
 
         ResourceDataResult result = chain.filter(request);
 
+        if (request.getAction() != ResourceAction.READ && isCollectionCachingEnabled()) {
+            uncacheCollections(request, result, deleted);
+        }
+
         if (isCacheable(request, result)) {
-            cache(result.getResourceClass(), result.getData(), result.getUri().getQuery());
+            if (isCollectionCachingEnabled(result.getResourceClass())) {
+                cacheCollection(result, generation);
+            } else {
+                cache(result.getResourceClass(), result.getData(), result.getUri().getQuery());
+            }
         }
 
         //since 0.9.2: custom data quick fix for https://github.com/stormpath/stormpath-sdk-java/issues/30
@@ -190,10 +230,29 @@ public class WriteCacheFilter extends AbstractCacheFilter {
     }
 
     /**
+     * Caches the resource represented by {@code data} and any materialized resources it references.  All entries
+     * destined to the same cache region are written with a single bulk call.
+     *
      * @since 0.8
      */
-    @SuppressWarnings("unchecked")
     private void cache(Class<? extends Resource> clazz, Map<String, ?> data, QueryString queryString) {
+        Map<Cache<String, Map<String, ?>>, Map<String, Map<String, ?>>> pending =
+            new LinkedHashMap<Cache<String, Map<String, ?>>, Map<String, Map<String, ?>>>();
+        cache(clazz, data, queryString, pending);
+        for (Map.Entry<Cache<String, Map<String, ?>>, Map<String, Map<String, ?>>> entry : pending.entrySet()) {
+            ConcurrentCaches.putAll(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds the cache entries for the resource represented by {@code data} (and, recursively, for the materialized
+     * resources it references) to the {@code pending} entries, by cache region.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    private void cache(Class<? extends Resource> clazz, Map<String, ?> data, QueryString queryString,
+                       Map<Cache<String, Map<String, ?>>, Map<String, Map<String, ?>>> pending) {
 
         Assert.notEmpty(data, "Resource data cannot be null or empty.");
         String href = (String) data.get(AbstractResource.HREF_PROP_NAME);
@@ -208,8 +267,7 @@ public class WriteCacheFilter extends AbstractCacheFilter {
         Map<String, Object> cacheValue = cacheMapInitializer.initialize(clazz, data, queryString);
 
         if (CustomData.class.isAssignableFrom(clazz)) {
-            Cache cache = getCache(clazz);
-            cache.put(href, cacheValue);
+            addPending(pending, getCache(clazz), href, cacheValue);
             return;
         }
 
@@ -255,7 +313,7 @@ public class WriteCacheFilter extends AbstractCacheFilter {
                     //we pass 'null' in as the querystring param because the querystring is only valid for
                     //the top-most item being cached - we don't want to propagate it for nested resources because the nested
                     //resource wasn't acquired w/ that query string.
-                    cache(property.getType(), nested, null);
+                    cache(property.getType(), nested, null, pending);
 
                     //Because the materialized reference has now been cached, we don't need to store
                     //all of its properties again in the 'toCache' instance.  Instead, we just want to store
@@ -288,7 +346,7 @@ public class WriteCacheFilter extends AbstractCacheFilter {
                             //we pass 'null' in as the querystring param because the querystring is only valid for
                             //the top-most item being cached - we don't want to propagate it for nested resources because the nested
                             //resource wasn't acquired w/ that query string.
-                            cache(itemType, referenceData, null);
+                            cache(itemType, referenceData, null, pending);
                             element = toCanonicalReference(null, referenceData);
                         }
                     }
@@ -304,12 +362,135 @@ public class WriteCacheFilter extends AbstractCacheFilter {
         }
 
         if (isDirectlyCacheable(clazz, cacheValue)) {
-            Cache cache = getCache(clazz);
             String cacheKey = getCacheKey(href, queryString, clazz);
-            cache.put(cacheKey, cacheValue);
+            addPending(pending, getCache(clazz), cacheKey, cacheValue);
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    private static void addPending(Map<Cache<String, Map<String, ?>>, Map<String, Map<String, ?>>> pending,
+                                   Cache<String, Map<String, ?>> cache, String key, Map<String, ?> value) {
+        Map<String, Map<String, ?>> entries = pending.get(cache);
+        if (entries == null) {
+            entries = new LinkedHashMap<String, Map<String, ?>>();
+            pending.put(cache, entries);
+        }
+        entries.put(key, value);
+    }
+
+
+    /**
+     * Caches a collection page, tracking the resources it depends on so it can be invalidated by later writes.
+     *
+     * @since 1.0.RC7.7
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheCollection(ResourceDataResult result, long generation) {
+
+        Class<? extends Resource> clazz = result.getResourceClass();
+        Map<String, ?> data = result.getData();
+        QueryString query = result.getUri().getQuery();
+        String href = (String) data.get(HREF_PROP_NAME);
+
+        ArrayProperty itemsProperty = ResourceMetadataRegistry.getMetadata(clazz).getArrayProperties().get("items");
+        Class<? extends Resource> itemType = itemsProperty != null ? itemsProperty.getType() : null;
+
+        Set<String> memberHrefs = new LinkedHashSet<String>();
+        Object items = data.get("items");
+        if (items instanceof Collection) {
+            for (Object item : (Collection) items) {
+                if (item instanceof Map && ((Map) item).get(HREF_PROP_NAME) != null) {
+                    memberHrefs.add((String) ((Map) item).get(HREF_PROP_NAME));
+                }
+            }
+        }
+
+        CollectionCacheIndex.Page page = new CollectionCacheIndex.Page(
+            clazz, getCacheKey(href, query, clazz), href, query != null ? query.keySet() : null, itemType, memberHrefs);
+
+        List<CollectionCacheIndex.Page> evicted = new ArrayList<CollectionCacheIndex.Page>();
+        boolean added = collectionCacheIndex.add(page, generation, evicted);
+        uncache(evicted);
+
+        if (!added) {
+            return;
+        }
+
+        cache(clazz, data, query);
+
+        if (!collectionCacheIndex.contains(page)) {
+            //invalidated by a concurrent write while being cached:
+            uncache(page.getCacheKey(), clazz);
+        }
+    }
+
+    /**
+     * Removes the cached collection pages that may have changed due to a successful create, update or delete.
+     *
+     * @param deleted the cached data of the deleted resource, if any.
+     * @since 1.0.RC7.7
+     */
+    private void uncacheCollections(ResourceDataRequest request, ResourceDataResult result, Map<String, ?> deleted) {
+
+        ResourceAction action = request.getAction();
+        String path = request.getUri().getAbsolutePath();
+
+        if (action == ResourceAction.DELETE && deleted == null && isLinkResource(request.getResourceClass())) {
+            //the memberships of unknown collections (e.g. /groups/{id}/accounts and /accounts/{id}/groups) changed:
+            uncache(collectionCacheIndex.invalidateAll());
+            return;
+        }
+
+        Set<String> hrefs = new LinkedHashSet<String>();
+        if (action != ResourceAction.CREATE) {
+            hrefs.add(path);
+        }
+        addHrefs(hrefs, request.getData());
+        addHrefs(hrefs, result.getData());
+        addHrefs(hrefs, deleted);
+
+        uncache(collectionCacheIndex.invalidate(action, request.getResourceClass(), path, hrefs));
+
+        if (result.getResourceClass() != null && result.getResourceClass() != request.getResourceClass()) {
+            uncache(collectionCacheIndex.invalidate(action, result.getResourceClass(), path, hrefs));
         }
     }
 
+    /**
+     * Returns {@code true} if the specified type links two resources, making each one a member of a collection nested
+     * under the other (e.g. a group membership adds an account to {@code /groups/{id}/accounts} and a group to
+     * {@code /accounts/{id}/groups}), {@code false} otherwise.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static boolean isLinkResource(Class<? extends Resource> clazz) {
+        return GroupMembership.class.isAssignableFrom(clazz) || AccountStoreMapping.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Adds the href of the resource represented by {@code data} and those of the resources it references.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static void addHrefs(Set<String> hrefs, Map<String, ?> data) {
+        if (Collections.isEmpty(data)) {
+            return;
+        }
+        Object href = data.get(HREF_PROP_NAME);
+        if (href instanceof String) {
+            hrefs.add((String) href);
+        }
+        for (Object value : data.values()) {
+            if (value instanceof Map) {
+                Object nestedHref = ((Map) value).get(HREF_PROP_NAME);
+                if (nestedHref instanceof String) {
+                    hrefs.add((String) nestedHref);
+                }
+            }
+        }
+    }
 
     private Map<String,?> toCanonicalReference(String name, Map<String,?> resourceData) {
 
@@ -331,24 +512,7 @@ public class WriteCacheFilter extends AbstractCacheFilter {
      * @since 0.8
      */
     private <T extends Resource> Property getPropertyDescriptor(Class<T> clazz, String propertyName) {
-        Map<String, Property> descriptors = getPropertyDescriptors(clazz);
-        return descriptors.get(propertyName);
-    }
-
-    /**
-     * @since 0.8
-     */
-    @SuppressWarnings("unchecked")
-    private <T extends Resource> Map<String, Property> getPropertyDescriptors(Class<T> clazz) {
-        Class<T> implClass = DefaultResourceFactory.getImplementationClass(clazz);
-        try {
-            Field field = implClass.getDeclaredField("PROPERTY_DESCRIPTORS");
-            field.setAccessible(true);
-            return (Map<String, Property>) field.get(null);
-        } catch (Exception e) {
-            throw new IllegalStateException(
-                "Unable to access PROPERTY_DESCRIPTORS static field on implementation class " + clazz.getName(), e);
-        }
+        return ResourceMetadataRegistry.getMetadata(clazz).getPropertyDescriptor(propertyName);
     }
 
     /**
@@ -360,8 +524,7 @@ public class WriteCacheFilter extends AbstractCacheFilter {
 
         return AbstractResource.isMaterialized(data) &&
 
-               (!CollectionResource.class.isAssignableFrom(clazz) ||
-                (CollectionResource.class.isAssignableFrom(clazz) && isCollectionCachingEnabled()));
+               (!CollectionResource.class.isAssignableFrom(clazz) || isCollectionCachingEnabled(clazz));
     }
 
     /**
@@ -375,6 +538,28 @@ public class WriteCacheFilter extends AbstractCacheFilter {
         cache.remove(cacheKey);
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    private void uncache(Collection<CollectionCacheIndex.Page> pages) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        Map<Cache<String, Map<String, ?>>, List<String>> keys = new LinkedHashMap<Cache<String, Map<String, ?>>, List<String>>();
+        for (CollectionCacheIndex.Page page : pages) {
+            Cache<String, Map<String, ?>> cache = getCache(page.getCollectionType());
+            List<String> cacheKeys = keys.get(cache);
+            if (cacheKeys == null) {
+                cacheKeys = new ArrayList<String>();
+                keys.put(cache, cacheKeys);
+            }
+            cacheKeys.add(page.getCacheKey());
+        }
+        for (Map.Entry<Cache<String, Map<String, ?>>, List<String>> entry : keys.entrySet()) {
+            ConcurrentCaches.removeAll(entry.getKey(), entry.getValue());
+        }
+    }
+
     private boolean isApiKeyCollectionQuery(ResourceDataRequest request) {
         return ApiKeyList.class.isAssignableFrom(request.getResourceClass()) &&
                 request.getUri().hasQuery() && request.getUri().getQuery().containsKey(ID.getName());
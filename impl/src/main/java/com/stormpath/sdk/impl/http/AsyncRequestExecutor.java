@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.http;
+
+import com.stormpath.sdk.impl.util.ListenableFuture;
+
+/**
+ * A {@link RequestExecutor} that is also able to execute requests without blocking the calling thread.
+ *
+ * @since 1.0.RC7.7
+ */
+public interface AsyncRequestExecutor extends RequestExecutor {
+
+    /**
+     * Executes the specified request asynchronously, returning immediately.  The returned future completes with the
+     * server's response once it is available (after any retries), or fails with a {@link RestException} if the request
+     * could not be executed.
+     * <p/>
+     * Callers can react to completion via {@link ListenableFuture#addCallback(com.stormpath.sdk.impl.util.FutureCallback)
+     * addCallback} instead of blocking a thread per request.
+     *
+     * @param request the request to execute
+     * @return a future that completes with the server's response.
+     */
+    ListenableFuture<Response> executeRequestAsync(Request request);
+
+}
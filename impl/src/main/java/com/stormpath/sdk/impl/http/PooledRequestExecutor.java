@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.http;
+
+import com.stormpath.sdk.client.ConnectionPoolStats;
+
+/**
+ * A {@link RequestExecutor} that executes requests over a pool of persistent HTTP connections.
+ *
+ * @since 1.0.RC7.7
+ */
+public interface PooledRequestExecutor extends RequestExecutor {
+
+    /**
+     * Returns a snapshot of the executor's connection pool usage.
+     *
+     * @return a snapshot of the executor's connection pool usage.
+     */
+    ConnectionPoolStats getConnectionPoolStats();
+
+}
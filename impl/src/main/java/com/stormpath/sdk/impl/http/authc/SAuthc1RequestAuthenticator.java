@@ -29,16 +29,20 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.SimpleTimeZone;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @since 0.1
@@ -64,6 +68,30 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
 
     private static final Logger log = LoggerFactory.getLogger(SAuthc1RequestAuthenticator.class);
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Upper bound of cached signing keys, only exceeded by applications that sign with many different API Keys.
+     */
+    private static final int MAX_CACHED_SIGNING_KEYS = 64;
+
+    /**
+     * {@code Mac}, {@code MessageDigest} and date format instances are expensive to create and not thread-safe, so each
+     * thread reuses its own.
+     */
+    private static final ThreadLocal<SigningContext> CONTEXT = new ThreadLocal<SigningContext>() {
+        @Override
+        protected SigningContext initialValue() {
+            return new SigningContext();
+        }
+    };
+
+    /**
+     * The date key ({@code kDate}) derived from an API Key secret only changes once a day, so it is cached per API Key
+     * id.
+     */
+    private final ConcurrentMap<String, DateKey> dateKeys = new ConcurrentHashMap<String, DateKey>();
+
     @Override
     public void authenticate(Request request, ApiKey apiKey) throws RequestAuthenticationException {
         Date date = new Date();
@@ -72,11 +100,7 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
     }
 
     public void authenticate(final Request request, final ApiKey apiKey, final Date date, final String nonce) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
-        dateFormat.setTimeZone(new SimpleTimeZone(0, TIME_ZONE));
-
-        SimpleDateFormat timestampFormat = new SimpleDateFormat(TIMESTAMP_FORMAT);
-        timestampFormat.setTimeZone(new SimpleTimeZone(0, TIME_ZONE));
+        SigningContext context = CONTEXT.get();
 
         URI uri = request.getResourceUrl();
 
@@ -88,8 +112,8 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
         }
         request.getHeaders().set(HOST_HEADER, hostHeader);
 
-        String timestamp = timestampFormat.format(date);
-        String dateStamp = dateFormat.format(date);
+        String timestamp = context.timestampFormat.format(date);
+        String dateStamp = context.dateFormat.format(date);
 
         request.getHeaders().set(STORMAPTH_DATE_HEADER, timestamp);
 
@@ -123,8 +147,7 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
         log.debug("{} String to Sign: {}", AUTHENTICATION_SCHEME, stringToSign);
 
         // SAuthc1 uses a series of derived keys, formed by hashing different pieces of data
-        byte[] kSecret = toUtf8Bytes(AUTHENTICATION_SCHEME + apiKey.getSecret());
-        byte[] kDate = sign(dateStamp, kSecret, MacAlgorithm.HmacSHA256);
+        byte[] kDate = getDateKey(apiKey, dateStamp);
         byte[] kNonce = sign(nonce, kDate, MacAlgorithm.HmacSHA256);
         byte[] kSigning = sign(ID_TERMINATOR, kNonce, MacAlgorithm.HmacSHA256);
 
@@ -142,6 +165,32 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
         request.getHeaders().set(AUTHORIZATION_HEADER, authorizationHeader);
     }
 
+    /**
+     * Returns the date key ({@code kDate}) for the specified API Key and date stamp, deriving it from the API Key secret
+     * only if it is not already cached.
+     *
+     * @since 1.0.RC7.7
+     */
+    private byte[] getDateKey(ApiKey apiKey, String dateStamp) {
+        String id = apiKey.getId();
+        String secret = apiKey.getSecret();
+
+        DateKey dateKey = dateKeys.get(id);
+        if (dateKey != null && dateKey.matches(secret, dateStamp)) {
+            return dateKey.key;
+        }
+
+        byte[] kSecret = toUtf8Bytes(AUTHENTICATION_SCHEME + secret);
+        byte[] kDate = sign(dateStamp, kSecret, MacAlgorithm.HmacSHA256);
+
+        if (dateKeys.size() >= MAX_CACHED_SIGNING_KEYS && !dateKeys.containsKey(id)) {
+            dateKeys.clear();
+        }
+        dateKeys.put(id, new DateKey(secret, dateStamp, kDate));
+
+        return kDate;
+    }
+
     private static String createNameValuePair(String name, String value) {
         return name + "=" + value;
     }
@@ -164,19 +213,13 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
      * @return hex-encoded string.
      */
     public static String toHex(byte[] data) {
-        StringBuilder sb = new StringBuilder(data.length * 2);
-        for (int i = 0; i < data.length; i++) {
-            String hex = Integer.toHexString(data[i]);
-            if (hex.length() == 1) {
-                // Append leading zero.
-                sb.append("0");
-            } else if (hex.length() == 8) {
-                // Remove ff prefix from negative numbers.
-                hex = hex.substring(6);
-            }
-            sb.append(hex);
+        char[] chars = new char[data.length * 2];
+        for (int i = 0, j = 0; i < data.length; i++) {
+            int b = data[i] & 0xFF;
+            chars[j++] = HEX_DIGITS[b >>> 4];
+            chars[j++] = HEX_DIGITS[b & 0x0F];
         }
-        return sb.toString().toLowerCase(Locale.getDefault());
+        return new String(chars);
     }
 
     /**
@@ -189,9 +232,8 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
      */
     protected byte[] hash(String text) throws RequestAuthenticationException {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(text.getBytes(DEFAULT_ENCODING));
-            return md.digest();
+            MessageDigest md = CONTEXT.get().getMessageDigest();
+            return md.digest(text.getBytes(DEFAULT_ENCODING));
         } catch (Exception e) {
             throw new RequestAuthenticationException("Unable to compute hash while signing request.", e);
         }
@@ -208,7 +250,7 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
 
     protected byte[] sign(byte[] data, byte[] key, MacAlgorithm algorithm) throws RequestAuthenticationException {
         try {
-            Mac mac = Mac.getInstance(algorithm.toString());
+            Mac mac = CONTEXT.get().getMac(algorithm);
             mac.init(new SecretKeySpec(key, algorithm.toString()));
             return mac.doFinal(data);
         } catch (Exception e) {
@@ -303,4 +345,63 @@ public class SAuthc1RequestAuthenticator implements RequestAuthenticator {
 
         return buffer.toString();
     }
+
+    /**
+     * A cached date key, valid for a single API Key secret and date stamp.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static final class DateKey {
+
+        private final String secret;
+        private final String dateStamp;
+        private final byte[] key;
+
+        private DateKey(String secret, String dateStamp, byte[] key) {
+            this.secret = secret;
+            this.dateStamp = dateStamp;
+            this.key = key;
+        }
+
+        private boolean matches(String secret, String dateStamp) {
+            return this.dateStamp.equals(dateStamp) && this.secret.equals(secret);
+        }
+    }
+
+    /**
+     * Per-thread signing instances.
+     *
+     * @since 1.0.RC7.7
+     */
+    private static final class SigningContext {
+
+        private final SimpleDateFormat dateFormat;
+        private final SimpleDateFormat timestampFormat;
+        private final Map<MacAlgorithm, Mac> macs = new EnumMap<MacAlgorithm, Mac>(MacAlgorithm.class);
+        private MessageDigest messageDigest;
+
+        private SigningContext() {
+            dateFormat = new SimpleDateFormat(DATE_FORMAT);
+            dateFormat.setTimeZone(new SimpleTimeZone(0, TIME_ZONE));
+
+            timestampFormat = new SimpleDateFormat(TIMESTAMP_FORMAT);
+            timestampFormat.setTimeZone(new SimpleTimeZone(0, TIME_ZONE));
+        }
+
+        private Mac getMac(MacAlgorithm algorithm) throws NoSuchAlgorithmException {
+            Mac mac = macs.get(algorithm);
+            if (mac == null) {
+                mac = Mac.getInstance(algorithm.toString());
+                macs.put(algorithm, mac);
+            }
+            return mac;
+        }
+
+        private MessageDigest getMessageDigest() throws NoSuchAlgorithmException {
+            if (messageDigest == null) {
+                messageDigest = MessageDigest.getInstance("SHA-256");
+            }
+            return messageDigest;
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.idsite;
+
+import com.stormpath.sdk.idsite.NonceStore;
+
+/**
+ * A {@link NonceStore} that can check and add a nonce in a single operation.  The
+ * {@link DefaultIdSiteCallbackHandler} uses it to ensure a nonce submitted concurrently by two requests is only
+ * accepted once; with other {@code NonceStore} implementations it falls back to calling
+ * {@link #hasNonce(String) hasNonce} and then {@link #putNonce(String) putNonce}, which does not guarantee it.
+ *
+ * @since 1.0.RC7.7
+ */
+public interface AtomicNonceStore extends NonceStore {
+
+    /**
+     * Adds the specified nonce to the store only if it is not already present.
+     *
+     * @param nonce the nonce to put in this {@code nonceStore}.
+     * @return {@code true} if the nonce was added, {@code false} if it was already present.
+     */
+    boolean putNonceIfAbsent(String nonce);
+}
@@ -131,11 +131,18 @@ public class DefaultIdSiteCallbackHandler implements IdSiteCallbackHandler {
 
         String responseNonce = getRequiredValue(jsonPayload, RESPONSE_ID);
 
-        if (nonceStore.hasNonce(responseNonce)) {
-            throw new InvalidJwtException(InvalidJwtException.ALREADY_USED_JWT_ERROR);
-        }
+        if (nonceStore instanceof AtomicNonceStore) {
+            //since 1.0.RC7.7: check and mark the nonce as used atomically, so a replayed response can't slip through:
+            if (!((AtomicNonceStore) nonceStore).putNonceIfAbsent(responseNonce)) {
+                throw new InvalidJwtException(InvalidJwtException.ALREADY_USED_JWT_ERROR);
+            }
+        } else {
+            if (nonceStore.hasNonce(responseNonce)) {
+                throw new InvalidJwtException(InvalidJwtException.ALREADY_USED_JWT_ERROR);
+            }
 
-        nonceStore.putNonce(responseNonce);
+            nonceStore.putNonce(responseNonce);
+        }
 
         //the 'sub' field can be null if calling /sso/logout when the subject is already logged out:
         String accountHref = getOptionalValue(jsonPayload, Claims.SUBJECT);
@@ -18,6 +18,7 @@ package com.stormpath.sdk.impl.idsite;
 import com.stormpath.sdk.cache.Cache;
 import com.stormpath.sdk.idsite.Nonce;
 import com.stormpath.sdk.idsite.NonceStore;
+import com.stormpath.sdk.impl.cache.ConcurrentCaches;
 import com.stormpath.sdk.impl.ds.DefaultDataStore;
 import com.stormpath.sdk.impl.ds.cache.CacheResolver;
 import com.stormpath.sdk.lang.Assert;
@@ -30,7 +31,7 @@ import java.util.Map;
  *
  * @since 1.0.RC
  */
-public class DefaultNonceStore implements NonceStore {
+public class DefaultNonceStore implements AtomicNonceStore {
 
     private final CacheResolver cacheResolver;
 
@@ -62,4 +63,22 @@ public class DefaultNonceStore implements NonceStore {
 
         cache.put(defaultNonce.getValue(), defaultNonce.getProperties());
     }
+
+    /**
+     * Adds the specified nonce to the store only if it is not already present, as a single atomic operation if the
+     * underlying cache is a {@link com.stormpath.sdk.cache.ConcurrentCache ConcurrentCache}.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public boolean putNonceIfAbsent(String nonce) {
+
+        Assert.hasText(nonce);
+
+        Cache<String, Map<String, ?>> cache = cacheResolver.getCache(Nonce.class);
+
+        DefaultNonce defaultNonce = new DefaultNonce(nonce);
+
+        return ConcurrentCaches.putIfAbsent(cache, defaultNonce.getValue(), defaultNonce.getProperties()) == null;
+    }
 }
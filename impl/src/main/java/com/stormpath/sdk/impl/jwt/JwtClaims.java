@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.jwt;
+
+/**
+ * The subset of JWT payload claims needed to authenticate an OAuth access token, as read by
+ * {@link JwtJson#readClaims(byte[])}.
+ *
+ * @since 1.0.RC7.7
+ */
+public class JwtClaims {
+
+    public static final String EXPIRATION = "exp";
+    public static final String SUBJECT = "sub";
+    public static final String SCOPE = "scope";
+    public static final String ID = "jti";
+
+    private final Number expiration;
+    private final String subject;
+    private final String scope;
+    private final String id;
+
+    public JwtClaims(Number expiration, String subject, String scope, String id) {
+        this.expiration = expiration;
+        this.subject = subject;
+        this.scope = scope;
+        this.id = id;
+    }
+
+    /**
+     * Returns the {@code exp} claim (in seconds since Epoch), or {@code null} if absent or not a number.
+     */
+    public Number getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * Returns the {@code sub} claim, or {@code null} if absent or not a string.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Returns the {@code scope} claim, or {@code null} if absent or not a string.
+     */
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * Returns the {@code jti} claim, or {@code null} if absent or not a string.
+     */
+    public String getId() {
+        return id;
+    }
+}
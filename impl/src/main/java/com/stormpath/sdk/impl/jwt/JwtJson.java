@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.jwt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.stormpath.sdk.impl.ds.JacksonMapMarshaller;
+import com.stormpath.sdk.impl.ds.MapMarshaller;
+import com.stormpath.sdk.impl.ds.MarshalingException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide JSON support for JWT headers and payloads.
+ * <p/>
+ * Creating a Jackson {@code ObjectMapper} is expensive, while a configured one is thread-safe: JWTs are therefore
+ * (un)marshalled with a single shared instance instead of a new {@link JacksonMapMarshaller} per token.  The shared
+ * marshaller must never be reconfigured, which is why it is only exposed as a {@link MapMarshaller}.
+ *
+ * @since 1.0.RC7.7
+ */
+public final class JwtJson {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {};
+
+    private static final JacksonMapMarshaller MAP_MARSHALLER = new JacksonMapMarshaller();
+
+    private static final ObjectReader MAP_READER = MAP_MARSHALLER.getObjectMapper().reader(MAP_TYPE);
+
+    private static final JsonFactory JSON_FACTORY = MAP_MARSHALLER.getObjectMapper().getFactory();
+
+    private JwtJson() {
+    }
+
+    /**
+     * Returns the shared, thread-safe marshaller used for JWT JSON.
+     *
+     * @return the shared, thread-safe marshaller used for JWT JSON.
+     */
+    public static MapMarshaller getMapMarshaller() {
+        return MAP_MARSHALLER;
+    }
+
+    /**
+     * Parses the specified UTF-8 encoded JSON object, without decoding it to a String first.
+     *
+     * @param json the UTF-8 encoded JSON object
+     * @return the parsed JSON object
+     */
+    public static Map<String, Object> readMap(byte[] json) {
+        try {
+            return MAP_READER.readValue(json);
+        } catch (IOException e) {
+            throw new MarshalingException("Unable to convert JSON to Map.", e);
+        }
+    }
+
+    /**
+     * Reads only the {@link JwtClaims} fields of the specified UTF-8 encoded JWT payload, skipping every other value
+     * without materializing it.
+     *
+     * @param json the UTF-8 encoded JWT payload
+     * @return the claims read from the payload
+     */
+    public static JwtClaims readClaims(byte[] json) {
+
+        Number expiration = null;
+        String subject = null;
+        String scope = null;
+        String id = null;
+
+        try {
+            JsonParser parser = JSON_FACTORY.createParser(json);
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new MarshalingException("JWT payload is not a JSON object.");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (JwtClaims.EXPIRATION.equals(name)) {
+                        expiration = value.isNumeric() ? parser.getNumberValue() : null;
+                    } else if (JwtClaims.SUBJECT.equals(name)) {
+                        subject = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    } else if (JwtClaims.SCOPE.equals(name)) {
+                        scope = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    } else if (JwtClaims.ID.equals(name)) {
+                        id = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            throw new MarshalingException("Unable to read JWT claims.", e);
+        }
+
+        return new JwtClaims(expiration, subject, scope, id);
+    }
+}
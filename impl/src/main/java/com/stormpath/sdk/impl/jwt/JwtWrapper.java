@@ -16,12 +16,9 @@
 package com.stormpath.sdk.impl.jwt;
 
 import com.stormpath.sdk.error.jwt.InvalidJwtException;
-import com.stormpath.sdk.impl.ds.JacksonMapMarshaller;
-import com.stormpath.sdk.impl.ds.MapMarshaller;
 import com.stormpath.sdk.impl.util.Base64;
 import com.stormpath.sdk.lang.Strings;
 
-import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.StringTokenizer;
 
@@ -32,8 +29,6 @@ import java.util.StringTokenizer;
  */
 public class JwtWrapper {
 
-    private final static Charset UTF_8 = Charset.forName("UTF-8");
-
     private static final String SEPARATOR = ".";
 
     private final String base64JwtHeader;
@@ -42,8 +37,6 @@ public class JwtWrapper {
 
     private final String base64JwtSignature;
 
-    private final MapMarshaller mapMarshaller;
-
     public JwtWrapper(String jwt) {
         if (!Strings.hasText(jwt)) {
             throw new InvalidJwtException(InvalidJwtException.JWT_REQUIRED_ERROR);
@@ -58,8 +51,6 @@ public class JwtWrapper {
         this.base64JwtHeader = tokenizer.nextToken();
         this.base64JsonPayload = tokenizer.nextToken();
         this.base64JwtSignature = tokenizer.nextToken();
-
-        this.mapMarshaller = new JacksonMapMarshaller();
     }
 
     public String getBase64JwtHeader() {
@@ -82,10 +73,24 @@ public class JwtWrapper {
             throw new InvalidJwtException(InvalidJwtException.INVALID_JWT_HEADER_ENCODING_ERROR);
         }
 
-        return mapMarshaller.unmarshal(new String(jsonBytes, UTF_8));
+        return JwtJson.readMap(jsonBytes);
     }
 
     public Map getJsonPayloadAsMap() {
+        return JwtJson.readMap(getJsonPayloadBytes());
+    }
+
+    /**
+     * Reads only the payload claims needed to authenticate an OAuth access token, which is cheaper than
+     * {@link #getJsonPayloadAsMap()} as no other payload value is materialized.
+     *
+     * @since 1.0.RC7.7
+     */
+    public JwtClaims getJsonPayloadClaims() {
+        return JwtJson.readClaims(getJsonPayloadBytes());
+    }
+
+    private byte[] getJsonPayloadBytes() {
 
         byte[] jsonBytes = Base64.decodeBase64(base64JsonPayload);
 
@@ -93,7 +98,7 @@ public class JwtWrapper {
             throw new InvalidJwtException(InvalidJwtException.INVALID_JWT_BODY_ENCODING_ERROR);
         }
 
-        return mapMarshaller.unmarshal(new String(jsonBytes, UTF_8));
+        return jsonBytes;
     }
 
 }
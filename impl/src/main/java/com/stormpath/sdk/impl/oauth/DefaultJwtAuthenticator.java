@@ -16,18 +16,30 @@
 package com.stormpath.sdk.impl.oauth;
 
 import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.account.AccountStatus;
 import com.stormpath.sdk.application.Application;
 import com.stormpath.sdk.ds.DataStore;
 import com.stormpath.sdk.impl.account.DefaultAccount;
+import com.stormpath.sdk.impl.jwt.JwtClaims;
+import com.stormpath.sdk.impl.jwt.JwtWrapper;
+import com.stormpath.sdk.impl.resource.AbstractResource;
 import com.stormpath.sdk.oauth.JwtAuthenticationResult;
 import com.stormpath.sdk.lang.Assert;
+import com.stormpath.sdk.lang.Duration;
+import com.stormpath.sdk.lang.Strings;
 import com.stormpath.sdk.oauth.*;
+import com.stormpath.sdk.resource.ResourceException;
+import com.stormpath.sdk.tenant.Tenant;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @since 1.0.RC7
@@ -38,14 +50,59 @@ public class DefaultJwtAuthenticator extends AbstractOauth2Authenticator impleme
     protected final static String OAUTH_TOKEN_PATH = "/authTokens/";
     protected final static String ACCESS_TOKEN_PATH = "/accessTokens/";
 
+    /**
+     * The maximum staleness of a {@link #withHybridValidation() hybrid validation} if none is
+     * {@link #withMaxStaleness(Duration) specified}.
+     *
+     * @since 1.0.RC7.7
+     */
+    public static final Duration DEFAULT_HYBRID_MAX_STALENESS = new Duration(1, TimeUnit.MINUTES);
+
+    /**
+     * The maximum difference between the clocks of Stormpath and this host when comparing a token's issue time to the
+     * time the tokens of its account were fetched.
+     *
+     * @since 1.0.RC7.7
+     */
+    static final long ALLOWED_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String VALIDATION_FAILED_MSG = "JWT failed validation; it cannot be trusted.";
+
     protected Boolean isLocalValidation = false;
 
+    //since 1.0.RC7.7
+    protected boolean isHybridValidation = false;
+    private Duration maxStaleness;
+    private JwtValidationCache validationCache;
+
     public DefaultJwtAuthenticator(Application application, DataStore dataStore) {
         super(application, dataStore);
     }
 
     public JwtAuthenticator withLocalValidation() {
         this.isLocalValidation = Boolean.TRUE;
+        this.isHybridValidation = false;
+        return this;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public JwtAuthenticator withHybridValidation() {
+        this.isHybridValidation = true;
+        this.isLocalValidation = Boolean.FALSE;
+        return this;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public JwtAuthenticator withMaxStaleness(Duration maxStaleness) {
+        Assert.notNull(maxStaleness, "maxStaleness cannot be null.");
+        Assert.isTrue(maxStaleness.getValue() >= 0, "maxStaleness cannot be negative.");
+        this.maxStaleness = maxStaleness;
         return this;
     }
 
@@ -56,47 +113,233 @@ public class DefaultJwtAuthenticator extends AbstractOauth2Authenticator impleme
 
         JwtAuthenticationRequest jwtRequest = (JwtAuthenticationRequest) authenticationRequest;
 
+        if (this.isHybridValidation) {
+            return authenticateHybrid(jwtRequest.getJwt());
+        }
+
         if (this.isLocalValidation) {
-            String apiKeySecret = dataStore.getApiKey().getSecret();
+            Claims claims = parseLocally(jwtRequest.getJwt());
             try {
+                //the account is only materialized if the caller uses it, which saves a request per authentication:
+                Map<String, Object> accountProperties = new HashMap<String, Object>();
+                accountProperties.put(DefaultAccount.HREF_PROP_NAME, claims.getSubject());
+                Account account = dataStore.instantiate(Account.class, accountProperties);
+
+                AccessToken accessToken = buildAccessToken(claims, account, jwtRequest.getJwt());
+
+                JwtAuthenticationResultBuilder builder = new DefaultJwtAuthenticationResultBuilder(accessToken);
+                return builder.build();
 
-                // During parsing, the JWT is validated for expiration, signature and tampering
-                Claims claims = Jwts.parser()
-                        .setSigningKey(apiKeySecret.getBytes("UTF-8"))
-                        .parseClaimsJws(jwtRequest.getJwt()).getBody();
-                Assert.isTrue(claims.getIssuer().equals(application.getHref()));
+            } catch (Exception e) {
+                throw new JwtException(VALIDATION_FAILED_MSG);
+            }
+        }
 
-                Map<String, Object> properties = new HashMap<String, Object>();
+        return authenticateRemotely(jwtRequest.getJwt());
+    }
 
-                Account account = dataStore.getResource(claims.getSubject(), Account.class);
+    /**
+     * Validates the token's signature, expiration and issuer, without any network traffic.
+     *
+     * @since 1.0.RC7.7
+     */
+    private Claims parseLocally(String jwt) {
+        String apiKeySecret = dataStore.getApiKey().getSecret();
+        try {
 
-                String accessTokenHref = application.getHref().replace(APPLICATION_PATH, ACCESS_TOKEN_PATH);
-                int accessTokenIdStartingPoint = accessTokenHref.lastIndexOf("/") + 1;
-                accessTokenHref = accessTokenHref.substring(0, accessTokenIdStartingPoint);
-                accessTokenHref = accessTokenHref + claims.getId();
+            // During parsing, the JWT is validated for expiration, signature and tampering
+            Claims claims = Jwts.parser()
+                    .setSigningKey(apiKeySecret.getBytes("UTF-8"))
+                    .parseClaimsJws(jwt).getBody();
+            Assert.isTrue(claims.getIssuer().equals(application.getHref()));
+            return claims;
 
-                properties.put(DefaultAccount.HREF_PROP_NAME, accessTokenHref);
-                properties.put(DefaultAccessToken.ACCOUNT_PROP_NAME, account);
-                properties.put(DefaultAccessToken.APPLICATION_PROP_NAME, application);
-                properties.put(DefaultAccessToken.JWT_PROP_NAME, jwtRequest.getJwt());
-                properties.put(DefaultAccessToken.TENANT_PROP_NAME, application.getTenant());
+        } catch (Exception e) {
+            throw new JwtException(VALIDATION_FAILED_MSG);
+        }
+    }
 
-                AccessToken accessToken = new DefaultAccessToken(dataStore, properties);
+    /**
+     * @since 1.0.RC7.7
+     */
+    private AccessToken buildAccessToken(Claims claims, Account account, String jwt) {
 
-                JwtAuthenticationResultBuilder builder = new DefaultJwtAuthenticationResultBuilder(accessToken);
-                return builder.build();
+        Map<String, Object> properties = new HashMap<String, Object>();
 
-            } catch (Exception e) {
-                throw new JwtException("JWT failed validation; it cannot be trusted.");
+        String accessTokenHref = application.getHref().replace(APPLICATION_PATH, ACCESS_TOKEN_PATH);
+        int accessTokenIdStartingPoint = accessTokenHref.lastIndexOf("/") + 1;
+        accessTokenHref = accessTokenHref.substring(0, accessTokenIdStartingPoint);
+        accessTokenHref = accessTokenHref + claims.getId();
+
+        properties.put(DefaultAccount.HREF_PROP_NAME, accessTokenHref);
+        properties.put(DefaultAccessToken.ACCOUNT_PROP_NAME, account);
+        properties.put(DefaultAccessToken.APPLICATION_PROP_NAME, application);
+        properties.put(DefaultAccessToken.JWT_PROP_NAME, jwt);
+        properties.put(DefaultAccessToken.TENANT_PROP_NAME, getTenantReference());
+
+        return new DefaultAccessToken(dataStore, properties);
+    }
+
+    /**
+     * Returns an unmaterialized reference to the application's tenant, read from the application's {@code tenant}
+     * link so that neither the application nor the tenant is retrieved or modified.
+     *
+     * @since 1.0.RC7.7
+     */
+    private Tenant getTenantReference() {
+        Object tenant = application instanceof AbstractResource ?
+                        ((AbstractResource) application).getProperty(DefaultAccessToken.TENANT_PROP_NAME) :
+                        application.getTenant();
+
+        String tenantHref = null;
+        if (tenant instanceof Map) {
+            tenantHref = (String) ((Map) tenant).get(AbstractResource.HREF_PROP_NAME);
+        } else if (tenant instanceof Tenant) {
+            tenantHref = ((Tenant) tenant).getHref();
+        }
+
+        if (!Strings.hasText(tenantHref)) {
+            return null;
+        }
+
+        Map<String, Object> tenantProperties = new HashMap<String, Object>();
+        tenantProperties.put(AbstractResource.HREF_PROP_NAME, tenantHref);
+        return dataStore.instantiate(Tenant.class, tenantProperties);
+    }
+
+    /**
+     * Validates the token with Stormpath, reusing the result of a previous validation of the same token if it is
+     * not older than the {@link #withMaxStaleness(Duration) maximum staleness}.
+     *
+     * @since 1.0.RC7.7
+     */
+    private JwtAuthenticationResult authenticateRemotely(String jwt) {
+
+        long maxStalenessMillis = maxStaleness != null ? toMillis(maxStaleness) : 0;
+
+        JwtClaims claims = null;
+        if (maxStalenessMillis > 0) {
+            try {
+                //the signature is not verified: a cached result is only used for the exact same token
+                claims = new JwtWrapper(jwt).getJsonPayloadClaims();
+            } catch (RuntimeException e) {
+                //malformed, let Stormpath reject it
+            }
+            if (claims != null) {
+                AccessToken cached = getValidationCache().getVerdict(claims.getId(), jwt, System.currentTimeMillis());
+                if (cached != null) {
+                    return new DefaultJwtAuthenticationResultBuilder(cached).build();
+                }
             }
         }
 
         StringBuilder stringBuilder = new StringBuilder(application.getHref());
         stringBuilder.append(OAUTH_TOKEN_PATH);
-        stringBuilder.append(jwtRequest.getJwt());
+        stringBuilder.append(jwt);
         AccessToken accessToken = dataStore.getResource(stringBuilder.toString(), AccessToken.class);
+
+        if (claims != null && claims.getExpiration() != null) {
+            long freshUntil = Math.min(claims.getExpiration().longValue() * 1000,
+                                       System.currentTimeMillis() + maxStalenessMillis);
+            getValidationCache().putVerdict(claims.getId(), jwt, accessToken, freshUntil);
+        }
+
         JwtAuthenticationResultBuilder builder = new DefaultJwtAuthenticationResultBuilder(accessToken);
         return builder.build();
     }
 
+    /**
+     * Validates the token locally, then ensures it is still held by its (enabled) account, as known at most
+     * {@link #withMaxStaleness(Duration) maxStaleness} ago.
+     *
+     * @since 1.0.RC7.7
+     */
+    private JwtAuthenticationResult authenticateHybrid(String jwt) {
+
+        Claims claims = parseLocally(jwt);
+        String tokenId = claims.getId();
+        long maxStalenessMillis = toMillis(maxStaleness != null ? maxStaleness : DEFAULT_HYBRID_MAX_STALENESS);
+        JwtValidationCache cache = getValidationCache();
+
+        long now = System.currentTimeMillis();
+        AccessToken cached = cache.getVerdict(tokenId, jwt, now);
+        if (cached != null) {
+            return new DefaultJwtAuthenticationResultBuilder(cached).build();
+        }
+
+        String accountHref = claims.getSubject();
+        JwtValidationCache.AccountTokens tokens = cache.getAccountTokens(accountHref);
+
+        if (tokens == null || now - tokens.getFetchedAtMillis() > maxStalenessMillis) {
+            try {
+                tokens = fetchAccountTokens(accountHref);
+            } catch (ResourceException e) {
+                if (e.getStatus() == 404) { //the account was deleted
+                    throw new JwtException(VALIDATION_FAILED_MSG);
+                }
+                //anything else (i.e. Stormpath being unavailable) says nothing about the token:
+                throw e;
+            }
+            cache.putAccountTokens(accountHref, tokens);
+        }
+
+        if (tokens.getAccount().getStatus() != AccountStatus.ENABLED) {
+            throw new JwtException(VALIDATION_FAILED_MSG);
+        }
+
+        if (!tokens.contains(tokenId)) {
+            Date issuedAt = claims.getIssuedAt();
+            if (issuedAt == null || issuedAt.getTime() < tokens.getFetchedAtMillis() - ALLOWED_CLOCK_SKEW_MILLIS) {
+                //the account held its tokens after this one was issued, but not this one: it has been revoked
+                throw new JwtException(VALIDATION_FAILED_MSG);
+            }
+            //the token may have been issued after the account's tokens were fetched: only Stormpath can tell
+            AccessToken accessToken = dataStore.getResource(
+                application.getHref() + OAUTH_TOKEN_PATH + jwt, AccessToken.class);
+            cache.putVerdict(tokenId, jwt, accessToken, freshUntil(claims, now + maxStalenessMillis));
+            return new DefaultJwtAuthenticationResultBuilder(accessToken).build();
+        }
+
+        AccessToken accessToken = buildAccessToken(claims, tokens.getAccount(), jwt);
+        cache.putVerdict(tokenId, jwt, accessToken, freshUntil(claims, tokens.getFetchedAtMillis() + maxStalenessMillis));
+        return new DefaultJwtAuthenticationResultBuilder(accessToken).build();
+    }
+
+    /**
+     * Reads the account and the ids of its access tokens from Stormpath.  The account is evicted from the data store's
+     * cache first, since a cached account could be much older than the maximum staleness.
+     * <p/>
+     * Revoked tokens are deleted, so they can only be detected by reading the whole collection: there is no way to
+     * read just the changes since the previous read.
+     *
+     * @since 1.0.RC7.7
+     */
+    private JwtValidationCache.AccountTokens fetchAccountTokens(String accountHref) {
+        long fetchedAt = System.currentTimeMillis();
+        dataStore.getCacheResolver().getCache(Account.class).remove(accountHref);
+        Account account = dataStore.getResource(accountHref, Account.class);
+        Set<String> tokenIds = new HashSet<String>();
+        for (AccessToken accessToken : account.getAccessTokens()) {
+            String href = accessToken.getHref();
+            tokenIds.add(href.substring(href.lastIndexOf('/') + 1));
+        }
+        return new JwtValidationCache.AccountTokens(account, tokenIds, fetchedAt);
+    }
+
+    private JwtValidationCache getValidationCache() {
+        if (validationCache == null) {
+            validationCache = JwtValidationCache.forApplication(dataStore.getApiKey().getId(), application.getHref());
+        }
+        return validationCache;
+    }
+
+    private static long freshUntil(Claims claims, long maxFreshUntil) {
+        Date expiration = claims.getExpiration();
+        return expiration != null ? Math.min(expiration.getTime(), maxFreshUntil) : maxFreshUntil;
+    }
+
+    private static long toMillis(Duration duration) {
+        return duration.getTimeUnit().toMillis(duration.getValue());
+    }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.oauth;
+
+import com.stormpath.sdk.account.Account;
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap;
+import com.stormpath.sdk.oauth.AccessToken;
+
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * The validation state retained by {@link DefaultJwtAuthenticator}s across authentications for one application: the
+ * verdicts of validated tokens (keyed by the token's {@code jti} claim, each retained until it is no longer fresh)
+ * and, for hybrid validation, the ids of the access tokens currently held by each account.
+ * <p/>
+ * Authenticators are created for each {@code forApplication} call, so this state is shared by all authenticators of
+ * the same application and API key, see {@link #forApplication(String, String)}.
+ *
+ * @since 1.0.RC7.7
+ */
+final class JwtValidationCache {
+
+    static final int MAX_APPLICATIONS = 100;
+    static final int MAX_VERDICTS = 10000;
+    static final int MAX_ACCOUNTS = 1000;
+
+    private static final BoundedConcurrentMap<String, JwtValidationCache> CACHES =
+        new BoundedConcurrentMap<String, JwtValidationCache>(MAX_APPLICATIONS);
+
+    private final BoundedConcurrentMap<String, Verdict> verdicts;
+    private final BoundedConcurrentMap<String, AccountTokens> accountTokens;
+
+    JwtValidationCache(int maxVerdicts, int maxAccounts) {
+        this.verdicts = new BoundedConcurrentMap<String, Verdict>(maxVerdicts);
+        this.verdicts.setExpiry(new BoundedConcurrentMap.Expiry<String, Verdict>() {
+            @Override
+            public boolean isExpired(String jti, Verdict verdict, long nowMillis) {
+                return nowMillis >= verdict.freshUntilMillis;
+            }
+        });
+        this.accountTokens = new BoundedConcurrentMap<String, AccountTokens>(maxAccounts);
+    }
+
+    /**
+     * Returns the validation state shared by all authenticators of the specified application using the specified
+     * API key.
+     */
+    static JwtValidationCache forApplication(String apiKeyId, String applicationHref) {
+        String key = apiKeyId + ' ' + applicationHref;
+        JwtValidationCache cache = CACHES.get(key);
+        if (cache == null) {
+            cache = new JwtValidationCache(MAX_VERDICTS, MAX_ACCOUNTS);
+            JwtValidationCache existing = CACHES.putIfAbsent(key, cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the access token of a previous successful validation of the exact same {@code jwt}, or {@code null} if
+     * there is none or it is no longer fresh.
+     */
+    AccessToken getVerdict(String jti, String jwt, long nowMillis) {
+        if (jti == null) {
+            return null;
+        }
+        Verdict verdict = verdicts.get(jti);
+        if (verdict == null || nowMillis >= verdict.freshUntilMillis || !isEqual(verdict.jwt, jwt)) {
+            return null;
+        }
+        return verdict.accessToken;
+    }
+
+    void putVerdict(String jti, String jwt, AccessToken accessToken, long freshUntilMillis) {
+        if (jti != null && freshUntilMillis > System.currentTimeMillis()) {
+            verdicts.put(jti, new Verdict(jwt, accessToken, freshUntilMillis));
+        }
+    }
+
+    AccountTokens getAccountTokens(String accountHref) {
+        return accountTokens.get(accountHref);
+    }
+
+    void putAccountTokens(String accountHref, AccountTokens tokens) {
+        accountTokens.put(accountHref, tokens);
+    }
+
+    //the tokens are secrets: don't leak how much of a candidate matched
+    private static boolean isEqual(String a, String b) {
+        return MessageDigest.isEqual(a.getBytes(), b.getBytes());
+    }
+
+    private static final class Verdict {
+
+        private final String jwt;
+        private final AccessToken accessToken;
+        private final long freshUntilMillis;
+
+        private Verdict(String jwt, AccessToken accessToken, long freshUntilMillis) {
+            this.jwt = jwt;
+            this.accessToken = accessToken;
+            this.freshUntilMillis = freshUntilMillis;
+        }
+    }
+
+    /**
+     * The ids of the access tokens held by an account (the tokens that have not been revoked), as of
+     * {@link #getFetchedAtMillis() fetchedAtMillis}.
+     */
+    static final class AccountTokens {
+
+        private final Account account;
+        private final Set<String> tokenIds;
+        private final long fetchedAtMillis;
+
+        AccountTokens(Account account, Set<String> tokenIds, long fetchedAtMillis) {
+            this.account = account;
+            this.tokenIds = tokenIds;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+
+        Account getAccount() {
+            return account;
+        }
+
+        boolean contains(String tokenId) {
+            return tokenIds.contains(tokenId);
+        }
+
+        long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+    }
+}
@@ -16,9 +16,11 @@
 package com.stormpath.sdk.impl.resource;
 
 import com.stormpath.sdk.impl.ds.InternalDataStore;
+import com.stormpath.sdk.lang.Assert;
 import com.stormpath.sdk.resource.CollectionResource;
 import com.stormpath.sdk.resource.Resource;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,6 +29,10 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -151,6 +157,14 @@ public abstract class AbstractCollectionResource<T extends Resource> extends Abs
         return new PaginatedIterator<T>(this, firstPageQueryRequired.getAndSet(true));
     }
 
+    /** @since 1.0.RC7.7 */
+    @Override
+    public Iterator<T> prefetchingIterator(int pageSize, int lookAhead) {
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than zero.");
+        Assert.isTrue(lookAhead >= 0, "lookAhead cannot be negative.");
+        return new PrefetchingIterator(pageSize, lookAhead);
+    }
+
     private Collection<T> toResourceList(Collection vals, Class<T> itemType) {
 
         List<T> list = new ArrayList<T>(vals.size());
@@ -251,6 +265,142 @@ public abstract class AbstractCollectionResource<T extends Resource> extends Abs
         }
     }
 
+    /**
+     * Iterator that keeps up to {@code lookAhead} page requests in flight beyond the page being consumed.  Pages are
+     * requested via {@link InternalDataStore#getResourceAsync(String, Class, Map)}, so they are only retrieved in the
+     * background when the data store's request executor supports asynchronous execution (the default); otherwise they
+     * are simply retrieved before being needed.  The pending requests are kept in a FIFO queue, so pages are always
+     * consumed in collection order regardless of the order in which their responses arrive.
+     *
+     * @since 1.0.RC7.7
+     */
+    private class PrefetchingIterator implements Iterator<T> {
+
+        private final String href;
+        private final Map<String, Object> queryParams;
+        private final int lookAhead;
+        private final Queue<Future<? extends AbstractCollectionResource>> pending;
+
+        private int limit; //the page limit actually applied by the server
+        private int size;
+        private int nextOffset;
+        private boolean exhausted;
+        private Iterator<T> currentPageIterator;
+
+        @SuppressWarnings("unchecked")
+        private PrefetchingIterator(int pageSize, int lookAhead) {
+            this.href = getHref();
+            this.queryParams = AbstractCollectionResource.this.queryParams;
+            this.lookAhead = lookAhead;
+            this.pending = new ArrayDeque<Future<? extends AbstractCollectionResource>>(Math.max(lookAhead, 1));
+
+            AbstractCollectionResource<T> first;
+            if (isMaterialized() && getLimit() == pageSize && !firstPageQueryRequired.getAndSet(true)) {
+                //this instance already holds the first page - no need to query it again:
+                first = AbstractCollectionResource.this;
+            } else {
+                Map<String, Object> params = new LinkedHashMap<String, Object>(this.queryParams);
+                params.put(LIMIT.getName(), pageSize);
+                first = getDataStore().getResource(this.href, AbstractCollectionResource.this.getClass(), params);
+            }
+
+            Page<T> page = first.getCurrentPage();
+            this.limit = page.getLimit();
+            this.nextOffset = page.getOffset() + this.limit;
+            accept(page);
+            prefetch();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentPageIterator.hasNext()) {
+                if (pending.isEmpty()) {
+                    if (!hasMorePages()) {
+                        return false;
+                    }
+                    //no look ahead (or nothing scheduled yet): request the next page on demand
+                    request();
+                }
+                accept(await(pending.poll()));
+                prefetch();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return currentPageIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported.");
+        }
+
+        private boolean hasMorePages() {
+            return !exhausted && nextOffset < size;
+        }
+
+        private void prefetch() {
+            while (pending.size() < lookAhead && hasMorePages()) {
+                request();
+            }
+        }
+
+        private void request() {
+            Map<String, Object> params = new LinkedHashMap<String, Object>(queryParams);
+            params.put(OFFSET.getName(), nextOffset);
+            params.put(LIMIT.getName(), limit);
+            pending.add(getDataStore().getResourceAsync(href, AbstractCollectionResource.this.getClass(), params));
+            nextOffset += limit;
+        }
+
+        private void accept(Page<T> page) {
+            Collection<T> items = page.getItems();
+            //the collection may grow while it is being iterated, so always honor the largest size seen:
+            this.size = Math.max(this.size, page.getSize());
+            //as with the PaginatedIterator, a page that is not full is the last one:
+            if (this.limit <= 0 || items.size() < this.limit) {
+                this.exhausted = true;
+                cancelPending();
+            }
+            this.currentPageIterator = items.iterator();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Page<T> await(Future<? extends AbstractCollectionResource> future) {
+            try {
+                return future.get().getCurrentPage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelPending();
+                throw new IllegalStateException("Interrupted while waiting for the next page of " + href, e);
+            } catch (ExecutionException e) {
+                cancelPending();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("Unable to retrieve the next page of " + href + ": " +
+                                                cause.getMessage(), cause);
+            }
+        }
+
+        private void cancelPending() {
+            this.exhausted = true;
+            for (Future<?> future : pending) {
+                future.cancel(false);
+            }
+            pending.clear();
+        }
+    }
+
     private static class DefaultPage<T> implements Page<T> {
 
         private final int offset;
@@ -26,6 +26,8 @@ import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.Charset;
 import java.security.spec.KeySpec;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * @since 1.0.RC
@@ -38,11 +40,17 @@ public class ApiKeySecretEncryptionService implements EncryptionService {
 
     private static final int BITS_PER_BYTE = 8;
 
+    private static final String CIPHER_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+
+    //Cipher instances are not thread-safe, so instances are borrowed from this pool while decrypting; an instance
+    //of this service can then be shared (and its derived key reused) by concurrent callers:
+    private static final int CIPHER_POOL_SIZE = 8;
+
     private final SecretKey key;
 
     private final Builder builder;
 
-    private final Cipher cipher;
+    private final BlockingQueue<Cipher> ciphers;
 
     private ApiKeySecretEncryptionService(Builder builder) {
 
@@ -66,8 +74,13 @@ public class ApiKeySecretEncryptionService implements EncryptionService {
 
         key = initKey(password, Base64.decodeBase64(base64Salt), keySize, iterations);
 
+        this.ciphers = new ArrayBlockingQueue<Cipher>(CIPHER_POOL_SIZE);
+        this.ciphers.offer(newCipher());
+    }
+
+    private static Cipher newCipher() {
         try {
-            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+            return Cipher.getInstance(CIPHER_TRANSFORMATION);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -115,9 +128,17 @@ public class ApiKeySecretEncryptionService implements EncryptionService {
             int encryptedSize = encryptedValue.length - ivByteSize;
             System.arraycopy(encryptedValue, ivByteSize, rawEncryptedValue, 0, encryptedSize);
 
+            Cipher cipher = ciphers.poll();
+            if (cipher == null) {
+                cipher = newCipher();
+            }
+
             cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
             byte[] plainTxtBytes = cipher.doFinal(rawEncryptedValue);
 
+            //only returned to the pool after successful use, a failed instance is simply discarded:
+            ciphers.offer(cipher);
+
             return plainTxtBytes;
 
         } catch (Exception e) {
@@ -0,0 +1,761 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+import com.stormpath.sdk.lang.Assert;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@code BoundedConcurrentMap} is a thread-safe map that retains at most a configured total <em>weight</em> of
+ * entries, evicting entries that are unlikely to be used again once that capacity has been exceeded.
+ * <h2>Eviction Policy</h2>
+ * Entries are evicted based on the <em>Window TinyLFU</em> policy: new entries are first admitted to a small LRU
+ * 'window' (1% of the capacity).  Entries overflowing the window are only admitted to the main region if they have
+ * been used more frequently than the main region's least recently used entry, as estimated by a compact frequency
+ * sketch.  The main region is itself a segmented LRU, where entries accessed more than once are promoted to a
+ * 'protected' segment (80% of the main region).  This retains frequently used entries even when the map is swept by a
+ * burst of one-time accesses (e.g. a large collection iteration), which a plain LRU policy does not.
+ * <h2>Weights</h2>
+ * Each entry's weight is determined by a {@link Weigher}.  If no weigher is specified, each entry has a weight of
+ * {@code 1}, and the capacity is therefore the maximum number of entries.
+ * <h2>Expiration</h2>
+ * An optional {@link Expiry} may be set to allow entries that are no longer valid (for example, because a cache's
+ * time to live has passed) to be removed proactively.  Only the least recently used entries of each region are
+ * checked during routine maintenance, so the cost of expiration is amortized across map operations rather than
+ * requiring a full scan.
+ * <h2>Thread Safety</h2>
+ * This implementation is thread-safe and usable in concurrent environments.  Reads never block: accesses are recorded
+ * in lossy, striped buffers and replayed against the eviction policy in batches.  Writes are recorded in a queue and
+ * replayed immediately under the eviction lock so that the capacity is honored.
+ * <p/>
+ * Like {@link ConcurrentHashMap}, this map does not allow {@code null} keys or values.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @see Weigher
+ * @since 1.0.RC7.7
+ */
+public class BoundedConcurrentMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    /**
+     * Determines whether or not a map entry is no longer valid and may be removed from the map.
+     *
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     */
+    public interface Expiry<K, V> {
+
+        /**
+         * Returns {@code true} if the specified entry is no longer valid and may be removed from the map,
+         * {@code false} otherwise.
+         *
+         * @param key       the entry key
+         * @param value     the entry value
+         * @param nowMillis the current time in milliseconds since Epoch
+         * @return {@code true} if the specified entry is no longer valid and may be removed from the map,
+         *         {@code false} otherwise.
+         */
+        boolean isExpired(K key, V value, long nowMillis);
+    }
+
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    private static final int READ_BUFFERS = ceilingPowerOfTwo(Math.min(4 * NCPU, 64));
+    private static final int READ_BUFFERS_MASK = READ_BUFFERS - 1;
+    private static final int READ_BUFFER_SIZE = 32;
+    private static final int READ_BUFFER_INDEX_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 16;
+    private static final int READ_BUFFER_DRAIN_MASK = READ_BUFFER_DRAIN_THRESHOLD - 1;
+
+    private static final int EXPIRATION_SCAN_LIMIT = 16;
+
+    private static final double WINDOW_PERCENTAGE = 0.01d;
+    private static final double PROTECTED_PERCENTAGE = 0.80d;
+
+    private static final int NONE = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final Weigher<? super K, ? super V> weigher;
+    private volatile Expiry<? super K, ? super V> expiry;
+
+    private final long capacity;
+    private final long windowCapacity;
+    private final long protectedCapacity;
+
+    private final ReentrantLock evictionLock;
+    private final Queue<Node<K, V>> writeBuffer;
+    private final AtomicReferenceArray<Node<K, V>>[] readBuffers;
+    private final AtomicLong[] readBufferCounts;
+
+    //guarded by 'evictionLock':
+    private final AccessOrderDeque<K, V> window;
+    private final AccessOrderDeque<K, V> probation;
+    private final AccessOrderDeque<K, V> protectedSegment;
+    private final FrequencySketch sketch;
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    private volatile long evictionCount;
+
+    /**
+     * Creates a new map that retains at most {@code maxEntries} entries.
+     *
+     * @param maxEntries the maximum number of entries to retain, must be greater than zero.
+     */
+    public BoundedConcurrentMap(long maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Creates a new map that retains entries up to a total weight of {@code maxWeight}, where each entry's weight is
+     * determined by the specified {@code weigher}.  If {@code weigher} is {@code null}, every entry has a weight of
+     * {@code 1}.
+     *
+     * @param maxWeight the maximum total weight of entries to retain, must be greater than zero.
+     * @param weigher   the weigher used to determine each entry's weight, or {@code null} to weigh each entry as
+     *                  {@code 1}.
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedConcurrentMap(long maxWeight, Weigher<? super K, ? super V> weigher) {
+        Assert.isTrue(maxWeight > 0, "maxWeight must be greater than zero.");
+        this.capacity = maxWeight;
+        this.windowCapacity = Math.max(1, (long) (maxWeight * WINDOW_PERCENTAGE));
+        this.protectedCapacity = (long) ((maxWeight - windowCapacity) * PROTECTED_PERCENTAGE);
+        this.weigher = weigher;
+        this.data = new ConcurrentHashMap<K, Node<K, V>>();
+        this.evictionLock = new ReentrantLock();
+        this.writeBuffer = new ConcurrentLinkedQueue<Node<K, V>>();
+        this.readBuffers = new AtomicReferenceArray[READ_BUFFERS];
+        this.readBufferCounts = new AtomicLong[READ_BUFFERS];
+        for (int i = 0; i < READ_BUFFERS; i++) {
+            this.readBuffers[i] = new AtomicReferenceArray<Node<K, V>>(READ_BUFFER_SIZE);
+            this.readBufferCounts[i] = new AtomicLong();
+        }
+        this.window = new AccessOrderDeque<K, V>();
+        this.probation = new AccessOrderDeque<K, V>();
+        this.protectedSegment = new AccessOrderDeque<K, V>();
+        this.sketch = new FrequencySketch(weigher == null ? maxWeight : Math.max(maxWeight / 8, 1));
+    }
+
+    /**
+     * Sets the {@link Expiry} used to proactively remove entries that are no longer valid, or {@code null} if entries
+     * should only be removed due to capacity constraints.
+     *
+     * @param expiry the {@link Expiry} used to proactively remove entries that are no longer valid
+     */
+    public void setExpiry(Expiry<? super K, ? super V> expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Returns the maximum total weight of entries retained by this map.
+     *
+     * @return the maximum total weight of entries retained by this map.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the total weight of all entries currently retained by this map.
+     *
+     * @return the total weight of all entries currently retained by this map.
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            return totalWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total number of entries that have been removed from this map due to capacity constraints or
+     * {@link Expiry expiration}.
+     *
+     * @return the total number of entries that have been removed from this map due to capacity constraints or
+     *         expiration.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        afterRead(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+
+        int weight = weigh(key, value);
+        Node<K, V> node = new Node<K, V>(key, value, weight);
+
+        for (; ; ) {
+            Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterWrite(node);
+                return null;
+            }
+            if (onlyIfAbsent) {
+                afterRead(prior);
+                return prior.value;
+            }
+
+            V oldValue;
+            synchronized (prior) {
+                if (prior.retired) {
+                    //removed concurrently after we looked it up - try again:
+                    continue;
+                }
+                oldValue = prior.value;
+                prior.value = value;
+                prior.weight = weight;
+            }
+            afterWrite(prior);
+            return oldValue;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        int weight = weigh(key, value);
+        V oldValue;
+        synchronized (node) {
+            if (node.retired) {
+                return null;
+            }
+            oldValue = node.value;
+            node.value = value;
+            node.weight = weight;
+        }
+        afterWrite(node);
+        return oldValue;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (key == null || oldValue == null || newValue == null) {
+            throw new NullPointerException();
+        }
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return false;
+        }
+        int weight = weigh(key, newValue);
+        synchronized (node) {
+            if (node.retired || !node.value.equals(oldValue)) {
+                return false;
+            }
+            node.value = newValue;
+            node.weight = weight;
+        }
+        afterWrite(node);
+        return true;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null || !retire(node)) {
+            return null;
+        }
+        afterWrite(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Node<K, V> node = data.get(key);
+        if (node == null || value == null) {
+            return false;
+        }
+        synchronized (node) {
+            if (node.retired || !node.value.equals(value)) {
+                return false;
+            }
+            node.retired = true;
+            data.remove(node.key, node);
+        }
+        afterWrite(node);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            for (Node<K, V> node : data.values()) {
+                if (retire(node)) {
+                    unlink(node);
+                }
+            }
+            //pick up any nodes added concurrently while clearing:
+            drainBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 1;
+        }
+        int weight = weigher.weightOf(key, value);
+        Assert.isTrue(weight >= 1, "Weigher must return a weight greater than or equal to 1.");
+        return weight;
+    }
+
+    /**
+     * Marks the node as removed and removes it from the backing map if it has not been already.
+     *
+     * @return {@code true} if this call retired the node, {@code false} if it was already retired.
+     */
+    private boolean retire(Node<K, V> node) {
+        synchronized (node) {
+            if (node.retired) {
+                return false;
+            }
+            node.retired = true;
+            data.remove(node.key, node);
+            return true;
+        }
+    }
+
+    /**
+     * Records a read of the node in the calling thread's read buffer.  The buffer is lossy: if it has not been drained
+     * before it wraps around, older reads are overwritten, which only affects the precision of the eviction policy.
+     */
+    private void afterRead(Node<K, V> node) {
+        int i = (int) spread(Thread.currentThread().getId()) & READ_BUFFERS_MASK;
+        long count = readBufferCounts[i].getAndIncrement();
+        readBuffers[i].lazySet((int) (count & READ_BUFFER_INDEX_MASK), node);
+
+        if ((count & READ_BUFFER_DRAIN_MASK) == READ_BUFFER_DRAIN_MASK && evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node) {
+        writeBuffer.add(node);
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    //guarded by 'evictionLock'
+    private void maintenance() {
+        drainBuffers();
+        expireEntries();
+        evictEntries();
+    }
+
+    //guarded by 'evictionLock'
+    private void drainBuffers() {
+        for (int i = 0; i < READ_BUFFERS; i++) {
+            AtomicReferenceArray<Node<K, V>> buffer = readBuffers[i];
+            for (int j = 0; j < READ_BUFFER_SIZE; j++) {
+                Node<K, V> node = buffer.get(j);
+                if (node != null && buffer.compareAndSet(j, node, null)) {
+                    onAccess(node);
+                }
+            }
+        }
+
+        Node<K, V> node;
+        while ((node = writeBuffer.poll()) != null) {
+            onWrite(node);
+        }
+    }
+
+    //guarded by 'evictionLock'
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == NONE) {
+            //not yet added to the policy, or already removed:
+            return;
+        }
+
+        sketch.increment(node.key);
+
+        if (node.queue == WINDOW) {
+            window.moveToBack(node);
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+            protectedSegment.add(node);
+            node.queue = PROTECTED;
+            protectedWeight += node.policyWeight;
+            demoteFromProtected();
+        } else {
+            protectedSegment.moveToBack(node);
+        }
+    }
+
+    /**
+     * Reconciles the eviction policy with the node's current state: adds a new node, removes a retired node, or
+     * applies an updated node's weight.
+     */
+    //guarded by 'evictionLock'
+    private void onWrite(Node<K, V> node) {
+        if (node.retired) {
+            unlink(node);
+            return;
+        }
+
+        if (node.queue == NONE) {
+            node.queue = WINDOW;
+            node.policyWeight = node.weight;
+            window.add(node);
+            windowWeight += node.policyWeight;
+            totalWeight += node.policyWeight;
+            sketch.increment(node.key);
+            return;
+        }
+
+        int delta = node.weight - node.policyWeight;
+        node.policyWeight = node.weight;
+        totalWeight += delta;
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+        onAccess(node);
+    }
+
+    //guarded by 'evictionLock'
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.policyWeight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedWeight -= node.policyWeight;
+                break;
+            default:
+                return;
+        }
+        totalWeight -= node.policyWeight;
+        node.queue = NONE;
+    }
+
+    //guarded by 'evictionLock'
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedCapacity) {
+            Node<K, V> demoted = protectedSegment.poll();
+            if (demoted == null) {
+                break;
+            }
+            protectedWeight -= demoted.policyWeight;
+            demoted.queue = PROBATION;
+            probation.add(demoted);
+        }
+    }
+
+    //guarded by 'evictionLock'
+    private void expireEntries() {
+        Expiry<? super K, ? super V> expiry = this.expiry;
+        if (expiry == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        expireEntries(window, expiry, now);
+        expireEntries(probation, expiry, now);
+        expireEntries(protectedSegment, expiry, now);
+    }
+
+    //guarded by 'evictionLock'
+    private void expireEntries(AccessOrderDeque<K, V> deque, Expiry<? super K, ? super V> expiry, long now) {
+        for (int i = 0; i < EXPIRATION_SCAN_LIMIT; i++) {
+            Node<K, V> node = deque.peek();
+            if (node == null || !expiry.isExpired(node.key, node.value, now)) {
+                return;
+            }
+            evict(node);
+        }
+    }
+
+    //guarded by 'evictionLock'
+    private void evictEntries() {
+        //entries overflowing the window become candidates for the main region:
+        while (windowWeight > windowCapacity) {
+            Node<K, V> node = window.poll();
+            if (node == null) {
+                break;
+            }
+            windowWeight -= node.policyWeight;
+            node.queue = PROBATION;
+            probation.add(node);
+        }
+
+        while (totalWeight > capacity) {
+            Node<K, V> victim = probation.peek();
+            Node<K, V> candidate = probation.peekLast();
+
+            if (victim == null) {
+                victim = protectedSegment.peek();
+                if (victim == null) {
+                    victim = window.peek();
+                }
+                if (victim == null) {
+                    break;
+                }
+                evict(victim);
+            } else if (victim == candidate) {
+                evict(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                //TinyLFU admission: the candidate is more popular, so it replaces the victim:
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    //guarded by 'evictionLock'
+    private void evict(Node<K, V> node) {
+        if (retire(node)) {
+            evictionCount++;
+        }
+        unlink(node);
+    }
+
+    private static long spread(long x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3bL;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+
+    /**
+     * A map entry and its eviction policy metadata.
+     */
+    private static final class Node<K, V> {
+
+        final K key;
+        volatile V value;
+        volatile int weight;
+        volatile boolean retired; //written while synchronized on this node
+
+        //guarded by 'evictionLock':
+        int queue = NONE;
+        int policyWeight;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A doubly-linked list of nodes ordered from least recently used (head) to most recently used (tail), linked
+     * through the nodes themselves to avoid allocating on every access.  Not thread-safe.
+     */
+    private static final class AccessOrderDeque<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+
+        Node<K, V> peek() {
+            return first;
+        }
+
+        Node<K, V> peekLast() {
+            return last;
+        }
+
+        Node<K, V> poll() {
+            Node<K, V> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void add(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+            Node<K, V> prev = node.prev;
+            Node<K, V> next = node.next;
+            if (prev == null) {
+                first = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                last = prev;
+            } else {
+                next.prev = prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                add(node);
+            }
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator(data.values().iterator());
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void clear() {
+            BoundedConcurrentMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Iterator<Node<K, V>> iterator;
+        private Node<K, V> current;
+
+        private EntryIterator(Iterator<Node<K, V>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            current = iterator.next();
+            return new WriteThroughEntry(current.key, current.value);
+        }
+
+        @Override
+        public void remove() {
+            Assert.state(current != null, "next() must be called before remove()");
+            BoundedConcurrentMap.this.remove(current.key, current.value);
+            current = null;
+        }
+    }
+
+    private final class WriteThroughEntry extends SimpleEntry<K, V> {
+
+        private WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+/**
+ * A probabilistic, fixed-size estimate of how often an element has been seen within a recent time window, used as the
+ * admission filter of a {@link BoundedConcurrentMap} (the 'TinyLFU' policy).
+ * <p/>
+ * This is a 4-bit Count-Min sketch: each element is hashed to four counters (one per row) packed into a {@code long[]}
+ * table, and its estimated frequency is the minimum of those counters.  Once the number of recorded increments reaches
+ * the sample size, every counter is halved so that stale popularity ages out of the sketch.
+ * <p/>
+ * This class is <b>not</b> thread-safe; callers are expected to guard access with their own lock.
+ *
+ * @since 1.0.RC7.7
+ */
+final class FrequencySketch {
+
+    private static final long[] SEED = new long[]{ //large primes
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 16;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch sized to track approximately {@code expectedEntries} distinct elements.
+     *
+     * @param expectedEntries the approximate number of distinct elements the sketch should represent.
+     */
+    FrequencySketch(long expectedEntries) {
+        int max = (int) Math.min(Math.max(expectedEntries, 1), MAXIMUM_TABLE_SIZE);
+        this.table = new long[ceilingPowerOfTwo(max)];
+        this.tableMask = this.table.length - 1;
+        this.sampleSize = 10 * max;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the specified element, up to a maximum of {@code 15}.
+     *
+     * @param e the element to count
+     * @return the estimated number of occurrences of the element, up to a maximum of {@code 15}.
+     */
+    int frequency(Object e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the popularity of the element if it does not exceed the maximum ({@code 15}).  The popularity of all
+     * elements will be periodically down sampled when the observed events exceed a threshold.
+     *
+     * @param e the element to add
+     */
+    void increment(Object e) {
+        int hash = spread(e.hashCode());
+        int start = (hash & 3) << 2;
+
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            added |= incrementAt(index, start + i);
+        }
+
+        if (added && (++size == sampleSize)) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = (0xfL << offset);
+        if ((table[i] & mask) != mask) {
+            table[i] += (1L << offset);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reduces every counter by half of its original value.
+     */
+    private void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int item, int i) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += (hash >>> 32);
+        return ((int) hash) & tableMask;
+    }
+
+    /**
+     * Applies a supplemental hash function to defend against poor quality hash codes.
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << -Integer.numberOfLeadingZeros(x - 1);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+/**
+ * Callback notified when the result of a {@link ListenableFuture} becomes available.
+ *
+ * @param <T> the type of the future's result
+ * @see ListenableFuture#addCallback(FutureCallback)
+ * @since 1.0.RC7.7
+ */
+public interface FutureCallback<T> {
+
+    /**
+     * Invoked with the result of the future when it completes successfully.
+     *
+     * @param result the result of the future
+     */
+    void onSuccess(T result);
+
+    /**
+     * Invoked when the future fails or is cancelled.
+     *
+     * @param t the cause of the failure, or a {@link java.util.concurrent.CancellationException} if the future was
+     *          cancelled.
+     */
+    void onFailure(Throwable t);
+}
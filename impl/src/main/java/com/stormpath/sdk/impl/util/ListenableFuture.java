@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+import java.util.concurrent.Future;
+
+/**
+ * A {@link Future} that accepts callbacks to be notified once its result is available, allowing callers to react to
+ * completion without blocking a thread in {@link #get()}.
+ *
+ * @param <T> the type of the future's result
+ * @see SettableFuture
+ * @since 1.0.RC7.7
+ */
+public interface ListenableFuture<T> extends Future<T> {
+
+    /**
+     * Registers a callback to be notified when this future completes.  If the future has already completed, the
+     * callback is notified immediately on the calling thread; otherwise it is notified on the thread that completes
+     * the future.  Callbacks should therefore be quick and must never block.
+     *
+     * @param callback the callback to notify when this future completes
+     */
+    void addCallback(FutureCallback<? super T> callback);
+}
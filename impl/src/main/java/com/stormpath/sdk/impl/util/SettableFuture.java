@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+import com.stormpath.sdk.lang.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link ListenableFuture} whose result is explicitly set by the producer via {@link #set(Object)} or
+ * {@link #setException(Throwable)}.  Only the first completion (including {@link #cancel(boolean) cancellation}) takes
+ * effect; later attempts are ignored and return {@code false}.
+ *
+ * @param <T> the type of the future's result
+ * @since 1.0.RC7.7
+ */
+public class SettableFuture<T> implements ListenableFuture<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(SettableFuture.class);
+
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private volatile int state = PENDING;
+    private T value;
+    private Throwable cause;
+    private List<FutureCallback<? super T>> callbacks = new ArrayList<FutureCallback<? super T>>(2); //guarded by this
+
+    /**
+     * Completes this future successfully with the specified value.
+     *
+     * @param value the result of the future, may be {@code null}
+     * @return {@code true} if this call completed the future, {@code false} if it had already completed.
+     */
+    public boolean set(T value) {
+        return complete(SUCCEEDED, value, null);
+    }
+
+    /**
+     * Completes this future exceptionally with the specified cause.
+     *
+     * @param t the cause of the failure
+     * @return {@code true} if this call completed the future, {@code false} if it had already completed.
+     */
+    public boolean setException(Throwable t) {
+        Assert.notNull(t, "Throwable argument cannot be null.");
+        return complete(FAILED, null, t);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return complete(CANCELLED, null, null);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state != PENDING;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException("Future did not complete within " + timeout + " " + unit + ".");
+        }
+        return getResult();
+    }
+
+    @Override
+    public void addCallback(FutureCallback<? super T> callback) {
+        Assert.notNull(callback, "callback argument cannot be null.");
+        synchronized (this) {
+            if (state == PENDING) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notify(callback);
+    }
+
+    private boolean complete(int state, T value, Throwable cause) {
+        List<FutureCallback<? super T>> toNotify;
+        synchronized (this) {
+            if (this.state != PENDING) {
+                return false;
+            }
+            this.value = value;
+            this.cause = cause;
+            this.state = state;
+            toNotify = this.callbacks;
+            this.callbacks = null;
+        }
+        latch.countDown();
+        for (FutureCallback<? super T> callback : toNotify) {
+            notify(callback);
+        }
+        return true;
+    }
+
+    private void notify(FutureCallback<? super T> callback) {
+        try {
+            if (state == SUCCEEDED) {
+                callback.onSuccess(value);
+            } else if (state == CANCELLED) {
+                callback.onFailure(new CancellationException("Future was cancelled."));
+            } else {
+                callback.onFailure(cause);
+            }
+        } catch (RuntimeException e) {
+            //a misbehaving callback must not prevent the others from being notified:
+            log.warn("Future callback threw an exception: {}", e.getMessage(), e);
+        }
+    }
+
+    private T getResult() throws ExecutionException {
+        switch (state) {
+            case SUCCEEDED:
+                return value;
+            case CANCELLED:
+                throw new CancellationException("Future was cancelled.");
+            default:
+                throw new ExecutionException(cause);
+        }
+    }
+}
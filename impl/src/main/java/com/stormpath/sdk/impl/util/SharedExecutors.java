@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The daemon thread pools shared by all the SDK components executing work in the background (for example
+ * asynchronous requests and their retries), so creating clients does not leak threads: there is no lifecycle hook to
+ * shut per-component pools down, but shared threads are discarded when idle.
+ *
+ * @since 1.0.RC7.7
+ */
+public final class SharedExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final ThreadPoolExecutor ASYNC_EXECUTOR = createAsyncExecutor();
+
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    private SharedExecutors() {
+    }
+
+    private static ThreadPoolExecutor createAsyncExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory("stormpath-async"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler =
+            new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("stormpath-scheduler"));
+        scheduler.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        return scheduler;
+    }
+
+    /**
+     * Returns the shared pool executing background tasks.  Tasks are queued (never rejected) when all its threads are
+     * busy, so callers waiting for a task should be prepared to run it themselves.
+     *
+     * @return the shared pool executing background tasks.
+     */
+    public static ExecutorService getAsyncExecutor() {
+        return ASYNC_EXECUTOR;
+    }
+
+    /**
+     * Returns the shared pool executing background tasks, after growing it to at least {@code threads} threads.  The
+     * pool grows to the largest size requested so far, for example the largest connection pool of the HTTP request
+     * executors: more threads could only wait for a connection.
+     *
+     * @param threads the number of tasks the caller may need to execute concurrently
+     * @return the shared pool executing background tasks.
+     */
+    public static ExecutorService getAsyncExecutor(int threads) {
+        synchronized (ASYNC_EXECUTOR) {
+            if (threads > ASYNC_EXECUTOR.getMaximumPoolSize()) {
+                //grow the maximum first, it can never be less than the core size:
+                ASYNC_EXECUTOR.setMaximumPoolSize(threads);
+                ASYNC_EXECUTOR.setCorePoolSize(threads);
+            }
+        }
+        return ASYNC_EXECUTOR;
+    }
+
+    /**
+     * Returns the shared scheduler.  Its (single) thread only hands tasks over once their delay has elapsed: scheduled
+     * tasks must be short, for example submitting the actual work to the {@link #getAsyncExecutor() async executor}.
+     *
+     * @return the shared scheduler.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return SCHEDULER;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
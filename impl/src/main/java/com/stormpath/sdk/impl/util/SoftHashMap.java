@@ -27,6 +27,7 @@ import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 
@@ -44,13 +45,14 @@ import java.util.concurrent.locks.ReentrantLock;
  * <a href="http://www.javaspecialists.eu/archive/Issue015.html">publicly posted version (with their approval)</a>, with
  * continued modifications.  It was copied from the <a href="http://shiro.apache.org">Apache Shiro</a> framework.
  * <p/>
- * This implementation is thread-safe and usable in concurrent environments.
+ * This implementation is thread-safe and usable in concurrent environments.  Since 1.0.RC7.7, it is a
+ * {@link ConcurrentMap}: a key whose value has been garbage collected is considered absent by the atomic operations.
  *
  * @since 0.8
  * @see SoftReference
  * @see <a href="http://shiro.apache.org">Apache Shiro</a>
  */
-public class SoftHashMap<K, V> implements Map<K, V> {
+public class SoftHashMap<K, V> implements ConcurrentMap<K, V> {
 
     /**
      * The default value of the RETENTION_SIZE attribute, equal to 100.
@@ -60,7 +62,7 @@ public class SoftHashMap<K, V> implements Map<K, V> {
     /**
      * The internal HashMap that will hold the SoftReference.
      */
-    private final Map<K, SoftValue<V, K>> map;
+    private final ConcurrentMap<K, SoftValue<V, K>> map;
 
     /**
      * The number of strong references to hold internally, that is, the number of instances to prevent
@@ -195,8 +197,8 @@ public class SoftHashMap<K, V> implements Map<K, V> {
     private void processQueue() {
         SoftValue sv;
         while ((sv = (SoftValue) queue.poll()) != null) {
-            //noinspection SuspiciousMethodCalls
-            map.remove(sv.key); // we can access private data!
+            //only if not replaced in the meantime:
+            map.remove(sv.key, sv); // we can access private data!
         }
     }
 
@@ -265,6 +267,83 @@ public class SoftHashMap<K, V> implements Map<K, V> {
         return raw != null ? raw.get() : null;
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        processQueue();
+        SoftValue<V, K> sv = new SoftValue<V, K>(value, key, queue);
+        for (; ; ) {
+            SoftValue<V, K> existing = map.putIfAbsent(key, sv);
+            if (existing == null) {
+                addToStrongReferences(value);
+                return null;
+            }
+            V existingValue = existing.get();
+            if (existingValue != null) {
+                return existingValue;
+            }
+            //the existing value was garbage collected:
+            if (map.replace(key, existing, sv)) {
+                addToStrongReferences(value);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public boolean remove(Object key, Object value) {
+        processQueue();
+        SoftValue<V, K> existing = map.get(key);
+        return existing != null && isValue(existing, value) && map.remove(key, existing);
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        processQueue();
+        SoftValue<V, K> existing = map.get(key);
+        if (existing == null || !isValue(existing, oldValue)) {
+            return false;
+        }
+        if (map.replace(key, existing, new SoftValue<V, K>(newValue, key, queue))) {
+            addToStrongReferences(newValue);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Override
+    public V replace(K key, V value) {
+        processQueue();
+        SoftValue<V, K> sv = new SoftValue<V, K>(value, key, queue);
+        for (; ; ) {
+            SoftValue<V, K> existing = map.get(key);
+            V existingValue = existing != null ? existing.get() : null;
+            if (existingValue == null) {
+                return null;
+            }
+            if (map.replace(key, existing, sv)) {
+                addToStrongReferences(value);
+                return existingValue;
+            }
+        }
+    }
+
+    private static boolean isValue(SoftValue<?, ?> sv, Object value) {
+        Object current = sv.get();
+        return current != null && current.equals(value);
+    }
+
     public void clear() {
         strongReferencesLock.lock();
         try {
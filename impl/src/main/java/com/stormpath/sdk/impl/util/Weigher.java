@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util;
+
+/**
+ * A {@code Weigher} calculates the relative size of a map entry, used by a {@link BoundedConcurrentMap} to determine
+ * when its capacity has been exceeded and entries must be evicted.
+ *
+ * @param <K> the type of keys weighed
+ * @param <V> the type of values weighed
+ * @see BoundedConcurrentMap
+ * @since 1.0.RC7.7
+ */
+public interface Weigher<K, V> {
+
+    /**
+     * Returns the weight of the specified entry.  The returned value must be greater than or equal to {@code 1}.
+     *
+     * @param key   the entry key
+     * @param value the entry value
+     * @return the weight of the specified entry, greater than or equal to {@code 1}.
+     */
+    int weightOf(K key, V value);
+}
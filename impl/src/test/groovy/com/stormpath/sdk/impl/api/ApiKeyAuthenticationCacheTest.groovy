@@ -0,0 +1,292 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.api
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.api.ApiKey
+import com.stormpath.sdk.api.ApiKeyStatus
+import com.stormpath.sdk.directory.CustomData
+import com.stormpath.sdk.impl.account.DefaultAccount
+import com.stormpath.sdk.impl.ds.DefaultResourceDataRequest
+import com.stormpath.sdk.impl.ds.DefaultResourceDataResult
+import com.stormpath.sdk.impl.ds.FilterChain
+import com.stormpath.sdk.impl.ds.InternalDataStore
+import com.stormpath.sdk.impl.ds.ResourceAction
+import com.stormpath.sdk.impl.ds.ResourceDataRequest
+import com.stormpath.sdk.impl.ds.ResourceDataResult
+import com.stormpath.sdk.impl.ds.api.ApiKeyAuthenticationCacheFilter
+import com.stormpath.sdk.impl.http.support.DefaultCanonicalUri
+import org.easymock.IAnswer
+import org.testng.annotations.Test
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class ApiKeyAuthenticationCacheTest {
+
+    private static final String APP_HREF = "https://api.stormpath.com/v1/applications/app"
+    private static final String ACCOUNT_HREF = "https://api.stormpath.com/v1/accounts/acct"
+    private static final String API_KEY_HREF = "https://api.stormpath.com/v1/apiKeys/id"
+
+    private static ApiKey apiKey(String id = 'id', String secret = 'secret') {
+        def account = createNiceMock(Account)
+        def apiKey = createNiceMock(ApiKey)
+        expect(account.getHref()).andReturn(ACCOUNT_HREF).anyTimes()
+        expect(apiKey.getId()).andReturn(id).anyTimes()
+        expect(apiKey.getHref()).andReturn(API_KEY_HREF).anyTimes()
+        expect(apiKey.getSecret()).andReturn(secret).anyTimes()
+        expect(apiKey.getStatus()).andReturn(ApiKeyStatus.ENABLED).anyTimes()
+        expect(apiKey.getAccount()).andReturn(account).anyTimes()
+        replay account, apiKey
+        return apiKey
+    }
+
+    private static InternalDataStore dataStore() {
+        def dataStore = createNiceMock(InternalDataStore)
+        expect(dataStore.instantiate(same(ApiKey), anyObject(Map))).andAnswer(new IAnswer<ApiKey>() {
+            @Override
+            ApiKey answer() throws Throwable {
+                return new DefaultApiKey(dataStore, (Map) getCurrentArguments()[1])
+            }
+        }).anyTimes()
+        expect(dataStore.instantiate(same(Account), anyObject(Map))).andAnswer(new IAnswer<Account>() {
+            @Override
+            Account answer() throws Throwable {
+                return new DefaultAccount(dataStore, (Map) getCurrentArguments()[1])
+            }
+        }).anyTimes()
+        replay dataStore
+        return dataStore
+    }
+
+    private static ApiKeyAuthenticationCache newCache(int maxEntries = ApiKeyAuthenticationCache.DEFAULT_MAX_ENTRIES,
+                                                      long ttlMillis = ApiKeyAuthenticationCache.DEFAULT_TTL_MILLIS) {
+        return new ApiKeyAuthenticationCache(dataStore(), maxEntries, ttlMillis)
+    }
+
+    private static void put(ApiKeyAuthenticationCache cache, ApiKey apiKey) {
+        cache.put(APP_HREF, apiKey, cache.getVersion())
+    }
+
+    @Test
+    void testVerifiedApiKeyIsReturned() {
+        def cache = newCache()
+
+        assertNull cache.get(APP_HREF, 'id')
+        put(cache, apiKey())
+
+        def cached = cache.get(APP_HREF, 'id')
+        assertEquals cached.getId(), 'id'
+        assertEquals cached.getHref(), API_KEY_HREF
+        assertEquals cached.getStatus(), ApiKeyStatus.ENABLED
+        assertEquals cached.getAccount().getHref(), ACCOUNT_HREF
+        assertEquals cache.get(APP_HREF, 'id', 'secret').getHref(), API_KEY_HREF
+        assertEquals cache.getHitCount(), 2L
+        assertEquals cache.getMissCount(), 1L
+    }
+
+    @Test
+    void testHitsReturnNewInstancesWithoutSecret() {
+        def cache = newCache()
+        put(cache, apiKey())
+
+        def first = cache.get(APP_HREF, 'id', 'secret')
+        def second = cache.get(APP_HREF, 'id', 'secret')
+
+        assertNotSame first, second
+        assertFalse(((DefaultApiKey) first).getPropertyNames().contains('secret'))
+    }
+
+    @Test
+    void testPutIsDroppedWhenInvalidatedSinceRead() {
+        def cache = newCache()
+
+        long version = cache.getVersion()
+        //the API Key is modified while it is being read for authentication:
+        cache.invalidate(API_KEY_HREF)
+        cache.put(APP_HREF, apiKey(), version)
+
+        assertEquals cache.size(), 0
+        assertNull cache.get(APP_HREF, 'id')
+
+        put(cache, apiKey())
+        assertEquals cache.size(), 1
+        assertNotNull cache.get(APP_HREF, 'id')
+    }
+
+    @Test
+    void testUnrelatedInvalidationsDoNotDropPuts() {
+        def cache = newCache()
+
+        long version = cache.getVersion()
+        cache.invalidate("https://api.stormpath.com/v1/accounts/other")
+        cache.invalidate("https://api.stormpath.com/v1/apiKeys/other")
+        cache.put(APP_HREF, apiKey(), version)
+
+        assertNotNull cache.get(APP_HREF, 'id')
+    }
+
+    @Test
+    void testInvalidationsAreBounded() {
+        def cache = newCache(10, 1000)
+        put(cache, apiKey())
+
+        long version = cache.getVersion()
+        11.times { cache.invalidate("https://api.stormpath.com/v1/accounts/" + it) }
+
+        assertTrue cache.invalidations.size() <= 10
+        //forgotten invalidations can't be missed by verdicts read before them:
+        cache.put(APP_HREF, apiKey('other'), version)
+        assertNull cache.get(APP_HREF, 'other')
+        assertNull cache.get(APP_HREF, 'id')
+        put(cache, apiKey())
+        assertNotNull cache.get(APP_HREF, 'id')
+    }
+
+    @Test
+    void testWrongSecretIsNotReturned() {
+        def cache = newCache()
+        put(cache, apiKey())
+
+        assertNull cache.get(APP_HREF, 'id', 'other')
+        assertNull cache.get(APP_HREF, 'id', null)
+        //a wrong secret does not evict the verdict of the genuine key:
+        assertNotNull cache.get(APP_HREF, 'id', 'secret')
+    }
+
+    @Test
+    void testVerdictIsScopedToApplication() {
+        def cache = newCache()
+        put(cache, apiKey())
+
+        assertNull cache.get("https://api.stormpath.com/v1/applications/other", 'id')
+    }
+
+    @Test
+    void testVerdictExpires() {
+        def cache = newCache(10, 20)
+        put(cache, apiKey())
+        assertNotNull cache.get(APP_HREF, 'id')
+
+        Thread.sleep(40)
+
+        assertNull cache.get(APP_HREF, 'id')
+        assertEquals cache.size(), 0
+    }
+
+    @Test
+    void testInvalidate() {
+        for (String href : [API_KEY_HREF, ACCOUNT_HREF, APP_HREF]) {
+            def cache = newCache()
+            put(cache, apiKey())
+            cache.invalidate("https://api.stormpath.com/v1/directories/dir")
+            assertNotNull cache.get(APP_HREF, 'id')
+
+            cache.invalidate(href)
+            assertNull cache.get(APP_HREF, 'id')
+            assertEquals cache.size(), 0
+        }
+    }
+
+    @Test
+    void testDisabled() {
+        def cache = newCache(0, 1000)
+        put(cache, apiKey())
+
+        assertFalse cache.isEnabled()
+        assertNull cache.get(APP_HREF, 'id')
+        assertEquals cache.size(), 0
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testNegativeMaxEntries() {
+        newCache(-1, 1000)
+    }
+
+    @Test
+    void testFilterInvalidatesOnWrite() {
+        def cache = newCache()
+        def filter = new ApiKeyAuthenticationCacheFilter(cache)
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), [:])
+            }
+        }
+        put(cache, apiKey())
+
+        filter.filter(request(ResourceAction.READ, API_KEY_HREF), chain)
+        assertNotNull cache.get(APP_HREF, 'id')
+
+        filter.filter(request(ResourceAction.CREATE, API_KEY_HREF), chain)
+        assertNull cache.get(APP_HREF, 'id')
+
+        put(cache, apiKey())
+        filter.filter(request(ResourceAction.DELETE, ACCOUNT_HREF, DefaultAccount), chain)
+        assertNull cache.get(APP_HREF, 'id')
+    }
+
+    @Test
+    void testFilterIgnoresWritesOfOtherResources() {
+        def cache = newCache()
+        def filter = new ApiKeyAuthenticationCacheFilter(cache)
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), [:])
+            }
+        }
+        long version = cache.getVersion()
+
+        //e.g. the account's custom data being saved on every request:
+        filter.filter(request(ResourceAction.UPDATE, ACCOUNT_HREF + '/customData', CustomData), chain)
+        cache.put(APP_HREF, apiKey(), version)
+
+        assertNotNull cache.get(APP_HREF, 'id')
+        assertTrue cache.invalidations.isEmpty()
+    }
+
+    @Test
+    void testFilterDropsVerdictReadDuringWrite() {
+        def cache = newCache()
+        def filter = new ApiKeyAuthenticationCacheFilter(cache)
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                //a concurrent authentication reads the API Key before the write is applied and records it afterwards:
+                long version = cache.getVersion()
+                //the verdict on the old state is not used while the write is in flight:
+                assertNull cache.get(APP_HREF, 'id')
+                def staleApiKey = apiKey()
+                Thread.start { cache.put(APP_HREF, staleApiKey, version) }.join()
+                return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), [:])
+            }
+        }
+        put(cache, apiKey())
+
+        filter.filter(request(ResourceAction.UPDATE, API_KEY_HREF), chain)
+
+        assertNull cache.get(APP_HREF, 'id')
+        assertEquals cache.size(), 0
+    }
+
+    private static ResourceDataRequest request(ResourceAction action, String href, Class clazz = ApiKey) {
+        return new DefaultResourceDataRequest(action, new DefaultCanonicalUri(href, null), clazz, new HashMap<String, Object>())
+    }
+}
@@ -65,6 +65,25 @@ class CachesTest {
         assertEquals cache.timeToIdle, defaultTti
     }
 
+    @Test
+    void testBuildWithMaxSize() {
+
+        CacheManager m = newCacheManager()
+                .withDefaultMaxEntries(100)
+                .withCache(named('foo').withMaxEntries(10))
+                .withCache(named('bar').withMaxWeight(50))
+                .build()
+
+        DefaultCacheManager manager = (DefaultCacheManager) m
+
+        assertEquals manager.defaultMaxEntries, 100
+        assertEquals manager.defaultMaxWeight, 0
+
+        assertEquals manager.getCache('foo').map.getCapacity(), 10
+        assertEquals manager.getCache('bar').map.getCapacity(), 50
+        assertEquals manager.getCache('baz').map.getCapacity(), 100
+    }
+
     @Test
     void testNewDisabledCacheManager() {
 
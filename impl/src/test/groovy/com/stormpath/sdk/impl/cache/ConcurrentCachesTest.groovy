@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.cache
+
+import com.stormpath.sdk.cache.Cache
+import com.stormpath.sdk.cache.ConcurrentCache
+import org.testng.annotations.Test
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class ConcurrentCachesTest {
+
+    /**
+     * A cache that only implements the {@link Cache} interface.
+     */
+    private static class SimpleCache implements Cache {
+
+        Map map = [:]
+
+        Object get(Object key) { return map.get(key) }
+
+        Object put(Object key, Object value) { return map.put(key, value) }
+
+        Object remove(Object key) { return map.remove(key) }
+    }
+
+    @Test
+    void testFallbackOperations() {
+        def cache = new SimpleCache()
+
+        assertNull ConcurrentCaches.putIfAbsent(cache, 'a', '1')
+        assertEquals ConcurrentCaches.putIfAbsent(cache, 'a', '2'), '1'
+        assertEquals cache.get('a'), '1'
+
+        ConcurrentCaches.putAll(cache, [b: '2', c: '3'])
+        assertEquals ConcurrentCaches.getAll(cache, ['a', 'b', 'd']), [a: '1', b: '2']
+
+        ConcurrentCaches.removeAll(cache, ['a', 'b'])
+        assertEquals cache.map, [c: '3']
+    }
+
+    @Test
+    void testDelegatesToConcurrentCache() {
+        def cache = createStrictMock(ConcurrentCache)
+
+        expect(cache.putIfAbsent('a', '1')).andReturn('0')
+        expect(cache.getAll(['a'])).andReturn([a: '0'])
+        cache.putAll([a: '1'])
+        cache.removeAll(['a'])
+
+        replay cache
+
+        assertEquals ConcurrentCaches.putIfAbsent(cache, 'a', '1'), '0'
+        assertEquals ConcurrentCaches.getAll(cache, ['a']), [a: '0']
+        ConcurrentCaches.putAll(cache, [a: '1'])
+        ConcurrentCaches.removeAll(cache, ['a'])
+
+        //empty bulk operations are not delegated:
+        ConcurrentCaches.putAll(cache, [:])
+        ConcurrentCaches.removeAll(cache, [])
+
+        verify cache
+    }
+}
@@ -16,6 +16,8 @@
 package com.stormpath.sdk.impl.cache
 
 import com.stormpath.sdk.cache.Cache
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap
+import com.stormpath.sdk.impl.util.SoftHashMap
 import com.stormpath.sdk.lang.Duration
 import groovy.json.JsonSlurper
 import org.testng.annotations.BeforeTest
@@ -99,6 +101,78 @@ class DefaultCacheManagerTest {
         assertEquals new Duration(30, TimeUnit.SECONDS), mgr.defaultTimeToIdle
     }
 
+    @Test
+    void testUnboundedByDefault() {
+        def mgr = new DefaultCacheManager()
+        def cache = mgr.getCache('foo')
+        assertTrue cache.map instanceof SoftHashMap
+    }
+
+    @Test
+    void testDefaultMaxEntries() {
+        def mgr = new DefaultCacheManager()
+        mgr.setDefaultMaxEntries(2)
+
+        def cache = mgr.getCache('foo')
+        assertTrue cache.map instanceof BoundedConcurrentMap
+        assertEquals cache.map.getCapacity(), 2
+
+        cache.put('a', 'a')
+        cache.put('b', 'b')
+        cache.put('c', 'c')
+        assertEquals cache.size(), 2
+    }
+
+    @Test
+    void testRegionMaxWeightOverridesDefault() {
+        def mgr = new DefaultCacheManager()
+        mgr.setDefaultMaxEntries(1000)
+        mgr.setCacheConfigurations([new DefaultCacheConfiguration('foo', null, null, 0, 10)])
+
+        def cache = mgr.getCache('foo')
+        assertEquals cache.map.getCapacity(), 10
+
+        //resource data is weighed as 1 + number of properties:
+        cache.put('a', [href: 'a', name: 'a'])
+        assertEquals cache.map.getWeightedSize(), 3
+
+        assertEquals mgr.getCache('bar').map.getCapacity(), 1000
+    }
+
+    @Test
+    void testRegionMaxEntriesOverridesDefaultMaxWeight() {
+        def mgr = new DefaultCacheManager()
+        mgr.setDefaultMaxWeight(1000)
+        mgr.setCacheConfigurations([new DefaultCacheConfiguration('foo', null, null, 2, 0)])
+
+        def cache = mgr.getCache('foo')
+        assertEquals cache.map.getCapacity(), 2
+
+        //bounded by number of entries, not by weight:
+        cache.put('a', [href: 'a', name: 'a'])
+        assertEquals cache.map.getWeightedSize(), 1
+        cache.put('b', 'b')
+        cache.put('c', 'c')
+        assertEquals cache.size(), 2
+
+        assertEquals mgr.getCache('bar').map.getCapacity(), 1000
+    }
+
+    @Test
+    void testBoundedCacheExpiresEntries() {
+        def mgr = new DefaultCacheManager()
+        mgr.setDefaultMaxEntries(10)
+        mgr.setDefaultTimeToLive(new Duration(1, TimeUnit.MILLISECONDS))
+
+        def cache = mgr.getCache('foo')
+        cache.put('a', 'a')
+        Thread.sleep(10)
+        cache.put('b', 'b')
+
+        //'a' is removed proactively, without having to be read again:
+        assertFalse cache.map.containsKey('a')
+    }
+
     @Test
     void testToString() {
 
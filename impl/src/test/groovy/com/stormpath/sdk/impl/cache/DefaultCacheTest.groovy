@@ -15,6 +15,8 @@
  */
 package com.stormpath.sdk.impl.cache
 
+import com.stormpath.sdk.impl.util.BoundedConcurrentMap
+import com.stormpath.sdk.impl.util.SoftHashMap
 import com.stormpath.sdk.lang.Duration
 import groovy.json.JsonSlurper
 import org.testng.annotations.Test
@@ -137,6 +139,7 @@ class DefaultCacheTest {
         assertEquals json.accessCount, 0
         assertEquals json.hitCount, 0
         assertEquals json.missCount, 0
+        assertEquals json.evictionCount, 0
         assertEquals json.hitRatio, 0.0
 
         cache.put('key', 'value')
@@ -153,6 +156,99 @@ class DefaultCacheTest {
         assertEquals json.hitRatio, 1.0
     }
 
+    @Test
+    void testExpireEntriesWithoutReading() {
+
+        def cache = new DefaultCache('foo', [:], new Duration(10, TimeUnit.MILLISECONDS), null)
+
+        cache.put('key', 'value')
+        assertEquals cache.size(), 1
+
+        //simulate the sweeper thread running after the entry has expired, without the entry ever being read:
+        cache.expireEntries(System.currentTimeMillis() + 5000)
+
+        assertEquals cache.size(), 0
+        assertEquals cache.evictionCount, 1
+        assertEquals cache.accessCount, 0
+    }
+
+    @Test
+    void testExpireEntriesReschedulesIdleEntryThatWasAccessed() {
+
+        def cache = new DefaultCache('foo', [:], null, new Duration(2, TimeUnit.SECONDS))
+        long start = System.currentTimeMillis()
+
+        cache.put('key', 'value')
+        //access the entry 'in the future' to extend its time to idle:
+        cache.map.get('key').lastAccessTimeMillis = start + 3000
+
+        cache.expireEntries(start + 4000)
+        assertEquals cache.size(), 1
+
+        cache.expireEntries(start + 7000)
+        assertEquals cache.size(), 0
+        assertEquals cache.evictionCount, 1
+    }
+
+    @Test
+    void testExpireEntriesDoesNotRemoveReplacedEntry() {
+
+        def cache = new DefaultCache('foo', [:], null, new Duration(1, TimeUnit.SECONDS))
+        long start = System.currentTimeMillis()
+
+        cache.put('key', 'value1')
+        cache.put('key', 'value2')
+        cache.map.get('key').lastAccessTimeMillis = start + 5000
+
+        cache.expireEntries(start + 3000)
+
+        assertEquals cache.get('key'), 'value2'
+        assertEquals cache.evictionCount, 0
+    }
+
+    @Test
+    void testReplacedEntriesDoNotAccumulateTimers() {
+
+        def cache = new DefaultCache('foo', [:], new Duration(1, TimeUnit.HOURS), null)
+
+        1000.times { cache.put('key', 'value' + it) }
+        cache.put('other', 'value')
+        cache.remove('other')
+
+        //all timers but the current entry's are dead, and purged without waiting for their deadline:
+        cache.expireEntries(System.currentTimeMillis())
+
+        assertEquals cache.timerWheel.size(), 1
+        assertEquals cache.get('key'), 'value999'
+    }
+
+    @Test
+    void testTimerDoesNotReferenceRemovedEntry() {
+
+        def cache = new DefaultCache('foo', new SoftHashMap(), new Duration(1, TimeUnit.HOURS), null)
+
+        cache.put('key', 'value')
+        def timer = cache.pendingTimers.peek()
+        assertNotNull timer.get()
+
+        cache.remove('key')
+
+        assertNull timer.get()
+    }
+
+    @Test
+    void testExpiredReadCountsAsEviction() {
+
+        def cache = new DefaultCache('foo', [:], new Duration(10, TimeUnit.MILLISECONDS), null)
+        cache.put('key', 'value')
+
+        Thread.sleep(15)
+
+        assertNull cache.get('key')
+        assertEquals cache.evictionCount, 1
+        assertEquals new JsonSlurper().parseText(cache.toString()).evictionCount, 1
+    }
+
     @Test
     void testPutReplacesPreviousValue() {
         def cache = new DefaultCache('foo', [:], null, null);
@@ -263,4 +359,70 @@ class DefaultCacheTest {
         assertNull found
         assertEquals 0, cache.size()
     }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testPutIfAbsent() {
+        for (def map : [[:], new BoundedConcurrentMap(10)]) {
+            def cache = new DefaultCache('foo', map, null, null)
+
+            assertNull cache.putIfAbsent('key', 'value1')
+            assertEquals cache.putIfAbsent('key', 'value2'), 'value1'
+            assertEquals cache.get('key'), 'value1'
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testPutIfAbsentReplacesExpiredEntry() {
+        for (def map : [[:], new BoundedConcurrentMap(10)]) {
+            def cache = new DefaultCache('foo', map, new Duration(10, TimeUnit.MILLISECONDS), null)
+
+            assertNull cache.putIfAbsent('key', 'value1')
+            Thread.sleep(15)
+
+            assertNull cache.putIfAbsent('key', 'value2')
+            assertEquals cache.get('key'), 'value2'
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testReplace() {
+        for (def map : [[:], new BoundedConcurrentMap(10)]) {
+            def cache = new DefaultCache('foo', map, null, null)
+
+            assertFalse cache.replace('key', 'value1', 'value2')
+            assertNull cache.get('key')
+
+            cache.put('key', 'value1')
+            assertFalse cache.replace('key', 'other', 'value2')
+            assertEquals cache.get('key'), 'value1'
+
+            assertTrue cache.replace('key', 'value1', 'value2')
+            assertEquals cache.get('key'), 'value2'
+        }
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testBulkOperations() {
+        def cache = new DefaultCache('foo', new BoundedConcurrentMap(10), null, null)
+
+        cache.putAll([a: '1', b: '2', c: '3'])
+        assertEquals cache.size(), 3
+
+        assertEquals cache.getAll(['a', 'c', 'd']), [a: '1', c: '3']
+
+        cache.removeAll(['a', 'b', 'd'])
+        assertEquals cache.getAll(['a', 'b', 'c']), [c: '3']
+    }
 }
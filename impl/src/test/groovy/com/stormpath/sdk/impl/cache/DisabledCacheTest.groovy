@@ -17,7 +17,7 @@ package com.stormpath.sdk.impl.cache
 
 import org.testng.annotations.Test
 
-import static org.testng.Assert.assertNull
+import static org.testng.Assert.*
 
 /**
  * @since 0.8
@@ -38,4 +38,21 @@ class DisabledCacheTest {
         cache.put('foo', 'bar')
         assertNull cache.remove('foo')
     }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testConcurrentOperations() {
+
+        DisabledCache cache = new DisabledCache();
+
+        assertNull cache.putIfAbsent('foo', 'bar')
+        assertNull cache.putIfAbsent('foo', 'bar')
+        assertFalse cache.replace('foo', 'bar', 'baz')
+
+        cache.putAll([foo: 'bar'])
+        assertTrue cache.getAll(['foo']).isEmpty()
+        cache.removeAll(['foo'])
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.cache
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class TimerWheelTest {
+
+    private static class RecordingListener implements TimerWheel.Listener<String> {
+
+        def expired = []
+
+        @Override
+        void onExpired(String value, long nowMillis) {
+            expired << value
+        }
+    }
+
+    @Test
+    void testFiresOnlyAfterDeadline() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def listener = new RecordingListener()
+
+        wheel.schedule('a', now + 2000)
+        wheel.schedule('b', now + 10000)
+        assertEquals wheel.size(), 2
+
+        wheel.advance(now + 1000, listener)
+        assertEquals listener.expired, []
+
+        wheel.advance(now + 5000, listener)
+        assertEquals listener.expired, ['a']
+
+        wheel.advance(now + 20000, listener)
+        assertEquals listener.expired, ['a', 'b']
+        assertEquals wheel.size(), 0
+    }
+
+    @Test
+    void testCascadesFromCoarserLevels() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def listener = new RecordingListener()
+
+        def minutes = [5, 90, 60 * 24 * 5]
+        for (int m : minutes) {
+            wheel.schedule("$m" as String, now + TimeUnit.MINUTES.toMillis(m))
+        }
+
+        //advance one second at a time through the first ten minutes:
+        for (long t = now; t <= now + TimeUnit.MINUTES.toMillis(10); t += 1000) {
+            wheel.advance(t, listener)
+        }
+        assertEquals listener.expired, ['5']
+
+        //the remaining timers must not fire early as they are cascaded down:
+        wheel.advance(now + TimeUnit.MINUTES.toMillis(89), listener)
+        assertEquals listener.expired, ['5']
+        wheel.advance(now + TimeUnit.MINUTES.toMillis(91), listener)
+        assertEquals listener.expired, ['5', '90']
+
+        wheel.advance(now + TimeUnit.DAYS.toMillis(4), listener)
+        assertEquals listener.expired, ['5', '90']
+        wheel.advance(now + TimeUnit.DAYS.toMillis(6), listener)
+        assertEquals listener.expired, ['5', '90', '7200']
+    }
+
+    @Test
+    void testTimerBeyondHorizon() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def listener = new RecordingListener()
+
+        wheel.schedule('far', now + TimeUnit.DAYS.toMillis(365))
+
+        wheel.advance(now + TimeUnit.DAYS.toMillis(300), listener)
+        assertEquals listener.expired, []
+        assertEquals wheel.size(), 1
+
+        wheel.advance(now + TimeUnit.DAYS.toMillis(366), listener)
+        assertEquals listener.expired, ['far']
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextAdvance() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def listener = new RecordingListener()
+
+        wheel.schedule('late', now - 5000)
+        wheel.advance(now + 1024, listener)
+
+        assertEquals listener.expired, ['late']
+    }
+
+    @Test
+    void testListenerMayReschedule() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def fired = []
+
+        wheel.schedule('a', now + 1000)
+
+        def listener = new TimerWheel.Listener<String>() {
+            @Override
+            void onExpired(String value, long nowMillis) {
+                fired << nowMillis
+                if (fired.size() == 1) {
+                    wheel.schedule(value, nowMillis + 3000)
+                }
+            }
+        }
+
+        wheel.advance(now + 2048, listener)
+        assertEquals fired.size(), 1
+        wheel.advance(now + 8000, listener)
+        assertEquals fired.size(), 2
+    }
+
+    @Test
+    void testClear() {
+        long now = 1000000000L
+        def wheel = new TimerWheel<String>(now)
+        def listener = new RecordingListener()
+
+        wheel.schedule('a', now + 1000)
+        wheel.clear()
+        assertEquals wheel.size(), 0
+
+        wheel.advance(now + 5000, listener)
+        assertEquals listener.expired, []
+    }
+}
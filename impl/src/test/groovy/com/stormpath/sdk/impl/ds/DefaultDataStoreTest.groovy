@@ -15,20 +15,32 @@
  */
 package com.stormpath.sdk.impl.ds
 
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountList
 import com.stormpath.sdk.api.ApiKey
 import com.stormpath.sdk.cache.Caches
+import com.stormpath.sdk.group.GroupList
+import com.stormpath.sdk.impl.cache.DisabledCacheManager
 import com.stormpath.sdk.impl.application.DefaultApplication
+import com.stormpath.sdk.impl.account.DefaultAccount
+import com.stormpath.sdk.impl.http.AsyncRequestExecutor
+import com.stormpath.sdk.impl.http.MediaType
+import com.stormpath.sdk.impl.http.Request
 import com.stormpath.sdk.impl.http.RequestExecutor
 import com.stormpath.sdk.impl.http.Response
 import com.stormpath.sdk.impl.http.support.DefaultRequest
+import com.stormpath.sdk.impl.http.support.DefaultResponse
 import com.stormpath.sdk.impl.provider.DefaultGoogleProviderData
 import com.stormpath.sdk.impl.provider.IdentityProviderType
 import com.stormpath.sdk.impl.query.DefaultOptions
+import com.stormpath.sdk.impl.util.SettableFuture
 import com.stormpath.sdk.provider.*
 import com.stormpath.sdk.query.Options
 import com.stormpath.sdk.resource.Resource
+import com.stormpath.sdk.resource.ResourceException
 import org.testng.annotations.Test
 
+import java.util.concurrent.ExecutionException
 import java.util.concurrent.TimeUnit
 
 import static org.easymock.EasyMock.*
@@ -390,4 +402,195 @@ class DefaultDataStoreTest {
         }
     }
 
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testGetResourceAsync() {
+        def requestExecutor = createStrictMock(AsyncRequestExecutor)
+        def response = createStrictMock(Response)
+        def apiKey = createStrictMock(ApiKey)
+        def href = "https://api.stormpath.com/v1/accounts/8hNovP0jRnq6oYbhNFS0W"
+        def responseMap = [href: href, email: "jsmith@example.com"]
+        def body = new ByteArrayInputStream(new JacksonMapMarshaller().marshal(responseMap).getBytes())
+        def responseFuture = new SettableFuture<Response>()
+
+        expect(requestExecutor.executeRequestAsync(anyObject(Request))).andReturn(responseFuture)
+        expect(response.isError()).andReturn(false)
+        expect(response.hasBody()).andReturn(true)
+        expect(response.getBody()).andReturn(body)
+
+        replay(requestExecutor, response)
+
+        def cacheManager = Caches.newCacheManager().build()
+        def defaultDataStore = new DefaultDataStore(requestExecutor, "https://api.stormpath.com/v1", apiKey, cacheManager)
+
+        def future = defaultDataStore.getResourceAsync(href, Account)
+        assertFalse future.isDone()
+
+        responseFuture.set(response)
+
+        assertTrue future.isDone()
+        def account = future.get()
+        assertTrue account instanceof DefaultAccount
+        assertEquals account.getEmail(), "jsmith@example.com"
+
+        //the response was cached, so the server must not be contacted again:
+        future = defaultDataStore.getResourceAsync(href, Account)
+        assertTrue future.isDone()
+        assertEquals future.get().getEmail(), "jsmith@example.com"
+
+        verify(requestExecutor, response)
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testGetResourceAsyncErrorResponse() {
+        def requestExecutor = createStrictMock(AsyncRequestExecutor)
+        def response = createStrictMock(Response)
+        def apiKey = createStrictMock(ApiKey)
+        def href = "https://api.stormpath.com/v1/accounts/8hNovP0jRnq6oYbhNFS0W"
+        def errorMap = [status: 404, code: 404, message: "The requested resource does not exist."]
+        def body = new ByteArrayInputStream(new JacksonMapMarshaller().marshal(errorMap).getBytes())
+        def responseFuture = new SettableFuture<Response>()
+
+        expect(requestExecutor.executeRequestAsync(anyObject(Request))).andReturn(responseFuture)
+        expect(response.isError()).andReturn(true)
+        expect(response.hasBody()).andReturn(true)
+        expect(response.getBody()).andReturn(body)
+
+        replay(requestExecutor, response)
+
+        def defaultDataStore = new DefaultDataStore(requestExecutor, "https://api.stormpath.com/v1", apiKey)
+
+        def future = defaultDataStore.getResourceAsync(href, Account)
+        responseFuture.set(response)
+
+        try {
+            future.get()
+            fail("should have thrown")
+        } catch (ExecutionException e) {
+            assertTrue e.getCause() instanceof ResourceException
+            assertEquals(((ResourceException) e.getCause()).getStatus(), 404)
+        }
+
+        verify(requestExecutor, response)
+    }
+
+    /**
+     * The response body may be the live connection stream: it must be read (and closed) even if the resource was
+     * cached by another request while this one was in flight, otherwise the connection is never released.
+     *
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testGetResourceAsyncReadsResponseCachedMeanwhile() {
+        def requestExecutor = createStrictMock(AsyncRequestExecutor)
+        def apiKey = createStrictMock(ApiKey)
+        def href = "https://api.stormpath.com/v1/accounts/8hNovP0jRnq6oYbhNFS0W"
+        def bytes = new JacksonMapMarshaller().marshal([href: href, email: "jsmith@example.com"]).getBytes()
+        def body = new CloseTrackingInputStream(bytes)
+        def response = new DefaultResponse(200, MediaType.APPLICATION_JSON, body, bytes.length)
+        def responseFuture = new SettableFuture<Response>()
+
+        expect(requestExecutor.executeRequestAsync(anyObject(Request))).andReturn(responseFuture)
+
+        replay(requestExecutor)
+
+        def cacheManager = Caches.newCacheManager().build()
+        def defaultDataStore = new DefaultDataStore(requestExecutor, "https://api.stormpath.com/v1", apiKey, cacheManager)
+
+        def future = defaultDataStore.getResourceAsync(href, Account)
+
+        //another request caches the account before the response is received:
+        cacheManager.getCache(Account.name).put(href, [href: href, email: "cached@example.com"])
+
+        responseFuture.set(response)
+
+        assertEquals future.get().getEmail(), "jsmith@example.com"
+        assertTrue body.closed
+
+        verify(requestExecutor)
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testSaveAsync() {
+        def requestExecutor = createStrictMock(AsyncRequestExecutor)
+        def response = createStrictMock(Response)
+        def apiKey = createStrictMock(ApiKey)
+        def href = "https://api.stormpath.com/v1/accounts/8hNovP0jRnq6oYbhNFS0W"
+        def responseMap = [href: href, email: "jsmith@example.com", givenName: "Joe"]
+        def body = new ByteArrayInputStream(new JacksonMapMarshaller().marshal(responseMap).getBytes())
+        def responseFuture = new SettableFuture<Response>()
+        Request sent = null
+
+        expect(requestExecutor.executeRequestAsync(anyObject(Request))).andAnswer(new org.easymock.IAnswer<SettableFuture<Response>>() {
+            @Override
+            SettableFuture<Response> answer() throws Throwable {
+                sent = (Request) getCurrentArguments()[0]
+                return responseFuture
+            }
+        })
+        expect(response.isError()).andReturn(false)
+        expect(response.hasBody()).andReturn(true)
+        expect(response.getBody()).andReturn(body)
+        expect(response.getHttpStatus()).andReturn(200)
+
+        replay(requestExecutor, response)
+
+        def defaultDataStore = new DefaultDataStore(requestExecutor, "https://api.stormpath.com/v1", apiKey)
+        def account = new DefaultAccount(defaultDataStore, [href: href, email: "jsmith@example.com"])
+        account.setGivenName("Joe")
+
+        def future = defaultDataStore.saveAsync(account, Account)
+        assertEquals sent.getResourceUrl().toString(), href
+        assertFalse future.isDone()
+
+        responseFuture.set(response)
+
+        assertEquals future.get().getGivenName(), "Joe"
+        assertEquals account.getGivenName(), "Joe"
+
+        verify(requestExecutor, response)
+    }
+
+    /**
+     * @since 1.0.RC7.7
+     */
+    @Test
+    void testCachedCollectionTypes() {
+        def cacheManager = Caches.newCacheManager()
+                .withCache(Caches.forResource(Account))
+                .withCache(Caches.forResource(AccountList))
+                .withCache(Caches.forResource(GroupList))
+                .withCache(Caches.named("foo"))
+                .build()
+
+        assertEquals DefaultDataStore.getCachedCollectionTypes(cacheManager), [AccountList, GroupList] as Set
+        assertTrue DefaultDataStore.getCachedCollectionTypes(Caches.newCacheManager().build()).isEmpty()
+        assertTrue DefaultDataStore.getCachedCollectionTypes(new DisabledCacheManager()).isEmpty()
+    }
+}
+
+/**
+ * @since 1.0.RC7.7
+ */
+class CloseTrackingInputStream extends ByteArrayInputStream {
+
+    boolean closed
+
+    CloseTrackingInputStream(byte[] bytes) {
+        super(bytes)
+    }
+
+    @Override
+    void close() throws IOException {
+        closed = true
+        super.close()
+    }
 }
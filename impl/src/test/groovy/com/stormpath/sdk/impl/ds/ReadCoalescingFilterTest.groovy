@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.impl.error.DefaultError
+import com.stormpath.sdk.application.Application
+import com.stormpath.sdk.impl.http.HttpHeaders
+import com.stormpath.sdk.impl.http.QueryString
+import com.stormpath.sdk.impl.http.support.DefaultCanonicalUri
+import com.stormpath.sdk.resource.ResourceException
+import org.testng.annotations.Test
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class ReadCoalescingFilterTest {
+
+    private static final String HREF = "https://api.stormpath.com/v1/accounts/foo"
+
+    private static ResourceDataRequest read(String href, Map<String, String> query = null, Class clazz = Account) {
+        QueryString qs = query != null ? new QueryString(query) : null
+        return new DefaultResourceDataRequest(ResourceAction.READ, new DefaultCanonicalUri(href, qs), clazz, new HashMap<String, Object>())
+    }
+
+    private static ResourceDataResult result(ResourceDataRequest request) {
+        return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), [href: HREF, name: 'foo'])
+    }
+
+    private static void waitForCoalesced(ReadCoalescingFilter filter, long count) {
+        long deadline = System.currentTimeMillis() + 5000
+        while (filter.getCoalescedRequestCount() < count) {
+            assertTrue System.currentTimeMillis() < deadline, "Timed out waiting for followers."
+            Thread.sleep(5)
+        }
+    }
+
+    @Test
+    void testConcurrentReadsAreCoalesced() {
+
+        def filter = new ReadCoalescingFilter()
+        def calls = new AtomicInteger()
+        def entered = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                calls.incrementAndGet()
+                entered.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                return result(request)
+            }
+        }
+
+        int followers = 7
+        ExecutorService executor = Executors.newFixedThreadPool(followers + 1)
+        try {
+            List<Future<ResourceDataResult>> futures = []
+            futures << executor.submit({ filter.filter(read(HREF), chain) } as Callable<ResourceDataResult>)
+            assertTrue entered.await(5, TimeUnit.SECONDS)
+
+            followers.times {
+                futures << executor.submit({ filter.filter(read(HREF), chain) } as Callable<ResourceDataResult>)
+            }
+            waitForCoalesced(filter, followers)
+            release.countDown()
+
+            def results = futures.collect { it.get(5, TimeUnit.SECONDS) }
+
+            assertEquals calls.get(), 1
+            assertEquals filter.getExecutedRequestCount(), 1L
+            assertEquals filter.getCoalescedRequestCount(), (long) followers
+            results.each {
+                assertEquals it.getData().get('name'), 'foo'
+            }
+            //every follower gets its own data map:
+            assertEquals results.collect { System.identityHashCode(it.getData()) }.unique().size(), followers + 1
+        } finally {
+            executor.shutdownNow()
+        }
+
+        //nothing is left in flight, the next read executes again:
+        filter.filter(read(HREF), new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                calls.incrementAndGet()
+                return result(request)
+            }
+        })
+        assertEquals calls.get(), 2
+        assertEquals filter.getExecutedRequestCount(), 2L
+    }
+
+    @Test
+    void testLeaderFailurePropagatesToFollowers() {
+
+        def filter = new ReadCoalescingFilter()
+        def entered = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def error = new ResourceException(new DefaultError([status: 404, code: 404, message: 'Not found']))
+
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                entered.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                throw error
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2)
+        try {
+            def leader = executor.submit({ filter.filter(read(HREF), chain) } as Callable<ResourceDataResult>)
+            assertTrue entered.await(5, TimeUnit.SECONDS)
+            def follower = executor.submit({ filter.filter(read(HREF), chain) } as Callable<ResourceDataResult>)
+            waitForCoalesced(filter, 1)
+            release.countDown()
+
+            [leader, follower].each {
+                try {
+                    it.get(5, TimeUnit.SECONDS)
+                    fail("Should have thrown")
+                } catch (ExecutionException e) {
+                    assertSame e.getCause(), error
+                }
+            }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    void testFollowersGetDeepCopiesOfNestedData() {
+
+        def filter = new ReadCoalescingFilter()
+        def entered = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+
+        def chain = new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest request) {
+                entered.countDown()
+                release.await(5, TimeUnit.SECONDS)
+                def data = [href: HREF, customData: [href: HREF + '/customData', color: 'red'], items: [[href: HREF + '/1']]]
+                return new DefaultResourceDataResult(request.getAction(), request.getUri(), request.getResourceClass(), data)
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        try {
+            def leader = executor.submit({
+                def result = filter.filter(read(HREF), chain)
+                //upstream filters of the leader modify nested data as soon as it is returned:
+                result.getData().customData.color = 'blue'
+                result.getData().items[0].href = 'changed'
+                result
+            } as Callable<ResourceDataResult>)
+            assertTrue entered.await(5, TimeUnit.SECONDS)
+            def followers = [1, 2].collect { executor.submit({ filter.filter(read(HREF), chain) } as Callable<ResourceDataResult>) }
+            waitForCoalesced(filter, 2)
+            release.countDown()
+
+            def leaderData = leader.get(5, TimeUnit.SECONDS).getData()
+            def followerData = followers.collect { it.get(5, TimeUnit.SECONDS).getData() }
+
+            assertEquals leaderData.customData.color, 'blue'
+            followerData.each {
+                assertEquals it.customData.color, 'red'
+                assertEquals it.items[0].href, HREF + '/1'
+            }
+            assertNotSame followerData[0].customData, followerData[1].customData
+            assertNotSame followerData[0].items, followerData[1].items
+            assertNotSame followerData[0].items[0], followerData[1].items[0]
+
+            followerData[0].customData.color = 'green'
+            assertEquals followerData[1].customData.color, 'red'
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    void testKey() {
+
+        def filter = new ReadCoalescingFilter()
+
+        assertEquals filter.getKey(read(HREF, [b: '2', a: '1'])), filter.getKey(read(HREF, [a: '1', b: '2']))
+        assertEquals filter.getKey(read(HREF, [:])), filter.getKey(read(HREF))
+        assertNotEquals filter.getKey(read(HREF, [a: '1'])), filter.getKey(read(HREF))
+        assertNotEquals filter.getKey(read(HREF, null, Application)), filter.getKey(read(HREF))
+    }
+
+    @Test
+    void testOnlyPlainReadsAreCoalesced() {
+
+        def filter = new ReadCoalescingFilter()
+        def uri = new DefaultCanonicalUri(HREF, null)
+
+        assertTrue filter.isCoalescable(read(HREF))
+        assertFalse filter.isCoalescable(new DefaultResourceDataRequest(ResourceAction.CREATE, uri, Account, [:]))
+        assertFalse filter.isCoalescable(new DefaultResourceDataRequest(ResourceAction.DELETE, uri, Account, [:]))
+
+        def headers = new HttpHeaders()
+        headers.add('Accept', 'text/plain')
+        assertFalse filter.isCoalescable(new DefaultResourceDataRequest(ResourceAction.READ, uri, Account, [:], headers))
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountList
+import com.stormpath.sdk.account.EmailVerificationToken
+import com.stormpath.sdk.directory.Directory
+import com.stormpath.sdk.impl.account.DefaultAccount
+import com.stormpath.sdk.impl.account.DefaultAccountList
+import com.stormpath.sdk.impl.resource.ArrayProperty
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class ResourceMetadataRegistryTest {
+
+    @Test
+    void testMetadataIsMemoized() {
+        assertSame ResourceMetadataRegistry.getMetadata(Account), ResourceMetadataRegistry.getMetadata(Account)
+    }
+
+    @Test
+    void testClasses() {
+        def metadata = ResourceMetadataRegistry.getMetadata(Account)
+        assertEquals metadata.getInterfaceClass(), Account
+        assertEquals metadata.getImplementationClass(), DefaultAccount
+
+        metadata = ResourceMetadataRegistry.getMetadata(DefaultAccount)
+        assertEquals metadata.getInterfaceClass(), Account
+        assertEquals metadata.getImplementationClass(), DefaultAccount
+
+        assertEquals DefaultResourceFactory.getImplementationClass(AccountList), DefaultAccountList
+        assertEquals DefaultResourceFactory.getInterfaceClass(DefaultAccountList), AccountList
+    }
+
+    @Test
+    void testPropertyDescriptors() {
+        def metadata = ResourceMetadataRegistry.getMetadata(Account)
+
+        assertSame metadata.getPropertyDescriptors(), metadata.getPropertyDescriptors()
+        assertEquals metadata.getPropertyDescriptors().keySet(), DefaultAccount.PROPERTY_DESCRIPTORS.keySet()
+        assertEquals metadata.getReferenceProperties().get('directory').getType(), Directory
+        assertFalse metadata.getReferenceProperties().containsKey('email')
+        assertTrue metadata.getArrayProperties().isEmpty()
+
+        ArrayProperty items = ResourceMetadataRegistry.getMetadata(AccountList).getArrayProperties().get('items')
+        assertEquals items.getType(), Account
+    }
+
+    @Test
+    void testPropertyDescriptorsOfSubclass() {
+        def subclass = new DefaultAccount(null) {}
+        def metadata = ResourceMetadataRegistry.getMetadata(subclass.getClass())
+        assertEquals metadata.getPropertyDescriptors().keySet(), DefaultAccount.PROPERTY_DESCRIPTORS.keySet()
+    }
+
+    @Test(expectedExceptions = IllegalStateException)
+    void testMissingPropertyDescriptors() {
+        ResourceMetadataRegistry.getMetadata(EmailVerificationToken).getPropertyDescriptors()
+    }
+
+    @Test
+    void testConstructors() {
+        def metadata = ResourceMetadataRegistry.getMetadata(Account)
+        assertSame metadata.getConstructor(2), metadata.getConstructor(2)
+        assertEquals metadata.getConstructor(1).getParameterTypes() as List, [InternalDataStore]
+        assertEquals metadata.getConstructor(2).getParameterTypes() as List, [InternalDataStore, Map]
+        assertEquals ResourceMetadataRegistry.getMetadata(AccountList).getConstructor(3).getParameterTypes() as List,
+                [InternalDataStore, Map, Map]
+    }
+}
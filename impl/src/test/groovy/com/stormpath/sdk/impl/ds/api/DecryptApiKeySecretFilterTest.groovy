@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds.api
+
+import com.stormpath.sdk.api.ApiKey
+import com.stormpath.sdk.api.ApiKeyList
+import com.stormpath.sdk.impl.ds.DefaultResourceDataRequest
+import com.stormpath.sdk.impl.ds.DefaultResourceDataResult
+import com.stormpath.sdk.impl.ds.FilterChain
+import com.stormpath.sdk.impl.ds.ResourceAction
+import com.stormpath.sdk.impl.ds.ResourceDataRequest
+import com.stormpath.sdk.impl.ds.ResourceDataResult
+import com.stormpath.sdk.impl.http.support.DefaultCanonicalUri
+import com.stormpath.sdk.impl.util.Base64
+import com.stormpath.sdk.impl.util.SharedExecutors
+import com.stormpath.sdk.resource.Resource
+import org.testng.annotations.Test
+
+import javax.crypto.Cipher
+import javax.crypto.SecretKeyFactory
+import javax.crypto.spec.IvParameterSpec
+import javax.crypto.spec.PBEKeySpec
+import javax.crypto.spec.SecretKeySpec
+import java.security.SecureRandom
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadPoolExecutor
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class DecryptApiKeySecretFilterTest {
+
+    private static final String CLIENT_SECRET = 'clientApiKeySecretValue'
+    private static final String HREF = 'https://api.stormpath.com/v1/apiKeys/'
+    private static final int ITERATIONS = 1024
+    private static final int KEY_SIZE = 128
+
+    private static final SecureRandom RANDOM = new SecureRandom()
+
+    private static ApiKey clientApiKey() {
+        def apiKey = createMock(ApiKey)
+        expect(apiKey.getSecret()).andStubReturn(CLIENT_SECRET)
+        replay apiKey
+        return apiKey
+    }
+
+    private static String newSalt() {
+        byte[] salt = new byte[16]
+        RANDOM.nextBytes(salt)
+        return Base64.encodeBase64String(salt)
+    }
+
+    private static String encrypt(String secret, String base64Salt) {
+        def keySpec = new PBEKeySpec(CLIENT_SECRET.toCharArray(), Base64.decodeBase64(base64Salt), ITERATIONS, KEY_SIZE)
+        def derived = SecretKeyFactory.getInstance('PBKDF2WithHmacSHA1').generateSecret(keySpec).getEncoded()
+        byte[] iv = new byte[KEY_SIZE / 8]
+        RANDOM.nextBytes(iv)
+        def cipher = Cipher.getInstance('AES/CBC/PKCS5Padding')
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(derived, 'AES'), new IvParameterSpec(iv))
+        byte[] encrypted = cipher.doFinal(secret.getBytes('UTF-8'))
+        byte[] result = new byte[iv.length + encrypted.length]
+        System.arraycopy(iv, 0, result, 0, iv.length)
+        System.arraycopy(encrypted, 0, result, iv.length, encrypted.length)
+        return Base64.encodeBase64String(result)
+    }
+
+    private static Map<String, Object> apiKeyData(String id, String secret, String base64Salt) {
+        Map<String, Object> data = new LinkedHashMap<String, Object>()
+        data.put('href', HREF + id)
+        data.put('id', id)
+        data.put('secret', encrypt(secret, base64Salt))
+        data.put('API_KEY_META_DATA', [encryptionKeySalt: base64Salt, encryptionKeyIterations: ITERATIONS,
+                                       encryptionKeySize: KEY_SIZE])
+        return data
+    }
+
+    private static ResourceDataResult read(DecryptApiKeySecretFilter filter, Class<? extends Resource> clazz,
+                                           Map<String, Object> data) {
+        def request = new DefaultResourceDataRequest(ResourceAction.READ, new DefaultCanonicalUri(HREF, null), clazz,
+                                                     new HashMap<String, Object>())
+        return filter.filter(request, new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest r) {
+                return new DefaultResourceDataResult(r.getAction(), r.getUri(), r.getResourceClass(), data)
+            }
+        })
+    }
+
+    @Test
+    void testDecryptsApiKey() {
+        def filter = new DecryptApiKeySecretFilter(clientApiKey())
+        def salt = newSalt()
+
+        for (int i = 0; i < 3; i++) {
+            def data = read(filter, ApiKey, apiKeyData("key$i", "secret$i", salt)).getData()
+            assertEquals data.get('secret'), "secret$i" as String
+            assertFalse data.containsKey('API_KEY_META_DATA')
+            assertEquals data.get('id'), "key$i" as String
+        }
+    }
+
+    @Test
+    void testDecryptsApiKeyListWithDistinctSalts() {
+        def filter = new DecryptApiKeySecretFilter(clientApiKey(), 2) //fewer cached keys than salts
+        def salts = [newSalt(), newSalt(), newSalt()]
+
+        List<Map<String, Object>> items = []
+        for (int i = 0; i < 25; i++) {
+            items << apiKeyData("key$i", "secret$i", salts[i % salts.size()])
+        }
+        Map<String, Object> page = [href: HREF, offset: 0, limit: 25, items: items]
+
+        List<Map<String, Object>> decrypted = (List) read(filter, ApiKeyList, page).getData().get('items')
+
+        assertEquals decrypted.size(), 25
+        for (int i = 0; i < 25; i++) {
+            assertEquals decrypted[i].get('secret'), "secret$i" as String
+            assertFalse decrypted[i].containsKey('API_KEY_META_DATA')
+        }
+    }
+
+    @Test(timeOut = 10000L)
+    void testApiKeyListIsDecryptedWhileSharedThreadsAreBusy() {
+        def filter = new DecryptApiKeySecretFilter(clientApiKey())
+        def salts = [newSalt(), newSalt(), newSalt()]
+        def items = (0..2).collect { apiKeyData("key$it", "secret$it", salts[it]) }
+
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) SharedExecutors.getAsyncExecutor()
+        def release = new CountDownLatch(1)
+        int busy = executor.getMaximumPoolSize()
+        busy.times { executor.execute({ release.await() } as Runnable) }
+        try {
+            //the derivations queued behind the busy threads are run by the reading thread:
+            List<Map<String, Object>> decrypted = (List) read(filter, ApiKeyList, [href: HREF, items: items]).getData().get('items')
+            assertEquals decrypted.collect { it.get('secret') }, ['secret0', 'secret1', 'secret2']
+        } finally {
+            release.countDown()
+        }
+    }
+
+    @Test
+    void testUnencryptedApiKeyIsUnchanged() {
+        def filter = new DecryptApiKeySecretFilter(clientApiKey())
+        Map<String, Object> data = [href: HREF + 'a', id: 'a', secret: 'plain']
+
+        assertSame read(filter, ApiKey, data).getData(), data
+    }
+
+    @Test
+    void testFailedDerivationIsNotRetained() {
+        def apiKey = createMock(ApiKey)
+        expect(apiKey.getSecret()).andReturn('').once() //invalid, derivation fails
+        expect(apiKey.getSecret()).andStubReturn(CLIENT_SECRET)
+        replay apiKey
+        def filter = new DecryptApiKeySecretFilter(apiKey)
+        def salt = newSalt()
+
+        try {
+            read(filter, ApiKey, apiKeyData('a', 'secret', salt))
+            fail()
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals read(filter, ApiKey, apiKeyData('a', 'secret', salt)).getData().get('secret'), 'secret'
+    }
+
+    @Test
+    void testDerivationsOfFailedPageAreCompletedAndNotRetained() {
+        def filter = new DecryptApiKeySecretFilter(clientApiKey())
+        def valid = apiKeyData('a', 'secret', newSalt())
+        def invalid = apiKeyData('b', 'secret', newSalt())
+        invalid.put('API_KEY_META_DATA', [encryptionKeySalt: newSalt(), encryptionKeyIterations: 'notAnInteger',
+                                          encryptionKeySize: KEY_SIZE])
+        Map<String, Object> page = [href: HREF, offset: 0, limit: 25, items: [valid, invalid]]
+
+        try {
+            read(filter, ApiKeyList, page)
+            fail()
+        } catch (ClassCastException expected) {
+        }
+
+        //the derivation published for the first item must neither be left pending nor retained:
+        assertEquals filter.encryptionServices.size(), 0
+
+        assertEquals read(filter, ApiKey, valid).getData().get('secret'), 'secret'
+    }
+
+    /**
+     * Measures the per-key decryption latency with and without a previously derived key.
+     * <p/>
+     * Disabled by default (on purpose), as it is a manual benchmark and not a correctness test: enable it to run it
+     * manually, but DO NOT COMMIT the change.
+     */
+    @Test(enabled = false)
+    void benchmarkDecryption() {
+        int iterations = 200
+        List<Map<String, Object>> uncached = []
+        for (int i = 0; i < iterations; i++) {
+            uncached << apiKeyData("key$i", "secret$i", newSalt())
+        }
+        def salt = newSalt()
+        List<Map<String, Object>> cached = []
+        for (int i = 0; i < iterations; i++) {
+            cached << apiKeyData("key$i", "secret$i", salt)
+        }
+
+        def filter = new DecryptApiKeySecretFilter(clientApiKey())
+        for (List<Map<String, Object>> keys : [uncached, cached]) {
+            long start = System.nanoTime()
+            for (Map<String, Object> key : keys) {
+                read(filter, ApiKey, key)
+            }
+            long micros = (System.nanoTime() - start) / 1000
+            println "${keys.is(cached) ? 'cached key' : 'new key'}: ${micros / iterations} us per ApiKey"
+        }
+    }
+}
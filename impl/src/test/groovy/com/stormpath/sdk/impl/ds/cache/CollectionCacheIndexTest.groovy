@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds.cache
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountList
+import com.stormpath.sdk.impl.ds.ResourceAction
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class CollectionCacheIndexTest {
+
+    private static CollectionCacheIndex.Page page(String path, List<String> params = null, String... members) {
+        String key = params ? path + '?' + params.collect { it + '=1' }.join('&') : path
+        return new CollectionCacheIndex.Page(AccountList, key, path, params, Account, members as Set<String>)
+    }
+
+    @Test
+    void testPageReadBeforeInvalidationIsRejected() {
+
+        def index = new CollectionCacheIndex()
+        long generation = index.getGeneration()
+
+        index.invalidate(ResourceAction.UPDATE, Account, "/accounts/1", ["/accounts/1"])
+
+        def evicted = []
+        assertFalse index.add(page("/applications/A/accounts"), generation, evicted)
+        assertEquals index.size(), 0
+
+        assertTrue index.add(page("/applications/A/accounts"), index.getGeneration(), evicted)
+        assertEquals index.size(), 1
+        assertTrue evicted.isEmpty()
+    }
+
+    @Test
+    void testOldestPagesAreEvicted() {
+
+        def index = new CollectionCacheIndex(2)
+        def first = page("/applications/A/accounts")
+        def evicted = []
+
+        index.add(first, 0, evicted)
+        index.add(page("/applications/B/accounts"), 0, evicted)
+        index.add(page("/applications/C/accounts"), 0, evicted)
+
+        assertEquals index.size(), 2
+        assertEquals evicted, [first]
+        assertFalse index.contains(first)
+    }
+
+    @Test
+    void testReplacedPageIsNotContained() {
+
+        def index = new CollectionCacheIndex()
+        def first = page("/applications/A/accounts")
+
+        index.add(first, 0, [])
+        index.add(page("/applications/A/accounts"), 0, [])
+
+        assertEquals index.size(), 1
+        assertFalse index.contains(first)
+    }
+
+    @Test
+    void testFiltered() {
+        assertFalse page("/applications/A/accounts").isFiltered()
+        assertFalse page("/applications/A/accounts", ['offset', 'limit', 'expand']).isFiltered()
+        assertTrue page("/applications/A/accounts", ['offset', 'email']).isFiltered()
+        assertTrue page("/applications/A/accounts", ['orderBy']).isFiltered()
+    }
+
+    @Test
+    void testDependsOn() {
+
+        def p = page("/applications/A/accounts", null, "/accounts/1")
+
+        assertTrue p.dependsOn(ResourceAction.UPDATE, Account, "/accounts/1", ["/accounts/1"])
+        assertTrue p.dependsOn(ResourceAction.UPDATE, Object, "/applications/A", ["/applications/A"])
+        assertTrue p.dependsOn(ResourceAction.CREATE, Object, "/applications/A/accounts", [])
+        assertTrue p.dependsOn(ResourceAction.DELETE, Account, "/accounts/2", ["/accounts/2"])
+        assertFalse p.dependsOn(ResourceAction.UPDATE, Account, "/accounts/2", ["/accounts/2"])
+        assertFalse p.dependsOn(ResourceAction.UPDATE, Object, "/applications/AB", ["/applications/AB"])
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.ds.cache
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountList
+import com.stormpath.sdk.cache.Caches
+import com.stormpath.sdk.cache.ConcurrentCache
+import com.stormpath.sdk.group.Group
+import com.stormpath.sdk.group.GroupList
+import com.stormpath.sdk.group.GroupMembership
+import com.stormpath.sdk.impl.cache.DefaultCache
+import com.stormpath.sdk.impl.ds.DefaultCacheRegionNameResolver
+import com.stormpath.sdk.impl.ds.DefaultFilterChain
+import com.stormpath.sdk.impl.ds.DefaultResourceDataRequest
+import com.stormpath.sdk.impl.ds.DefaultResourceDataResult
+import com.stormpath.sdk.impl.ds.Filter
+import com.stormpath.sdk.impl.ds.FilterChain
+import com.stormpath.sdk.impl.ds.ResourceAction
+import com.stormpath.sdk.impl.ds.ResourceDataRequest
+import com.stormpath.sdk.impl.ds.ResourceDataResult
+import com.stormpath.sdk.impl.http.QueryString
+import com.stormpath.sdk.impl.http.support.DefaultCanonicalUri
+import com.stormpath.sdk.impl.resource.ReferenceFactory
+import com.stormpath.sdk.resource.CollectionResource
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class CollectionCachingTest {
+
+    private static final String BASE = "https://api.stormpath.com/v1"
+    private static final String APP_ACCOUNTS = BASE + "/applications/A/accounts"
+    private static final String GROUP_ACCOUNTS = BASE + "/groups/G/accounts"
+
+    private List<Filter> filters
+    private CacheResolver resolver
+    private Map<String, Map<String, Object>> server
+    private List<String> requests
+
+    @BeforeMethod
+    void setUp() {
+        def cacheManager = Caches.newCacheManager().withCache(Caches.forResource(AccountList)).build()
+        resolver = new DefaultCacheResolver(cacheManager, new DefaultCacheRegionNameResolver())
+        Set<Class<? extends CollectionResource>> types = [AccountList] as Set
+
+        filters = [new ReadCacheFilter(BASE, resolver, types), new WriteCacheFilter(resolver, types, new ReferenceFactory())]
+        requests = []
+        server = [:]
+        server[APP_ACCOUNTS] = page(APP_ACCOUNTS, BASE + "/accounts/1", BASE + "/accounts/2")
+        server[GROUP_ACCOUNTS] = page(GROUP_ACCOUNTS, BASE + "/accounts/2")
+    }
+
+    private static Map<String, Object> account(String href) {
+        return [href: href, username: href.substring(href.lastIndexOf('/') + 1), email: 'jsmith@example.com']
+    }
+
+    private static Map<String, Object> page(String href, String... accountHrefs) {
+        def items = accountHrefs.collect { account(it) }
+        return [href: href, offset: 0, limit: 25, size: items.size(), items: items]
+    }
+
+    private ResourceDataResult execute(ResourceAction action, String href, Class clazz, Map<String, Object> data = [:], Map<String, String> query = null) {
+        def uri = new DefaultCanonicalUri(href, query != null ? new QueryString(query) : null)
+        def request = new DefaultResourceDataRequest(action, uri, clazz, data)
+        def chain = new DefaultFilterChain(filters, new FilterChain() {
+            @Override
+            ResourceDataResult filter(ResourceDataRequest req) {
+                requests << (req.getAction().name() + ' ' + req.getUri().getAbsolutePath())
+                Map<String, Object> result = [:]
+                if (req.getAction() == ResourceAction.READ) {
+                    result = new LinkedHashMap<String, Object>(server[req.getUri().getAbsolutePath()])
+                } else if (req.getAction() != ResourceAction.DELETE) {
+                    result = new LinkedHashMap<String, Object>(data)
+                }
+                return new DefaultResourceDataResult(req.getAction(), req.getUri(), req.getResourceClass(), result)
+            }
+        })
+        return chain.filter(request)
+    }
+
+    private ResourceDataResult read(String href, Class clazz = AccountList, Map<String, String> query = null) {
+        return execute(ResourceAction.READ, href, clazz, [:], query)
+    }
+
+    @Test
+    void testPagesAreCached() {
+
+        def result = read(APP_ACCOUNTS)
+        assertEquals result.getData().get('size'), 2
+
+        result = read(APP_ACCOUNTS)
+        assertEquals requests.size(), 1
+        assertEquals result.getData().get('items').collect { it.href } as List<String>, [BASE + "/accounts/1", BASE + "/accounts/2"]
+
+        //the query is part of the key, in canonical order:
+        read(APP_ACCOUNTS, AccountList, [offset: '25', limit: '25'])
+        read(APP_ACCOUNTS, AccountList, [limit: '25', offset: '25'])
+        assertEquals requests.size(), 2
+    }
+
+    @Test
+    void testCachedPageReturnsCachedItems() {
+
+        read(APP_ACCOUNTS)
+        def result = read(APP_ACCOUNTS)
+
+        assertEquals requests.size(), 1
+        assertEquals result.getData().get('items') as List, [account(BASE + "/accounts/1"), account(BASE + "/accounts/2")]
+    }
+
+    @Test
+    void testPageWithUncachedItemIsMiss() {
+
+        read(APP_ACCOUNTS)
+        resolver.getCache(Account).remove(BASE + "/accounts/2")
+
+        def result = read(APP_ACCOUNTS)
+
+        assertEquals requests.size(), 2
+        assertEquals result.getData().get('items') as List, [account(BASE + "/accounts/1"), account(BASE + "/accounts/2")]
+    }
+
+    @Test
+    void testDeprecatedConstructorsCacheAllCollectionTypes() {
+        server[BASE + "/accounts/1/groups"] = [href: BASE + "/accounts/1/groups", offset: 0, limit: 25, size: 0, items: []]
+        filters = [new ReadCacheFilter(BASE, resolver, true), new WriteCacheFilter(resolver, true, new ReferenceFactory())]
+
+        read(BASE + "/accounts/1/groups", GroupList)
+        read(BASE + "/accounts/1/groups", GroupList)
+        assertEquals requests.size(), 1
+
+        filters = [new ReadCacheFilter(BASE, resolver, false), new WriteCacheFilter(resolver, false, new ReferenceFactory())]
+        read(APP_ACCOUNTS)
+        read(APP_ACCOUNTS)
+        assertEquals requests.size(), 3
+    }
+
+    @Test
+    void testUnconfiguredCollectionTypeIsNotCached() {
+        server[BASE + "/accounts/1/groups"] = [href: BASE + "/accounts/1/groups", offset: 0, limit: 25, size: 0, items: []]
+
+        read(BASE + "/accounts/1/groups", GroupList)
+        read(BASE + "/accounts/1/groups", GroupList)
+
+        assertEquals requests.size(), 2
+    }
+
+    @Test
+    void testUpdateOfMemberInvalidatesContainingPages() {
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        execute(ResourceAction.UPDATE, BASE + "/accounts/1", Account, account(BASE + "/accounts/1"))
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        //only the page containing the account was evicted:
+        assertEquals requests, ['READ ' + APP_ACCOUNTS, 'READ ' + GROUP_ACCOUNTS, 'UPDATE ' + BASE + '/accounts/1',
+                                'READ ' + APP_ACCOUNTS]
+    }
+
+    @Test
+    void testUpdateInvalidatesFilteredPagesOfItemType() {
+
+        read(GROUP_ACCOUNTS, AccountList, [username: '1*'])
+        read(GROUP_ACCOUNTS, AccountList, [offset: '0'])
+
+        //account 1 is not in the filtered page, but might match its criteria now:
+        execute(ResourceAction.UPDATE, BASE + "/accounts/1", Account, account(BASE + "/accounts/1"))
+
+        read(GROUP_ACCOUNTS, AccountList, [username: '1*'])
+        read(GROUP_ACCOUNTS, AccountList, [offset: '0'])
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 3
+    }
+
+    @Test
+    void testCreateOfItemTypeInvalidatesPages() {
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        execute(ResourceAction.CREATE, BASE + "/directories/D/accounts", Account, account(BASE + "/accounts/3"))
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 4
+    }
+
+    @Test
+    void testWriteOfReferencingResourceInvalidatesNestedCollections() {
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        execute(ResourceAction.CREATE, BASE + "/groupMemberships", GroupMembership,
+                [href: BASE + "/groupMemberships/M", account: [href: BASE + "/accounts/1"], group: [href: BASE + "/groups/G"]])
+
+        read(APP_ACCOUNTS) //contains account 1
+        read(GROUP_ACCOUNTS) //nested under group G
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 4
+    }
+
+    @Test
+    void testUnrelatedWriteKeepsPages() {
+
+        read(APP_ACCOUNTS)
+
+        execute(ResourceAction.UPDATE, BASE + "/groups/H", Group, [href: BASE + "/groups/H", name: 'H'])
+        execute(ResourceAction.DELETE, BASE + "/groups/H", Group)
+
+        read(APP_ACCOUNTS)
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 1
+    }
+
+    @Test
+    void testDeleteOfMemberInvalidatesPages() {
+
+        read(APP_ACCOUNTS)
+
+        execute(ResourceAction.DELETE, BASE + "/accounts/1", Account)
+
+        read(APP_ACCOUNTS)
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 2
+    }
+
+    @Test
+    void testDeleteOfCachedMembershipInvalidatesBothCollections() {
+        String accountGroups = BASE + "/accounts/2/groups"
+        String membership = BASE + "/groupMemberships/M"
+        server[accountGroups] = [href: accountGroups, offset: 0, limit: 25, size: 1, items: [[href: BASE + "/groups/G", name: 'G']]]
+        server[membership] = [href: membership, account: [href: BASE + "/accounts/2"], group: [href: BASE + "/groups/G"]]
+        Set<Class<? extends CollectionResource>> types = [AccountList, GroupList] as Set
+        filters = [new ReadCacheFilter(BASE, resolver, types), new WriteCacheFilter(resolver, types, new ReferenceFactory())]
+
+        read(membership, GroupMembership)
+        read(GROUP_ACCOUNTS)
+        read(accountGroups, GroupList)
+        read(APP_ACCOUNTS)
+
+        //the delete request has no data, the account and group come from the cached membership:
+        execute(ResourceAction.DELETE, membership, GroupMembership)
+
+        read(GROUP_ACCOUNTS)
+        read(accountGroups, GroupList)
+        read(APP_ACCOUNTS) //contains account 2
+
+        assertEquals requests.findAll { it.startsWith('READ') }, ['READ ' + membership, 'READ ' + GROUP_ACCOUNTS,
+                'READ ' + accountGroups, 'READ ' + APP_ACCOUNTS, 'READ ' + GROUP_ACCOUNTS, 'READ ' + accountGroups,
+                'READ ' + APP_ACCOUNTS]
+    }
+
+    @Test
+    void testDeleteOfUncachedMembershipInvalidatesAllPages() {
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        execute(ResourceAction.DELETE, BASE + "/groupMemberships/M", GroupMembership)
+
+        read(APP_ACCOUNTS)
+        read(GROUP_ACCOUNTS)
+
+        assertEquals requests.findAll { it.startsWith('READ') }.size(), 4
+    }
+
+    @Test
+    void testPageIsCachedWithOneBulkCallPerRegion() {
+
+        Map<Class, RecordingCache> caches = [:]
+        CacheResolver resolver = [getCache: { Class clazz ->
+            if (!caches.containsKey(clazz)) {
+                caches[clazz] = new RecordingCache(clazz.name)
+            }
+            return caches[clazz]
+        }] as CacheResolver
+        Set<Class<? extends CollectionResource>> types = [AccountList] as Set
+        filters = [new ReadCacheFilter(BASE, resolver, types), new WriteCacheFilter(resolver, types, new ReferenceFactory())]
+
+        read(APP_ACCOUNTS)
+
+        assertEquals caches[Account].puts, 0
+        assertEquals caches[Account].bulkPuts, 1
+        assertEquals caches[Account].size(), 2
+        assertEquals caches[AccountList].puts, 0
+        assertEquals caches[AccountList].bulkPuts, 1
+
+        read(APP_ACCOUNTS)
+        assertEquals requests.size(), 1
+    }
+
+    private static class RecordingCache implements ConcurrentCache {
+
+        DefaultCache delegate
+        int puts
+        int bulkPuts
+
+        RecordingCache(String name) {
+            delegate = new DefaultCache(name)
+        }
+
+        int size() { return delegate.size() }
+
+        Object get(Object key) { return delegate.get(key) }
+
+        Object put(Object key, Object value) { puts++; return delegate.put(key, value) }
+
+        Object remove(Object key) { return delegate.remove(key) }
+
+        Object putIfAbsent(Object key, Object value) { return delegate.putIfAbsent(key, value) }
+
+        boolean replace(Object key, Object oldValue, Object newValue) { return delegate.replace(key, oldValue, newValue) }
+
+        Map getAll(Collection keys) { return delegate.getAll(keys) }
+
+        void putAll(Map entries) { bulkPuts++; delegate.putAll(entries) }
+
+        void removeAll(Collection keys) { delegate.removeAll(keys) }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.http.authc
+
+import com.stormpath.sdk.http.HttpMethod
+import com.stormpath.sdk.impl.api.ClientApiKey
+import com.stormpath.sdk.impl.http.HttpHeaders
+import com.stormpath.sdk.impl.http.MediaType
+import com.stormpath.sdk.impl.http.QueryString
+import com.stormpath.sdk.impl.http.support.DefaultRequest
+import com.stormpath.sdk.impl.util.StringInputStream
+import org.testng.annotations.Test
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class SAuthc1RequestAuthenticatorTest {
+
+    static final Date DATE = new Date(1444000000000L) //2015-10-04
+    static final String NONCE = 'a43a9d25-ab06-421e-8605-ec9ec6e15a6e'
+
+    @Test
+    void testGetRequestSignature() {
+        def authenticator = new SAuthc1RequestAuthenticator()
+
+        def request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+
+        assertEquals request.headers.getFirst('Authorization'),
+                'SAuthc1 sauthc1Id=MyId/20151004/a43a9d25-ab06-421e-8605-ec9ec6e15a6e/sauthc1_request, ' +
+                'sauthc1SignedHeaders=host;x-stormpath-date, ' +
+                'sauthc1Signature=262a8cb73dedf8be1e3a0fe8dca4861b05c720c34e0161ed6e23f2d042697532'
+        assertEquals request.headers.getFirst('X-Stormpath-Date'), '20151004T230640Z'
+    }
+
+    @Test
+    void testPostRequestSignature() {
+        def authenticator = new SAuthc1RequestAuthenticator()
+
+        def body = new StringInputStream('{"givenName":"Joe"}')
+        def headers = new HttpHeaders()
+        headers.setContentType(MediaType.APPLICATION_JSON)
+        def request = new DefaultRequest(HttpMethod.POST, 'https://api.stormpath.com:8443/v1/accounts/foo', null, headers, body, body.available())
+
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+
+        assertEquals request.headers.getFirst('Authorization'),
+                'SAuthc1 sauthc1Id=MyId/20151004/a43a9d25-ab06-421e-8605-ec9ec6e15a6e/sauthc1_request, ' +
+                'sauthc1SignedHeaders=content-length;content-type;host;x-stormpath-date, ' +
+                'sauthc1Signature=f6a5a97eecf4b8cb72fcc1dab965bcfe4ef299362bd1e5ad745f0d34d4ec3910'
+    }
+
+    @Test
+    void testCachedDateKeyIsReusedOnlyForSameSecretAndDate() {
+        def authenticator = new SAuthc1RequestAuthenticator()
+
+        def request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+        def signature = request.headers.getFirst('Authorization')
+        def cached = authenticator.dateKeys.get('MyId')
+        assertNotNull cached
+
+        //same key and day: cached key is reused and produces the same signature:
+        request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+        assertEquals request.headers.getFirst('Authorization'), signature
+        assertSame authenticator.dateKeys.get('MyId'), cached
+
+        //rotated secret must not reuse the cached key:
+        request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Other'), DATE, NONCE)
+        assertNotEquals request.headers.getFirst('Authorization'), signature
+        assertNotSame authenticator.dateKeys.get('MyId'), cached
+
+        //the next day must not reuse the cached key:
+        cached = authenticator.dateKeys.get('MyId')
+        request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Other'), new Date(DATE.time + 24 * 60 * 60 * 1000), NONCE)
+        assertTrue request.headers.getFirst('Authorization').contains('/20151005/')
+        assertNotSame authenticator.dateKeys.get('MyId'), cached
+    }
+
+    @Test
+    void testConcurrentSigning() {
+        def authenticator = new SAuthc1RequestAuthenticator()
+        def request = newGetRequest()
+        authenticator.authenticate(request, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+        def expected = request.headers.getFirst('Authorization')
+
+        def pool = Executors.newFixedThreadPool(4)
+        try {
+            def futures = (1..200).collect {
+                pool.submit({
+                    def r = newGetRequest()
+                    authenticator.authenticate(r, new ClientApiKey('MyId', 'Shush!'), DATE, NONCE)
+                    return r.headers.getFirst('Authorization')
+                } as Callable<String>)
+            }
+            futures.each { assertEquals it.get(), expected }
+        } finally {
+            pool.shutdown()
+        }
+    }
+
+    @Test
+    void testToHex() {
+        assertEquals SAuthc1RequestAuthenticator.toHex([0, 1, 15, 16, 127, -128, -1, -16] as byte[]), '00010f107f80fff0'
+        assertEquals SAuthc1RequestAuthenticator.toHex(new byte[0]), ''
+    }
+
+    /**
+     * Measures the per-request signing cost.  Disabled by default (on purpose), as it is a manual benchmark and not a
+     * correctness test: enable it to run it manually, but DO NOT COMMIT the change.
+     */
+    @Test(enabled = false)
+    void benchmarkSigning() {
+        def authenticator = new SAuthc1RequestAuthenticator()
+        def apiKey = new ClientApiKey('MyId', 'Shush!')
+        int iterations = 200000
+
+        //warm up:
+        iterations.times { authenticator.authenticate(newGetRequest(), apiKey) }
+
+        long start = System.nanoTime()
+        iterations.times { authenticator.authenticate(newGetRequest(), apiKey) }
+        long elapsed = System.nanoTime() - start
+
+        println "SAuthc1 signing: ${elapsed / iterations / 1000} µs/request"
+    }
+
+    private static DefaultRequest newGetRequest() {
+        def qs = new QueryString()
+        qs.put('limit', '25')
+        qs.put('expand', 'groups')
+        return new DefaultRequest(HttpMethod.GET, 'https://api.stormpath.com/v1/accounts/foo', qs)
+    }
+}
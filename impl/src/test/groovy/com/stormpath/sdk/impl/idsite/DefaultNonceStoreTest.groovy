@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.idsite
+
+import com.stormpath.sdk.idsite.Nonce
+import com.stormpath.sdk.impl.cache.DefaultCache
+import com.stormpath.sdk.impl.ds.cache.CacheResolver
+import org.testng.annotations.Test
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class DefaultNonceStoreTest {
+
+    @Test
+    void testPutIfAbsentOnlyAcceptsNonceOnce() {
+
+        def cache = new DefaultCache('nonces')
+        def cacheResolver = createStrictMock(CacheResolver)
+        expect(cacheResolver.getCache(Nonce)).andReturn(cache).anyTimes()
+        replay cacheResolver
+
+        AtomicNonceStore store = new DefaultNonceStore(cacheResolver)
+
+        assertTrue store.putNonceIfAbsent('foo')
+        assertTrue store.hasNonce('foo')
+        assertFalse store.putNonceIfAbsent('foo')
+        assertEquals cache.get('foo'), [value: 'foo']
+
+        verify cacheResolver
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.jwt
+
+import com.stormpath.sdk.impl.ds.MarshalingException
+import com.stormpath.sdk.impl.util.Base64
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class JwtJsonTest {
+
+    private static byte[] utf8(String s) {
+        return s.getBytes('UTF-8')
+    }
+
+    @Test
+    void testReadClaims() {
+        def json = '{"iss":"https://api.stormpath.com/v1/applications/A","sub":"apiKeyId","iat":1438211744,' +
+                '"nested":{"exp":1,"sub":"ignored","list":[{"scope":"ignored"}]},"exp":1438215344,' +
+                '"scope":"read write","list":[1,2,{"a":"b"}],"jti":"6sJ5n9bbPVsBUHqE7tKGWt"}'
+
+        JwtClaims claims = JwtJson.readClaims(utf8(json))
+
+        assertEquals claims.getExpiration().longValue(), 1438215344L
+        assertEquals claims.getSubject(), 'apiKeyId'
+        assertEquals claims.getScope(), 'read write'
+        assertEquals claims.getId(), '6sJ5n9bbPVsBUHqE7tKGWt'
+    }
+
+    @Test
+    void testReadClaimsWithMissingOrUnexpectedValues() {
+        JwtClaims claims = JwtJson.readClaims(utf8('{"exp":"tomorrow","sub":{"id":"foo"}}'))
+
+        assertNull claims.getExpiration()
+        assertNull claims.getSubject()
+        assertNull claims.getScope()
+    }
+
+    @Test
+    void testReadClaimsMatchesMap() {
+        def payload = [sub: 'apiKeyId', exp: 1438215344, scope: 'read', iat: 1438211744, extra: [a: [1, 2]]]
+        byte[] json = utf8(JwtJson.getMapMarshaller().marshal(payload))
+
+        Map map = JwtJson.readMap(json)
+        JwtClaims claims = JwtJson.readClaims(json)
+
+        assertEquals map, payload
+        assertEquals claims.getExpiration(), map.exp
+        assertEquals claims.getSubject(), map.sub
+        assertEquals claims.getScope(), map.scope
+    }
+
+    @Test
+    void testReadClaimsInvalidJson() {
+        try {
+            JwtJson.readClaims(utf8('["sub"]'))
+            fail("should have thrown")
+        } catch (MarshalingException expected) {
+        }
+
+        try {
+            JwtJson.readClaims(utf8('{"sub":'))
+            fail("should have thrown")
+        } catch (MarshalingException expected) {
+        }
+    }
+
+    @Test
+    void testJwtWrapperUsesSharedSupport() {
+        def header = Base64.encodeBase64URLSafeString(utf8('{"typ":"JWT","alg":"HS256"}'))
+        def payload = Base64.encodeBase64URLSafeString(utf8('{"sub":"apiKeyId","exp":1438215344}'))
+
+        def wrapper = new JwtWrapper(header + '.' + payload + '.signature')
+
+        assertEquals wrapper.getJsonHeaderAsMap(), [typ: 'JWT', alg: 'HS256']
+        assertEquals wrapper.getJsonPayloadAsMap(), [sub: 'apiKeyId', exp: 1438215344]
+        assertEquals wrapper.getJsonPayloadClaims().getSubject(), 'apiKeyId'
+        assertSame JwtJson.getMapMarshaller(), JwtJson.getMapMarshaller()
+    }
+}
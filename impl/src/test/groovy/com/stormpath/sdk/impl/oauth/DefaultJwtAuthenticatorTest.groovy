@@ -0,0 +1,362 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.oauth
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountStatus
+import com.stormpath.sdk.api.ApiKey
+import com.stormpath.sdk.application.Application
+import com.stormpath.sdk.cache.Cache
+import com.stormpath.sdk.cache.Caches
+import com.stormpath.sdk.impl.application.DefaultApplication
+import com.stormpath.sdk.impl.ds.InternalDataStore
+import com.stormpath.sdk.impl.ds.cache.CacheResolver
+import com.stormpath.sdk.impl.error.DefaultError
+import com.stormpath.sdk.lang.Duration
+import com.stormpath.sdk.oauth.AccessToken
+import com.stormpath.sdk.oauth.AccessTokenList
+import com.stormpath.sdk.oauth.JwtAuthenticationRequest
+import com.stormpath.sdk.resource.ResourceException
+import com.stormpath.sdk.tenant.Tenant
+import io.jsonwebtoken.JwtException
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import org.testng.annotations.BeforeMethod
+import org.testng.annotations.Test
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static org.easymock.EasyMock.*
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class DefaultJwtAuthenticatorTest {
+
+    private static final String BASE = 'https://api.stormpath.com/v1'
+    private static final String SECRET = 'Vk6YbUk4sK1xWx9JfZ7sz3R8wXhT9F8mYlHpX8yUfAg'
+    private static final String ACCOUNT_HREF = BASE + '/accounts/A'
+
+    private String appHref
+    private Application application
+    private InternalDataStore dataStore
+    private Account account
+    private AtomicInteger accountReads
+    private AtomicInteger remoteValidations
+    private List<String> accountTokenIds
+    private Cache accountCache
+    private AccountStatus serverAccountStatus
+    private ResourceException accountReadError
+    private List<String> tenantReferences
+
+    @BeforeMethod
+    void setUp() {
+        //each test uses its own application, so that the retained validation state is not shared between tests:
+        appHref = BASE + '/applications/' + UUID.randomUUID().toString()
+        accountReads = new AtomicInteger()
+        remoteValidations = new AtomicInteger()
+        accountTokenIds = []
+        serverAccountStatus = AccountStatus.ENABLED
+        accountReadError = null
+        tenantReferences = []
+
+        //the data store's cache, which retains accounts for an hour by default:
+        accountCache = Caches.newCacheManager().build().getCache(Account.name)
+        def cacheResolver = createNiceMock(CacheResolver)
+        expect(cacheResolver.getCache(Account)).andStubReturn(accountCache)
+
+        def apiKey = createNiceMock(ApiKey)
+        expect(apiKey.getSecret()).andStubReturn(SECRET)
+        expect(apiKey.getId()).andStubReturn('apiKeyId')
+
+        def tenant = createNiceMock(Tenant)
+        expect(tenant.getHref()).andStubReturn(BASE + '/tenants/T')
+
+        application = createNiceMock(Application)
+        expect(application.getHref()).andStubReturn(appHref)
+        expect(application.getTenant()).andStubReturn(tenant)
+
+        def accessTokens = createNiceMock(AccessTokenList)
+        expect(accessTokens.iterator()).andStubAnswer({
+            accountTokenIds.collect { id ->
+                def token = createNiceMock(AccessToken)
+                expect(token.getHref()).andStubReturn(BASE + '/accessTokens/' + id)
+                replay token
+                return token
+            }.iterator()
+        } as org.easymock.IAnswer)
+
+        account = createNiceMock(Account)
+        expect(account.getHref()).andStubReturn(ACCOUNT_HREF)
+        expect(account.getStatus()).andStubReturn(AccountStatus.ENABLED)
+        expect(account.getAccessTokens()).andStubReturn(accessTokens)
+
+        dataStore = createNiceMock(InternalDataStore)
+        expect(dataStore.getApiKey()).andStubReturn(apiKey)
+        expect(dataStore.getCacheResolver()).andStubReturn(cacheResolver)
+        expect(dataStore.getResource(eq(ACCOUNT_HREF), same(Account))).andStubAnswer({
+            def cached = accountCache.get(ACCOUNT_HREF)
+            if (cached == null) {
+                if (accountReadError != null) {
+                    throw accountReadError
+                }
+                accountReads.incrementAndGet()
+                cached = [account: serverAccountStatus == AccountStatus.ENABLED ? account : disabledAccount()]
+                accountCache.put(ACCOUNT_HREF, cached)
+            }
+            return cached.account
+        } as org.easymock.IAnswer)
+        expect(dataStore.instantiate(same(Account), anyObject(Map))).andStubAnswer({
+            def reference = createNiceMock(Account)
+            expect(reference.getHref()).andStubReturn(getCurrentArguments()[1].href)
+            replay reference
+            return reference
+        } as org.easymock.IAnswer)
+        expect(dataStore.getResource(startsWith(appHref + '/authTokens/'), same(AccessToken))).andStubAnswer({
+            remoteValidations.incrementAndGet()
+            String jwt = getCurrentArguments()[0].substring((appHref + '/authTokens/').length())
+            return remoteAccessToken(jwt)
+        } as org.easymock.IAnswer)
+
+        expect(dataStore.instantiate(same(Tenant), anyObject(Map))).andStubAnswer({
+            tenantReferences.add(getCurrentArguments()[1].href)
+            def reference = createNiceMock(Tenant)
+            expect(reference.getHref()).andStubReturn(getCurrentArguments()[1].href)
+            replay reference
+            return reference
+        } as org.easymock.IAnswer)
+
+        replay apiKey, tenant, application, accessTokens, account, cacheResolver, dataStore
+    }
+
+    private Account disabledAccount() {
+        def disabled = createNiceMock(Account)
+        expect(disabled.getHref()).andStubReturn(ACCOUNT_HREF)
+        expect(disabled.getStatus()).andStubReturn(AccountStatus.DISABLED)
+        expect(disabled.getAccessTokens()).andStubReturn(account.getAccessTokens())
+        replay disabled
+        return disabled
+    }
+
+    private AccessToken remoteAccessToken(String jwt) {
+        def token = createNiceMock(AccessToken)
+        expect(token.getHref()).andStubReturn(BASE + '/accessTokens/remote')
+        expect(token.getApplication()).andStubReturn(application)
+        expect(token.getAccount()).andStubReturn(account)
+        expect(token.getTenant()).andStubReturn(createNiceMock(Tenant))
+        expect(token.getJwt()).andStubReturn(jwt)
+        replay token
+        return token
+    }
+
+    private String jwt(String id, Date issuedAt = new Date(), String secret = SECRET) {
+        return Jwts.builder()
+            .setId(id)
+            .setIssuer(appHref)
+            .setSubject(ACCOUNT_HREF)
+            .setIssuedAt(issuedAt)
+            .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+            .signWith(SignatureAlgorithm.HS256, secret.getBytes('UTF-8'))
+            .compact()
+    }
+
+    private static JwtAuthenticationRequest request(String jwt) {
+        def request = createNiceMock(JwtAuthenticationRequest)
+        expect(request.getJwt()).andStubReturn(jwt)
+        replay request
+        return request
+    }
+
+    private DefaultJwtAuthenticator authenticator() {
+        return new DefaultJwtAuthenticator(application, dataStore)
+    }
+
+    @Test
+    void testRemoteValidationIsNotReusedByDefault() {
+        def token = jwt('T1')
+
+        authenticator().authenticate(request(token))
+        authenticator().authenticate(request(token))
+
+        assertEquals remoteValidations.get(), 2
+    }
+
+    @Test
+    void testRemoteValidationIsReusedWithinMaxStaleness() {
+        def token = jwt('T1')
+        def maxStaleness = new Duration(1, TimeUnit.MINUTES)
+
+        def result = authenticator().withMaxStaleness(maxStaleness).authenticate(request(token))
+        assertEquals result.getJwt(), token
+
+        result = authenticator().withMaxStaleness(maxStaleness).authenticate(request(token))
+        assertEquals result.getJwt(), token
+        assertEquals remoteValidations.get(), 1
+
+        //another token with the same id is not trusted because of the cached result:
+        authenticator().withMaxStaleness(maxStaleness).authenticate(request(jwt('T1', new Date(), SECRET + 'x')))
+        assertEquals remoteValidations.get(), 2
+    }
+
+    @Test
+    void testRemoteValidationIsNotReusedOnceStale() {
+        def token = jwt('T1')
+        def maxStaleness = new Duration(20, TimeUnit.MILLISECONDS)
+
+        authenticator().withMaxStaleness(maxStaleness).authenticate(request(token))
+        Thread.sleep(40)
+        authenticator().withMaxStaleness(maxStaleness).authenticate(request(token))
+
+        assertEquals remoteValidations.get(), 2
+    }
+
+    @Test
+    void testLocalValidationDoesNotReadAccount() {
+        def result = authenticator().withLocalValidation().authenticate(request(jwt('T1')))
+
+        assertEquals result.getHref(), BASE + '/accessTokens/T1'
+        assertEquals result.getAccount().getHref(), ACCOUNT_HREF
+        assertEquals accountReads.get(), 0
+    }
+
+    @Test
+    void testLocalValidationReferencesTenantWithoutReadingIt() {
+        def tenantHref = BASE + '/tenants/T'
+        application = new DefaultApplication(dataStore, [href: appHref, name: 'App', tenant: [href: tenantHref]])
+
+        authenticator().withLocalValidation().authenticate(request(jwt('T1')))
+
+        assertEquals tenantReferences, [tenantHref]
+        //the application was not modified to hold a tenant instance:
+        assertTrue application.getProperty('tenant') instanceof Map
+    }
+
+    @Test
+    void testHybridValidation() {
+        accountTokenIds.addAll(['T1', 'T2'])
+
+        def result = authenticator().withHybridValidation().authenticate(request(jwt('T1')))
+        assertEquals result.getHref(), BASE + '/accessTokens/T1'
+        assertSame result.getAccount(), account
+
+        authenticator().withHybridValidation().authenticate(request(jwt('T2')))
+        authenticator().withHybridValidation().authenticate(request(jwt('T1')))
+
+        //the account's tokens were only read once, and no token was validated remotely:
+        assertEquals accountReads.get(), 1
+        assertEquals remoteValidations.get(), 0
+    }
+
+    @Test
+    void testHybridValidationRejectsRevokedToken() {
+        //issued before the account's tokens are read, but not held by the account anymore:
+        def token = jwt('T1', new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)))
+        accountTokenIds.add('T2')
+
+        try {
+            authenticator().withHybridValidation().authenticate(request(token))
+            fail()
+        } catch (JwtException expected) {
+        }
+        assertEquals remoteValidations.get(), 0
+    }
+
+    @Test
+    void testHybridValidationDetectsRevocationOnceStale() {
+        accountTokenIds.add('T1')
+        def token = jwt('T1', new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)))
+        def maxStaleness = new Duration(20, TimeUnit.MILLISECONDS)
+
+        authenticator().withHybridValidation().withMaxStaleness(maxStaleness).authenticate(request(token))
+
+        accountTokenIds.clear()
+        Thread.sleep(40)
+
+        try {
+            authenticator().withHybridValidation().withMaxStaleness(maxStaleness).authenticate(request(token))
+            fail()
+        } catch (JwtException expected) {
+        }
+        assertEquals accountReads.get(), 2
+    }
+
+    @Test
+    void testHybridValidationValidatesUnknownRecentTokenRemotely() {
+        accountTokenIds.add('T1')
+        authenticator().withHybridValidation().authenticate(request(jwt('T1')))
+
+        //issued after the account's tokens were read:
+        def token = jwt('T2')
+        authenticator().withHybridValidation().authenticate(request(token))
+        authenticator().withHybridValidation().authenticate(request(token))
+
+        assertEquals remoteValidations.get(), 1
+        assertEquals accountReads.get(), 1
+    }
+
+    @Test
+    void testHybridValidationDetectsAccountDisabledWhileCached() {
+        accountTokenIds.add('T1')
+        def token = jwt('T1')
+        def maxStaleness = new Duration(20, TimeUnit.MILLISECONDS)
+
+        //the account was read (and cached) by the application before:
+        dataStore.getResource(ACCOUNT_HREF, Account)
+
+        authenticator().withHybridValidation().withMaxStaleness(maxStaleness).authenticate(request(token))
+
+        serverAccountStatus = AccountStatus.DISABLED
+        Thread.sleep(40)
+
+        try {
+            authenticator().withHybridValidation().withMaxStaleness(maxStaleness).authenticate(request(token))
+            fail()
+        } catch (JwtException expected) {
+        }
+    }
+
+    @Test(expectedExceptions = JwtException)
+    void testHybridValidationRejectsDeletedAccount() {
+        accountReadError = new ResourceException(new DefaultError([status: 404, code: 404, message: 'Not found']))
+        accountTokenIds.add('T1')
+        authenticator().withHybridValidation().authenticate(request(jwt('T1')))
+    }
+
+    @Test
+    void testHybridValidationPropagatesUnavailability() {
+        accountReadError = new ResourceException(new DefaultError([status: 503, code: 503, message: 'Unavailable']))
+        accountTokenIds.add('T1')
+        try {
+            authenticator().withHybridValidation().authenticate(request(jwt('T1')))
+            fail()
+        } catch (ResourceException e) {
+            assertEquals e.getStatus(), 503
+        }
+    }
+
+    @Test(expectedExceptions = JwtException)
+    void testHybridValidationRejectsTamperedToken() {
+        accountTokenIds.add('T1')
+        authenticator().withHybridValidation().authenticate(request(jwt('T1', new Date(), SECRET + 'x')))
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testNegativeMaxStaleness() {
+        authenticator().withMaxStaleness(new Duration(-1, TimeUnit.SECONDS))
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.resource
+
+import com.stormpath.sdk.account.Account
+import com.stormpath.sdk.account.AccountList
+import com.stormpath.sdk.api.ApiKey
+import com.stormpath.sdk.impl.ds.DefaultDataStore
+import com.stormpath.sdk.impl.ds.JacksonMapMarshaller
+import com.stormpath.sdk.impl.http.AsyncRequestExecutor
+import com.stormpath.sdk.impl.http.MediaType
+import com.stormpath.sdk.impl.http.Request
+import com.stormpath.sdk.impl.http.Response
+import com.stormpath.sdk.impl.http.support.DefaultResponse
+import com.stormpath.sdk.impl.util.ListenableFuture
+import com.stormpath.sdk.impl.util.SettableFuture
+import com.stormpath.sdk.resource.ResourceException
+import org.testng.annotations.Test
+
+import static org.easymock.EasyMock.createStrictMock
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class PrefetchingIteratorTest {
+
+    private static final String HREF = "https://api.stormpath.com/v1/applications/A/accounts"
+
+    /**
+     * Serves a collection of {@code size} accounts, clamping the page limit to 100 like the Stormpath API does.
+     * Asynchronous requests are either answered immediately or left pending until {@link #complete(int)} is called.
+     */
+    private static class PagingServer implements AsyncRequestExecutor {
+
+        final int size
+        final boolean autoComplete
+        final List<String> requests = []
+        final Map<Integer, SettableFuture<Response>> pending = [:]
+        final Map<Integer, Integer> pendingLimits = [:]
+        Integer failingOffset
+
+        PagingServer(int size, boolean autoComplete) {
+            this.size = size
+            this.autoComplete = autoComplete
+        }
+
+        @Override
+        Response executeRequest(Request request) {
+            requests << key(request)
+            return respond(offset(request), limit(request))
+        }
+
+        @Override
+        ListenableFuture<Response> executeRequestAsync(Request request) {
+            requests << key(request)
+            def future = new SettableFuture<Response>()
+            int offset = offset(request)
+            if (autoComplete) {
+                future.set(respond(offset, limit(request)))
+            } else {
+                pending[offset] = future
+                pendingLimits[offset] = limit(request)
+            }
+            return future
+        }
+
+        void complete(int offset) {
+            pending.remove(offset).set(respond(offset, pendingLimits.remove(offset)))
+        }
+
+        private static int offset(Request request) {
+            String value = request.getQueryString().get('offset')
+            return value != null ? Integer.parseInt(value) : 0
+        }
+
+        private static int limit(Request request) {
+            String value = request.getQueryString().get('limit')
+            return Math.min(value != null ? Integer.parseInt(value) : 25, 100)
+        }
+
+        private static String key(Request request) {
+            return offset(request) + '/' + limit(request)
+        }
+
+        private Response respond(int offset, int limit) {
+            Map<String, Object> body
+            if (failingOffset != null && offset == failingOffset) {
+                body = [status: 503, code: 503, message: 'Service unavailable']
+                return response(503, body)
+            }
+            def items = (offset..<Math.min(offset + limit, size)).collect {
+                [href: 'https://api.stormpath.com/v1/accounts/' + it, username: 'user' + it]
+            }
+            return response(200, [href: HREF, offset: offset, limit: limit, size: size, items: offset < size ? items : []])
+        }
+
+        private static Response response(int status, Map<String, Object> body) {
+            byte[] bytes = new JacksonMapMarshaller().marshal(body).getBytes('UTF-8')
+            return new DefaultResponse(status, MediaType.APPLICATION_JSON, new ByteArrayInputStream(bytes), bytes.length)
+        }
+    }
+
+    private static AccountList accounts(PagingServer server) {
+        def dataStore = new DefaultDataStore(server, "https://api.stormpath.com/v1", createStrictMock(ApiKey))
+        return dataStore.instantiate(AccountList, [href: HREF])
+    }
+
+    private static List<String> usernames(Iterator<Account> iterator) {
+        List<String> usernames = []
+        while (iterator.hasNext()) {
+            usernames << iterator.next().getUsername()
+        }
+        return usernames
+    }
+
+    @Test
+    void testAllResourcesAreReturnedInOrder() {
+        def server = new PagingServer(10, true)
+
+        def usernames = usernames(accounts(server).prefetchingIterator(3, 2))
+
+        assertEquals usernames, (0..<10).collect { 'user' + it }
+        assertEquals server.requests, ['0/3', '3/3', '6/3', '9/3']
+    }
+
+    @Test
+    void testPagesAreDeliveredInRequestOrderWithBoundedLookAhead() {
+        def server = new PagingServer(10, false)
+
+        def iterator = accounts(server).prefetchingIterator(3, 2)
+        //the first page is retrieved right away and the next two are requested in the background:
+        assertEquals server.requests, ['0/3', '3/3', '6/3']
+
+        //responses arriving out of order must not change the iteration order:
+        server.complete(6)
+        server.complete(3)
+
+        assertEquals((1..3).collect { iterator.next().getUsername() }, ['user0', 'user1', 'user2'])
+        assertEquals server.requests.size(), 3
+
+        //moving on to the second page frees a look ahead slot:
+        assertEquals iterator.next().getUsername(), 'user3'
+        assertEquals server.requests, ['0/3', '3/3', '6/3', '9/3']
+
+        server.complete(9)
+        assertEquals usernames(iterator), (4..<10).collect { 'user' + it }
+        assertEquals server.requests.size(), 4
+        assertTrue server.pending.isEmpty()
+    }
+
+    @Test
+    void testServerAppliedLimitIsUsedForSubsequentPages() {
+        def server = new PagingServer(250, true)
+
+        def usernames = usernames(accounts(server).prefetchingIterator(500, 4))
+
+        assertEquals usernames.size(), 250
+        assertEquals usernames.last(), 'user249'
+        assertEquals server.requests, ['0/100', '100/100', '200/100']
+    }
+
+    @Test
+    void testNoLookAhead() {
+        def server = new PagingServer(5, true)
+
+        def iterator = accounts(server).prefetchingIterator(2, 0)
+        assertEquals server.requests, ['0/2']
+
+        assertEquals usernames(iterator), (0..<5).collect { 'user' + it }
+        assertEquals server.requests, ['0/2', '2/2', '4/2']
+    }
+
+    @Test
+    void testEmptyCollection() {
+        def server = new PagingServer(0, true)
+
+        def iterator = accounts(server).prefetchingIterator(25, 2)
+
+        assertFalse iterator.hasNext()
+        assertEquals server.requests, ['0/25']
+        try {
+            iterator.next()
+            fail("should have thrown")
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    @Test
+    void testFailedPageIsPropagated() {
+        def server = new PagingServer(10, true)
+        server.failingOffset = 3
+
+        def iterator = accounts(server).prefetchingIterator(3, 2)
+        assertEquals((1..3).collect { iterator.next().getUsername() }, ['user0', 'user1', 'user2'])
+
+        try {
+            iterator.hasNext()
+            fail("should have thrown")
+        } catch (ResourceException e) {
+            assertEquals e.getStatus(), 503
+        }
+        //the iteration does not continue past the failed page:
+        assertFalse iterator.hasNext()
+    }
+
+    @Test
+    void testInvalidArguments() {
+        def accounts = accounts(new PagingServer(10, true))
+
+        try {
+            accounts.prefetchingIterator(0, 2)
+            fail("should have thrown")
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            accounts.prefetchingIterator(25, -1)
+            fail("should have thrown")
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
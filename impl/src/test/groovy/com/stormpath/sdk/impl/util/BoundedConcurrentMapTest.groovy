@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class BoundedConcurrentMapTest {
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testZeroCapacity() {
+        new BoundedConcurrentMap<String, String>(0)
+    }
+
+    @Test
+    void testPutGetRemove() {
+        def map = new BoundedConcurrentMap<String, String>(10)
+
+        assertNull map.put('foo', 'bar')
+        assertEquals map.get('foo'), 'bar'
+        assertEquals map.put('foo', 'baz'), 'bar'
+        assertEquals map.get('foo'), 'baz'
+        assertTrue map.containsKey('foo')
+        assertEquals map.size(), 1
+
+        assertEquals map.remove('foo'), 'baz'
+        assertNull map.get('foo')
+        assertTrue map.isEmpty()
+        assertEquals map.getWeightedSize(), 0
+    }
+
+    @Test
+    void testConcurrentMapOperations() {
+        def map = new BoundedConcurrentMap<String, String>(10)
+
+        assertNull map.putIfAbsent('foo', 'bar')
+        assertEquals map.putIfAbsent('foo', 'baz'), 'bar'
+
+        assertFalse map.replace('foo', 'baz', 'qux')
+        assertTrue map.replace('foo', 'bar', 'qux')
+        assertEquals map.replace('foo', 'bar'), 'qux'
+        assertNull map.replace('nope', 'bar')
+
+        assertFalse map.remove('foo', 'qux')
+        assertTrue map.remove('foo', 'bar')
+        assertTrue map.isEmpty()
+    }
+
+    @Test(expectedExceptions = NullPointerException)
+    void testPutNullValue() {
+        new BoundedConcurrentMap<String, String>(10).put('foo', null)
+    }
+
+    @Test
+    void testEvictsBeyondMaxEntries() {
+        def map = new BoundedConcurrentMap<Integer, Integer>(100)
+
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i)
+        }
+
+        assertEquals map.size(), 100
+        assertEquals map.getWeightedSize(), 100
+        assertEquals map.getEvictionCount(), 900
+    }
+
+    @Test
+    void testFrequentlyUsedEntriesSurviveScan() {
+        def map = new BoundedConcurrentMap<String, Integer>(100)
+
+        for (int i = 0; i < 50; i++) {
+            map.put("hot-$i" as String, i)
+        }
+        //make the 'hot' entries popular:
+        for (int n = 0; n < 20; n++) {
+            for (int i = 0; i < 50; i++) {
+                map.get("hot-$i" as String)
+            }
+        }
+        //a large one-time scan (e.g. iterating a big collection) should not flush the hot entries:
+        for (int i = 0; i < 10000; i++) {
+            map.put("cold-$i" as String, i)
+        }
+
+        int retained = 0
+        for (int i = 0; i < 50; i++) {
+            if (map.containsKey("hot-$i" as String)) {
+                retained++
+            }
+        }
+
+        assertTrue retained >= 45, "Only $retained hot entries were retained."
+        assertTrue map.size() <= 100
+    }
+
+    @Test
+    void testWeigher() {
+        def weigher = new Weigher<String, String>() {
+            @Override
+            int weightOf(String key, String value) {
+                return value.length()
+            }
+        }
+        def map = new BoundedConcurrentMap<String, String>(10, weigher)
+
+        map.put('a', '1234')
+        map.put('b', '1234')
+        assertEquals map.getWeightedSize(), 8
+
+        map.put('a', '1')
+        assertEquals map.getWeightedSize(), 5
+
+        map.put('c', '12345678')
+        assertTrue map.getWeightedSize() <= 10
+        assertTrue map.getEvictionCount() > 0
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException)
+    void testWeigherReturningZero() {
+        def weigher = new Weigher<String, String>() {
+            @Override
+            int weightOf(String key, String value) {
+                return 0
+            }
+        }
+        new BoundedConcurrentMap<String, String>(10, weigher).put('a', 'b')
+    }
+
+    @Test
+    void testExpiry() {
+        def map = new BoundedConcurrentMap<String, String>(10)
+        map.setExpiry(new BoundedConcurrentMap.Expiry<String, String>() {
+            @Override
+            boolean isExpired(String key, String value, long nowMillis) {
+                return value == 'expired'
+            }
+        })
+
+        map.put('foo', 'expired')
+        //expired entries are removed during maintenance, which is performed on every write:
+        map.put('bar', 'baz')
+
+        assertFalse map.containsKey('foo')
+        assertEquals map.get('bar'), 'baz'
+        assertEquals map.getEvictionCount(), 1
+    }
+
+    @Test
+    void testClear() {
+        def map = new BoundedConcurrentMap<Integer, Integer>(10)
+        for (int i = 0; i < 5; i++) {
+            map.put(i, i)
+        }
+
+        map.clear()
+
+        assertTrue map.isEmpty()
+        assertEquals map.getWeightedSize(), 0
+    }
+
+    @Test
+    void testEntrySet() {
+        def map = new BoundedConcurrentMap<String, String>(10)
+        map.put('foo', 'bar')
+        map.put('hello', 'world')
+
+        def copy = [:]
+        for (Map.Entry<String, String> e : map.entrySet()) {
+            copy.put(e.key, e.value)
+        }
+        assertEquals copy, [foo: 'bar', hello: 'world']
+
+        def i = map.entrySet().iterator()
+        def entry = i.next()
+        entry.setValue('changed')
+        assertEquals map.get(entry.key), 'changed'
+        i.remove()
+        assertFalse map.containsKey(entry.key)
+        assertEquals map.size(), 1
+    }
+
+    @Test
+    void testConcurrentAccess() {
+        def map = new BoundedConcurrentMap<Integer, Integer>(500)
+        int threads = 8
+        def executor = Executors.newFixedThreadPool(threads)
+        def latch = new CountDownLatch(threads)
+        def failures = Collections.synchronizedList([])
+
+        for (int t = 0; t < threads; t++) {
+            final int seed = t
+            executor.execute(new Runnable() {
+                @Override
+                void run() {
+                    try {
+                        def random = new Random(seed)
+                        for (int i = 0; i < 20000; i++) {
+                            int key = random.nextInt(2000)
+                            switch (random.nextInt(4)) {
+                                case 0: map.put(key, key); break
+                                case 1: map.remove(key); break
+                                default:
+                                    def value = map.get(key)
+                                    if (value != null && value != key) {
+                                        failures.add("$key mapped to $value" as String)
+                                    }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e)
+                    } finally {
+                        latch.countDown()
+                    }
+                }
+            })
+        }
+
+        assertTrue latch.await(60, TimeUnit.SECONDS)
+        executor.shutdown()
+
+        assertTrue failures.isEmpty(), failures.toString()
+        assertTrue map.size() <= 500
+        assertEquals map.getWeightedSize(), (long) map.size()
+    }
+}
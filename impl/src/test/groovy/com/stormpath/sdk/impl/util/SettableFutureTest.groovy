@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util
+
+import org.testng.annotations.Test
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class SettableFutureTest {
+
+    @Test
+    void testSet() {
+        def future = new SettableFuture<String>()
+        def results = []
+        future.addCallback(new RecordingCallback(results))
+
+        assertFalse future.isDone()
+        assertTrue future.set('foo')
+        assertFalse future.set('bar')
+        assertFalse future.setException(new IllegalStateException())
+
+        assertTrue future.isDone()
+        assertFalse future.isCancelled()
+        assertEquals future.get(), 'foo'
+        assertEquals results, ['foo']
+    }
+
+    @Test
+    void testCallbackAddedAfterCompletion() {
+        def future = new SettableFuture<String>()
+        future.set('foo')
+
+        def results = []
+        future.addCallback(new RecordingCallback(results))
+
+        assertEquals results, ['foo']
+    }
+
+    @Test
+    void testSetException() {
+        def future = new SettableFuture<String>()
+        def results = []
+        future.addCallback(new RecordingCallback(results))
+
+        def cause = new IllegalStateException('bad')
+        assertTrue future.setException(cause)
+        assertFalse future.set('foo')
+
+        try {
+            future.get()
+            fail("should have thrown")
+        } catch (ExecutionException e) {
+            assertSame e.getCause(), cause
+        }
+        assertEquals results.size(), 1
+        assertSame results[0], cause
+    }
+
+    @Test
+    void testCancel() {
+        def future = new SettableFuture<String>()
+        def results = []
+        future.addCallback(new RecordingCallback(results))
+
+        assertTrue future.cancel(false)
+        assertTrue future.isCancelled()
+        assertFalse future.set('foo')
+
+        try {
+            future.get()
+            fail("should have thrown")
+        } catch (CancellationException expected) {
+        }
+        assertTrue results[0] instanceof CancellationException
+    }
+
+    @Test(expectedExceptions = TimeoutException)
+    void testGetTimeout() {
+        new SettableFuture<String>().get(10, TimeUnit.MILLISECONDS)
+    }
+
+    @Test
+    void testFailingCallbackDoesNotPreventOthers() {
+        def future = new SettableFuture<String>()
+        def results = []
+        future.addCallback(new FutureCallback<String>() {
+            @Override
+            void onSuccess(String result) {
+                throw new IllegalStateException('callback failure')
+            }
+
+            @Override
+            void onFailure(Throwable t) {
+            }
+        })
+        future.addCallback(new RecordingCallback(results))
+
+        assertTrue future.set('foo')
+        assertEquals results, ['foo']
+    }
+
+    @Test
+    void testGetBlocksUntilSet() {
+        def future = new SettableFuture<String>()
+        Thread.start {
+            Thread.sleep(50)
+            future.set('foo')
+        }
+        assertEquals future.get(5, TimeUnit.SECONDS), 'foo'
+    }
+
+    private static class RecordingCallback implements FutureCallback<String> {
+
+        private final List results
+
+        RecordingCallback(List results) {
+            this.results = results
+        }
+
+        @Override
+        void onSuccess(String result) {
+            results << result
+        }
+
+        @Override
+        void onFailure(Throwable t) {
+            results << t
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Stormpath, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stormpath.sdk.impl.util
+
+import org.testng.annotations.Test
+
+import static org.testng.Assert.*
+
+/**
+ * @since 1.0.RC7.7
+ */
+class SoftHashMapTest {
+
+    @Test
+    void testPutIfAbsent() {
+        def map = new SoftHashMap<String, String>()
+
+        assertNull map.putIfAbsent('key', 'value1')
+        assertEquals map.putIfAbsent('key', 'value2'), 'value1'
+        assertEquals map.get('key'), 'value1'
+    }
+
+    @Test
+    void testConditionalRemove() {
+        def map = new SoftHashMap<String, String>()
+        map.put('key', 'value1')
+
+        assertFalse map.remove('key', 'value2')
+        assertEquals map.get('key'), 'value1'
+
+        assertTrue map.remove('key', 'value1')
+        assertNull map.get('key')
+        assertFalse map.remove('key', 'value1')
+    }
+
+    @Test
+    void testReplace() {
+        def map = new SoftHashMap<String, String>()
+
+        assertNull map.replace('key', 'value1')
+        assertFalse map.containsKey('key')
+
+        map.put('key', 'value1')
+        assertFalse map.replace('key', 'value2', 'value3')
+        assertTrue map.replace('key', 'value1', 'value2')
+        assertEquals map.replace('key', 'value3'), 'value2'
+        assertEquals map.get('key'), 'value3'
+    }
+}